@@ -5,9 +5,15 @@ import javafx.application.Application;
 /**
  * Acts as the entry point for the MemoMax application.
  * This class is used to launch the JavaFX GUI to bypass classpath limitations.
+ * With {@code --cli} or a command to run, e.g. {@code java -jar memomax.jar todo buy milk}, it runs
+ * the command-line version instead, and no JavaFX class is loaded.
  */
 public class Launcher {
     public static void main(String[] args) {
+        if (MemoMax.isHeadless(args)) {
+            MemoMax.main(args);
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
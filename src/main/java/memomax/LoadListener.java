@@ -0,0 +1,19 @@
+package memomax;
+
+/**
+ * Receives progress updates while MemoMax loads tasks in the background.
+ */
+public interface LoadListener {
+    /**
+     * Called after each chunk of tasks has been added to the task list.
+     *
+     * @param loadedCount The number of tasks loaded so far.
+     * @param progress Fraction of the data file read so far, between 0 and 1.
+     */
+    void onProgress(int loadedCount, double progress);
+
+    /**
+     * Called once all tasks have been loaded, or loading has failed.
+     */
+    void onLoadComplete();
+}
@@ -1,25 +1,41 @@
 package memomax;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Objects;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import memomax.exception.MemoMaxException;
 import memomax.gui.MainWindow;
+import memomax.metrics.Metrics;
+import memomax.storage.StorageConfig;
+import memomax.ui.Ui;
 
 /**
  * A GUI for MemoMax using FXML.
+ * Tasks are loaded in the background after the window is shown.
+ * The storage engine is chosen from the application arguments, see {@link StorageConfig}.
  */
 public class Main extends Application {
-
-    private final MemoMax memoMax = new MemoMax();
+    private MemoMax memoMax;
 
     @Override
     public void start(Stage stage) {
+        try {
+            memoMax = new MemoMax(StorageConfig.fromArgs(getParameters().getRaw()).open(), true);
+        } catch (MemoMaxException e) {
+            System.err.println(new Ui().showStorageError(e.getMessage()));
+            Platform.exit();
+            return;
+        }
+
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/view/MainWindow.fxml"));
             AnchorPane ap = fxmlLoader.load();
@@ -30,12 +46,34 @@ public class Main extends Application {
             stage.setMinHeight(600.0);
             stage.setTitle("MemoMax");
             stage.getIcons().add(new Image(Objects.requireNonNull(this.getClass()
-                    .getResourceAsStream("/images/DaMemoMax.png"))));
+                    .getResource("/images/DaMemoMax.png")).toExternalForm(), true));
 
             fxmlLoader.<MainWindow>getController().setMemoMax(memoMax);
             stage.show();
+            reportStartupTime();
+            Metrics.getInstance().startExporters();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (memoMax != null) {
+            memoMax.close();
+        }
+    }
+
+    /**
+     * Prints the time from JVM start until the window accepts input,
+     * when run with {@code -Dmemomax.reportStartup=true}.
+     */
+    private void reportStartupTime() {
+        if (!Boolean.getBoolean("memomax.reportStartup")) {
+            return;
+        }
+        ProcessHandle.current().info().startInstant().ifPresent(startInstant -> System.err.println(
+                "Time to first interaction: "
+                + Duration.between(startInstant, Instant.now()).toMillis() + " ms"));
+    }
 }
@@ -1,16 +1,40 @@
 package memomax;
 
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
+import memomax.exception.InvalidInputException;
 import memomax.exception.MemoMaxException;
+import memomax.metrics.CommandPhase;
+import memomax.metrics.CommandTrace;
+import memomax.metrics.Metrics;
+import memomax.parser.Command;
+import memomax.parser.CommandLexer;
 import memomax.parser.CommandType;
+import memomax.parser.DateParser;
 import memomax.parser.Parser;
 import memomax.storage.Storage;
+import memomax.storage.StorageConfig;
+import memomax.storage.StorageEngine;
+import memomax.storage.TaskArchive;
 import memomax.task.Deadline;
 import memomax.task.Event;
 import memomax.task.Task;
 import memomax.task.Todo;
+import memomax.tasklist.Query;
+import memomax.tasklist.QueryResult;
+import memomax.tasklist.SearchResult;
+import memomax.tasklist.SortKey;
+import memomax.tasklist.TaskChange;
 import memomax.tasklist.TaskList;
+import memomax.tasklist.UndoHistory;
 import memomax.ui.Ui;
 
 /**
@@ -18,36 +42,189 @@ import memomax.ui.Ui;
  * Handles user commands and manages task list.
  */
 public class MemoMax {
-    private static TaskList tasks = new TaskList();
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final int LIST_PAGE_SIZE = 20;
+    private static final String CLI_ARG = "--cli";
+    private static final String OPTION_PREFIX = "--";
+    private static final String TRANSACTION_BROKEN_MESSAGE = "Another program changed your tasks, so the changes "
+            + "since begin were rolled back. End the transaction with: rollback";
     private static final Ui UI = new Ui();
-    private static final Storage STORAGE = new Storage("./data/MemoMax.txt");
 
-    private static boolean isLastResponseError = false;
+    private final StorageEngine storage;
+    private final EnumMap<CommandType, Function<Command, String>> handlers = createHandlers();
+    private final ArrayDeque<Command> pendingCommands = new ArrayDeque<>();
+    private final ResponseCache responseCache = new ResponseCache();
+    private final StorageEngine.ExternalChangeListener externalChangeListener = new ExternalChanges();
+    private final UndoHistory history = new UndoHistory();
+    /** Changes made since begin, saved together at commit; null outside a transaction. */
+    private ArrayList<TaskChange> transaction = null;
+    private boolean isTransactionBroken = false;
+    private TaskList tasks = new TaskList();
+    private CommandTrace trace;
+
+    private boolean isLastResponseError = false;
+    private boolean isLoading = false;
     private String startupError = null;
 
     /**
      * Constructor for MemoMax.
-     * Ensures tasks are loaded from storage immediately upon initialization.
+     * Ensures tasks are loaded from the default text file immediately upon initialization.
      */
     public MemoMax() {
-        loadTasksFromFile();
+        this(new Storage("./data/MemoMax.txt"), false);
+    }
+
+    /**
+     * Creates a MemoMax backed by the given data file.
+     * When loading is deferred, the task list starts empty and is filled by
+     * {@link #loadTasksInBackground(Executor, LoadListener)}.
+     *
+     * @param filePath The path of the data file.
+     * @param isLoadingDeferred Whether loading should wait for a background load.
+     */
+    public MemoMax(String filePath, boolean isLoadingDeferred) {
+        this(new Storage(filePath), isLoadingDeferred);
+    }
+
+    /**
+     * Creates a MemoMax backed by the given storage engine.
+     *
+     * @param storage The storage engine holding the tasks.
+     * @param isLoadingDeferred Whether loading should wait for a background load.
+     */
+    public MemoMax(StorageEngine storage, boolean isLoadingDeferred) {
+        assert storage != null : "Storage engine should not be null";
+        this.storage = storage;
+        if (isLoadingDeferred) {
+            isLoading = true;
+        } else {
+            loadTasksFromFile();
+        }
     }
 
     /**
      * Main entry point for the chatbot.
+     * Options come first; the arguments from the first one that is not an option form a single
+     * command, e.g. {@code find --all book}, which is run once without the welcome and goodbye
+     * messages; the exit status is 1 if it fails.
      *
-     * @param args Command line arguments
+     * @param args Command line arguments choosing the storage engine, see {@link StorageConfig},
+     *     optionally followed by a command to run.
      */
     public static void main(String[] args) {
+        int optionCount = countLeadingOptions(args);
+        ArrayList<String> options = new ArrayList<>();
+        for (int i = 0; i < optionCount; i++) {
+            if (!args[i].equals(CLI_ARG)) {
+                options.add(args[i]);
+            }
+        }
+        List<String> commandWords = Arrays.asList(args).subList(optionCount, args.length);
+
+        StorageEngine storage;
+        try {
+            storage = StorageConfig.fromArgs(options).open();
+        } catch (MemoMaxException e) {
+            System.err.println(UI.showStorageError(e.getMessage()));
+            if (!commandWords.isEmpty()) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (!commandWords.isEmpty()) {
+            boolean isSuccessful = runOnce(storage, String.join(" ", commandWords));
+            if (!isSuccessful) {
+                System.exit(1);
+            }
+            return;
+        }
+
         String welcomeMessage = UI.showWelcome();
-        System.out.println(welcomeMessage);
+        UI.print(welcomeMessage);
+        UI.flush();
 
-        MemoMax bot = new MemoMax();
+        MemoMax bot = new MemoMax(storage, false);
+        Metrics.getInstance().startExporters();
 
-        runChatbotLoop(bot);
+        try {
+            runChatbotLoop(bot);
+            bot.close();
 
-        String goodbyeMessage = UI.showGoodbye();
-        System.out.println(goodbyeMessage);
+            String goodbyeMessage = UI.showGoodbye();
+            UI.print(goodbyeMessage);
+        } finally {
+            UI.flush();
+        }
+    }
+
+    /**
+     * Returns whether the arguments ask for the command-line version rather than the GUI: either
+     * {@value #CLI_ARG} is among the options or a command to run follows them.
+     *
+     * @param args The command line arguments.
+     * @return true if MemoMax should run without JavaFX.
+     */
+    public static boolean isHeadless(String[] args) {
+        int optionCount = countLeadingOptions(args);
+        for (int i = 0; i < optionCount; i++) {
+            if (args[i].equals(CLI_ARG)) {
+                return true;
+            }
+        }
+        return optionCount < args.length;
+    }
+
+    /**
+     * Counts the options at the start of the arguments, so that words of the command after them,
+     * such as {@code --all}, are not taken for options.
+     *
+     * @param args The command line arguments.
+     * @return The index of the first argument that is not an option.
+     */
+    private static int countLeadingOptions(String[] args) {
+        int count = 0;
+        while (count < args.length && args[count].startsWith(OPTION_PREFIX)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Runs a single command and prints its response. Tasks are only loaded if the command uses them.
+     *
+     * @param storage The storage engine holding the tasks; closed afterwards.
+     * @param input The command.
+     * @return false if loading the tasks or the command failed.
+     */
+    private static boolean runOnce(StorageEngine storage, String input) {
+        MemoMax bot = new MemoMax(storage, true);
+        Command command = CommandLexer.lex(input);
+        if (command.getType().isUsingTasks()) {
+            bot.loadTasksFromFile();
+        }
+        bot.isLoading = false;
+
+        CommandTrace commandTrace = bot.startTrace();
+        System.out.print(bot.respond(command, commandTrace));
+        bot.close();
+        return bot.startupError == null && !bot.isLastResponseError;
+    }
+
+    /**
+     * Flushes and closes the storage engine. Called once when MemoMax shuts down.
+     * Changes of a transaction left open are not saved, so how many were dropped is reported.
+     */
+    public void close() {
+        if (transaction != null && !transaction.isEmpty()) {
+            System.err.println(UI.showUnsavedChangesDropped(transaction.size()));
+            transaction = null;
+        }
+        try {
+            storage.close();
+        } catch (MemoMaxException e) {
+            System.err.println(UI.showStorageError("Failed to close storage: " + e.getMessage()));
+        }
     }
 
     /**
@@ -74,6 +251,73 @@ public class MemoMax {
         return isLastResponseError;
     }
 
+    /**
+     * Returns whether changes made since {@code begin} are waiting for {@code commit} or
+     * {@code rollback}, so {@code bye} is refused.
+     * @return true while a transaction is open.
+     */
+    public boolean hasOpenTransaction() {
+        return transaction != null;
+    }
+
+    /**
+     * Returns whether tasks are still being loaded in the background.
+     * @return true while a background load is in progress.
+     */
+    public boolean isLoading() {
+        return isLoading;
+    }
+
+    /**
+     * Streams tasks from storage on a background thread.
+     * Each chunk is appended to the task list on {@code uiExecutor}, so the task list is only
+     * ever touched by the thread that also calls {@link #getResponse(String)}.
+     *
+     * @param uiExecutor Executor running on the thread that owns this MemoMax.
+     * @param listener Listener notified of loading progress and completion on {@code uiExecutor}.
+     */
+    public void loadTasksInBackground(Executor uiExecutor, LoadListener listener) {
+        assert isLoading : "Background loading requires a MemoMax created with deferred loading";
+        Thread loader = new Thread(() -> {
+            String loadError = null;
+            try {
+                storage.loadInChunks(LOAD_CHUNK_SIZE, (chunk, progress) -> uiExecutor.execute(() -> {
+                    tasks.addLoadedTasks(chunk);
+                    listener.onProgress(tasks.size(), progress);
+                }));
+            } catch (MemoMaxException e) {
+                loadError = UI.showStorageError(e.getMessage());
+                System.err.println(loadError);
+            }
+            String error = loadError;
+            uiExecutor.execute(() -> {
+                startupError = error;
+                isLoading = false;
+                listener.onLoadComplete();
+            });
+        }, "memomax-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Returns whether commands queued during loading are waiting to run.
+     * @return true if there are queued commands and loading has finished.
+     */
+    public boolean hasPendingCommands() {
+        return !isLoading && !pendingCommands.isEmpty();
+    }
+
+    /**
+     * Runs the oldest command queued while tasks were loading.
+     *
+     * @return The response to the queued command.
+     */
+    public String runNextPendingCommand() {
+        assert hasPendingCommands() : "No pending commands to run";
+        return respond(pendingCommands.poll(), startTrace());
+    }
+
     /**
      * Processes user input and returns MemoMax's response for the GUI.
      * This method acts as a bridge for Level-10 integration.
@@ -83,103 +327,141 @@ public class MemoMax {
      */
     public String getResponse(String input) {
         assert input != null : "Input string to getResponse should not be null";
+        CommandTrace commandTrace = startTrace();
+        return respond(CommandLexer.lex(input), commandTrace);
+    }
+
+    /**
+     * Dispatches a lexed command to its handler and returns the response.
+     * While tasks are loading, commands that modify the list are queued until loading finishes.
+     * Otherwise, changes other programs made to the stored tasks are merged in before the command runs.
+     *
+     * @param command The lexed command.
+     * @param commandTrace The trace started before the command was lexed.
+     * @return The response message from MemoMax.
+     */
+    private String respond(Command command, CommandTrace commandTrace) {
         isLastResponseError = false;
-        if (tasks == null) {
-            loadTasksFromFile();
+        trace = commandTrace;
+        trace.setCommand(command);
+
+        if (isLoading && command.getType().isMutating()) {
+            pendingCommands.add(command);
+            trace.finish(false);
+            return UI.showCommandQueued(tasks.size());
         }
 
+        long startNanos = System.nanoTime();
+        String response;
         try {
-            String sanitizedInput = input.trim();
-            String[] inputParts = sanitizedInput.split("\\s+");
-            assert inputParts.length > 0 : "Input should contain at least one word";
-            CommandType commandType = CommandType.parseCommand(inputParts[0]);
-
-            switch (commandType) {
-            case BYE:
-                return UI.showGoodbye();
-            case LIST:
-                return handleList();
-            case MARK:
-                return handleMark(inputParts);
-            case UNMARK:
-                return handleUnmark(inputParts);
-            case DELETE:
-                return handleDelete(inputParts);
-            case TODO:
-                return handleTodo(sanitizedInput);
-            case DEADLINE:
-                return handleDeadline(sanitizedInput);
-            case EVENT:
-                return handleEvent(sanitizedInput);
-            case HELP:
-                return handleHelp(inputParts);
-            case FIND:
-                return handleFind(sanitizedInput);
-            case UPDATE:
-                return handleUpdate(sanitizedInput);
-            default:
-                return handleUnknownCommand();
+            if (!isLoading) {
+                storage.beginCommand(command.getType().isMutating(), externalChangeListener);
+            }
+            try {
+                checkTransactionAllows(command.getType());
+                response = respondFromCache(command);
+            } finally {
+                if (!isLoading) {
+                    storage.endCommand();
+                }
             }
         } catch (Exception e) {
             isLastResponseError = true;
-            return UI.showErrorMessage(e.getMessage());
+            response = UI.showErrorMessage(e.getMessage());
         }
+        Metrics.getInstance().recordCommand(command.getType(), System.nanoTime() - startNanos, isLastResponseError);
+        trace.finish(isLastResponseError);
+        return response;
+    }
+
+    /**
+     * Runs the command's handler, or returns its cached response if it is a read-only command that
+     * already ran on this version of the task list. Error responses are not cached.
+     *
+     * @param command The lexed command.
+     * @return The response message from MemoMax.
+     */
+    private String respondFromCache(Command command) {
+        Function<Command, String> handler = handlers.get(command.getType());
+        if (!ResponseCache.isCacheable(command)) {
+            return handler.apply(command);
+        }
+        long version = tasks.getVersion();
+        String response = responseCache.get(command, version);
+        if (response != null) {
+            trace.enter(CommandPhase.RENDER);
+            return response;
+        }
+        response = handler.apply(command);
+        if (!isLastResponseError) {
+            responseCache.put(command, version, response);
+        }
+        return response;
+    }
+
+    /**
+     * Starts a Flight Recorder trace for the next command, beginning with its lexing phase.
+     *
+     * @return The new trace.
+     */
+    private CommandTrace startTrace() {
+        CommandTrace commandTrace = new CommandTrace(() -> tasks.size());
+        commandTrace.enter(CommandPhase.LEX);
+        return commandTrace;
     }
 
     /**
-     * Runs the main chatbot loop to process user commands.
+     * Builds the dispatch table mapping each command type to its handler.
+     *
+     * @return The handler table used by both the GUI and the CLI loop.
+     */
+    private EnumMap<CommandType, Function<Command, String>> createHandlers() {
+        EnumMap<CommandType, Function<Command, String>> table = new EnumMap<>(CommandType.class);
+        table.put(CommandType.BYE, this::handleBye);
+        table.put(CommandType.LIST, this::handleList);
+        table.put(CommandType.MARK, this::handleMark);
+        table.put(CommandType.UNMARK, this::handleUnmark);
+        table.put(CommandType.DELETE, this::handleDelete);
+        table.put(CommandType.TODO, this::handleTodo);
+        table.put(CommandType.DEADLINE, this::handleDeadline);
+        table.put(CommandType.EVENT, this::handleEvent);
+        table.put(CommandType.HELP, this::handleHelp);
+        table.put(CommandType.FIND, this::handleFind);
+        table.put(CommandType.SEARCH, this::handleSearch);
+        table.put(CommandType.QUERY, this::handleQuery);
+        table.put(CommandType.SORT, this::handleSort);
+        table.put(CommandType.UPDATE, this::handleUpdate);
+        table.put(CommandType.STATS, this::handleStats);
+        table.put(CommandType.PROGRESS, this::handleProgress);
+        table.put(CommandType.ARCHIVE, this::handleArchive);
+        table.put(CommandType.UNDO, command -> handleUndoRedo(command, true));
+        table.put(CommandType.REDO, command -> handleUndoRedo(command, false));
+        table.put(CommandType.BEGIN, this::handleBegin);
+        table.put(CommandType.COMMIT, this::handleCommit);
+        table.put(CommandType.ROLLBACK, this::handleRollback);
+        table.put(CommandType.BATCH, this::handleBatch);
+        table.put(CommandType.UNKNOWN, command -> handleUnknownCommand());
+        assert table.size() == CommandType.values().length : "Every command type needs a handler";
+        return table;
+    }
+
+    /**
+     * Runs the main chatbot loop to process user commands, until {@code bye} or the end of the input.
      * @param bot The MemoMax instance to use.
      */
     private static void runChatbotLoop(MemoMax bot) {
         while (true) {
             String userInput = UI.readCommand();
-            assert userInput != null : "UI readCommand should not return null";
-
-            String sanitizedInput = userInput.trim();
-            String[] inputParts = sanitizedInput.split("\\s+");
-            CommandType commandType = CommandType.parseCommand(inputParts[0]);
-
-            switch (commandType) {
-            case BYE:
-                break;
-            case LIST:
-                bot.handleList();
-                break;
-            case MARK:
-                bot.handleMark(inputParts);
-                break;
-            case UNMARK:
-                bot.handleUnmark(inputParts);
-                break;
-            case DELETE:
-                bot.handleDelete(inputParts);
-                break;
-            case TODO:
-                bot.handleTodo(sanitizedInput);
-                break;
-            case DEADLINE:
-                bot.handleDeadline(sanitizedInput);
-                break;
-            case EVENT:
-                bot.handleEvent(sanitizedInput);
-                break;
-            case HELP:
-                bot.handleHelp(inputParts);
-                break;
-            case FIND:
-                bot.handleFind(sanitizedInput);
-                break;
-            case UPDATE:
-                bot.handleUpdate(sanitizedInput);
-                break;
-            default:
-                bot.handleUnknownCommand();
+            if (userInput == null) {
                 break;
             }
 
-            if (commandType == CommandType.BYE) {
+            CommandTrace commandTrace = bot.startTrace();
+            Command command = CommandLexer.lex(userInput);
+            if (command.getType() == CommandType.BYE && !bot.hasOpenTransaction()) {
                 break;
             }
+            UI.print(bot.respond(command, commandTrace));
         }
     }
 
@@ -188,8 +470,8 @@ public class MemoMax {
      */
     private void loadTasksFromFile() {
         try {
-            ArrayList<Task> loadedTasks = STORAGE.load();
-            assert loadedTasks != null : "STORAGE.load() should return a list, even if empty";
+            ArrayList<Task> loadedTasks = storage.load();
+            assert loadedTasks != null : "storage.load() should return a list, even if empty";
             tasks = new TaskList(loadedTasks);
         } catch (MemoMaxException e) {
             this.startupError = UI.showStorageError(e.getMessage());
@@ -199,12 +481,19 @@ public class MemoMax {
     }
 
     /**
-     * Saves tasks from memory to storage file.
+     * Writes a change to the task list through the storage engine.
+     * Inside a transaction nothing is written; the whole list is saved at commit instead.
+     *
+     * @param change The storage engine call recording the change.
      */
-    private static void saveTasksToFile() {
+    private void saveTasksToFile(StorageChange change) {
         assert tasks != null : "Task list must exist to be saved";
+        if (transaction != null) {
+            return;
+        }
+        trace.enter(CommandPhase.SAVE);
         try {
-            STORAGE.save(tasks.getAllTasks());
+            change.apply();
         } catch (MemoMaxException e) {
             String storageErrorMessage = UI.showStorageError("Failed to save tasks: " + e.getMessage());
             System.err.println(storageErrorMessage);
@@ -212,119 +501,265 @@ public class MemoMax {
     }
 
     /**
-     * Displays all tasks in the list.
+     * Displays all tasks in the list, or one page of it.
+     * Inside a transaction the stored tasks lack its unsaved changes, so pages are read from memory.
+     *
+     * @param command The lexed list command
      */
-    private String handleList() {
+    private String handleList(Command command) {
         assert tasks != null : "Task list must be initialized to display";
-        String listOutput = UI.showTaskList(tasks.getAllTasks(), tasks.isEmpty());
-        System.out.println(listOutput);
-        return listOutput;
+        try {
+            trace.enter(CommandPhase.PARSE);
+            int page = Parser.parseListPage(command);
+            if (page == 0) {
+                trace.enter(CommandPhase.TASK_LIST);
+                ArrayList<Task> allTasks = tasks.getAllTasks();
+                trace.enter(CommandPhase.RENDER);
+                return UI.showTaskList(allTasks, tasks.isEmpty());
+            }
+
+            trace.enter(CommandPhase.TASK_LIST);
+            int pageCount = Math.max(1, (tasks.size() + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE);
+            if (page > pageCount) {
+                throw new InvalidInputException("Page " + page + " does not exist! There are "
+                        + pageCount + " page(s) in your list.");
+            }
+            int fromIndex = (page - 1) * LIST_PAGE_SIZE;
+            int toIndex = Math.min(tasks.size(), fromIndex + LIST_PAGE_SIZE);
+            List<Task> pageTasks = transaction == null ? storage.readPage(fromIndex, LIST_PAGE_SIZE) : null;
+            if (pageTasks == null || pageTasks.size() != toIndex - fromIndex) {
+                pageTasks = tasks.asList().subList(fromIndex, toIndex);
+            }
+            trace.enter(CommandPhase.RENDER);
+            return UI.showTaskPage(pageTasks, fromIndex, page, pageCount, tasks.size());
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            return UI.showErrorMessage(e.getMessage());
+        }
     }
 
     /**
      * Marks a task as done.
      *
-     * @param inputParts The split input parts
+     * @param command The lexed mark command
      */
-    private String handleMark(String[] inputParts) {
-        assert inputParts != null && inputParts.length >= 1 : "Input parts must be valid";
+    private String handleMark(Command command) {
         String response;
         try {
-            int taskNumber = Parser.parseTaskNumber(inputParts, "mark");
+            trace.enter(CommandPhase.PARSE);
+            int taskNumber = Parser.parseTaskNumber(command);
             int index = taskNumber - 1;
 
+            trace.enter(CommandPhase.TASK_LIST);
             tasks.mark(index);
+            recordChange(TaskChange.doneChanged(index, tasks.get(index)));
+            trace.enter(CommandPhase.RENDER);
             response = UI.showTaskMarked(tasks.get(index));
-            saveTasksToFile();
+            saveTasksToFile(() -> storage.taskUpdated(index, tasks.get(index), tasks.asList()));
         } catch (MemoMaxException e) {
             isLastResponseError = true;
             response = UI.showErrorMessage(e.getMessage());
         }
-        System.out.println(response);
         return response;
     }
 
     /**
      * Marks a task as not done.
      *
-     * @param inputParts The split input parts
+     * @param command The lexed unmark command
      */
-    private String handleUnmark(String[] inputParts) {
-        assert inputParts != null && inputParts.length >= 1 : "Input parts must be valid";
+    private String handleUnmark(Command command) {
         String response;
         try {
-            int taskNumber = Parser.parseTaskNumber(inputParts, "unmark");
+            trace.enter(CommandPhase.PARSE);
+            int taskNumber = Parser.parseTaskNumber(command);
             int index = taskNumber - 1;
 
+            trace.enter(CommandPhase.TASK_LIST);
             tasks.unmark(index);
+            recordChange(TaskChange.doneChanged(index, tasks.get(index)));
+            trace.enter(CommandPhase.RENDER);
             response = UI.showTaskUnmarked(tasks.get(index));
-            saveTasksToFile();
+            saveTasksToFile(() -> storage.taskUpdated(index, tasks.get(index), tasks.asList()));
         } catch (MemoMaxException e) {
             isLastResponseError = true;
             response = UI.showErrorMessage(e.getMessage());
         }
-        System.out.println(response);
         return response;
     }
 
     /**
      * Deletes a task from the list.
      *
-     * @param inputParts The split input parts
+     * @param command The lexed delete command
      */
-    private String handleDelete(String[] inputParts) {
-        assert inputParts != null && inputParts.length >= 1 : "Input parts must be valid";
+    private String handleDelete(Command command) {
         String response;
         try {
-            int taskNumber = Parser.parseTaskNumber(inputParts, "delete");
+            trace.enter(CommandPhase.PARSE);
+            int taskNumber = Parser.parseTaskNumber(command);
             int index = taskNumber - 1;
+            trace.enter(CommandPhase.TASK_LIST);
             Task taskToRemove = tasks.get(index);
             tasks.delete(index);
+            recordChange(TaskChange.deleted(index, taskToRemove));
 
+            trace.enter(CommandPhase.RENDER);
             response = UI.showTaskDeleted(taskToRemove, tasks.size());
-            saveTasksToFile();
+            saveTasksToFile(() -> storage.taskDeleted(index, taskToRemove, tasks.asList()));
         } catch (MemoMaxException e) {
             isLastResponseError = true;
             response = UI.showErrorMessage(e.getMessage());
         }
-        System.out.println(response);
         return response;
     }
 
     /**
      * Finds tasks containing the search keyword.
+     * Inside a transaction the stored tasks lack its unsaved changes, so only the list is searched.
+     *
+     * @param command The lexed find command
+     */
+    private String handleFind(Command command) {
+        String response;
+        try {
+            trace.enter(CommandPhase.PARSE);
+            String keyword = Parser.parseFind(command);
+            trace.enter(CommandPhase.TASK_LIST);
+            int[] matchingIndices = transaction == null ? storage.findMatchingIndices(keyword) : null;
+            if (matchingIndices == null || !isInRange(matchingIndices)) {
+                matchingIndices = tasks.findMatchingIndices(keyword);
+            }
+            ArrayList<Task> matchingTasks = new ArrayList<>(matchingIndices.length);
+            for (int index : matchingIndices) {
+                matchingTasks.add(tasks.get(index));
+            }
+            if (Parser.isFindingAll(command)) {
+                ArrayList<Task> archivedTasks = getArchive().findTasks(keyword);
+                trace.enter(CommandPhase.RENDER);
+                response = UI.showFindResults(matchingTasks, matchingIndices, archivedTasks, keyword);
+            } else {
+                trace.enter(CommandPhase.RENDER);
+                response = UI.showFindResults(matchingTasks, matchingIndices, keyword);
+            }
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            response = UI.showErrorMessage(e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Finds the tasks best matching the query words, allowing typos, and shows the best page of them.
      *
-     * @param userInput The user input string.
+     * @param command The lexed search command
      */
-    private String handleFind(String userInput) {
-        assert userInput != null : "Find input should not be null";
+    private String handleSearch(Command command) {
         String response;
         try {
-            String keyword = Parser.parseFind(userInput);
-            ArrayList<Task> matchingTasks = tasks.findTasks(keyword);
-            int[] matchingIndices = tasks.findMatchingIndices(keyword);
-            response = UI.showFindResults(matchingTasks, matchingIndices, keyword);
+            trace.enter(CommandPhase.PARSE);
+            String query = Parser.parseSearch(command);
+            trace.enter(CommandPhase.TASK_LIST);
+            SearchResult result = tasks.search(query, LIST_PAGE_SIZE);
+            int[] indices = result.getIndices();
+            ArrayList<Task> matchingTasks = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                matchingTasks.add(tasks.get(index));
+            }
+            trace.enter(CommandPhase.RENDER);
+            response = UI.showSearchResults(matchingTasks, indices, result.getMatchCount(), query);
         } catch (MemoMaxException e) {
             isLastResponseError = true;
             response = UI.showErrorMessage(e.getMessage());
         }
-        System.out.println(response);
         return response;
     }
 
+    /**
+     * Finds the tasks matching the conditions of a query.
+     *
+     * @param command The lexed query command
+     */
+    private String handleQuery(Command command) {
+        String response;
+        try {
+            trace.enter(CommandPhase.PARSE);
+            Query query = Parser.parseQuery(command);
+            trace.enter(CommandPhase.TASK_LIST);
+            QueryResult result = tasks.query(query);
+            int[] indices = result.getIndices();
+            ArrayList<Task> matchingTasks = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                matchingTasks.add(tasks.get(index));
+            }
+            trace.enter(CommandPhase.RENDER);
+            response = UI.showQueryResults(matchingTasks, indices, command.getArguments());
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            response = UI.showErrorMessage(e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Displays all tasks, or one page of them, sorted in an order.
+     *
+     * @param command The lexed sort command
+     */
+    private String handleSort(Command command) {
+        try {
+            trace.enter(CommandPhase.PARSE);
+            SortKey key = Parser.parseSortKey(command);
+            int page = Parser.parseSortPage(command);
+
+            trace.enter(CommandPhase.TASK_LIST);
+            int pageCount = Math.max(1, (tasks.size() + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE);
+            if (page > pageCount) {
+                throw new InvalidInputException("Page " + page + " does not exist! There are "
+                        + pageCount + " page(s) in your list.");
+            }
+            int[] indices = page == 0
+                    ? tasks.getSortedIndices(key, 0, tasks.size())
+                    : tasks.getSortedIndices(key, (page - 1) * LIST_PAGE_SIZE, LIST_PAGE_SIZE);
+            ArrayList<Task> sortedTasks = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                sortedTasks.add(tasks.get(index));
+            }
+            trace.enter(CommandPhase.RENDER);
+            return UI.showSortedTasks(sortedTasks, indices, key.name().toLowerCase(Locale.ROOT), page, pageCount,
+                    tasks.size());
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            return UI.showErrorMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * Checks that indices reported by the storage engine all refer to tasks in the list.
+     */
+    private boolean isInRange(int[] indices) {
+        for (int index : indices) {
+            if (index < 0 || index >= tasks.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Updates an existing task's description.
      *
-     * @param userInput The raw user input string.
+     * @param command The lexed update command
      */
-    private String handleUpdate(String userInput) {
-        assert userInput != null : "Update input should not be null";
+    private String handleUpdate(Command command) {
         String response;
         try {
-            String[] parsed = Parser.parseUpdate(userInput);
-            int index = Integer.parseInt(parsed[0]) - 1;
+            trace.enter(CommandPhase.PARSE);
+            String[] parsed = Parser.parseUpdate(command);
+            int index = Parser.parseUpdateNumber(parsed[0]) - 1;
             String newDescription = parsed[1];
 
+            trace.enter(CommandPhase.TASK_LIST);
             Task oldTask = tasks.get(index);
             Task updatedTask;
 
@@ -336,123 +771,503 @@ public class MemoMax {
                 updatedTask = new Todo(newDescription);
             }
 
-            if (oldTask.getStatusIcon().equals("[X]")) {
+            if (oldTask.isDone()) {
                 updatedTask.mark();
             }
 
             tasks.update(index, updatedTask);
+            recordChange(TaskChange.replaced(index, oldTask, updatedTask));
+            trace.enter(CommandPhase.RENDER);
             response = UI.showTaskUpdated(updatedTask);
-            saveTasksToFile();
-        } catch (MemoMaxException | NumberFormatException e) {
+            saveTasksToFile(() -> storage.taskUpdated(index, updatedTask, tasks.asList()));
+        } catch (MemoMaxException e) {
             isLastResponseError = true;
             response = UI.showErrorMessage(e.getMessage());
         }
-        System.out.println(response);
         return response;
     }
 
     /**
      * Adds a new todo task.
      *
-     * @param userInput The user input string
+     * @param command The lexed todo command
      */
-    private String handleTodo(String userInput) {
-        assert userInput != null : "Todo input should not be null";
+    private String handleTodo(Command command) {
         String response;
         try {
-            String description = Parser.parseTodo(userInput);
+            trace.enter(CommandPhase.PARSE);
+            String description = Parser.parseTodo(command);
             Task newTask = new Todo(description);
+            trace.enter(CommandPhase.TASK_LIST);
             tasks.add(newTask);
+            recordChange(TaskChange.added(tasks.size() - 1, newTask));
 
+            trace.enter(CommandPhase.RENDER);
             response = UI.showTasksAdded(newTask, tasks.size());
-            saveTasksToFile();
+            saveTasksToFile(() -> storage.taskAdded(tasks.size() - 1, newTask, tasks.asList()));
         } catch (MemoMaxException e) {
             isLastResponseError = true;
             response = UI.showErrorMessage(e.getMessage());
         }
-        System.out.println(response);
         return response;
     }
 
     /**
      * Adds a new deadline task.
      *
-     * @param userInput The user input string
+     * @param command The lexed deadline command
      */
-    private String handleDeadline(String userInput) {
-        assert userInput != null : "Deadline input should not be null";
+    private String handleDeadline(Command command) {
         String response;
         try {
-            String[] parsed = Parser.parseDeadline(userInput);
+            trace.enter(CommandPhase.PARSE);
+            String[] parsed = Parser.parseDeadline(command);
             String taskDescription = parsed[0];
-            String date = parsed[1];
-            Task newTask = new Deadline(taskDescription, date);
+            long by = Parser.parseDateTime(parsed[1]);
+            Task newTask = new Deadline(taskDescription, by);
+            trace.enter(CommandPhase.TASK_LIST);
             tasks.add(newTask);
+            recordChange(TaskChange.added(tasks.size() - 1, newTask));
+            trace.enter(CommandPhase.RENDER);
             response = UI.showTasksAdded(newTask, tasks.size());
-            saveTasksToFile();
+            saveTasksToFile(() -> storage.taskAdded(tasks.size() - 1, newTask, tasks.asList()));
         } catch (MemoMaxException e) {
             isLastResponseError = true;
             response = UI.showErrorMessage(e.getMessage());
         }
-        System.out.println(response);
         return response;
     }
 
     /**
      * Adds a new event task.
      *
-     * @param userInput The user input string
+     * @param command The lexed event command
      */
-    private String handleEvent(String userInput) {
-        assert userInput != null : "Event input should not be null";
+    private String handleEvent(Command command) {
         String response;
         try {
-            String[] parsed = Parser.parseEvent(userInput);
+            trace.enter(CommandPhase.PARSE);
+            String[] parsed = Parser.parseEvent(command);
             String event = parsed[0];
-            String from = parsed[1];
-            String to = parsed[2];
+            long from = Parser.parseDateTime(parsed[1]);
+            long to = Parser.parseDateTime(parsed[2]);
 
-            if (from.compareTo(to) > 0) {
-                throw new MemoMaxException("Start time cannot be after end time!");
+            if (from > to) {
+                throw new InvalidInputException("Start time cannot be after end time!");
             }
 
             Task newTask = new Event(event, from, to);
+            trace.enter(CommandPhase.TASK_LIST);
             tasks.add(newTask);
+            recordChange(TaskChange.added(tasks.size() - 1, newTask));
+            trace.enter(CommandPhase.RENDER);
             response = UI.showTasksAdded(newTask, tasks.size());
-            saveTasksToFile();
+            saveTasksToFile(() -> storage.taskAdded(tasks.size() - 1, newTask, tasks.asList()));
         } catch (MemoMaxException e) {
             isLastResponseError = true;
             response = UI.showErrorMessage(e.getMessage());
         }
-        System.out.println(response);
         return response;
     }
 
     /**
      * Displays help information.
      *
-     * @param inputParts The split input parts
+     * @param command The lexed help command
      */
-    private String handleHelp(String[] inputParts) {
-        assert inputParts != null : "Help input parts should not be null";
+    private String handleHelp(Command command) {
+        trace.enter(CommandPhase.RENDER);
         String response;
-        if (inputParts.length != 1) {
+        if (command.hasArguments()) {
             isLastResponseError = true;
             response = UI.showUnknownCommand();
         } else {
             response = UI.showHelp();
         }
-        System.out.println(response);
         return response;
     }
 
+    /**
+     * Displays command and storage performance statistics.
+     *
+     * @param command The lexed stats command
+     */
+    private String handleStats(Command command) {
+        if (command.hasArguments()) {
+            return handleUnknownCommand();
+        }
+        trace.enter(CommandPhase.TASK_LIST);
+        int overdueCount = tasks.getCounts().getOverdueCount(DateParser.toEpochMinute(LocalDateTime.now()));
+        trace.enter(CommandPhase.RENDER);
+        return UI.showStats(tasks.getCounts(), overdueCount, Metrics.getInstance().getSummaryLines());
+    }
+
+    /**
+     * Moves the done tasks meeting the command's conditions out of the list and into the archive.
+     * The tasks are written to the archive before the list is saved without them, so a failure in
+     * between leaves them in both rather than in neither.
+     *
+     * @param command The lexed archive command
+     */
+    private String handleArchive(Command command) {
+        try {
+            trace.enter(CommandPhase.PARSE);
+            Query query = Parser.parseArchive(command);
+
+            trace.enter(CommandPhase.TASK_LIST);
+            TaskArchive archive = getArchive();
+            int[] indices = tasks.query(query).getIndices();
+            if (indices.length == 0) {
+                trace.enter(CommandPhase.RENDER);
+                return UI.showTasksArchived(0, tasks.size());
+            }
+            int fromIndex = indices[0];
+            int toIndex = indices[indices.length - 1] + 1;
+            ArrayList<Task> archivedTasks = new ArrayList<>(indices.length);
+            ArrayList<Task> keptTasks = new ArrayList<>(toIndex - fromIndex - indices.length);
+            int next = 0;
+            for (int i = fromIndex; i < toIndex; i++) {
+                if (i == indices[next]) {
+                    archivedTasks.add(tasks.get(i));
+                    next++;
+                } else {
+                    keptTasks.add(tasks.get(i));
+                }
+            }
+
+            trace.enter(CommandPhase.SAVE);
+            archive.append(archivedTasks);
+            trace.enter(CommandPhase.TASK_LIST);
+            tasks.replaceRange(fromIndex, toIndex - fromIndex, keptTasks);
+            history.clear();
+            saveTasksToFile(() -> storage.save(tasks.asList()));
+            trace.enter(CommandPhase.RENDER);
+            return UI.showTasksArchived(archivedTasks.size(), tasks.size());
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            return UI.showErrorMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the archive of the storage engine.
+     *
+     * @throws MemoMaxException If the engine keeps no archive.
+     */
+    private TaskArchive getArchive() throws MemoMaxException {
+        TaskArchive archive = storage.getArchive();
+        if (archive == null) {
+            throw new InvalidInputException("This storage engine cannot archive tasks.");
+        }
+        return archive;
+    }
+
+    /**
+     * Handles the progress command, counting the done tasks in the list or in a range of it.
+     */
+    private String handleProgress(Command command) {
+        try {
+            trace.enter(CommandPhase.PARSE);
+            int[] range = Parser.parseProgressRange(command);
+
+            trace.enter(CommandPhase.TASK_LIST);
+            int first = range.length == 0 ? 1 : range[0];
+            int last = range.length == 0 ? tasks.size() : range[1];
+            if (last > tasks.size()) {
+                throw new InvalidInputException("Task " + last + " does not exist!");
+            }
+            int doneCount = range.length == 0
+                    ? tasks.getCounts().getDoneCount()
+                    : tasks.countDone(first - 1, last);
+            trace.enter(CommandPhase.RENDER);
+            return UI.showProgress(first, last, doneCount);
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            return UI.showErrorMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * Reverses the most recent change, or makes the most recently undone change again, and saves
+     * just that change through the storage engine.
+     *
+     * @param command The lexed undo or redo command
+     * @param isUndo Whether to undo rather than redo.
+     */
+    private String handleUndoRedo(Command command, boolean isUndo) {
+        if (command.hasArguments()) {
+            return handleUnknownCommand();
+        }
+        trace.enter(CommandPhase.TASK_LIST);
+        TaskChange recorded = isUndo ? history.undo() : history.redo();
+        if (recorded == null) {
+            trace.enter(CommandPhase.RENDER);
+            return UI.showNothingToUndo(isUndo);
+        }
+        TaskChange change = isUndo ? recorded.inverse() : recorded;
+        try {
+            change.applyTo(tasks);
+        } catch (MemoMaxException e) {
+            history.clear();
+            isLastResponseError = true;
+            return UI.showErrorMessage(e.getMessage());
+        }
+        trace.enter(CommandPhase.RENDER);
+        String response = UI.showChangeUndone(change, isUndo, tasks.size());
+        int index = change.getIndex();
+        switch (change.getKind()) {
+        case ADDED:
+            saveTasksToFile(() -> storage.taskAdded(index, change.getTask(), tasks.asList()));
+            break;
+        case DELETED:
+            saveTasksToFile(() -> storage.taskDeleted(index, change.getTask(), tasks.asList()));
+            break;
+        default:
+            saveTasksToFile(() -> storage.taskUpdated(index, change.getTask(), tasks.asList()));
+            break;
+        }
+        return response;
+    }
+
+    /**
+     * Says goodbye, unless a transaction is open: its changes would be lost, so the user is asked
+     * to commit or roll them back first.
+     *
+     * @param command The lexed bye command
+     */
+    private String handleBye(Command command) {
+        if (transaction != null) {
+            isLastResponseError = true;
+            return UI.showUnsavedChanges(transaction.size());
+        }
+        return UI.showGoodbye();
+    }
+
+    /**
+     * Starts holding changes to single tasks in memory, to be saved together at commit.
+     *
+     * @param command The lexed begin command
+     */
+    private String handleBegin(Command command) {
+        if (command.hasArguments()) {
+            return handleUnknownCommand();
+        }
+        transaction = new ArrayList<>();
+        isTransactionBroken = false;
+        trace.enter(CommandPhase.RENDER);
+        return UI.showTransactionBegun();
+    }
+
+    /**
+     * Saves the changes made since begin with a single save, or reverses them all if it fails.
+     * A transaction broken by another program stays open until it is rolled back.
+     *
+     * @param command The lexed commit command
+     */
+    private String handleCommit(Command command) {
+        if (command.hasArguments()) {
+            return handleUnknownCommand();
+        }
+        try {
+            if (transaction != null && isTransactionBroken) {
+                throw new InvalidInputException(TRANSACTION_BROKEN_MESSAGE);
+            }
+            ArrayList<TaskChange> changes = endTransaction();
+            publishChanges(changes);
+            trace.enter(CommandPhase.RENDER);
+            return UI.showTransactionCommitted(changes.size(), tasks.size());
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            return UI.showErrorMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * Reverses the changes made since begin, which were never saved.
+     *
+     * @param command The lexed rollback command
+     */
+    private String handleRollback(Command command) {
+        if (command.hasArguments()) {
+            return handleUnknownCommand();
+        }
+        try {
+            ArrayList<TaskChange> changes = endTransaction();
+            trace.enter(CommandPhase.TASK_LIST);
+            if (!isTransactionBroken) {
+                rollBack(changes);
+            }
+            trace.enter(CommandPhase.RENDER);
+            return UI.showTransactionRolledBack(changes.size(), tasks.size());
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            return UI.showErrorMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the commands of a multi-command line as one transaction: their changes are saved with a
+     * single save if every command succeeds, and none of them are kept otherwise.
+     *
+     * @param command The lexed multi-command line
+     */
+    private String handleBatch(Command command) {
+        try {
+            trace.enter(CommandPhase.PARSE);
+            List<Command> steps = Parser.parseBatch(command);
+            transaction = new ArrayList<>();
+            isTransactionBroken = false;
+            ArrayList<String> responses = new ArrayList<>(steps.size());
+            for (int i = 0; i < steps.size(); i++) {
+                Command step = steps.get(i);
+                String response = handlers.get(step.getType()).apply(step);
+                if (isLastResponseError) {
+                    rollBack(endTransaction());
+                    trace.enter(CommandPhase.RENDER);
+                    return UI.showBatchFailed(i + 1, step.getInput(), response);
+                }
+                responses.add(response);
+            }
+            ArrayList<TaskChange> changes = endTransaction();
+            publishChanges(changes);
+            trace.enter(CommandPhase.RENDER);
+            return UI.showBatchDone(responses, changes.size());
+        } catch (MemoMaxException e) {
+            isLastResponseError = true;
+            return UI.showErrorMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * Refuses commands that cannot run in the open transaction: those making changes that cannot be
+     * held back until commit, and any change once the transaction was broken by another program.
+     *
+     * @param type The type of the command about to run.
+     * @throws MemoMaxException If the command cannot run now.
+     */
+    private void checkTransactionAllows(CommandType type) throws MemoMaxException {
+        if (transaction == null || !type.isMutating() || type == CommandType.COMMIT
+                || type == CommandType.ROLLBACK) {
+            return;
+        }
+        if (!type.isTransactional()) {
+            throw new InvalidInputException("Finish the transaction with commit or rollback before using "
+                    + (type == CommandType.BATCH ? "';'." : "'" + type.getKeyword() + "'."));
+        }
+        if (isTransactionBroken) {
+            throw new InvalidInputException(TRANSACTION_BROKEN_MESSAGE);
+        }
+    }
+
+    /**
+     * Closes the open transaction.
+     *
+     * @return The changes made in it, in order.
+     * @throws MemoMaxException If no transaction is open.
+     */
+    private ArrayList<TaskChange> endTransaction() throws MemoMaxException {
+        if (transaction == null) {
+            throw new InvalidInputException("There is no transaction to end. Start one with: begin");
+        }
+        ArrayList<TaskChange> changes = transaction;
+        transaction = null;
+        return changes;
+    }
+
+    /**
+     * Saves the list after a transaction with one save, making its changes undoable one by one.
+     * If the save fails the changes are reversed, so the list again matches what is stored.
+     *
+     * @param changes The changes made in the transaction.
+     * @throws MemoMaxException If the save failed.
+     */
+    private void publishChanges(List<TaskChange> changes) throws MemoMaxException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        trace.enter(CommandPhase.SAVE);
+        try {
+            storage.save(tasks.asList());
+        } catch (MemoMaxException e) {
+            rollBack(changes);
+            throw new MemoMaxException("Failed to save tasks, so none of the changes were kept: " + e.getMessage());
+        }
+        changes.forEach(history::record);
+    }
+
+    /**
+     * Reverses changes that were never saved, latest first.
+     *
+     * @param changes The changes, in the order they were made.
+     * @throws MemoMaxException If the list no longer holds the changes.
+     */
+    private void rollBack(List<TaskChange> changes) throws MemoMaxException {
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            changes.get(i).inverse().applyTo(tasks);
+        }
+    }
+
+    /**
+     * Records a change just made, in the open transaction if there is one, else as undoable.
+     *
+     * @param change The change.
+     */
+    private void recordChange(TaskChange change) {
+        if (transaction != null) {
+            transaction.add(change);
+        } else {
+            history.record(change);
+        }
+    }
+
+    /**
+     * Applies a change another program made to the stored tasks. The recorded changes may no longer
+     * line up with the list, so they are forgotten. The stored tasks do not hold the changes of an
+     * open transaction, so those are rolled back first and the transaction can only be ended.
+     */
+    private void mergeExternalChange(int fromIndex, int removedCount, List<Task> insertedTasks) {
+        if (transaction != null && !isTransactionBroken) {
+            isTransactionBroken = true;
+            try {
+                rollBack(transaction);
+            } catch (MemoMaxException e) {
+                throw new AssertionError("Unsaved changes should always roll back", e);
+            }
+        }
+        tasks.replaceRange(fromIndex, removedCount, insertedTasks);
+        history.clear();
+    }
+
     /**
      * Handles unknown commands.
      */
     private String handleUnknownCommand() {
+        trace.enter(CommandPhase.RENDER);
         isLastResponseError = true;
         String response = UI.showUnknownCommand();
-        System.out.println(response);
         return response;
     }
+
+    /**
+     * A single storage engine call that records a change to the task list.
+     */
+    private interface StorageChange {
+        void apply() throws MemoMaxException;
+    }
+
+    /**
+     * Merges the changes other programs make to the stored tasks, and reports the records among them
+     * that cannot be read, as a load would.
+     */
+    private class ExternalChanges implements StorageEngine.ExternalChangeListener {
+        @Override
+        public void onExternalChange(int fromIndex, int removedCount, List<Task> insertedTasks) {
+            mergeExternalChange(fromIndex, removedCount, insertedTasks);
+        }
+
+        @Override
+        public void onSkippedRecords(String warning) {
+            System.err.println(UI.showStorageError(warning));
+        }
+    }
 }
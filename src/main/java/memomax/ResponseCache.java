@@ -0,0 +1,146 @@
+package memomax;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import memomax.parser.Command;
+import memomax.parser.CommandType;
+import memomax.parser.Parser;
+
+/**
+ * Remembers the rendered responses of read-only commands, keyed by the command type, its arguments
+ * and the version of the task list they were rendered from. Any change to the list bumps its
+ * version, so a response is never served for a list it was not rendered from.
+ *
+ * <p>The cache is bounded by both its number of entries and their total length, and evicts the
+ * least recently used entries first.
+ */
+final class ResponseCache {
+    static final int MAX_ENTRIES = 64;
+    static final long MAX_TOTAL_LENGTH = 16L * 1024 * 1024;
+
+    private final LinkedHashMap<Key, String> responses = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalLength = 0;
+    private long cachedVersion = -1;
+    private long hitCount = 0;
+
+    /**
+     * Returns whether the response to a command depends only on its arguments and the task list.
+     * {@code find --all} also reads the archive, which other programs may append to without
+     * changing the list, so it is not cached.
+     *
+     * @param command The command.
+     * @return true for commands whose responses may be cached.
+     */
+    static boolean isCacheable(Command command) {
+        switch (command.getType()) {
+        case FIND:
+            return !Parser.isFindingAll(command);
+        case LIST:
+        case SEARCH:
+        case QUERY:
+        case SORT:
+        case PROGRESS:
+        case HELP:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns the response cached for a command.
+     *
+     * @param command The command.
+     * @param version The current version of the task list.
+     * @return The cached response, or null if there is none for this version.
+     */
+    String get(Command command, long version) {
+        assert isCacheable(command) : "Command should be cacheable";
+        dropIfStale(version);
+        String response = responses.get(new Key(command, version));
+        if (response != null) {
+            hitCount++;
+        }
+        return response;
+    }
+
+    /**
+     * Caches a response, evicting the least recently used ones if the cache is full.
+     * Responses longer than the whole cache are not kept.
+     *
+     * @param command The command.
+     * @param version The version of the task list the response was rendered from.
+     * @param response The rendered response.
+     */
+    void put(Command command, long version, String response) {
+        assert isCacheable(command) : "Command should be cacheable";
+        assert response != null : "Cached response should not be null";
+        if (response.length() > MAX_TOTAL_LENGTH) {
+            return;
+        }
+        dropIfStale(version);
+        String previous = responses.put(new Key(command, version), response);
+        totalLength += response.length() - (previous == null ? 0 : previous.length());
+
+        Iterator<String> eldest = responses.values().iterator();
+        while (responses.size() > MAX_ENTRIES || totalLength > MAX_TOTAL_LENGTH) {
+            totalLength -= eldest.next().length();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Returns the number of cached responses.
+     */
+    int size() {
+        return responses.size();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     */
+    long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Empties the cache once the list has changed, as none of its responses can be served again.
+     */
+    private void dropIfStale(long version) {
+        if (version != cachedVersion) {
+            responses.clear();
+            totalLength = 0;
+            cachedVersion = version;
+        }
+    }
+
+    /**
+     * Identifies a response by the command that produced it and the list version it was rendered from.
+     */
+    private static final class Key {
+        private final CommandType type;
+        private final String arguments;
+        private final long version;
+
+        private Key(Command command, long version) {
+            this.type = command.getType();
+            this.arguments = command.getArguments();
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return type == key.type && version == key.version && arguments.equals(key.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * type.hashCode() + arguments.hashCode()) * 31 + Long.hashCode(version);
+        }
+    }
+}
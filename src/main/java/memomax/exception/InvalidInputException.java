@@ -0,0 +1,18 @@
+package memomax.exception;
+
+/**
+ * Represents an expected validation failure caused by user input or a malformed data line.
+ * These errors are routine, so no stack trace is captured when they are created;
+ * genuine faults such as I/O errors use {@link MemoMaxException} directly.
+ */
+public class InvalidInputException extends MemoMaxException {
+
+    /**
+     * Creates an InvalidInputException with given error message.
+     *
+     * @param message Error description for user
+     */
+    public InvalidInputException(String message) {
+        super(message, false);
+    }
+}
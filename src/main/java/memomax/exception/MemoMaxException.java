@@ -9,7 +9,7 @@ import memomax.task.Task;
  * Provides user-friendly error messages and can carry partial data.
  */
 public class MemoMaxException extends Exception {
-    private ArrayList<Task> partialTasks = new ArrayList<>();
+    private final ArrayList<Task> partialTasks;
 
     /**
      * Creates a MemoMaxException with given error message.
@@ -18,6 +18,7 @@ public class MemoMaxException extends Exception {
      */
     public MemoMaxException(String message) {
         super(message);
+        this.partialTasks = null;
     }
 
     /**
@@ -31,12 +32,23 @@ public class MemoMaxException extends Exception {
         this.partialTasks = tasks;
     }
 
+    /**
+     * Creates a MemoMaxException that may skip capturing a stack trace.
+     *
+     * @param message Error description for user.
+     * @param isStackTraceWritable Whether the stack trace should be filled in.
+     */
+    protected MemoMaxException(String message, boolean isStackTraceWritable) {
+        super(message, null, false, isStackTraceWritable);
+        this.partialTasks = null;
+    }
+
     /**
      * Returns the tasks that were successfully loaded before the exception occurred.
      *
-     * @return An ArrayList of tasks.
+     * @return An ArrayList of tasks, empty if none were carried.
      */
     public ArrayList<Task> getPartialTasks() {
-        return partialTasks;
+        return partialTasks == null ? new ArrayList<>() : partialTasks;
     }
 }
@@ -6,12 +6,14 @@ import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 import javafx.util.Duration;
+import memomax.LoadListener;
 import memomax.MemoMax;
 
 /**
@@ -28,15 +30,26 @@ public class MainWindow extends AnchorPane {
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressBar loadingProgress;
 
     private MemoMax memoMax;
 
-    private final Image userImage = new Image(Objects.requireNonNull(this.getClass()
-            .getResourceAsStream("/images/DaUser.png")));
-    private final Image memoMaxImage = new Image(Objects.requireNonNull(this.getClass()
-            .getResourceAsStream("/images/DaMemoMax.png")));
-    private final Image memoMaxSadImage = new Image(Objects.requireNonNull(this.getClass()
-            .getResourceAsStream("/images/MemoMaxSad.png")));
+    private final Image userImage = loadImageInBackground("/images/DaUser.png");
+    private final Image memoMaxImage = loadImageInBackground("/images/DaMemoMax.png");
+    private final Image memoMaxSadImage = loadImageInBackground("/images/MemoMaxSad.png");
+
+    /**
+     * Creates an image that is decoded on a background thread, so the window can be shown
+     * before the avatars are ready.
+     *
+     * @param path The resource path of the image.
+     * @return The image, which may still be loading.
+     */
+    private static Image loadImageInBackground(String path) {
+        String url = Objects.requireNonNull(MainWindow.class.getResource(path)).toExternalForm();
+        return new Image(url, true);
+    }
 
     /**
      * Initializes the controller after the FXML file has been loaded.
@@ -95,20 +108,64 @@ public class MainWindow extends AnchorPane {
                 DialogBox.getMemoMaxDialog(memoMax.getGreeting(), memoMaxImage)
         );
 
+        if (memoMax.isLoading()) {
+            startLoading();
+        } else {
+            showStartupError();
+        }
+
+        scrollPane.requestFocus();
+    }
+
+    /**
+     * Starts loading tasks in the background, showing progress until loading completes.
+     * Commands typed in the meantime are answered from the tasks loaded so far, or queued
+     * by MemoMax if they would modify the list.
+     */
+    private void startLoading() {
+        loadingProgress.setVisible(true);
+        memoMax.loadTasksInBackground(Platform::runLater, new LoadListener() {
+            @Override
+            public void onProgress(int loadedCount, double progress) {
+                loadingProgress.setProgress(progress);
+            }
+
+            @Override
+            public void onLoadComplete() {
+                loadingProgress.setVisible(false);
+                showStartupError();
+                runPendingCommands();
+            }
+        });
+    }
+
+    /**
+     * Shows the error encountered while loading tasks, if any.
+     */
+    private void showStartupError() {
         String startupError = memoMax.getStartupError();
         if (startupError != null) {
             dialogContainer.getChildren().add(
                     DialogBox.getMemoMaxDialog(startupError, memoMaxSadImage)
             );
         }
+    }
 
-        scrollPane.requestFocus();
+    /**
+     * Runs the commands that were queued while tasks were loading and shows their responses.
+     */
+    private void runPendingCommands() {
+        while (memoMax.hasPendingCommands()) {
+            String response = memoMax.runNextPendingCommand();
+            Image botImageToUse = memoMax.isErrorResponse() ? memoMaxSadImage : memoMaxImage;
+            dialogContainer.getChildren().add(DialogBox.getMemoMaxDialog(response, botImageToUse));
+        }
     }
 
     /**
      * Creates two dialog boxes, one echoing user input and the other containing MemoMax's reply.
      * Clears the user input after processing.
-     * If the user input is "bye", the application will close after a short delay.
+     * If the user input is "bye" and MemoMax said goodbye, the application will close after a short delay.
      */
     @FXML
     private void handleUserInput() {
@@ -123,7 +180,7 @@ public class MainWindow extends AnchorPane {
         );
         userInput.clear();
 
-        if (input.trim().equalsIgnoreCase("bye")) {
+        if (input.trim().equalsIgnoreCase("bye") && !memoMax.isErrorResponse()) {
             PauseTransition delay = new PauseTransition(Duration.seconds(1.5));
             delay.setOnFinished(event -> Platform.exit());
             delay.play();
@@ -0,0 +1,26 @@
+package memomax.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one command from lexing to response.
+ */
+@Name("memomax.Command")
+@Label("Command")
+@Category("MemoMax")
+@Description("A user command, from lexing the input to producing the response")
+public class CommandEvent extends Event {
+    @Label("Command")
+    String command;
+
+    @Label("Task Count")
+    @Description("Number of tasks in the list once the command finished")
+    int taskCount;
+
+    @Label("Error")
+    boolean isError;
+}
@@ -0,0 +1,32 @@
+package memomax.metrics;
+
+/**
+ * The phases a command passes through, as reported in {@link CommandPhaseEvent}s.
+ */
+public enum CommandPhase {
+    /** Splitting the raw input into a command. */
+    LEX("lex"),
+    /** Validating arguments and building tasks with {@code Parser}. */
+    PARSE("parse"),
+    /** Reading or changing the task list. */
+    TASK_LIST("taskList"),
+    /** Building the response text with {@code Ui}. */
+    RENDER("render"),
+    /** Writing the task list to the data file. */
+    SAVE("save");
+
+    private final String key;
+
+    CommandPhase(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the short name used for this phase in log lines.
+     *
+     * @return The phase key.
+     */
+    public String getKey() {
+        return key;
+    }
+}
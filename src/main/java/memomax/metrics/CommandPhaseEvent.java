@@ -0,0 +1,26 @@
+package memomax.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one phase of a command.
+ */
+@Name("memomax.CommandPhase")
+@Label("Command Phase")
+@Category("MemoMax")
+@Description("One phase of a user command, such as parsing, task list work, rendering or saving")
+public class CommandPhaseEvent extends Event {
+    @Label("Command")
+    String command;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Task Count")
+    @Description("Number of tasks in the list when the phase finished")
+    int taskCount;
+}
@@ -0,0 +1,109 @@
+package memomax.metrics;
+
+import java.util.Locale;
+import java.util.function.IntSupplier;
+
+import memomax.parser.Command;
+import memomax.parser.CommandType;
+
+/**
+ * Times a single command and its phases.
+ * Each call to {@link #enter(CommandPhase)} ends the current phase and starts the next, so
+ * handlers only need to mark where each phase begins. Every phase and the command itself are
+ * emitted as Flight Recorder events; when no recording is active, events are never committed and
+ * their fields never filled in. Commands reaching the {@link SlowCommandLog} threshold are also
+ * written to the slow command log.
+ */
+public class CommandTrace {
+    private final IntSupplier taskCount;
+    private final CommandEvent commandEvent = new CommandEvent();
+    private final long startNanos;
+    private final long startGcMillis;
+    private final long[] phaseNanos = new long[CommandPhase.values().length];
+    private CommandType type = CommandType.UNKNOWN;
+    private int argumentLength = 0;
+    private boolean isSaved = false;
+    private CommandPhase phase;
+    private long phaseStartNanos;
+    private CommandPhaseEvent phaseEvent;
+
+    /**
+     * Starts tracing a command.
+     *
+     * @param taskCount Supplies the current number of tasks, read when each event is committed.
+     */
+    public CommandTrace(IntSupplier taskCount) {
+        this.taskCount = taskCount;
+        commandEvent.begin();
+        startGcMillis = SlowCommandLog.getGcMillis();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Sets the command being traced, once it has been lexed.
+     *
+     * @param command The lexed command.
+     */
+    public void setCommand(Command command) {
+        type = command.getType();
+        argumentLength = command.getArgumentLength();
+    }
+
+    /**
+     * Ends the current phase, if any, and starts the given one.
+     *
+     * @param nextPhase The phase the command is entering.
+     */
+    public void enter(CommandPhase nextPhase) {
+        long now = System.nanoTime();
+        endPhase(now);
+        phase = nextPhase;
+        phaseStartNanos = now;
+        isSaved |= nextPhase == CommandPhase.SAVE;
+        phaseEvent = new CommandPhaseEvent();
+        phaseEvent.begin();
+    }
+
+    /**
+     * Ends the current phase and the command.
+     *
+     * @param isError Whether the command produced an error response.
+     */
+    public void finish(boolean isError) {
+        long now = System.nanoTime();
+        endPhase(now);
+        commandEvent.end();
+        if (commandEvent.shouldCommit()) {
+            commandEvent.command = label();
+            commandEvent.taskCount = taskCount.getAsInt();
+            commandEvent.isError = isError;
+            commandEvent.commit();
+        }
+
+        long totalNanos = now - startNanos;
+        SlowCommandLog slowLog = SlowCommandLog.getInstance();
+        if (slowLog.isSlow(totalNanos)) {
+            slowLog.log(label(), argumentLength, taskCount.getAsInt(), totalNanos, phaseNanos, isSaved, isError,
+                    SlowCommandLog.getGcMillis() - startGcMillis);
+        }
+    }
+
+    private void endPhase(long now) {
+        if (phaseEvent == null) {
+            return;
+        }
+        phaseNanos[phase.ordinal()] += now - phaseStartNanos;
+        phaseEvent.end();
+        if (phaseEvent.shouldCommit()) {
+            phaseEvent.command = label();
+            phaseEvent.phase = phase.name();
+            phaseEvent.taskCount = taskCount.getAsInt();
+            phaseEvent.commit();
+        }
+        phaseEvent = null;
+    }
+
+    private String label() {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,292 @@
+package memomax.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import memomax.parser.CommandType;
+
+/**
+ * Collects process-wide MemoMax metrics without locking.
+ * Records per-command counts, error counts and latency histograms, plus storage save
+ * durations and bytes written. Metrics can be read through the {@code stats} command,
+ * over JMX, or as Prometheus text written periodically to a file.
+ */
+public class Metrics implements MetricsMXBean {
+    /** JMX object name under which the metrics are registered. */
+    public static final String OBJECT_NAME = "memomax:type=Metrics";
+
+    /** System property naming the file to which Prometheus text is periodically written. */
+    public static final String PROMETHEUS_FILE_PROPERTY = "memomax.metrics.file";
+
+    private static final long PROMETHEUS_DUMP_PERIOD_SECONDS = 15;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final CommandType[] commandTypes = CommandType.values();
+    private final LongAdder[] commandCounts = new LongAdder[commandTypes.length];
+    private final LongAdder[] errorCounts = new LongAdder[commandTypes.length];
+    private final LatencyHistogram[] commandLatencies = new LatencyHistogram[commandTypes.length];
+    private final LatencyHistogram allCommandLatencies = new LatencyHistogram();
+    private final LatencyHistogram saveDurations = new LatencyHistogram();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private boolean isExporting = false;
+
+    private Metrics() {
+        for (int i = 0; i < commandTypes.length; i++) {
+            commandCounts[i] = new LongAdder();
+            errorCounts[i] = new LongAdder();
+            commandLatencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Returns the process-wide metrics instance.
+     *
+     * @return The shared Metrics.
+     */
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the JMX MBean and, if {@value #PROMETHEUS_FILE_PROPERTY} is set, starts writing
+     * Prometheus text to that file every {@value #PROMETHEUS_DUMP_PERIOD_SECONDS} seconds and on exit.
+     * Calling this more than once has no further effect.
+     */
+    public synchronized void startExporters() {
+        if (isExporting) {
+            return;
+        }
+        isExporting = true;
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Could not register metrics MBean: " + e.getMessage());
+        }
+
+        String prometheusFile = System.getProperty(PROMETHEUS_FILE_PROPERTY);
+        if (prometheusFile != null && !prometheusFile.isBlank()) {
+            Path target = Paths.get(prometheusFile);
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "memomax-metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> writePrometheusFile(target),
+                    0, PROMETHEUS_DUMP_PERIOD_SECONDS, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writePrometheusFile(target)));
+        }
+    }
+
+    /**
+     * Records one processed command.
+     *
+     * @param type The command type.
+     * @param nanos The time taken to produce the response.
+     * @param isError Whether the response was an error.
+     */
+    public void recordCommand(CommandType type, long nanos, boolean isError) {
+        int i = type.ordinal();
+        commandCounts[i].increment();
+        if (isError) {
+            errorCounts[i].increment();
+        }
+        commandLatencies[i].record(nanos);
+        allCommandLatencies.record(nanos);
+    }
+
+    /**
+     * Records one save of the data file.
+     *
+     * @param nanos The time taken to write the file.
+     * @param bytes The number of bytes written.
+     */
+    public void recordSave(long nanos, long bytes) {
+        saveDurations.record(nanos);
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Returns a human-readable summary of the metrics, one entry per line.
+     *
+     * @return The summary lines.
+     */
+    public ArrayList<String> getSummaryLines() {
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "All commands: %d run, %d errors, p50 %.2f ms, p99 %.2f ms",
+                allCommandLatencies.getCount(), sum(errorCounts),
+                getCommandLatencyP50Millis(), getCommandLatencyP99Millis()));
+        for (int i = 0; i < commandTypes.length; i++) {
+            LatencyHistogram latencies = commandLatencies[i];
+            if (latencies.getCount() == 0) {
+                continue;
+            }
+            lines.add(String.format(Locale.ROOT, "  %s: %d run, %d errors, p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    label(commandTypes[i]), commandCounts[i].sum(), errorCounts[i].sum(),
+                    latencies.getPercentileNanos(50) / NANOS_PER_MILLI,
+                    latencies.getPercentileNanos(99) / NANOS_PER_MILLI,
+                    latencies.getMaxNanos() / NANOS_PER_MILLI));
+        }
+        lines.add(String.format(Locale.ROOT, "Saves: %d, p99 %.2f ms, %d bytes written",
+                getSaveCount(), getSaveP99Millis(), getStorageBytesWritten()));
+        return lines;
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        return countsByLabel(commandCounts);
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        return countsByLabel(errorCounts);
+    }
+
+    @Override
+    public double getCommandLatencyP50Millis() {
+        return allCommandLatencies.getPercentileNanos(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getCommandLatencyP99Millis() {
+        return allCommandLatencies.getPercentileNanos(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getStorageBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getSaveCount() {
+        return saveDurations.getCount();
+    }
+
+    @Override
+    public double getSaveP99Millis() {
+        return saveDurations.getPercentileNanos(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String getPrometheusText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# HELP memomax_commands_total Commands processed.\n");
+        sb.append("# TYPE memomax_commands_total counter\n");
+        for (int i = 0; i < commandTypes.length; i++) {
+            appendSample(sb, "memomax_commands_total", commandTypes[i], null, commandCounts[i].sum());
+        }
+        sb.append("# HELP memomax_command_errors_total Commands that produced an error response.\n");
+        sb.append("# TYPE memomax_command_errors_total counter\n");
+        for (int i = 0; i < commandTypes.length; i++) {
+            appendSample(sb, "memomax_command_errors_total", commandTypes[i], null, errorCounts[i].sum());
+        }
+        sb.append("# HELP memomax_command_latency_seconds Time taken to produce a response.\n");
+        sb.append("# TYPE memomax_command_latency_seconds summary\n");
+        for (int i = 0; i < commandTypes.length; i++) {
+            appendSummary(sb, "memomax_command_latency_seconds", commandTypes[i], commandLatencies[i]);
+        }
+        sb.append("# HELP memomax_storage_save_seconds Time taken to save the data file.\n");
+        sb.append("# TYPE memomax_storage_save_seconds summary\n");
+        appendSummary(sb, "memomax_storage_save_seconds", null, saveDurations);
+        sb.append("# HELP memomax_storage_bytes_written_total Bytes written to the data file.\n");
+        sb.append("# TYPE memomax_storage_bytes_written_total counter\n");
+        sb.append("memomax_storage_bytes_written_total ").append(bytesWritten.sum()).append('\n');
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < commandTypes.length; i++) {
+            commandCounts[i].reset();
+            errorCounts[i].reset();
+            commandLatencies[i].reset();
+        }
+        allCommandLatencies.reset();
+        saveDurations.reset();
+        bytesWritten.reset();
+    }
+
+    /**
+     * Writes the Prometheus text to a temporary file and moves it over the target,
+     * so a scraper never reads a partially written file.
+     */
+    private void writePrometheusFile(Path target) {
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "memomax-metrics", ".tmp");
+            Files.writeString(temp, getPrometheusText());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write metrics file: " + e.getMessage());
+        }
+    }
+
+    private void appendSummary(StringBuilder sb, String name, CommandType type, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            appendSample(sb, name, type, String.valueOf(quantile),
+                    histogram.getPercentileNanos(quantile * 100) / NANOS_PER_SECOND);
+        }
+        appendSample(sb, name + "_sum", type, null, histogram.getTotalNanos() / NANOS_PER_SECOND);
+        appendSample(sb, name + "_count", type, null, histogram.getCount());
+    }
+
+    private void appendSample(StringBuilder sb, String name, CommandType type, String quantile, Object value) {
+        sb.append(name);
+        if (type != null || quantile != null) {
+            sb.append('{');
+            if (type != null) {
+                sb.append("command=\"").append(label(type)).append('"');
+            }
+            if (quantile != null) {
+                sb.append(type != null ? "," : "").append("quantile=\"").append(quantile).append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private Map<String, Long> countsByLabel(LongAdder[] counts) {
+        TreeMap<String, Long> byLabel = new TreeMap<>();
+        for (int i = 0; i < commandTypes.length; i++) {
+            byLabel.put(label(commandTypes[i]), counts[i].sum());
+        }
+        return byLabel;
+    }
+
+    private static long sum(LongAdder[] counts) {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    private static String label(CommandType type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,70 @@
+package memomax.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing MemoMax metrics over JMX.
+ * Registered as {@value Metrics#OBJECT_NAME}.
+ */
+public interface MetricsMXBean {
+    /**
+     * Returns the number of commands processed, by command word.
+     *
+     * @return Command counts keyed by lowercase command type.
+     */
+    Map<String, Long> getCommandCounts();
+
+    /**
+     * Returns the number of commands that produced an error response, by command word.
+     *
+     * @return Error counts keyed by lowercase command type.
+     */
+    Map<String, Long> getErrorCounts();
+
+    /**
+     * Returns the 50th percentile command latency across all command types.
+     *
+     * @return The latency in milliseconds.
+     */
+    double getCommandLatencyP50Millis();
+
+    /**
+     * Returns the 99th percentile command latency across all command types.
+     *
+     * @return The latency in milliseconds.
+     */
+    double getCommandLatencyP99Millis();
+
+    /**
+     * Returns the number of bytes written to the data file.
+     *
+     * @return The total bytes written.
+     */
+    long getStorageBytesWritten();
+
+    /**
+     * Returns the number of times the data file was saved.
+     *
+     * @return The save count.
+     */
+    long getSaveCount();
+
+    /**
+     * Returns the 99th percentile save duration.
+     *
+     * @return The duration in milliseconds.
+     */
+    double getSaveP99Millis();
+
+    /**
+     * Returns all metrics in the Prometheus text exposition format.
+     *
+     * @return The metrics text.
+     */
+    String getPrometheusText();
+
+    /**
+     * Clears all recorded metrics.
+     */
+    void reset();
+}
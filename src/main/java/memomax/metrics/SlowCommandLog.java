@@ -0,0 +1,279 @@
+package memomax.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes one line per slow command to a rotating log file.
+ * Callers only build a small entry and offer it to a bounded queue; formatting and file I/O happen
+ * on a background thread, so logging never blocks the FX thread or the CLI loop. If the queue is
+ * full, the entry is dropped and counted instead.
+ *
+ * <p>Configured with system properties: {@value #THRESHOLD_PROPERTY} (milliseconds, default
+ * {@value #DEFAULT_THRESHOLD_MILLIS}, negative to disable), {@value #FILE_PROPERTY} (default
+ * {@value #DEFAULT_FILE}) and {@value #MAX_BYTES_PROPERTY} (size before rotating, default
+ * {@value #DEFAULT_MAX_BYTES}). Up to {@value #ROTATED_FILES} rotated files are kept.
+ */
+public class SlowCommandLog {
+    /** System property holding the slow command threshold in milliseconds. */
+    public static final String THRESHOLD_PROPERTY = "memomax.slowlog.thresholdMillis";
+
+    /** System property holding the path of the slow command log. */
+    public static final String FILE_PROPERTY = "memomax.slowlog.file";
+
+    /** System property holding the size in bytes at which the log is rotated. */
+    public static final String MAX_BYTES_PROPERTY = "memomax.slowlog.maxBytes";
+
+    private static final long DEFAULT_THRESHOLD_MILLIS = 250;
+    private static final String DEFAULT_FILE = "./data/slow-commands.log";
+    private static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+    private static final int ROTATED_FILES = 3;
+    private static final int QUEUE_CAPACITY = 256;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final long FLUSH_WAIT_MILLIS = 1000;
+    private static final GarbageCollectorMXBean[] GC_BEANS = ManagementFactory.getGarbageCollectorMXBeans()
+            .toArray(new GarbageCollectorMXBean[0]);
+    private static final SlowCommandLog INSTANCE = new SlowCommandLog(
+            Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MILLIS),
+            Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE)),
+            Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES));
+
+    private final long thresholdNanos;
+    private final Path file;
+    private final long maxBytes;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder droppedCount = new LongAdder();
+    private final AtomicInteger unwrittenCount = new AtomicInteger();
+    private final Object writeLock = new Object();
+    private boolean isWriterStarted = false;
+
+    /**
+     * Creates a slow command log.
+     *
+     * @param thresholdMillis Commands taking at least this long are logged; negative disables logging.
+     * @param file The log file.
+     * @param maxBytes The size at which the log file is rotated.
+     */
+    SlowCommandLog(long thresholdMillis, Path file, long maxBytes) {
+        this.thresholdNanos = thresholdMillis < 0 ? Long.MAX_VALUE : thresholdMillis * 1_000_000;
+        this.file = file;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the process-wide slow command log.
+     *
+     * @return The shared SlowCommandLog.
+     */
+    public static SlowCommandLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the total time the JVM has spent in garbage collection.
+     *
+     * @return Accumulated collection time in milliseconds.
+     */
+    public static long getGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : GC_BEANS) {
+            total += Math.max(0, bean.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Returns whether a command that took the given time should be logged.
+     *
+     * @param nanos The time the command took.
+     * @return true if the command reached the threshold.
+     */
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    /**
+     * Returns the number of entries dropped because the queue was full.
+     *
+     * @return The dropped entry count.
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Queues one slow command for writing. Never blocks.
+     *
+     * @param command The command label.
+     * @param argumentLength The number of characters after the command word.
+     * @param taskCount The number of tasks once the command finished.
+     * @param totalNanos The time taken by the whole command.
+     * @param phaseNanos The time taken by each {@link CommandPhase}, indexed by ordinal.
+     * @param isSaved Whether the command saved the data file.
+     * @param isError Whether the command produced an error response.
+     * @param gcMillis Garbage collection time while the command ran.
+     */
+    public void log(String command, int argumentLength, int taskCount, long totalNanos, long[] phaseNanos,
+            boolean isSaved, boolean isError, long gcMillis) {
+        Entry entry = new Entry(Instant.now(), command, argumentLength, taskCount, totalNanos,
+                phaseNanos.clone(), isSaved, isError, gcMillis);
+        unwrittenCount.incrementAndGet();
+        if (!queue.offer(entry)) {
+            unwrittenCount.decrementAndGet();
+            droppedCount.increment();
+            return;
+        }
+        startWriterIfNeeded();
+    }
+
+    /**
+     * Writes every queued entry now, on the calling thread, then gives the writer thread a moment
+     * to finish the batch it has already taken off the queue.
+     */
+    void flush() {
+        ArrayList<Entry> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        write(batch);
+        long deadline = System.currentTimeMillis() + FLUSH_WAIT_MILLIS;
+        try {
+            while (unwrittenCount.get() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Formats an entry as one line of space-separated {@code key=value} pairs.
+     */
+    static String format(Entry entry) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(entry.time)
+                .append(" command=").append(entry.command)
+                .append(" argChars=").append(entry.argumentLength)
+                .append(" tasks=").append(entry.taskCount)
+                .append(" totalMs=").append(millis(entry.totalNanos));
+        for (CommandPhase phase : CommandPhase.values()) {
+            sb.append(' ').append(phase.getKey()).append("Ms=")
+                    .append(millis(entry.phaseNanos[phase.ordinal()]));
+        }
+        sb.append(" saved=").append(entry.isSaved)
+                .append(" error=").append(entry.isError)
+                .append(" gcMs=").append(entry.gcMillis);
+        return sb.toString();
+    }
+
+    private synchronized void startWriterIfNeeded() {
+        if (isWriterStarted) {
+            return;
+        }
+        isWriterStarted = true;
+        Thread writer = new Thread(this::runWriter, "memomax-slowlog");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+    }
+
+    private void runWriter() {
+        ArrayList<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                rotateIfNeeded();
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (Entry entry : batch) {
+                        writer.write(format(entry));
+                        writer.write('\n');
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Could not write slow command log: " + e.getMessage());
+            }
+            unwrittenCount.addAndGet(-batch.size());
+        }
+    }
+
+    private void rotateIfNeeded() throws IOException {
+        if (!Files.exists(file) || Files.size(file) < maxBytes) {
+            return;
+        }
+        for (int i = ROTATED_FILES - 1; i >= 1; i--) {
+            Path older = rotatedFile(i);
+            if (Files.exists(older)) {
+                Files.move(older, rotatedFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotatedFile(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotatedFile(int generation) {
+        return file.resolveSibling(file.getFileName() + "." + generation);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+    }
+
+    /**
+     * One slow command waiting to be written.
+     */
+    static final class Entry {
+        private final Instant time;
+        private final String command;
+        private final int argumentLength;
+        private final int taskCount;
+        private final long totalNanos;
+        private final long[] phaseNanos;
+        private final boolean isSaved;
+        private final boolean isError;
+        private final long gcMillis;
+
+        Entry(Instant time, String command, int argumentLength, int taskCount, long totalNanos,
+                long[] phaseNanos, boolean isSaved, boolean isError, long gcMillis) {
+            this.time = time;
+            this.command = command;
+            this.argumentLength = argumentLength;
+            this.taskCount = taskCount;
+            this.totalNanos = totalNanos;
+            this.phaseNanos = phaseNanos;
+            this.isSaved = isSaved;
+            this.isError = isError;
+            this.gcMillis = gcMillis;
+        }
+    }
+}
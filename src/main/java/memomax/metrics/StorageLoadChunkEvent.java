@@ -0,0 +1,33 @@
+package memomax.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+
+/**
+ * Flight Recorder event covering the reading of one chunk of the data file.
+ */
+@Name("memomax.StorageLoadChunk")
+@Label("Storage Load Chunk")
+@Category("MemoMax")
+@Description("Reading and parsing one chunk of tasks from the data file")
+public class StorageLoadChunkEvent extends Event {
+    @Label("Task Count")
+    @Description("Number of tasks in the chunk")
+    public int taskCount;
+
+    @Label("Corrupted Lines")
+    @Description("Number of corrupted lines skipped while reading the chunk")
+    public int corruptedLines;
+
+    @Label("Characters Read")
+    @Description("Characters read from the start of the file up to the end of the chunk")
+    public long charactersRead;
+
+    @Label("Progress")
+    @Percentage
+    public double progress;
+}
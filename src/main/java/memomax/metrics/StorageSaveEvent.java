@@ -0,0 +1,24 @@
+package memomax.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one save of the data file.
+ */
+@Name("memomax.StorageSave")
+@Label("Storage Save")
+@Category("MemoMax")
+@Description("Writing the task list to the data file")
+public class StorageSaveEvent extends Event {
+    @Label("Task Count")
+    public int taskCount;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+}
@@ -0,0 +1,140 @@
+package memomax.parser;
+
+/**
+ * Represents a lexed user command.
+ * Holds the command type and the positions of its argument slices within the original input,
+ * so arguments are located once and only copied out when a handler asks for them.
+ * Instances are immutable and created by {@link CommandLexer}.
+ */
+public final class Command {
+    static final int ABSENT = -1;
+
+    private final CommandType type;
+    private final String input;
+    private final int argumentStart;
+    private final int argumentEnd;
+    private final int firstTokenEnd;
+    private final int byIndex;
+    private final int secondByIndex;
+    private final int fromIndex;
+    private final int toIndex;
+
+    Command(CommandType type, String input, int argumentStart, int argumentEnd, int firstTokenEnd,
+            int byIndex, int secondByIndex, int fromIndex, int toIndex) {
+        assert type != null : "Command type should not be null";
+        assert input != null : "Command input should not be null";
+        this.type = type;
+        this.input = input;
+        this.argumentStart = argumentStart;
+        this.argumentEnd = argumentEnd;
+        this.firstTokenEnd = firstTokenEnd;
+        this.byIndex = byIndex;
+        this.secondByIndex = secondByIndex;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    /**
+     * Returns the type of this command.
+     *
+     * @return The command type.
+     */
+    public CommandType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the raw input this command was lexed from.
+     *
+     * @return The original input string.
+     */
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * Returns whether anything follows the command word.
+     *
+     * @return true if the command has arguments.
+     */
+    public boolean hasArguments() {
+        return argumentStart < argumentEnd;
+    }
+
+    /**
+     * Returns the number of characters after the command word, without surrounding whitespace.
+     *
+     * @return The argument length, 0 if there are no arguments.
+     */
+    public int getArgumentLength() {
+        return argumentEnd - argumentStart;
+    }
+
+    /**
+     * Returns everything after the command word, without surrounding whitespace.
+     *
+     * @return The argument string, empty if there are no arguments.
+     */
+    public String getArguments() {
+        return input.substring(argumentStart, argumentEnd);
+    }
+
+    /**
+     * Returns the first whitespace-separated argument.
+     *
+     * @return The first argument, empty if there are no arguments.
+     */
+    public String getFirstArgument() {
+        return input.substring(argumentStart, firstTokenEnd);
+    }
+
+    /**
+     * Returns the arguments after the first one, without surrounding whitespace.
+     *
+     * @return The remaining arguments, empty if there are none.
+     */
+    public String getArgumentsAfterFirst() {
+        return slice(firstTokenEnd, argumentEnd);
+    }
+
+    int getArgumentStart() {
+        return argumentStart;
+    }
+
+    int getArgumentEnd() {
+        return argumentEnd;
+    }
+
+    int getByIndex() {
+        return byIndex;
+    }
+
+    int getSecondByIndex() {
+        return secondByIndex;
+    }
+
+    int getFromIndex() {
+        return fromIndex;
+    }
+
+    int getToIndex() {
+        return toIndex;
+    }
+
+    /**
+     * Returns the input between two positions with surrounding whitespace removed.
+     *
+     * @param start Start index, inclusive.
+     * @param end End index, exclusive.
+     * @return The trimmed slice.
+     */
+    String slice(int start, int end) {
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return input.substring(start, end);
+    }
+}
@@ -0,0 +1,110 @@
+package memomax.parser;
+
+/**
+ * Converts raw user input into {@link Command} objects in a single pass.
+ * The lexer records where the command word, arguments and delimiters are without
+ * splitting or copying the input.
+ */
+public class CommandLexer {
+    private static final String DELIMITER_BY = "/by";
+    private static final String DELIMITER_FROM = "/from";
+    private static final String DELIMITER_TO = "/to";
+    private static final int ABSENT_TOKEN_END = -1;
+    private static final char COMMAND_SEPARATOR = ';';
+
+    /**
+     * Lexes the given input into a command.
+     * Input holding {@code ;} where every part starts with a command word is a multi-command line,
+     * lexed as a single {@link CommandType#BATCH} command whose arguments are the whole line; see
+     * {@link Parser#parseBatch(Command)}. Otherwise the {@code ;} is part of the command's arguments,
+     * so {@code todo buy milk; eggs} stays one todo.
+     *
+     * @param input The raw user input.
+     * @return The lexed command.
+     */
+    public static Command lex(String input) {
+        assert input != null : "Input to lex should not be null";
+        int length = input.length();
+        int end = length;
+        while (end > 0 && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int i = 0;
+        while (i < end && input.charAt(i) <= ' ') {
+            i++;
+        }
+        int wordStart = i;
+        int separatorIndex = input.indexOf(COMMAND_SEPARATOR, wordStart);
+        if (separatorIndex >= 0 && separatorIndex < end && isBatch(input, wordStart, end)) {
+            return new Command(CommandType.BATCH, input, wordStart, end, end,
+                    Command.ABSENT, Command.ABSENT, Command.ABSENT, Command.ABSENT);
+        }
+        while (i < end && input.charAt(i) > ' ') {
+            i++;
+        }
+        CommandType type = CommandType.match(input, wordStart, i);
+
+        while (i < end && input.charAt(i) <= ' ') {
+            i++;
+        }
+        int argumentStart = i;
+        int firstTokenEnd = ABSENT_TOKEN_END;
+        int byIndex = Command.ABSENT;
+        int secondByIndex = Command.ABSENT;
+        int fromIndex = Command.ABSENT;
+        int toIndex = Command.ABSENT;
+
+        for (; i < end; i++) {
+            char c = input.charAt(i);
+            if (c <= ' ') {
+                if (firstTokenEnd == ABSENT_TOKEN_END) {
+                    firstTokenEnd = i;
+                }
+            } else if (c == '/') {
+                if (input.startsWith(DELIMITER_BY, i)) {
+                    if (byIndex == Command.ABSENT) {
+                        byIndex = i;
+                    } else if (secondByIndex == Command.ABSENT) {
+                        secondByIndex = i;
+                    }
+                } else if (fromIndex == Command.ABSENT && input.startsWith(DELIMITER_FROM, i)) {
+                    fromIndex = i;
+                } else if (toIndex == Command.ABSENT && input.startsWith(DELIMITER_TO, i)) {
+                    toIndex = i;
+                }
+            }
+        }
+        if (firstTokenEnd == ABSENT_TOKEN_END) {
+            firstTokenEnd = end;
+        }
+
+        return new Command(type, input, argumentStart, end, firstTokenEnd,
+                byIndex, secondByIndex, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns whether every {@code ;}-separated part of the input starts with a command word.
+     * Blank parts are allowed, as {@link Parser#parseBatch(Command)} skips them.
+     */
+    private static boolean isBatch(String input, int start, int end) {
+        int i = start;
+        while (true) {
+            while (i < end && input.charAt(i) <= ' ') {
+                i++;
+            }
+            int wordStart = i;
+            while (i < end && input.charAt(i) > ' ' && input.charAt(i) != COMMAND_SEPARATOR) {
+                i++;
+            }
+            if (i > wordStart && CommandType.match(input, wordStart, i) == CommandType.UNKNOWN) {
+                return false;
+            }
+            int separatorIndex = input.indexOf(COMMAND_SEPARATOR, i);
+            if (separatorIndex < 0 || separatorIndex >= end) {
+                return true;
+            }
+            i = separatorIndex + 1;
+        }
+    }
+}
@@ -4,43 +4,130 @@ package memomax.parser;
  * Command types supported by MemoMax.
  */
 public enum CommandType {
-    BYE, LIST, MARK, UNMARK, DELETE,
-    TODO, DEADLINE, EVENT, HELP, FIND, UPDATE, UNKNOWN;
+    BYE("bye"), LIST("list"), MARK("mark"), UNMARK("unmark"), DELETE("delete"),
+    TODO("todo"), DEADLINE("deadline"), EVENT("event"), HELP("help"), FIND("find"),
+    UPDATE("update"), STATS("stats"), SEARCH("search"), QUERY("query"),
+    SORT("sort"), PROGRESS("progress"), ARCHIVE("archive"), UNDO("undo"), REDO("redo"), BEGIN("begin"),
+    COMMIT("commit"), ROLLBACK("rollback"), BATCH(null), UNKNOWN(null);
+
+    private static final CommandType[] KNOWN_TYPES = {
+        BYE, LIST, MARK, UNMARK, DELETE, TODO, DEADLINE, EVENT, HELP, FIND, UPDATE, STATS, SEARCH, QUERY, SORT,
+        PROGRESS, ARCHIVE, UNDO, REDO, BEGIN, COMMIT, ROLLBACK
+    };
+
+    private final String keyword;
+
+    CommandType(String keyword) {
+        this.keyword = keyword;
+    }
+
+    /**
+     * Returns the command word that selects this type.
+     *
+     * @return The lowercase command word, or null for BATCH and UNKNOWN.
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns whether this command changes the task list.
+     *
+     * @return true for commands that add, remove or modify tasks.
+     */
+    public boolean isMutating() {
+        switch (this) {
+        case MARK:
+        case UNMARK:
+        case DELETE:
+        case TODO:
+        case DEADLINE:
+        case EVENT:
+        case UPDATE:
+        case ARCHIVE:
+        case UNDO:
+        case REDO:
+        case BEGIN:
+        case COMMIT:
+        case ROLLBACK:
+        case BATCH:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether this command's changes can be held in a transaction and saved at its commit.
+     *
+     * @return true for commands that add, remove or modify single tasks.
+     */
+    public boolean isTransactional() {
+        switch (this) {
+        case MARK:
+        case UNMARK:
+        case DELETE:
+        case TODO:
+        case DEADLINE:
+        case EVENT:
+        case UPDATE:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether this command reads or changes the task list, so the tasks must be loaded first.
+     *
+     * @return false for commands that answer without the tasks.
+     */
+    public boolean isUsingTasks() {
+        switch (this) {
+        case BYE:
+        case HELP:
+        case UNKNOWN:
+            return false;
+        default:
+            return true;
+        }
+    }
 
     /**
      * Converts string to CommandType.
      * Returns UNKNOWN for invalid commands.
      */
     public static CommandType parseCommand(String command) {
-        if (command == null || command.trim().isEmpty()) {
+        if (command == null) {
             return UNKNOWN;
         }
-        String lowerCommand = command.toLowerCase().trim();
-        switch (lowerCommand) {
-        case "bye":
-            return BYE;
-        case "list":
-            return LIST;
-        case "mark":
-            return MARK;
-        case "unmark":
-            return UNMARK;
-        case "delete":
-            return DELETE;
-        case "todo":
-            return TODO;
-        case "deadline":
-            return DEADLINE;
-        case "event":
-            return EVENT;
-        case "help":
-            return HELP;
-        case "find":
-            return FIND;
-        case "update":
-            return UPDATE;
-        default:
-            return UNKNOWN;
+        int start = 0;
+        int end = command.length();
+        while (start < end && command.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && command.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return match(command, start, end);
+    }
+
+    /**
+     * Matches a command word case-insensitively without copying it out of the input.
+     *
+     * @param input The string containing the command word.
+     * @param start Index of the first character of the word.
+     * @param end Index after the last character of the word.
+     * @return The matching CommandType, or UNKNOWN.
+     */
+    static CommandType match(String input, int start, int end) {
+        int length = end - start;
+        for (CommandType type : KNOWN_TYPES) {
+            if (type.keyword.length() == length
+                    && input.regionMatches(true, start, type.keyword, 0, length)) {
+                return type;
+            }
         }
+        return UNKNOWN;
     }
 }
@@ -0,0 +1,270 @@
+package memomax.parser;
+
+import java.text.ParsePosition;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses date-times into minutes since the epoch without throwing exceptions.
+ * The {@code yyyy-MM-dd HHmm} storage format is parsed by hand, digit by digit.
+ * An ordered list of additional input formats is tried afterwards, using
+ * {@link DateTimeFormatter#parseUnresolved(CharSequence, ParsePosition)}, which reports failure
+ * through its return value instead of an exception.
+ * Out-of-range days are clamped to the end of the month and {@code 2400} means midnight of the
+ * next day, matching {@link ResolverStyle#SMART} parsing of the storage format.
+ */
+public class DateParser {
+    /** Returned when text cannot be parsed as a date-time. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /** System property holding additional input formats, separated by {@code ;}. */
+    public static final String FORMATS_PROPERTY = "memomax.dateFormats";
+
+    private static final List<String> DEFAULT_ADDITIONAL_FORMATS = List.of("d/M/uuuu HHmm", "uuuu-MM-dd'T'HH:mm");
+    private static final int STORAGE_FORMAT_LENGTH = 15;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static volatile List<String> additionalPatterns = List.of();
+    private static volatile List<DateTimeFormatter> additionalFormats = List.of();
+
+    static {
+        String configured = System.getProperty(FORMATS_PROPERTY);
+        setAdditionalFormats(configured == null
+                ? DEFAULT_ADDITIONAL_FORMATS
+                : List.of(configured.split(";")));
+    }
+
+    /**
+     * Sets the additional input formats, tried in order after the storage format.
+     *
+     * @param patterns {@link DateTimeFormatter} patterns; blank patterns are ignored.
+     * @throws IllegalArgumentException If a pattern is not a valid formatter pattern.
+     */
+    public static void setAdditionalFormats(List<String> patterns) {
+        ArrayList<String> validPatterns = new ArrayList<>();
+        ArrayList<DateTimeFormatter> formats = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (pattern.isBlank()) {
+                continue;
+            }
+            validPatterns.add(pattern.trim());
+            formats.add(DateTimeFormatter.ofPattern(pattern.trim()).withResolverStyle(ResolverStyle.SMART));
+        }
+        additionalFormats = Collections.unmodifiableList(formats);
+        additionalPatterns = Collections.unmodifiableList(validPatterns);
+    }
+
+    /**
+     * Returns the additional input formats currently accepted.
+     *
+     * @return The patterns, in the order they are tried.
+     */
+    public static List<String> getAdditionalFormats() {
+        return additionalPatterns;
+    }
+
+    /**
+     * Parses user input in the storage format or any additional format.
+     *
+     * @param text The text to parse; surrounding whitespace is ignored.
+     * @return Minutes since the epoch, or {@link #INVALID}.
+     */
+    public static long parse(String text) {
+        String trimmed = text.trim();
+        long epochMinute = parseStorageFormat(trimmed);
+        if (epochMinute != INVALID) {
+            return epochMinute;
+        }
+        for (DateTimeFormatter format : additionalFormats) {
+            epochMinute = parseWith(format, trimmed);
+            if (epochMinute != INVALID) {
+                return epochMinute;
+            }
+        }
+        return INVALID;
+    }
+
+    /**
+     * Parses text in the {@code yyyy-MM-dd HHmm} storage format.
+     *
+     * @param text The text to parse, without surrounding whitespace.
+     * @return Minutes since the epoch, or {@link #INVALID}.
+     */
+    public static long parseStorageFormat(CharSequence text) {
+        if (text.length() != STORAGE_FORMAT_LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || text.charAt(10) != ' ') {
+            return INVALID;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 13, 15);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0) {
+            return INVALID;
+        }
+        return resolve(year, month, day, hour, minute);
+    }
+
+    /**
+     * Converts minutes since the epoch to a LocalDateTime.
+     *
+     * @param epochMinute Minutes since 1970-01-01 00:00.
+     * @return The corresponding LocalDateTime.
+     */
+    public static LocalDateTime toLocalDateTime(long epochMinute) {
+        assert epochMinute != INVALID : "Cannot convert an invalid date";
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts a LocalDateTime to minutes since the epoch.
+     *
+     * @param dateTime The date-time to convert.
+     * @return Minutes since 1970-01-01 00:00.
+     */
+    public static long toEpochMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Formats a date-time in the {@code yyyy-MM-dd HHmm} storage format.
+     *
+     * @param dateTime The date-time to format.
+     * @return The formatted string.
+     */
+    public static String format(LocalDateTime dateTime) {
+        char[] chars = new char[STORAGE_FORMAT_LENGTH];
+        writeDigits(chars, 0, 4, dateTime.getYear());
+        chars[4] = '-';
+        writeDigits(chars, 5, 7, dateTime.getMonthValue());
+        chars[7] = '-';
+        writeDigits(chars, 8, 10, dateTime.getDayOfMonth());
+        chars[10] = ' ';
+        writeDigits(chars, 11, 13, dateTime.getHour());
+        writeDigits(chars, 13, 15, dateTime.getMinute());
+        return new String(chars);
+    }
+
+    private static long parseWith(DateTimeFormatter format, String text) {
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = format.parseUnresolved(text, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != text.length()) {
+            return INVALID;
+        }
+
+        long year = field(parsed, ChronoField.YEAR);
+        if (year == INVALID) {
+            year = field(parsed, ChronoField.YEAR_OF_ERA);
+        }
+        long month = field(parsed, ChronoField.MONTH_OF_YEAR);
+        long day = field(parsed, ChronoField.DAY_OF_MONTH);
+        long hour = hourOf(parsed);
+        long minute = parsed.isSupported(ChronoField.MINUTE_OF_HOUR)
+                ? parsed.getLong(ChronoField.MINUTE_OF_HOUR)
+                : 0;
+        if (isOutOfIntRange(year) || isOutOfIntRange(month) || isOutOfIntRange(day)
+                || isOutOfIntRange(hour) || isOutOfIntRange(minute)) {
+            return INVALID;
+        }
+        return resolve((int) year, (int) month, (int) day, (int) hour, (int) minute);
+    }
+
+    /**
+     * Returns the hour of day from 24-hour or 12-hour fields, or 0 if the format has no time.
+     */
+    private static long hourOf(TemporalAccessor parsed) {
+        long hour = field(parsed, ChronoField.HOUR_OF_DAY);
+        if (hour != INVALID) {
+            return hour;
+        }
+        long hourOfAmPm = field(parsed, ChronoField.HOUR_OF_AMPM);
+        long clockHour = field(parsed, ChronoField.CLOCK_HOUR_OF_AMPM);
+        if (clockHour != INVALID) {
+            hourOfAmPm = clockHour == 12 ? 0 : clockHour;
+        }
+        if (hourOfAmPm == INVALID) {
+            return 0;
+        }
+        if (hourOfAmPm < 0 || hourOfAmPm > 11) {
+            return INVALID;
+        }
+        return field(parsed, ChronoField.AMPM_OF_DAY) == 1 ? hourOfAmPm + 12 : hourOfAmPm;
+    }
+
+    private static boolean isOutOfIntRange(long value) {
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE;
+    }
+
+    private static long field(TemporalAccessor parsed, ChronoField field) {
+        return parsed.isSupported(field) ? parsed.getLong(field) : INVALID;
+    }
+
+    /**
+     * Validates calendar fields and converts them to minutes since the epoch.
+     *
+     * @return Minutes since the epoch, or {@link #INVALID} if a field is out of range.
+     */
+    private static long resolve(int year, int month, int day, int hour, int minute) {
+        boolean isEndOfDay = hour == 24 && minute == 0;
+        if (year < 1 || year > 9999 || month < 1 || month > 12 || day < 1 || day > 31
+                || minute < 0 || minute > 59 || hour < 0 || (hour > 23 && !isEndOfDay)) {
+            return INVALID;
+        }
+        int clampedDay = Math.min(day, daysInMonth(year, month));
+        return daysFromCivil(year, month, clampedDay) * MINUTES_PER_DAY + hour * 60L + minute;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            return Year.isLeap(year) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Returns the number of days from 1970-01-01 to the given proleptic Gregorian date.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] chars, int start, int end, int value) {
+        for (int i = end - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -1,22 +1,27 @@
 package memomax.parser;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import memomax.exception.InvalidInputException;
 import memomax.exception.MemoMaxException;
+import memomax.tasklist.Query;
+import memomax.tasklist.SortKey;
 
 /**
  * Represents a parser that converts user input into commands and parameters.
  * Handles extraction and validation of command arguments.
+ * Arguments are read from the slices located by {@link CommandLexer}, so the input is scanned only once.
  */
 public class Parser {
 
     private static final String DELIMITER_BY = "/by";
     private static final String DELIMITER_FROM = "/from";
     private static final String DELIMITER_TO = "/to";
-
-    private static final String PREFIX_TODO = "todo ";
-    private static final String PREFIX_FIND = "find ";
-    private static final String PREFIX_DEADLINE = "deadline ";
-    private static final String PREFIX_EVENT = "event ";
-    private static final String PREFIX_UPDATE = "update ";
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+    private static final String FIND_ALL_FLAG = "--all";
+    private static final String SORT_BY = "by";
+    private static final char COMMAND_SEPARATOR = ';';
 
     /**
      * Parses a todo command and extracts the description.
@@ -28,18 +33,26 @@ public class Parser {
     public static String parseTodo(String userInput) throws MemoMaxException {
         assert userInput != null : "User input should not be null";
         assert userInput.toLowerCase().startsWith("todo") : "parseTodo called for non-todo input";
+        return parseTodo(CommandLexer.lex(userInput));
+    }
 
-        if (userInput.trim().equalsIgnoreCase("todo")) {
-            throw new MemoMaxException("Todo needs a description. Example: todo read book");
-        }
+    /**
+     * Parses a lexed todo command and extracts the description.
+     *
+     * @param command The lexed todo command.
+     * @return The todo description.
+     * @throws MemoMaxException If the description is empty.
+     */
+    public static String parseTodo(Command command) throws MemoMaxException {
+        assert command.getType() == CommandType.TODO : "parseTodo called for non-todo command";
 
-        String description = userInput.substring(PREFIX_TODO.length()).trim();
-        if (description.isEmpty()) {
-            throw new MemoMaxException("Todo needs a description. Example: todo read book");
+        if (!command.hasArguments()) {
+            throw new InvalidInputException("Todo needs a description. Example: todo read book");
         }
 
-        if (description.contains("|")) {
-            throw new MemoMaxException("Descriptions cannot contain the '|' character.");
+        String description = command.getArguments();
+        if (description.indexOf('|') >= 0) {
+            throw new InvalidInputException("Descriptions cannot contain the '|' character.");
         }
 
         return description;
@@ -59,21 +72,96 @@ public class Parser {
         assert inputParts[0].equals(command) : "parseTaskNumber called with mismatched command word";
 
         if (inputParts.length < 2 || inputParts[1].trim().isEmpty()) {
-            throw new MemoMaxException("Please tell me which task number."
+            throw new InvalidInputException("Please tell me which task number."
                     + " Example: " + command + " 1");
         }
 
-        try {
-            int taskNumber = Integer.parseInt(inputParts[1].trim());
-            if (taskNumber <= 0) {
-                throw new MemoMaxException("Task number must be positive. "
-                        + "Example: " + command + " 1");
-            }
-            return taskNumber;
-        } catch (NumberFormatException e) {
-            throw new MemoMaxException("'" + inputParts[1] + "' is not a number. "
+        return parseTaskNumber(inputParts[1].trim(), command);
+    }
+
+    /**
+     * Parses a lexed mark, unmark, or delete command and extracts the task number.
+     *
+     * @param command The lexed command.
+     * @return The parsed task number (1-based).
+     * @throws MemoMaxException If the number is missing or invalid.
+     */
+    public static int parseTaskNumber(Command command) throws MemoMaxException {
+        String keyword = command.getType().getKeyword();
+        if (!command.hasArguments()) {
+            throw new InvalidInputException("Please tell me which task number."
+                    + " Example: " + keyword + " 1");
+        }
+
+        return parseTaskNumber(command.getFirstArgument(), keyword);
+    }
+
+    private static int parseTaskNumber(String number, String keyword) throws MemoMaxException {
+        long taskNumber = parseInteger(number);
+        if (taskNumber == NOT_A_NUMBER) {
+            throw new InvalidInputException("'" + number + "' is not a number. "
                     + "Please use a number like 1, 2, or 3.");
         }
+        if (taskNumber <= 0) {
+            throw new InvalidInputException("Task number must be positive. "
+                    + "Example: " + keyword + " 1");
+        }
+        return (int) taskNumber;
+    }
+
+    /**
+     * Parses the task number of an update command.
+     * Unlike mark, unmark and delete, non-positive numbers are left to the task list to reject.
+     *
+     * @param number The task number as typed by the user.
+     * @return The parsed task number (1-based).
+     * @throws MemoMaxException If the text is not an integer.
+     */
+    public static int parseUpdateNumber(String number) throws MemoMaxException {
+        long taskNumber = parseInteger(number);
+        if (taskNumber == NOT_A_NUMBER) {
+            throw new InvalidInputException("For input string: \"" + number + "\"");
+        }
+        return (int) taskNumber;
+    }
+
+    /**
+     * Parses a decimal integer in the int range without throwing.
+     * Accepts the same text as {@link Integer#parseInt(String)}.
+     *
+     * @param text The text to parse.
+     * @return The parsed value, or {@link #NOT_A_NUMBER} if the text is not an int.
+     */
+    static long parseInteger(String text) {
+        int length = text.length();
+        if (length == 0) {
+            return NOT_A_NUMBER;
+        }
+        int i = 0;
+        boolean isNegative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            isNegative = first == '-';
+            i++;
+            if (length == 1) {
+                return NOT_A_NUMBER;
+            }
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0) {
+                return NOT_A_NUMBER;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return NOT_A_NUMBER;
+            }
+        }
+        if (isNegative) {
+            return -value;
+        }
+        return value > Integer.MAX_VALUE ? NOT_A_NUMBER : value;
     }
 
     /**
@@ -86,17 +174,229 @@ public class Parser {
     public static String parseFind(String userInput) throws MemoMaxException {
         assert userInput != null : "User input should not be null";
         assert userInput.toLowerCase().startsWith("find") : "parseFind called for non-find input";
+        return parseFind(CommandLexer.lex(userInput));
+    }
+
+    /**
+     * Parses a lexed search command and extracts the query words.
+     *
+     * @param command The lexed search command.
+     * @return The query.
+     * @throws MemoMaxException If the query has no words.
+     */
+    public static String parseSearch(Command command) throws MemoMaxException {
+        if (!command.hasArguments()) {
+            throw new InvalidInputException("Search needs some words. Example: search reed bok");
+        }
+        return command.getArguments();
+    }
+
+    /**
+     * Parses a lexed query command into the query it describes.
+     *
+     * @param command The lexed query command.
+     * @return The query.
+     * @throws MemoMaxException If the conditions are missing or malformed.
+     */
+    public static Query parseQuery(Command command) throws MemoMaxException {
+        return QueryParser.parse(command.hasArguments() ? command.getArguments() : "");
+    }
+
+    /**
+     * Parses the order of a lexed sort command, written as {@code sort by <order>} or
+     * {@code sort <order>}.
+     *
+     * @param command The lexed sort command.
+     * @return The order.
+     * @throws MemoMaxException If the order is missing or unknown.
+     */
+    public static SortKey parseSortKey(Command command) throws MemoMaxException {
+        String[] words = getSortWords(command);
+        if (words.length == 0) {
+            throw new InvalidInputException("Sort needs an order. Example: sort by date");
+        }
+        for (SortKey key : SortKey.values()) {
+            if (key.getKeyword().equalsIgnoreCase(words[0])) {
+                return key;
+            }
+        }
+        throw new InvalidInputException("Unknown sort order '" + words[0]
+                + "'. Use sort by date, sort by desc or sort by type.");
+    }
+
+    /**
+     * Parses the optional page number after the order of a lexed sort command.
+     *
+     * @param command The lexed sort command.
+     * @return The page number (1-based), or 0 if the whole list was asked for.
+     * @throws MemoMaxException If the page number is not a positive integer, or more follows it.
+     */
+    public static int parseSortPage(Command command) throws MemoMaxException {
+        String[] words = getSortWords(command);
+        if (words.length <= 1) {
+            return 0;
+        }
+        long page = parseInteger(words[1]);
+        if (words.length > 2 || page == NOT_A_NUMBER || page <= 0) {
+            throw new InvalidInputException("Page number must be a positive number. Example: sort by date 2");
+        }
+        return (int) page;
+    }
+
+    /**
+     * Returns the words of a sort command after the optional {@code by}, scanned from its argument
+     * slice. At most three are returned, as a third word is already an error.
+     */
+    private static String[] getSortWords(Command command) {
+        String input = command.getInput();
+        int end = command.getArgumentEnd();
+        ArrayList<String> words = new ArrayList<>(3);
+        int i = command.getArgumentStart();
+        boolean isFirst = true;
+        while (words.size() < 3) {
+            while (i < end && input.charAt(i) <= ' ') {
+                i++;
+            }
+            int wordStart = i;
+            while (i < end && input.charAt(i) > ' ') {
+                i++;
+            }
+            if (i == wordStart) {
+                break;
+            }
+            boolean isBy = isFirst && i - wordStart == SORT_BY.length()
+                    && input.regionMatches(true, wordStart, SORT_BY, 0, SORT_BY.length());
+            if (!isBy) {
+                words.add(input.substring(wordStart, i));
+            }
+            isFirst = false;
+        }
+        return words.toArray(new String[0]);
+    }
 
-        if (userInput.trim().equalsIgnoreCase("find")) {
-            throw new MemoMaxException("Find needs a keyword. Example: find book");
+    /**
+     * Parses the optional range of task numbers of a progress command, written as {@code FROM-TO}.
+     *
+     * @param command The lexed progress command.
+     * @return The first and last task numbers (1-based, inclusive), or an empty array if the whole
+     *         list was asked for.
+     * @throws MemoMaxException If the range is not two positive integers in order.
+     */
+    public static int[] parseProgressRange(Command command) throws MemoMaxException {
+        if (!command.hasArguments()) {
+            return new int[0];
+        }
+        String range = command.getArguments();
+        int dash = range.indexOf('-');
+        long first = dash < 0 ? NOT_A_NUMBER : parseInteger(range.substring(0, dash).trim());
+        long last = dash < 0 ? NOT_A_NUMBER : parseInteger(range.substring(dash + 1).trim());
+        if (first == NOT_A_NUMBER || last == NOT_A_NUMBER || first <= 0 || last < first) {
+            throw new InvalidInputException("Progress needs a range of task numbers. Example: progress 1-20");
+        }
+        return new int[] {(int) first, (int) last};
+    }
+
+    /**
+     * Parses the optional page number of a list command.
+     *
+     * @param command The lexed list command.
+     * @return The page number (1-based), or 0 if the whole list was asked for.
+     * @throws MemoMaxException If the page number is not a positive integer.
+     */
+    public static int parseListPage(Command command) throws MemoMaxException {
+        if (!command.hasArguments()) {
+            return 0;
         }
+        long page = parseInteger(command.getFirstArgument());
+        if (page == NOT_A_NUMBER || page <= 0) {
+            throw new InvalidInputException("Page number must be a positive number. Example: list 2");
+        }
+        return (int) page;
+    }
 
-        String keyword = userInput.substring(PREFIX_FIND.length()).trim();
-        if (keyword.isEmpty()) {
-            throw new MemoMaxException("Find keyword cannot be empty. Example: find book");
+    /**
+     * Parses a lexed find command and extracts the keyword.
+     *
+     * @param command The lexed find command.
+     * @return The search keyword.
+     * @throws MemoMaxException If the keyword is empty.
+     */
+    public static String parseFind(Command command) throws MemoMaxException {
+        if (!command.hasArguments()) {
+            throw new InvalidInputException("Find needs a keyword. Example: find book");
+        }
+        if (isFindingAll(command)) {
+            String keyword = command.getArgumentsAfterFirst();
+            if (keyword.isEmpty()) {
+                throw new InvalidInputException("Find needs a keyword. Example: find --all book");
+            }
+            return keyword;
         }
 
-        return keyword;
+        return command.getArguments();
+    }
+
+    /**
+     * Returns whether a lexed find command starts with {@code --all}, asking to search the archive
+     * as well as the list.
+     *
+     * @param command The lexed find command.
+     * @return true if the archive should be searched too.
+     */
+    public static boolean isFindingAll(Command command) {
+        return command.hasArguments() && command.getFirstArgument().equalsIgnoreCase(FIND_ALL_FLAG);
+    }
+
+    /**
+     * Parses a lexed archive command into the query selecting the tasks to archive: the done tasks
+     * meeting the optional conditions, written as in a query command.
+     *
+     * @param command The lexed archive command.
+     * @return The query.
+     * @throws MemoMaxException If the conditions are malformed.
+     */
+    public static Query parseArchive(Command command) throws MemoMaxException {
+        Query isDone = Query.isDone(true);
+        if (!command.hasArguments()) {
+            return isDone;
+        }
+        return Query.allOf(List.of(isDone, QueryParser.parse(command.getArguments())));
+    }
+
+    /**
+     * Splits a multi-command line at each {@code ;} and lexes its commands, skipping empty ones.
+     * Only commands that read the list or change single tasks may be combined, so the line can be
+     * saved, or rolled back, as a whole; {@code bye} must be on its own line.
+     *
+     * @param command The lexed multi-command line.
+     * @return The commands in order.
+     * @throws MemoMaxException If there is no command or a command cannot be combined.
+     */
+    public static List<Command> parseBatch(Command command) throws MemoMaxException {
+        String line = command.getArguments();
+        ArrayList<Command> commands = new ArrayList<>();
+        int start = 0;
+        while (start <= line.length()) {
+            int end = line.indexOf(COMMAND_SEPARATOR, start);
+            if (end < 0) {
+                end = line.length();
+            }
+            String part = line.substring(start, end);
+            if (!part.isBlank()) {
+                Command step = CommandLexer.lex(part);
+                CommandType type = step.getType();
+                if (type == CommandType.BYE || (type.isMutating() && !type.isTransactional())) {
+                    throw new InvalidInputException("'" + type.getKeyword()
+                            + "' cannot be combined with other commands on one line.");
+                }
+                commands.add(step);
+            }
+            start = end + 1;
+        }
+        if (commands.isEmpty()) {
+            throw new InvalidInputException("Separate the commands with ';'. Example: todo read book; mark 1");
+        }
+        return commands;
     }
 
     /**
@@ -109,38 +409,46 @@ public class Parser {
     public static String[] parseDeadline(String userInput) throws MemoMaxException {
         assert userInput != null : "User input should not be null";
         assert userInput.toLowerCase().startsWith("deadline") : "parseDeadline called for non-deadline input";
+        return parseDeadline(CommandLexer.lex(userInput));
+    }
 
-        if (userInput.trim().equalsIgnoreCase("deadline")) {
-            throw new MemoMaxException("Deadline needs a description and a due date. "
+    /**
+     * Parses a lexed deadline command into description and due date.
+     *
+     * @param command The lexed deadline command.
+     * @return A String array containing [description, dueDate].
+     * @throws MemoMaxException If the format is invalid.
+     */
+    public static String[] parseDeadline(Command command) throws MemoMaxException {
+        if (!command.hasArguments()) {
+            throw new InvalidInputException("Deadline needs a description and a due date. "
                     + "Example: deadline return book " + DELIMITER_BY + " 2025-02-01 1800");
         }
 
-        if (!userInput.contains(DELIMITER_BY)) {
-            throw new MemoMaxException("Deadline needs a due date. "
+        int byIndex = command.getByIndex();
+        if (byIndex == Command.ABSENT) {
+            throw new InvalidInputException("Deadline needs a due date. "
                     + "Example: deadline return book " + DELIMITER_BY + " 2026-02-14 1800");
         }
 
-        String[] actionDate = userInput.split(DELIMITER_BY, -1);
-        if (actionDate.length < 2) {
-            throw new MemoMaxException("Please add a due date after '" + DELIMITER_BY + "'. "
-                    + "Example: deadline return book " + DELIMITER_BY + " 2026-02-14 1800");
-        }
-
-        String action = actionDate[0].substring(PREFIX_DEADLINE.length()).trim();
-        String date = actionDate[1].trim();
+        int dateEnd = command.getSecondByIndex() == Command.ABSENT
+                ? command.getArgumentEnd()
+                : command.getSecondByIndex();
+        String action = command.slice(command.getArgumentStart(), byIndex);
+        String date = command.slice(byIndex + DELIMITER_BY.length(), dateEnd);
 
         if (action.isEmpty()) {
-            throw new MemoMaxException("Task not specified. "
+            throw new InvalidInputException("Task not specified. "
                     + "Example: deadline return book " + DELIMITER_BY + " 2026-02-14 1800");
         }
 
         if (date.isEmpty()) {
-            throw new MemoMaxException("Due date is not specified. "
+            throw new InvalidInputException("Due date is not specified. "
                     + "Example: deadline return book " + DELIMITER_BY + " 2026-02-14 1800");
         }
 
-        if (action.contains("|")) {
-            throw new MemoMaxException("Descriptions cannot contain the '|' character.");
+        if (action.indexOf('|') >= 0) {
+            throw new InvalidInputException("Descriptions cannot contain the '|' character.");
         }
 
         return new String[]{action, date};
@@ -156,36 +464,57 @@ public class Parser {
     public static String[] parseEvent(String userInput) throws MemoMaxException {
         assert userInput != null : "User input should not be null";
         assert userInput.toLowerCase().startsWith("event") : "parseEvent called for non-event input";
+        return parseEvent(CommandLexer.lex(userInput));
+    }
 
-        int fromIndex = userInput.indexOf(DELIMITER_FROM);
-        int toIndex = getToIndex(userInput, fromIndex);
+    /**
+     * Parses a lexed event command into description, start time, and end time.
+     *
+     * @param command The lexed event command.
+     * @return A String array containing [description, fromTime, toTime].
+     * @throws MemoMaxException If the format is invalid.
+     */
+    public static String[] parseEvent(Command command) throws MemoMaxException {
+        int fromIndex = command.getFromIndex();
+        int toIndex = command.getToIndex();
+
+        if (fromIndex == Command.ABSENT) {
+            throw new InvalidInputException("Start time not specified. "
+                    + "Example: event meeting " + DELIMITER_FROM + " 2026-02-14 1400 "
+                    + DELIMITER_TO + " 2026-02-14 1600");
+        }
+        if (toIndex == Command.ABSENT) {
+            throw new InvalidInputException("End time not specified. "
+                    + "Example: event meeting " + DELIMITER_FROM + " 2026-02-14 1400 "
+                    + DELIMITER_TO + " 2026-02-14 1600");
+        }
 
         if (fromIndex > toIndex) {
-            throw new MemoMaxException("Command format error: " + DELIMITER_FROM
+            throw new InvalidInputException("Command format error: " + DELIMITER_FROM
                     + " must come before " + DELIMITER_TO);
         }
 
-        String event = userInput.substring(PREFIX_EVENT.length(), fromIndex).trim();
-        String from = userInput.substring(fromIndex + DELIMITER_FROM.length(), toIndex).trim();
-        String to = userInput.substring(toIndex + DELIMITER_TO.length()).trim();
+        String event = command.slice(command.getArgumentStart(), fromIndex);
+        String from = command.slice(fromIndex + DELIMITER_FROM.length(), toIndex);
+        String to = command.slice(toIndex + DELIMITER_TO.length(), command.getArgumentEnd());
 
         if (event.isEmpty()) {
-            throw new MemoMaxException("Event not specified. "
+            throw new InvalidInputException("Event not specified. "
                     + "Example: event meeting " + DELIMITER_FROM + " 2026-02-14 1400 "
                     + DELIMITER_TO + " 2026-02-14 1600");
         }
 
-        if (event.contains("|")) {
-            throw new MemoMaxException("Descriptions cannot contain the '|' character.");
+        if (event.indexOf('|') >= 0) {
+            throw new InvalidInputException("Descriptions cannot contain the '|' character.");
         }
 
         if (from.isEmpty()) {
-            throw new MemoMaxException("Start time not specified. "
+            throw new InvalidInputException("Start time not specified. "
                     + "Example: event meeting " + DELIMITER_FROM + " 2026-02-14 1400 "
                     + DELIMITER_TO + " 2026-02-14 1600");
         }
         if (to.isEmpty()) {
-            throw new MemoMaxException("End time not specified. "
+            throw new InvalidInputException("End time not specified. "
                     + "Example: event meeting " + DELIMITER_FROM + " 2026-02-14 1400 "
                     + DELIMITER_TO + " 2026-02-14 1600");
         }
@@ -193,20 +522,19 @@ public class Parser {
         return new String[]{event, from, to};
     }
 
-    private static int getToIndex(String userInput, int fromIndex) throws MemoMaxException {
-        int toIndex = userInput.indexOf(DELIMITER_TO);
-
-        if (fromIndex == -1) {
-            throw new MemoMaxException("Start time not specified. "
-                    + "Example: event meeting " + DELIMITER_FROM + " 2026-02-14 1400 "
-                    + DELIMITER_TO + " 2026-02-14 1600");
-        }
-        if (toIndex == -1) {
-            throw new MemoMaxException("End time not specified. "
-                    + "Example: event meeting " + DELIMITER_FROM + " 2026-02-14 1400 "
-                    + DELIMITER_TO + " 2026-02-14 1600");
+    /**
+     * Parses a date-time typed by the user, in the storage format or any additional accepted format.
+     *
+     * @param dateTime The date-time text.
+     * @return The date-time in minutes since the epoch.
+     * @throws MemoMaxException If the text is not in an accepted format.
+     */
+    public static long parseDateTime(String dateTime) throws MemoMaxException {
+        long epochMinute = DateParser.parse(dateTime);
+        if (epochMinute == DateParser.INVALID) {
+            throw new InvalidInputException("Invalid date! Use: yyyy-MM-dd HHmm");
         }
-        return toIndex;
+        return epochMinute;
     }
 
     /**
@@ -219,24 +547,32 @@ public class Parser {
     public static String[] parseUpdate(String userInput) throws MemoMaxException {
         assert userInput != null : "User input should not be null";
         assert userInput.toLowerCase().startsWith("update") : "parseUpdate called for non-update input";
+        return parseUpdate(CommandLexer.lex(userInput));
+    }
 
-        if (userInput.trim().equalsIgnoreCase("update")) {
-            throw new MemoMaxException("Update needs a task number and new description. "
+    /**
+     * Parses a lexed update command to extract the task index and the new description.
+     *
+     * @param command The lexed update command.
+     * @return A String array containing [taskNumber, newDescription].
+     * @throws MemoMaxException If the format is invalid or parts are missing.
+     */
+    public static String[] parseUpdate(Command command) throws MemoMaxException {
+        if (!command.hasArguments()) {
+            throw new InvalidInputException("Update needs a task number and new description. "
                     + "Example: update 1 new description");
         }
 
-        String content = userInput.substring(PREFIX_UPDATE.length()).trim();
-        String[] parts = content.split("\\s+", 2);
-
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
-            throw new MemoMaxException("Please provide both a task number and the new description. "
+        String description = command.getArgumentsAfterFirst();
+        if (description.isEmpty()) {
+            throw new InvalidInputException("Please provide both a task number and the new description. "
                     + "Example: update 1 new description");
         }
 
-        if (parts[1].contains("|")) {
-            throw new MemoMaxException("Descriptions cannot contain the '|' character.");
+        if (description.indexOf('|') >= 0) {
+            throw new InvalidInputException("Descriptions cannot contain the '|' character.");
         }
 
-        return new String[]{parts[0].trim(), parts[1].trim()};
+        return new String[]{command.getFirstArgument(), description};
     }
 }
@@ -0,0 +1,219 @@
+package memomax.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import memomax.exception.InvalidInputException;
+import memomax.exception.MemoMaxException;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.Query;
+
+/**
+ * Parses the conditions of a {@code query} command.
+ *
+ * <p>A condition is a keyword the description must contain, {@code "a quoted phrase"},
+ * {@code type:todo|deadline|event}, {@code done:yes|no}, or {@code before:}, {@code after:} or
+ * {@code on:} followed by a date, quoted if it has a time. Dates without a time stand for the whole
+ * day. Conditions next to each other must all hold; {@code or}, {@code not} (or a leading
+ * {@code -}) and parentheses combine them further, with {@code not} binding tightest and {@code or}
+ * loosest.
+ */
+public class QueryParser {
+    private static final String EXAMPLE = "Example: query type:deadline done:no report before:2026-02-20";
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final List<String> tokens;
+    private int next = 0;
+
+    private QueryParser(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Parses the conditions of a query.
+     *
+     * @param text The conditions.
+     * @return The query.
+     * @throws MemoMaxException If the conditions are missing or malformed.
+     */
+    public static Query parse(String text) throws MemoMaxException {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) {
+            throw new InvalidInputException("Query needs some conditions. " + EXAMPLE);
+        }
+        QueryParser parser = new QueryParser(tokens);
+        Query query = parser.parseOr();
+        if (parser.next < tokens.size()) {
+            throw new InvalidInputException("Unexpected ')' in query. " + EXAMPLE);
+        }
+        return query;
+    }
+
+    /**
+     * Splits conditions into words, parentheses and quoted phrases. A quote may follow a filter
+     * name, as in {@code before:"2026-02-20 1800"}; the quotes are kept in the token.
+     */
+    static List<String> tokenize(String text) throws MemoMaxException {
+        ArrayList<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                boolean isQuoted = false;
+                while (i < text.length()) {
+                    char current = text.charAt(i);
+                    if (current == '"') {
+                        isQuoted = !isQuoted;
+                    } else if (!isQuoted && (Character.isWhitespace(current) || current == '(' || current == ')')) {
+                        break;
+                    }
+                    i++;
+                }
+                if (isQuoted) {
+                    throw new InvalidInputException("Missing closing '\"' in query. " + EXAMPLE);
+                }
+                tokens.add(text.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    private Query parseOr() throws MemoMaxException {
+        ArrayList<Query> alternatives = new ArrayList<>();
+        alternatives.add(parseAnd());
+        while (isNext("or")) {
+            next++;
+            alternatives.add(parseAnd());
+        }
+        return Query.anyOf(alternatives);
+    }
+
+    private Query parseAnd() throws MemoMaxException {
+        ArrayList<Query> conditions = new ArrayList<>();
+        conditions.add(parseNot());
+        while (next < tokens.size() && !isNext("or") && !isNext(")")) {
+            if (isNext("and")) {
+                next++;
+            }
+            conditions.add(parseNot());
+        }
+        return Query.allOf(conditions);
+    }
+
+    private Query parseNot() throws MemoMaxException {
+        if (next >= tokens.size()) {
+            throw new InvalidInputException("Query ends where a condition is expected. " + EXAMPLE);
+        }
+        String token = tokens.get(next);
+        if (isNext("not")) {
+            next++;
+            return Query.not(parseNot());
+        }
+        if (token.length() > 1 && token.charAt(0) == '-') {
+            tokens.set(next, token.substring(1));
+            return Query.not(parseNot());
+        }
+        if (token.equals("(")) {
+            next++;
+            Query query = parseOr();
+            if (!isNext(")")) {
+                throw new InvalidInputException("Missing ')' in query. " + EXAMPLE);
+            }
+            next++;
+            return query;
+        }
+        if (token.equals(")") || isNext("or") || isNext("and")) {
+            throw new InvalidInputException("Expected a condition before '" + token + "' in query. " + EXAMPLE);
+        }
+        next++;
+        return parseCondition(token);
+    }
+
+    private static Query parseCondition(String token) throws MemoMaxException {
+        int colon = token.indexOf(':');
+        String name = colon < 0 ? "" : token.substring(0, colon).toLowerCase(Locale.ROOT);
+        String value = colon < 0 ? "" : unquote(token.substring(colon + 1));
+        switch (name) {
+        case "type":
+            return Query.ofType(parseType(value));
+        case "done":
+            return Query.isDone(parseDone(value));
+        case "before":
+            return Query.datedBetween(DateParser.INVALID + 1, parseDay(value)[0]);
+        case "after":
+            return Query.datedBetween(parseDay(value)[1], Long.MAX_VALUE);
+        case "on":
+            long[] day = parseDay(value);
+            return Query.datedBetween(day[0], day[1]);
+        default:
+            String keyword = unquote(token);
+            if (keyword.isEmpty()) {
+                throw new InvalidInputException("Quoted phrases in a query cannot be empty. " + EXAMPLE);
+            }
+            return Query.containing(keyword);
+        }
+    }
+
+    private static Class<? extends Task> parseType(String value) throws MemoMaxException {
+        switch (value.toLowerCase(Locale.ROOT)) {
+        case "todo":
+            return Todo.class;
+        case "deadline":
+            return Deadline.class;
+        case "event":
+            return Event.class;
+        default:
+            throw new InvalidInputException("Unknown task type '" + value + "'. Use type:todo, type:deadline"
+                    + " or type:event.");
+        }
+    }
+
+    private static boolean parseDone(String value) throws MemoMaxException {
+        switch (value.toLowerCase(Locale.ROOT)) {
+        case "yes":
+        case "true":
+            return true;
+        case "no":
+        case "false":
+            return false;
+        default:
+            throw new InvalidInputException("'" + value + "' is not a done state. Use done:yes or done:no.");
+        }
+    }
+
+    /**
+     * Parses a date, or a date and time, into the minutes it covers.
+     *
+     * @return The first minute covered and the minute after the last, since the epoch.
+     */
+    private static long[] parseDay(String value) throws MemoMaxException {
+        long minute = DateParser.parse(value);
+        if (minute != DateParser.INVALID) {
+            return new long[]{minute, minute + 1};
+        }
+        long midnight = value.isBlank() ? DateParser.INVALID : DateParser.parse(value + " 0000");
+        if (midnight == DateParser.INVALID) {
+            throw new InvalidInputException("Invalid date '" + value + "' in query. "
+                    + "Use yyyy-MM-dd, or \"yyyy-MM-dd HHmm\" with a time.");
+        }
+        return new long[]{midnight, midnight + MINUTES_PER_DAY};
+    }
+
+    private static String unquote(String text) {
+        return text.replace("\"", "");
+    }
+
+    private boolean isNext(String word) {
+        return next < tokens.size() && tokens.get(next).equalsIgnoreCase(word);
+    }
+}
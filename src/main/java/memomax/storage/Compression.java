@@ -0,0 +1,66 @@
+package memomax.storage;
+
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+import memomax.exception.MemoMaxException;
+
+/**
+ * Compression applied by {@link Storage} when saving the task file.
+ * Loading detects compressed files by their header, so any setting can read files written with any other.
+ */
+public enum Compression {
+    NONE("none", Deflater.NO_COMPRESSION),
+    DEFLATE_FAST("deflate-fast", Deflater.BEST_SPEED),
+    DEFLATE("deflate", Deflater.DEFAULT_COMPRESSION);
+
+    /** System property choosing the compression of the text engine, e.g. {@code -Dmemomax.compression=deflate}. */
+    public static final String PROPERTY = "memomax.compression";
+
+    private final String name;
+    private final int level;
+
+    Compression(String name, int level) {
+        this.name = name;
+        this.level = level;
+    }
+
+    /**
+     * Returns the compression chosen by the {@value #PROPERTY} system property.
+     *
+     * @return The configured compression, {@link #NONE} if the property is not set.
+     * @throws MemoMaxException If the property names an unknown compression.
+     */
+    public static Compression fromProperty() throws MemoMaxException {
+        return fromName(System.getProperty(PROPERTY, NONE.name));
+    }
+
+    /**
+     * Looks up a compression by name.
+     *
+     * @param name The name, e.g. {@code deflate}.
+     * @return The compression.
+     * @throws MemoMaxException If no compression has that name.
+     */
+    public static Compression fromName(String name) throws MemoMaxException {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        for (Compression compression : values()) {
+            if (compression.name.equals(key)) {
+                return compression;
+            }
+        }
+        throw new MemoMaxException("Unknown compression: " + name + ". Use none, deflate-fast or deflate");
+    }
+
+    /**
+     * Returns the {@link Deflater} level used for this compression.
+     */
+    int getLevel() {
+        return level;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,552 @@
+package memomax.storage;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import memomax.exception.MemoMaxException;
+import memomax.parser.DateParser;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Stores tasks in an embedded H2 database through JDBC.
+ * Each task is one row keyed by a sparse position that preserves list order, so every change
+ * MemoMax reports is written as a single-row statement instead of rewriting the whole list.
+ * A trigram table indexes descriptions, letting {@code find} narrow its search with an index
+ * before checking the substring, and pages of the list are read with keyset pagination on the
+ * position. On first use, tasks are imported from the text file used by {@link Storage}.
+ */
+public class JdbcStorage implements StorageEngine {
+    /** Name under which this engine is registered. */
+    public static final String ENGINE_NAME = "h2";
+
+    private static final long POSITION_GAP = 1024;
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final int FETCH_SIZE = 1000;
+    private static final String TYPE_TODO = "T";
+    private static final String TYPE_DEADLINE = "D";
+    private static final String TYPE_EVENT = "E";
+    private static final String META_IMPORTED = "imported_from";
+    private static final String TASK_COLUMNS =
+            "list_position, task_type, is_done, description, start_minute, end_minute";
+
+    private final String url;
+    private final String importPath;
+    private final TaskArchive archive;
+    private Connection connection;
+    private long[] positions = new long[16];
+    private int size = 0;
+    private boolean isStale = false;
+
+    /**
+     * Creates an H2-backed storage engine.
+     *
+     * @param dataPath The database file path without extension, or a full {@code jdbc:} URL.
+     * @param importPath The text file to import tasks from when the database is first created.
+     */
+    public JdbcStorage(String dataPath, String importPath) {
+        assert dataPath != null && !dataPath.isBlank() : "Data path should not be null or empty";
+        this.url = dataPath.startsWith("jdbc:")
+                ? dataPath
+                : "jdbc:h2:file:" + Paths.get(dataPath).toAbsolutePath();
+        this.importPath = importPath;
+        this.archive = new TaskArchive(TaskArchive.pathNextTo(dataPath.startsWith("jdbc:") ? importPath : dataPath));
+    }
+
+    @Override
+    public TaskArchive getArchive() {
+        return archive;
+    }
+
+    @Override
+    public int loadInChunks(int chunkSize, ChunkListener listener) throws MemoMaxException {
+        assert chunkSize > 0 : "Chunk size should be positive";
+        assert listener != null : "Chunk listener should not be null";
+        String importWarning = openAndMigrate();
+
+        int loadedCount = 0;
+        int corruptedRows = 0;
+        size = 0;
+        ArrayList<Task> chunk = new ArrayList<>();
+        try (Statement count = connection.createStatement();
+                ResultSet countResult = count.executeQuery("SELECT COUNT(*) FROM tasks");
+                PreparedStatement select = connection.prepareStatement(
+                        "SELECT " + TASK_COLUMNS + " FROM tasks ORDER BY list_position")) {
+            countResult.next();
+            long total = Math.max(1, countResult.getLong(1));
+            select.setFetchSize(FETCH_SIZE);
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    Task task = readTask(rows);
+                    if (task == null) {
+                        corruptedRows++;
+                        continue;
+                    }
+                    addPosition(size, rows.getLong("list_position"));
+                    chunk.add(task);
+                    loadedCount++;
+                    if (chunk.size() >= chunkSize) {
+                        listener.onChunk(chunk, Math.min(1.0, (double) loadedCount / total));
+                        chunk = new ArrayList<>();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new MemoMaxException("Cannot read tasks database: " + e.getMessage());
+        }
+        listener.onChunk(chunk, 1.0);
+
+        if (corruptedRows > 0) {
+            throw new MemoMaxException("Warning: " + corruptedRows
+                    + " corrupted rows found in the tasks database. These were skipped.");
+        }
+        if (importWarning != null) {
+            throw new MemoMaxException(importWarning);
+        }
+        return loadedCount;
+    }
+
+    @Override
+    public void save(List<Task> tasks) throws MemoMaxException {
+        ensureOpen();
+        try (Statement clear = connection.createStatement();
+                PreparedStatement insertTask = prepareInsertTask();
+                PreparedStatement insertTrigram = prepareInsertTrigram()) {
+            clear.executeUpdate("DELETE FROM task_trigrams");
+            clear.executeUpdate("DELETE FROM tasks");
+            size = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                long position = (i + 1) * POSITION_GAP;
+                bindTask(insertTask, position, tasks.get(i));
+                insertTask.addBatch();
+                addTrigrams(insertTrigram, position, tasks.get(i).getDescription());
+                addPosition(i, position);
+            }
+            insertTask.executeBatch();
+            insertTrigram.executeBatch();
+            connection.commit();
+            isStale = false;
+        } catch (SQLException e) {
+            throw fail("Failed to save tasks", e);
+        }
+    }
+
+    @Override
+    public void taskAdded(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        long position = positionForInsert(index);
+        if (isStale || connection == null || size != tasks.size() - 1
+                || position == Long.MIN_VALUE) {
+            save(tasks);
+            return;
+        }
+        try (PreparedStatement insertTask = prepareInsertTask();
+                PreparedStatement insertTrigram = prepareInsertTrigram()) {
+            bindTask(insertTask, position, task);
+            insertTask.executeUpdate();
+            addTrigrams(insertTrigram, position, task.getDescription());
+            insertTrigram.executeBatch();
+            connection.commit();
+            addPosition(index, position);
+        } catch (SQLException e) {
+            throw fail("Failed to save the new task", e);
+        }
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        if (isStale || connection == null || size != tasks.size()) {
+            save(tasks);
+            return;
+        }
+        long position = positions[index];
+        try (PreparedStatement select = connection.prepareStatement(
+                        "SELECT description FROM tasks WHERE list_position = ?");
+                PreparedStatement update = connection.prepareStatement("UPDATE tasks SET task_type = ?, is_done = ?,"
+                        + " description = ?, start_minute = ?, end_minute = ? WHERE list_position = ?")) {
+            select.setLong(1, position);
+            String oldDescription;
+            try (ResultSet row = select.executeQuery()) {
+                oldDescription = row.next() ? row.getString(1) : null;
+            }
+            bindFields(update, 1, task);
+            update.setLong(6, position);
+            update.executeUpdate();
+            if (!task.getDescription().equals(oldDescription)) {
+                replaceTrigrams(position, task.getDescription());
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw fail("Failed to save the updated task", e);
+        }
+    }
+
+    @Override
+    public void taskDeleted(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        if (isStale || connection == null || size != tasks.size() + 1) {
+            save(tasks);
+            return;
+        }
+        long position = positions[index];
+        try (PreparedStatement deleteTask = connection.prepareStatement("DELETE FROM tasks WHERE list_position = ?");
+                PreparedStatement deleteTrigrams = connection.prepareStatement(
+                        "DELETE FROM task_trigrams WHERE list_position = ?")) {
+            deleteTask.setLong(1, position);
+            deleteTask.executeUpdate();
+            deleteTrigrams.setLong(1, position);
+            deleteTrigrams.executeUpdate();
+            connection.commit();
+            removePosition(index);
+        } catch (SQLException e) {
+            throw fail("Failed to delete the task", e);
+        }
+    }
+
+    /**
+     * Finds matching tasks using the trigram index. Keywords shorter than a trigram fall back to
+     * a scan of the lowercase descriptions.
+     */
+    @Override
+    public int[] findMatchingIndices(String keyword) throws MemoMaxException {
+        if (isStale || connection == null) {
+            return null;
+        }
+        String lowerKeyword = keyword.toLowerCase();
+        Set<String> trigrams = trigramsOf(lowerKeyword);
+        StringBuilder sql = new StringBuilder("SELECT t.list_position FROM tasks t");
+        if (!trigrams.isEmpty()) {
+            sql.append(" JOIN (SELECT list_position FROM task_trigrams WHERE trigram IN (")
+                    .append(String.join(", ", Collections.nCopies(trigrams.size(), "?")))
+                    .append(") GROUP BY list_position HAVING COUNT(*) = ?) m ON m.list_position = t.list_position");
+        }
+        sql.append(" WHERE LOWER(t.description) LIKE ? ESCAPE '!' ORDER BY t.list_position");
+
+        try (PreparedStatement select = connection.prepareStatement(sql.toString())) {
+            int parameter = 1;
+            for (String trigram : trigrams) {
+                select.setString(parameter++, trigram);
+            }
+            if (!trigrams.isEmpty()) {
+                select.setInt(parameter++, trigrams.size());
+            }
+            select.setString(parameter, "%" + escapeLike(lowerKeyword) + "%");
+
+            int[] indices = new int[16];
+            int count = 0;
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    int index = Arrays.binarySearch(positions, 0, size, rows.getLong(1));
+                    if (index < 0) {
+                        return null;
+                    }
+                    if (count == indices.length) {
+                        indices = Arrays.copyOf(indices, count * 2);
+                    }
+                    indices[count++] = index;
+                }
+            }
+            return Arrays.copyOf(indices, count);
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads a page of tasks with keyset pagination, seeking past the position of the task just
+     * before the page instead of skipping rows with an offset.
+     */
+    @Override
+    public List<Task> readPage(int fromIndex, int count) throws MemoMaxException {
+        if (isStale || connection == null || fromIndex > size) {
+            return null;
+        }
+        long after = fromIndex == 0 ? Long.MIN_VALUE : positions[fromIndex - 1];
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT " + TASK_COLUMNS + " FROM tasks WHERE list_position > ? ORDER BY list_position LIMIT ?")) {
+            select.setLong(1, after);
+            select.setInt(2, count);
+            ArrayList<Task> page = new ArrayList<>(count);
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    Task task = readTask(rows);
+                    if (task == null) {
+                        return null;
+                    }
+                    page.add(task);
+                }
+            }
+            return page;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws MemoMaxException {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new MemoMaxException("Failed to close tasks database: " + e.getMessage());
+        } finally {
+            connection = null;
+        }
+    }
+
+    /**
+     * Opens the database and, the first time, imports the tasks from the text file.
+     * The import is recorded only after the tasks are committed, so an interrupted import is
+     * simply repeated on the next start.
+     *
+     * @return A warning about lines skipped during the import, or null.
+     */
+    private String openAndMigrate() throws MemoMaxException {
+        ensureOpen();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT val FROM memomax_meta WHERE name = '" + META_IMPORTED + "'");
+                ResultSet imported = select.executeQuery()) {
+            if (imported.next()) {
+                return null;
+            }
+        } catch (SQLException e) {
+            throw new MemoMaxException("Cannot read tasks database: " + e.getMessage());
+        }
+
+        ArrayList<Task> importedTasks = new ArrayList<>();
+        String warning = null;
+        if (importPath != null && Files.exists(Paths.get(importPath))) {
+            try {
+                importedTasks = new Storage(importPath).load();
+            } catch (MemoMaxException e) {
+                importedTasks = e.getPartialTasks();
+                warning = e.getMessage();
+            }
+        }
+        save(importedTasks);
+        try (PreparedStatement record = connection.prepareStatement(
+                "INSERT INTO memomax_meta (name, val) VALUES ('" + META_IMPORTED + "', ?)")) {
+            record.setString(1, importPath == null ? "" : importPath);
+            record.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            throw fail("Failed to record the import", e);
+        }
+        return warning;
+    }
+
+    /**
+     * Opens the connection, if not already open, and creates any missing tables.
+     */
+    private void ensureOpen() throws MemoMaxException {
+        if (connection != null) {
+            return;
+        }
+        try {
+            connection = DriverManager.getConnection(url);
+            connection.setAutoCommit(false);
+            try (Statement ddl = connection.createStatement()) {
+                ddl.executeUpdate("CREATE TABLE IF NOT EXISTS memomax_meta ("
+                        + "name VARCHAR(64) PRIMARY KEY, val VARCHAR(1024))");
+                ddl.executeUpdate("CREATE TABLE IF NOT EXISTS tasks ("
+                        + "list_position BIGINT PRIMARY KEY, task_type CHAR(1) NOT NULL, is_done BOOLEAN NOT NULL, "
+                        + "description VARCHAR NOT NULL, start_minute BIGINT, end_minute BIGINT)");
+                ddl.executeUpdate("CREATE TABLE IF NOT EXISTS task_trigrams (trigram VARCHAR(3) NOT NULL, "
+                        + "list_position BIGINT NOT NULL, PRIMARY KEY (trigram, list_position))");
+                ddl.executeUpdate("CREATE INDEX IF NOT EXISTS task_trigrams_position ON task_trigrams (list_position)");
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            connection = null;
+            throw new MemoMaxException("Cannot open tasks database " + url + ": " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Connection failed) {
+        if (failed == null) {
+            return;
+        }
+        try {
+            failed.close();
+        } catch (SQLException e) {
+            // Already failing; the original error is the one worth reporting.
+        }
+    }
+
+    private PreparedStatement prepareInsertTask() throws SQLException {
+        return connection.prepareStatement("INSERT INTO tasks (" + TASK_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)");
+    }
+
+    private PreparedStatement prepareInsertTrigram() throws SQLException {
+        return connection.prepareStatement("INSERT INTO task_trigrams (trigram, list_position) VALUES (?, ?)");
+    }
+
+    private void replaceTrigrams(long position, String description) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM task_trigrams WHERE list_position = ?");
+                PreparedStatement insert = prepareInsertTrigram()) {
+            delete.setLong(1, position);
+            delete.executeUpdate();
+            addTrigrams(insert, position, description);
+            insert.executeBatch();
+        }
+    }
+
+    private static void addTrigrams(PreparedStatement insert, long position, String description)
+            throws SQLException {
+        for (String trigram : trigramsOf(description.toLowerCase())) {
+            insert.setString(1, trigram);
+            insert.setLong(2, position);
+            insert.addBatch();
+        }
+    }
+
+    /**
+     * Returns the distinct three-character substrings of already lowercased text.
+     */
+    static Set<String> trigramsOf(String text) {
+        LinkedHashSet<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + TRIGRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + TRIGRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    private static void bindTask(PreparedStatement insert, long position, Task task) throws SQLException {
+        insert.setLong(1, position);
+        bindFields(insert, 2, task);
+    }
+
+    private static void bindFields(PreparedStatement statement, int first, Task task) throws SQLException {
+        long start = Long.MIN_VALUE;
+        long end = Long.MIN_VALUE;
+        String type = TYPE_TODO;
+        if (task instanceof Deadline) {
+            type = TYPE_DEADLINE;
+            start = DateParser.toEpochMinute(((Deadline) task).getByDateTime());
+        } else if (task instanceof Event) {
+            type = TYPE_EVENT;
+            start = DateParser.toEpochMinute(((Event) task).getFromDateTime());
+            end = DateParser.toEpochMinute(((Event) task).getToDateTime());
+        }
+        statement.setString(first, type);
+        statement.setBoolean(first + 1, task.isDone());
+        statement.setString(first + 2, task.getDescription());
+        setNullableLong(statement, first + 3, start);
+        setNullableLong(statement, first + 4, end);
+    }
+
+    private static void setNullableLong(PreparedStatement statement, int index, long value) throws SQLException {
+        if (value == Long.MIN_VALUE) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    /**
+     * Converts a row to a task.
+     *
+     * @return The task, or null if the row is not a valid task.
+     */
+    private static Task readTask(ResultSet row) throws SQLException {
+        String description = row.getString("description");
+        if (description == null || description.isBlank()) {
+            return null;
+        }
+        long start = row.getLong("start_minute");
+        boolean hasStart = !row.wasNull();
+        long end = row.getLong("end_minute");
+        boolean hasEnd = !row.wasNull();
+
+        Task task;
+        switch (row.getString("task_type")) {
+        case TYPE_TODO:
+            task = new Todo(description);
+            break;
+        case TYPE_DEADLINE:
+            if (!hasStart) {
+                return null;
+            }
+            task = new Deadline(description, start);
+            break;
+        case TYPE_EVENT:
+            if (!hasStart || !hasEnd) {
+                return null;
+            }
+            task = new Event(description, start, end);
+            break;
+        default:
+            return null;
+        }
+        if (row.getBoolean("is_done")) {
+            task.mark();
+        }
+        return task;
+    }
+
+    /**
+     * Picks a position between the neighbours of {@code index}.
+     *
+     * @return The new position, or {@link Long#MIN_VALUE} if there is no gap left.
+     */
+    private long positionForInsert(int index) {
+        if (index < 0 || index > size) {
+            return Long.MIN_VALUE;
+        }
+        if (index == size) {
+            return size == 0 ? POSITION_GAP : positions[size - 1] + POSITION_GAP;
+        }
+        long before = index == 0 ? 0 : positions[index - 1];
+        long after = positions[index];
+        return after - before > 1 ? before + (after - before) / 2 : Long.MIN_VALUE;
+    }
+
+    private void addPosition(int index, long position) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+        System.arraycopy(positions, index, positions, index + 1, size - index);
+        positions[index] = position;
+        size++;
+    }
+
+    private void removePosition(int index) {
+        System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Rolls back a failed change and marks the database as out of sync, so the next change
+     * rewrites every row and queries are answered from memory until then.
+     */
+    private MemoMaxException fail(String message, SQLException cause) {
+        isStale = true;
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            // The connection is unusable; the next change reports the problem.
+        }
+        return new MemoMaxException(message + ": " + cause.getMessage());
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
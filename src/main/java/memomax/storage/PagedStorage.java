@@ -0,0 +1,581 @@
+package memomax.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+import memomax.exception.MemoMaxException;
+import memomax.metrics.Metrics;
+import memomax.metrics.StorageLoadChunkEvent;
+import memomax.metrics.StorageSaveEvent;
+import memomax.parser.DateParser;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Stores tasks as fixed-size records in a slot file, with descriptions too long for a record kept
+ * in a separate heap file. Each record carries a sparse order key, so list order does not depend on
+ * which slot a task occupies. Marking or unmarking rewrites the single flag byte of a record,
+ * updating rewrites one record, deleting clears a record's flag byte and adds its slot to the
+ * free-space map, and new tasks reuse free slots before the file grows, so the I/O of every change
+ * stays the same however long the list is.
+ *
+ * <p>The free-space map is rebuilt from the flag bytes on load. Heap space left behind by updated or
+ * deleted descriptions is reclaimed when it outgrows the live descriptions, by rewriting both files
+ * into a new heap generation.
+ */
+public class PagedStorage implements StorageEngine {
+    /** Name under which this engine is registered. */
+    public static final String ENGINE_NAME = "paged";
+    /** Size of one record, in bytes. */
+    static final int RECORD_SIZE = 128;
+    /** Size of the slot file header, in bytes. */
+    static final int HEADER_SIZE = RECORD_SIZE;
+    /** Position within a record of the offset of its description in the heap file. */
+    static final int OFFSET_HEAP = 30;
+
+    private static final int MAGIC = 0x4D4D5047;
+    private static final int HEADER_FIELDS_SIZE = 24;
+    private static final int VERSION = 1;
+    private static final byte FLAG_USED = 1;
+    private static final byte FLAG_DONE = 2;
+    private static final byte TYPE_TODO = 'T';
+    private static final byte TYPE_DEADLINE = 'D';
+    private static final byte TYPE_EVENT = 'E';
+    private static final int OFFSET_TYPE = 1;
+    private static final int OFFSET_ORDER = 2;
+    private static final int OFFSET_START = 10;
+    private static final int OFFSET_END = 18;
+    private static final int OFFSET_LENGTH = 26;
+    private static final int OFFSET_INLINE = 38;
+    private static final int INLINE_CAPACITY = RECORD_SIZE - OFFSET_INLINE;
+    private static final long NO_HEAP = -1;
+    private static final long ORDER_GAP = 1024;
+    private static final long MIN_GARBAGE_TO_COMPACT = 64 * 1024;
+    private static final String SLOTS_SUFFIX = ".slots";
+    private static final String HEAP_SUFFIX = ".heap.";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path slotsPath;
+    private final TaskArchive archive;
+    private final ArrayList<Placement> placements = new ArrayList<>();
+    private final BitSet freeSlots = new BitSet();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final ByteBuffer flag = ByteBuffer.allocate(1);
+    private FileChannel slots;
+    private FileChannel heap;
+    private long heapGeneration = 0;
+    private long slotCount = 0;
+
+    /**
+     * Creates paged storage.
+     *
+     * @param dataPath The slot file path without its extension; the heap files sit next to it.
+     */
+    public PagedStorage(String dataPath) {
+        assert dataPath != null && !dataPath.isBlank() : "Data path should not be null or empty";
+        this.slotsPath = Paths.get(dataPath + SLOTS_SUFFIX);
+        this.archive = new TaskArchive(TaskArchive.pathNextTo(dataPath));
+    }
+
+    @Override
+    public TaskArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Reads every record, orders the used ones by their order key and delivers them in chunks.
+     * Unreadable records are skipped, reported once all valid tasks have been delivered, and their
+     * slots reused.
+     */
+    @Override
+    public int loadInChunks(int chunkSize, ChunkListener listener) throws MemoMaxException {
+        assert chunkSize > 0 : "Chunk size should be positive";
+        assert listener != null : "Chunk listener should not be null";
+        closeChannels();
+        placements.clear();
+        freeSlots.clear();
+        if (!Files.exists(slotsPath)) {
+            save(new ArrayList<>());
+            listener.onChunk(new ArrayList<>(), 1.0);
+            return 0;
+        }
+
+        int corruptedRecords = 0;
+        long liveHeapBytes = 0;
+        StorageLoadChunkEvent chunkEvent = Storage.startChunkEvent();
+        try {
+            openChannels();
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 512);
+            long position = HEADER_SIZE;
+            long slot = 0;
+            while (slot < slotCount) {
+                buffer.clear();
+                int read = slots.read(buffer, position);
+                if (read < RECORD_SIZE) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE && slot < slotCount) {
+                    int recordStart = buffer.position();
+                    byte flags = buffer.get(recordStart);
+                    if ((flags & FLAG_USED) == 0) {
+                        freeSlots.set((int) slot);
+                    } else {
+                        Placement placement = readRecord(buffer, recordStart, slot);
+                        if (placement == null) {
+                            corruptedRecords++;
+                            chunkEvent.corruptedLines++;
+                            freeSlots.set((int) slot);
+                        } else {
+                            placements.add(placement);
+                            liveHeapBytes += placement.heapBytes;
+                        }
+                    }
+                    buffer.position(recordStart + RECORD_SIZE);
+                    slot++;
+                }
+                position += read - buffer.remaining();
+            }
+        } catch (IOException e) {
+            throw new MemoMaxException("Cannot read tasks file. Starting fresh");
+        }
+        placements.sort(Comparator.comparingLong((Placement placement) -> placement.order)
+                .thenComparingLong(placement -> placement.slot));
+
+        ArrayList<Task> chunk = new ArrayList<>();
+        for (int i = 0; i < placements.size(); i++) {
+            chunk.add(placements.get(i).task);
+            if (chunk.size() >= chunkSize) {
+                double progress = (double) (i + 1) / placements.size();
+                Storage.commitChunkEvent(chunkEvent, chunk.size(), (long) (i + 1) * RECORD_SIZE, progress);
+                listener.onChunk(chunk, progress);
+                chunk = new ArrayList<>();
+                chunkEvent = Storage.startChunkEvent();
+            }
+        }
+        Storage.commitChunkEvent(chunkEvent, chunk.size(), slotCount * RECORD_SIZE, 1.0);
+        listener.onChunk(chunk, 1.0);
+
+        compactIfWasteful(liveHeapBytes);
+        if (corruptedRecords > 0) {
+            throw new MemoMaxException("Warning: " + corruptedRecords
+                    + " corrupted records found in storage. These were skipped.");
+        }
+        return placements.size();
+    }
+
+    /**
+     * Rewrites both files from scratch: records in list order and a compacted heap in a new
+     * generation. The new heap is written before the slot file that refers to it replaces the old
+     * one, so a crash leaves either the old or the new list.
+     */
+    @Override
+    public void save(List<Task> tasks) throws MemoMaxException {
+        assert tasks != null : "Task list to save should not be null";
+        StorageSaveEvent saveEvent = new StorageSaveEvent();
+        saveEvent.begin();
+        long startNanos = System.nanoTime();
+        long nextGeneration = heapGeneration + 1;
+        Path newHeapPath = heapPath(nextGeneration);
+        Path tempSlotsPath = Paths.get(slotsPath + TEMP_SUFFIX);
+        ArrayList<Placement> written = new ArrayList<>(tasks.size());
+        long bytesWritten;
+
+        try {
+            Path parent = slotsPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel newSlots = FileChannel.open(tempSlotsPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    FileChannel newHeap = FileChannel.open(newHeapPath, StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(newSlots, header(nextGeneration), 0);
+                for (int i = 0; i < tasks.size(); i++) {
+                    Placement placement = new Placement(i, (i + 1) * ORDER_GAP, tasks.get(i));
+                    writeFully(newSlots, encode(placement, newHeap), HEADER_SIZE + (long) i * RECORD_SIZE);
+                    written.add(placement);
+                }
+                bytesWritten = newSlots.size() + newHeap.size();
+            }
+            closeChannels();
+            replace(tempSlotsPath, slotsPath);
+            Files.deleteIfExists(heapPath(heapGeneration));
+            openChannels();
+        } catch (IOException e) {
+            throw new MemoMaxException("Failed to save tasks.");
+        }
+
+        placements.clear();
+        placements.addAll(written);
+        freeSlots.clear();
+        recordSave(saveEvent, startNanos, tasks.size(), bytesWritten);
+    }
+
+    /**
+     * Writes the new task into a free slot, or a new slot at the end of the file.
+     */
+    @Override
+    public void taskAdded(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        long order = orderForInsert(index);
+        if (slots == null || placements.size() != tasks.size() - 1 || order == Long.MIN_VALUE) {
+            save(tasks);
+            return;
+        }
+        StorageSaveEvent saveEvent = new StorageSaveEvent();
+        saveEvent.begin();
+        long startNanos = System.nanoTime();
+        int freeSlot = freeSlots.nextSetBit(0);
+        long slot = freeSlot >= 0 ? freeSlot : slotCount;
+        Placement placement = new Placement(slot, order, task);
+        try {
+            writeFully(slots, encode(placement, heap), slotOffset(slot));
+        } catch (IOException e) {
+            throw new MemoMaxException("Failed to save tasks.");
+        }
+        if (freeSlot >= 0) {
+            freeSlots.clear(freeSlot);
+        } else {
+            slotCount++;
+        }
+        placements.add(index, placement);
+        recordSave(saveEvent, startNanos, tasks.size(), RECORD_SIZE + placement.heapBytes);
+    }
+
+    /**
+     * Rewrites only the flag byte when the same task was marked or unmarked, or the whole record
+     * when the task was replaced.
+     */
+    @Override
+    public void taskUpdated(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        if (slots == null || placements.size() != tasks.size()) {
+            save(tasks);
+            return;
+        }
+        StorageSaveEvent saveEvent = new StorageSaveEvent();
+        saveEvent.begin();
+        long startNanos = System.nanoTime();
+        Placement old = placements.get(index);
+        long bytesWritten;
+        try {
+            if (old.task == task) {
+                writeFlag(old.slot, flagsOf(task));
+                bytesWritten = 1;
+            } else {
+                Placement placement = new Placement(old.slot, old.order, task);
+                writeFully(slots, encode(placement, heap), slotOffset(old.slot));
+                placements.set(index, placement);
+                bytesWritten = RECORD_SIZE + placement.heapBytes;
+            }
+        } catch (IOException e) {
+            throw new MemoMaxException("Failed to save tasks.");
+        }
+        recordSave(saveEvent, startNanos, tasks.size(), bytesWritten);
+    }
+
+    /**
+     * Clears the flag byte of the task's record and adds its slot to the free-space map.
+     */
+    @Override
+    public void taskDeleted(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        if (slots == null || placements.size() != tasks.size() + 1) {
+            save(tasks);
+            return;
+        }
+        StorageSaveEvent saveEvent = new StorageSaveEvent();
+        saveEvent.begin();
+        long startNanos = System.nanoTime();
+        Placement removed = placements.get(index);
+        try {
+            writeFlag(removed.slot, (byte) 0);
+        } catch (IOException e) {
+            throw new MemoMaxException("Failed to save tasks.");
+        }
+        placements.remove(index);
+        freeSlots.set((int) removed.slot);
+        recordSave(saveEvent, startNanos, tasks.size(), 1);
+    }
+
+    @Override
+    public void flush() throws MemoMaxException {
+        try {
+            if (slots != null) {
+                slots.force(false);
+                heap.force(false);
+            }
+        } catch (IOException e) {
+            throw new MemoMaxException("Failed to save tasks.");
+        }
+    }
+
+    @Override
+    public void close() throws MemoMaxException {
+        flush();
+        closeChannels();
+    }
+
+    /**
+     * Returns the number of record slots in the slot file, used or free.
+     */
+    long getSlotCount() {
+        return slotCount;
+    }
+
+    private void compactIfWasteful(long liveHeapBytes) throws MemoMaxException {
+        long heapSize;
+        try {
+            heapSize = heap.size();
+        } catch (IOException e) {
+            return;
+        }
+        long garbage = heapSize - liveHeapBytes;
+        if (garbage > MIN_GARBAGE_TO_COMPACT && garbage > liveHeapBytes) {
+            ArrayList<Task> tasks = new ArrayList<>(placements.size());
+            for (Placement placement : placements) {
+                tasks.add(placement.task);
+            }
+            save(tasks);
+        }
+    }
+
+    private void openChannels() throws IOException, MemoMaxException {
+        slots = FileChannel.open(slotsPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        slots.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_FIELDS_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION
+                || header.getInt() != RECORD_SIZE) {
+            closeChannels();
+            throw new MemoMaxException("Unrecognised tasks file: " + slotsPath + ". Starting fresh");
+        }
+        header.getInt();
+        heapGeneration = header.getLong();
+        heap = FileChannel.open(heapPath(heapGeneration), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        slotCount = (slots.size() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private void closeChannels() {
+        for (FileChannel channel : new FileChannel[] {slots, heap}) {
+            if (channel == null) {
+                continue;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing is buffered in a channel, so there is nothing left to lose.
+            }
+        }
+        slots = null;
+        heap = null;
+    }
+
+    private static ByteBuffer header(long generation) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).putLong(generation);
+        header.clear();
+        return header;
+    }
+
+    /**
+     * Encodes a record, appending its description to the heap if it does not fit inline.
+     */
+    private ByteBuffer encode(Placement placement, FileChannel heapChannel) throws IOException {
+        Task task = placement.task;
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        long heapOffset = NO_HEAP;
+        if (description.length > INLINE_CAPACITY) {
+            heapOffset = heapChannel.size();
+            writeFully(heapChannel, ByteBuffer.wrap(description), heapOffset);
+            placement.heapBytes = description.length;
+        }
+
+        long start = Long.MIN_VALUE;
+        long end = Long.MIN_VALUE;
+        byte type = TYPE_TODO;
+        if (task instanceof Deadline) {
+            type = TYPE_DEADLINE;
+            start = DateParser.toEpochMinute(((Deadline) task).getByDateTime());
+        } else if (task instanceof Event) {
+            type = TYPE_EVENT;
+            start = DateParser.toEpochMinute(((Event) task).getFromDateTime());
+            end = DateParser.toEpochMinute(((Event) task).getToDateTime());
+        }
+
+        record.clear();
+        record.put(flagsOf(task)).put(type).putLong(placement.order).putLong(start).putLong(end)
+                .putInt(description.length).putLong(heapOffset);
+        if (heapOffset == NO_HEAP) {
+            record.put(description);
+        }
+        while (record.hasRemaining()) {
+            record.put((byte) 0);
+        }
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Decodes the record starting at {@code start} in the buffer.
+     *
+     * @return The placement, or null if the record is not a valid task.
+     */
+    private Placement readRecord(ByteBuffer buffer, int start, long slot) throws IOException {
+        byte flags = buffer.get(start);
+        byte type = buffer.get(start + OFFSET_TYPE);
+        long order = buffer.getLong(start + OFFSET_ORDER);
+        long from = buffer.getLong(start + OFFSET_START);
+        long to = buffer.getLong(start + OFFSET_END);
+        int length = buffer.getInt(start + OFFSET_LENGTH);
+        long heapOffset = buffer.getLong(start + OFFSET_HEAP);
+
+        boolean isInline = heapOffset == NO_HEAP;
+        if (length <= 0 || isInline && length > INLINE_CAPACITY
+                || !isInline && (heapOffset < 0 || heapOffset > heap.size() - length)) {
+            return null;
+        }
+        byte[] description = new byte[length];
+        if (isInline) {
+            buffer.get(start + OFFSET_INLINE, description);
+        } else {
+            ByteBuffer target = ByteBuffer.wrap(description);
+            while (target.hasRemaining()) {
+                if (heap.read(target, heapOffset + target.position()) < 0) {
+                    return null;
+                }
+            }
+        }
+
+        String text;
+        try {
+            text = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(description)).toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+        if (text.isBlank()) {
+            return null;
+        }
+
+        Task task;
+        switch (type) {
+        case TYPE_TODO:
+            task = new Todo(text);
+            break;
+        case TYPE_DEADLINE:
+            if (from == Long.MIN_VALUE) {
+                return null;
+            }
+            task = new Deadline(text, from);
+            break;
+        case TYPE_EVENT:
+            if (from == Long.MIN_VALUE || to == Long.MIN_VALUE) {
+                return null;
+            }
+            task = new Event(text, from, to);
+            break;
+        default:
+            return null;
+        }
+        if ((flags & FLAG_DONE) != 0) {
+            task.mark();
+        }
+        Placement placement = new Placement(slot, order, task);
+        placement.heapBytes = isInline ? 0 : length;
+        return placement;
+    }
+
+    private void writeFlag(long slot, byte flags) throws IOException {
+        flag.clear();
+        flag.put(flags).flip();
+        writeFully(slots, flag, slotOffset(slot));
+    }
+
+    private static byte flagsOf(Task task) {
+        return (byte) (FLAG_USED | (task.isDone() ? FLAG_DONE : 0));
+    }
+
+    /**
+     * Picks an order key between the neighbours of {@code index}.
+     *
+     * @return The new order key, or {@link Long#MIN_VALUE} if there is no gap left.
+     */
+    private long orderForInsert(int index) {
+        if (index < 0 || index > placements.size()) {
+            return Long.MIN_VALUE;
+        }
+        if (index == placements.size()) {
+            return placements.isEmpty() ? ORDER_GAP : placements.get(index - 1).order + ORDER_GAP;
+        }
+        long before = index == 0 ? 0 : placements.get(index - 1).order;
+        long after = placements.get(index).order;
+        return after - before > 1 ? before + (after - before) / 2 : Long.MIN_VALUE;
+    }
+
+    private void recordSave(StorageSaveEvent saveEvent, long startNanos, int taskCount, long bytesWritten) {
+        Metrics.getInstance().recordSave(System.nanoTime() - startNanos, bytesWritten);
+        saveEvent.end();
+        if (saveEvent.shouldCommit()) {
+            saveEvent.taskCount = taskCount;
+            saveEvent.bytesWritten = bytesWritten;
+            saveEvent.commit();
+        }
+    }
+
+    private Path heapPath(long generation) {
+        String slotsName = slotsPath.getFileName().toString();
+        String baseName = slotsName.substring(0, slotsName.length() - SLOTS_SUFFIX.length());
+        return slotsPath.resolveSibling(baseName + HEAP_SUFFIX + generation);
+    }
+
+    private static long slotOffset(long slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Where a task lives in the slot file and its place in the list.
+     */
+    private static final class Placement {
+        private final long slot;
+        private final long order;
+        private final Task task;
+        private long heapBytes = 0;
+
+        private Placement(long slot, long order, Task task) {
+            this.slot = slot;
+            this.order = order;
+            this.task = task;
+        }
+    }
+}
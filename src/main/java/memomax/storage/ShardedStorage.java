@@ -0,0 +1,472 @@
+package memomax.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import memomax.exception.MemoMaxException;
+import memomax.metrics.Metrics;
+import memomax.metrics.StorageLoadChunkEvent;
+import memomax.metrics.StorageSaveEvent;
+import memomax.task.Task;
+
+/**
+ * Stores tasks in a directory of segment files, each holding a contiguous run of the list.
+ * A manifest names the segments in list order. Every change reported by MemoMax marks the segment
+ * holding the task as dirty, and only dirty segments are rewritten, so a change to one task costs
+ * a segment rather than the whole list. Segments are split once they grow to twice the segment size
+ * and dropped when emptied. Segments are read concurrently on load, and written concurrently
+ * when several are dirty.
+ * A change that moves tasks between segments writes them to new segment files and switches to them
+ * by replacing the manifest, so a crash before the switch leaves the old segments as they were.
+ */
+public class ShardedStorage implements StorageEngine {
+    /** Name under which this engine is registered. */
+    public static final String ENGINE_NAME = "sharded";
+    /** Name of the manifest file inside the data directory. */
+    static final String MANIFEST_FILE = "manifest.txt";
+
+    private static final String MANIFEST_HEADER = "memomax-segments 1";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".txt";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int DEFAULT_SEGMENT_SIZE = 512;
+    private static final int IO_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final Path directory;
+    private final int segmentSize;
+    private final TaskArchive archive;
+    private final ArrayList<Segment> segments = new ArrayList<>();
+    private final ArrayList<String> obsoleteFiles = new ArrayList<>();
+    private int taskCount = 0;
+    private int nextSegmentId = 0;
+    private boolean isManifestDirty = false;
+    private ExecutorService io;
+
+    /**
+     * Creates sharded storage in the given directory with the default segment size.
+     *
+     * @param directoryPath The directory holding the manifest and segment files.
+     */
+    public ShardedStorage(String directoryPath) {
+        this(directoryPath, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates sharded storage in the given directory.
+     *
+     * @param directoryPath The directory holding the manifest and segment files.
+     * @param segmentSize The number of tasks each segment is filled with when the list is saved whole.
+     */
+    public ShardedStorage(String directoryPath, int segmentSize) {
+        assert directoryPath != null && !directoryPath.isBlank() : "Directory path should not be null or empty";
+        assert segmentSize > 0 : "Segment size should be positive";
+        this.directory = Paths.get(directoryPath);
+        this.segmentSize = segmentSize;
+        this.archive = new TaskArchive(TaskArchive.pathNextTo(directoryPath));
+    }
+
+    @Override
+    public TaskArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Reads every segment listed in the manifest concurrently and delivers the tasks in list order.
+     * Corrupted lines and missing segments are skipped and reported once all valid tasks have been
+     * delivered. Missing segments are dropped from the manifest at the next save, but a segment whose
+     * lines are all corrupted stays listed until a change rewrites it.
+     */
+    @Override
+    public int loadInChunks(int chunkSize, ChunkListener listener) throws MemoMaxException {
+        assert chunkSize > 0 : "Chunk size should be positive";
+        assert listener != null : "Chunk listener should not be null";
+        segments.clear();
+        taskCount = 0;
+        List<String> fileNames = readManifest();
+
+        ArrayList<Future<SegmentContents>> reads = new ArrayList<>(fileNames.size());
+        for (String fileName : fileNames) {
+            reads.add(executor().submit(() -> readSegment(fileName)));
+        }
+
+        int corruptedLines = 0;
+        int missingSegments = 0;
+        long bytesRead = 0;
+        ArrayList<Task> chunk = new ArrayList<>();
+        StorageLoadChunkEvent chunkEvent = Storage.startChunkEvent();
+        for (int i = 0; i < reads.size(); i++) {
+            SegmentContents contents = await(reads.get(i));
+            String fileName = fileNames.get(i);
+            corruptedLines += contents.corruptedLines;
+            chunkEvent.corruptedLines += contents.corruptedLines;
+            bytesRead += contents.bytesRead;
+            if (contents.isMissing) {
+                missingSegments++;
+                dropSegment(fileName);
+                continue;
+            }
+
+            segments.add(new Segment(fileName, contents.tasks.size()));
+            taskCount += contents.tasks.size();
+            for (Task task : contents.tasks) {
+                chunk.add(task);
+                if (chunk.size() >= chunkSize) {
+                    double progress = (double) i / reads.size();
+                    Storage.commitChunkEvent(chunkEvent, chunk.size(), bytesRead, progress);
+                    listener.onChunk(chunk, progress);
+                    chunk = new ArrayList<>();
+                    chunkEvent = Storage.startChunkEvent();
+                }
+            }
+        }
+        Storage.commitChunkEvent(chunkEvent, chunk.size(), bytesRead, 1.0);
+        listener.onChunk(chunk, 1.0);
+
+        if (missingSegments > 0 || corruptedLines > 0) {
+            throw new MemoMaxException("Warning: " + missingSegments + " missing segments and " + corruptedLines
+                    + " corrupted lines found in storage. These were skipped.");
+        }
+        return taskCount;
+    }
+
+    /**
+     * Splits the list into segments of the segment size and writes all of them to new files.
+     */
+    @Override
+    public void save(List<Task> tasks) throws MemoMaxException {
+        assert tasks != null : "Task list to save should not be null";
+        int neededSegments = (tasks.size() + segmentSize - 1) / segmentSize;
+        ArrayList<Segment> repartitioned = new ArrayList<>(neededSegments);
+        for (int i = 0; i < neededSegments; i++) {
+            Segment segment = new Segment(newSegmentName(), Math.min(segmentSize, tasks.size() - i * segmentSize));
+            segment.isDirty = true;
+            repartitioned.add(segment);
+        }
+        for (Segment segment : segments) {
+            obsoleteFiles.add(segment.fileName);
+        }
+        segments.clear();
+        segments.addAll(repartitioned);
+        taskCount = tasks.size();
+        isManifestDirty = true;
+        writeDirtySegments(tasks);
+    }
+
+    @Override
+    public void taskAdded(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        if (taskCount != tasks.size() - 1 || segments.isEmpty()) {
+            save(tasks);
+            return;
+        }
+        int segmentIndex = findSegment(index, true);
+        Segment segment = segments.get(segmentIndex);
+        segment.count++;
+        segment.isDirty = true;
+        taskCount++;
+        if (segment.count >= 2 * segmentSize) {
+            Segment secondHalf = new Segment(newSegmentName(), segment.count / 2);
+            Segment firstHalf = new Segment(newSegmentName(), segment.count - secondHalf.count);
+            firstHalf.isDirty = true;
+            secondHalf.isDirty = true;
+            segments.set(segmentIndex, firstHalf);
+            segments.add(segmentIndex + 1, secondHalf);
+            dropSegment(segment.fileName);
+        }
+        writeDirtySegments(tasks);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        if (taskCount != tasks.size()) {
+            save(tasks);
+            return;
+        }
+        segments.get(findSegment(index, false)).isDirty = true;
+        writeDirtySegments(tasks);
+    }
+
+    @Override
+    public void taskDeleted(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        if (taskCount != tasks.size() + 1) {
+            save(tasks);
+            return;
+        }
+        int segmentIndex = findSegment(index, false);
+        Segment segment = segments.get(segmentIndex);
+        segment.count--;
+        segment.isDirty = true;
+        taskCount--;
+        if (segment.count == 0) {
+            segments.remove(segmentIndex);
+            dropSegment(segment.fileName);
+        }
+        writeDirtySegments(tasks);
+    }
+
+    @Override
+    public void close() {
+        if (io != null) {
+            io.shutdown();
+            io = null;
+        }
+    }
+
+    /**
+     * Returns the number of segments the list is currently split into.
+     */
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Finds the segment holding the task at an index.
+     *
+     * @param index The task index (0-based).
+     * @param isInsert Whether the index is where a task was inserted, so it may fall just past a segment.
+     * @return The position of the segment in the manifest.
+     */
+    private int findSegment(int index, boolean isInsert) {
+        int start = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            int end = start + segments.get(i).count;
+            if (index < end || (isInsert && index == end)) {
+                return i;
+            }
+            start = end;
+        }
+        throw new AssertionError("Index " + index + " is outside the " + taskCount + " stored tasks");
+    }
+
+    /**
+     * Rewrites every dirty segment, then the manifest if the segments changed, then removes files of
+     * segments that are no longer listed. Segments stay dirty if writing them fails, so the next
+     * change retries them.
+     */
+    private void writeDirtySegments(List<Task> tasks) throws MemoMaxException {
+        StorageSaveEvent saveEvent = new StorageSaveEvent();
+        saveEvent.begin();
+        long startNanos = System.nanoTime();
+
+        ArrayList<Segment> dirty = new ArrayList<>();
+        ArrayList<List<Task>> contents = new ArrayList<>();
+        int start = 0;
+        for (Segment segment : segments) {
+            if (segment.isDirty) {
+                dirty.add(segment);
+                contents.add(tasks.subList(start, start + segment.count));
+            }
+            start += segment.count;
+        }
+        assert start == tasks.size() : "Segments should cover every task";
+
+        long bytesWritten = 0;
+        try {
+            Files.createDirectories(directory);
+            if (dirty.size() == 1) {
+                bytesWritten += writeSegment(dirty.get(0).fileName, contents.get(0));
+            } else {
+                ArrayList<Future<Long>> writes = new ArrayList<>(dirty.size());
+                for (int i = 0; i < dirty.size(); i++) {
+                    String fileName = dirty.get(i).fileName;
+                    List<Task> segmentTasks = contents.get(i);
+                    writes.add(executor().submit(() -> writeSegment(fileName, segmentTasks)));
+                }
+                for (Future<Long> write : writes) {
+                    bytesWritten += await(write);
+                }
+            }
+            for (Segment segment : dirty) {
+                segment.isDirty = false;
+            }
+            if (isManifestDirty) {
+                bytesWritten += writeManifest();
+                isManifestDirty = false;
+                for (String fileName : obsoleteFiles) {
+                    Files.deleteIfExists(directory.resolve(fileName));
+                }
+                obsoleteFiles.clear();
+            }
+        } catch (IOException e) {
+            throw new MemoMaxException("Failed to save tasks: " + e.getMessage());
+        }
+
+        Metrics.getInstance().recordSave(System.nanoTime() - startNanos, bytesWritten);
+        saveEvent.end();
+        if (saveEvent.shouldCommit()) {
+            saveEvent.taskCount = tasks.size();
+            saveEvent.bytesWritten = bytesWritten;
+            saveEvent.commit();
+        }
+    }
+
+    private long writeSegment(String fileName, List<Task> segmentTasks) throws IOException {
+        Path temp = directory.resolve(fileName + TEMP_SUFFIX);
+        try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+            for (Task task : segmentTasks) {
+                assert task != null : "Cannot save a null task to file";
+                writer.write(task.toFileFormat());
+                writer.write('\n');
+            }
+        }
+        long bytes = Files.size(temp);
+        replace(temp, directory.resolve(fileName));
+        return bytes;
+    }
+
+    private long writeManifest() throws IOException {
+        Path temp = directory.resolve(MANIFEST_FILE + TEMP_SUFFIX);
+        try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+            writer.write(MANIFEST_HEADER);
+            writer.write('\n');
+            for (Segment segment : segments) {
+                writer.write(segment.fileName);
+                writer.write('\n');
+            }
+        }
+        long bytes = Files.size(temp);
+        replace(temp, directory.resolve(MANIFEST_FILE));
+        return bytes;
+    }
+
+    /**
+     * Moves a fully written file over its target, atomically where the file system allows it, so a
+     * crash never leaves a half-written segment or manifest behind. Segments are only replaced in
+     * place when the manifest keeps listing the same files.
+     */
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the segment file names from the manifest.
+     *
+     * @return The file names in list order, empty if nothing has been saved yet.
+     */
+    private List<String> readManifest() throws MemoMaxException {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return new ArrayList<>();
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(manifest);
+        } catch (IOException e) {
+            throw new MemoMaxException("Cannot read tasks manifest. Starting fresh");
+        }
+        if (lines.isEmpty() || !lines.get(0).equals(MANIFEST_HEADER)) {
+            throw new MemoMaxException("Unrecognised tasks manifest: " + manifest + ". Starting fresh");
+        }
+
+        ArrayList<String> fileNames = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String fileName = line.trim();
+            if (fileName.isEmpty()) {
+                continue;
+            }
+            fileNames.add(fileName);
+            nextSegmentId = Math.max(nextSegmentId, segmentId(fileName) + 1);
+        }
+        return fileNames;
+    }
+
+    private SegmentContents readSegment(String fileName) throws IOException {
+        SegmentContents contents = new SegmentContents();
+        try (BufferedReader reader = Files.newBufferedReader(directory.resolve(fileName))) {
+            String rawLine;
+            while ((rawLine = reader.readLine()) != null) {
+                contents.bytesRead += rawLine.length() + 1;
+                String line = rawLine.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Task task = Storage.parseTask(line);
+                if (task == null) {
+                    contents.corruptedLines++;
+                } else {
+                    contents.tasks.add(task);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            contents.isMissing = true;
+        }
+        return contents;
+    }
+
+    private void dropSegment(String fileName) {
+        obsoleteFiles.add(fileName);
+        isManifestDirty = true;
+    }
+
+    private String newSegmentName() {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, nextSegmentId++, SEGMENT_SUFFIX);
+    }
+
+    private static int segmentId(String fileName) {
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(),
+                    fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private ExecutorService executor() {
+        if (io == null) {
+            io = Executors.newFixedThreadPool(IO_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "memomax-segment-io");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return io;
+    }
+
+    private static <T> T await(Future<T> future) throws MemoMaxException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MemoMaxException("Interrupted while accessing tasks segments");
+        } catch (ExecutionException e) {
+            throw new MemoMaxException("Cannot access tasks segment: " + e.getCause().getMessage());
+        }
+    }
+
+    private static final class Segment {
+        private final String fileName;
+        private int count;
+        private boolean isDirty = false;
+
+        private Segment(String fileName, int count) {
+            this.fileName = fileName;
+            this.count = count;
+        }
+    }
+
+    private static final class SegmentContents {
+        private final ArrayList<Task> tasks = new ArrayList<>();
+        private int corruptedLines = 0;
+        private long bytesRead = 0;
+        private boolean isMissing = false;
+    }
+}
@@ -1,79 +1,218 @@
 package memomax.storage;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import memomax.exception.MemoMaxException;
+import memomax.metrics.Metrics;
+import memomax.metrics.StorageLoadChunkEvent;
+import memomax.metrics.StorageSaveEvent;
+import memomax.parser.DateParser;
 import memomax.task.Deadline;
 import memomax.task.Event;
 import memomax.task.Task;
 import memomax.task.Todo;
 
 /**
- * Handles loading and saving tasks to file.
+ * Handles loading and saving tasks to a text file, one task per line.
+ * This is the default {@link StorageEngine}; every change rewrites the whole file.
+ *
+ * <p>The file can optionally be compressed. A compressed file starts with a magic header followed by
+ * blocks of whole lines, each deflated on its own and prefixed with its raw and compressed lengths,
+ * so blocks are inflated and parsed in parallel on load. Loading detects the header, so plain and
+ * compressed files are both read whatever compression is configured for saving.
+ *
+ * <p>Several programs may share the file. Reads take a shared lock and writes an exclusive one on a
+ * lock file next to it (see {@link TaskFileLock}), and a {@link TaskFileWatcher} notices writes by
+ * others. Before each command, such changes are merged into the list: lines appended to a plain file
+ * are parsed on their own once the checksum of the known prefix matches, and any other change is
+ * reported as the single range between the lines that are unchanged at the start and the end.
  */
-public class Storage {
+public class Storage implements StorageEngine {
     private static final String DELIMITER = " \\| ";
     private static final String TYPE_TODO = "T";
     private static final String TYPE_DEADLINE = "D";
     private static final String TYPE_EVENT = "E";
     private static final String STATUS_DONE = "1";
+    private static final byte[] COMPRESSED_MAGIC = {'M', 'M', 'Z', 1};
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int MAX_BLOCK_SIZE = 16 * 1024 * 1024;
+    private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
 
     private final String filePath;
+    private final Compression compression;
+    private final Path path;
+    private final TaskFileLock fileLock;
+    private final TaskArchive archive;
+    private TaskFileWatcher watcher;
+    private boolean isWatcherUnavailable = false;
+    private boolean isCommandLocked = false;
+
+    /** Hashes of the task lines last read or written, in list order. */
+    private long[] lineHashes = new long[0];
+    private int lineCount = 0;
+    /** Length of the file when last read or written, or -1 if it is not known. */
+    private long knownLength = -1;
+    private long knownChecksum = 0;
+    private FileTime knownModified;
+    private boolean isKnownCompressed = false;
 
     /**
-     * Creates Storage with given file path.
+     * Creates Storage with given file path, saving plain text.
      *
      * @param filePath The path of the file to store tasks.
      */
     public Storage(String filePath) {
+        this(filePath, Compression.NONE);
+    }
+
+    /**
+     * Creates Storage with given file path and compression.
+     *
+     * @param filePath The path of the file to store tasks.
+     * @param compression The compression used when saving.
+     */
+    public Storage(String filePath, Compression compression) {
         assert filePath != null && !filePath.trim().isEmpty() : "File path should not be null or empty";
+        assert compression != null : "Compression should not be null";
         this.filePath = filePath;
+        this.compression = compression;
+        this.path = Paths.get(filePath);
+        this.fileLock = new TaskFileLock(path);
+        this.archive = new TaskArchive(TaskArchive.pathNextTo(filePath));
     }
 
     /**
-     * Loads tasks from the storage file.
-     * Returns an empty list if the file does not exist.
+     * Streams tasks from the storage file to the listener in chunks of at most {@code chunkSize} tasks.
+     * Corrupted lines are skipped and reported once all valid tasks have been delivered.
      *
-     * @return An ArrayList of tasks.
+     * @param chunkSize The maximum number of tasks per chunk.
+     * @param listener The listener receiving each chunk.
+     * @return The number of tasks loaded.
      * @throws MemoMaxException If the file cannot be read or has corrupted data.
      */
-    public ArrayList<Task> load() throws MemoMaxException {
-        ArrayList<Task> tasks = new ArrayList<>();
+    @Override
+    public int loadInChunks(int chunkSize, ChunkListener listener) throws MemoMaxException {
+        assert chunkSize > 0 : "Chunk size should be positive";
+        assert listener != null : "Chunk listener should not be null";
         File file = new File(filePath);
 
         ensureDirectoryAndFileExist();
 
         if (!file.exists()) {
-            return tasks;
+            return 0;
+        }
+        FileSnapshot snapshot;
+        fileLock.acquire(true);
+        try {
+            snapshot = readFile(file, chunkSize, listener);
+            remember(snapshot);
+        } finally {
+            fileLock.release();
+        }
+
+        String warning = describeSkipped(snapshot);
+        if (warning != null) {
+            throw new MemoMaxException(warning);
+        }
+        return snapshot.taskCount;
+    }
+
+    /**
+     * Describes the unreadable blocks and lines skipped while reading the file.
+     *
+     * @return The warning, or null if nothing was skipped.
+     */
+    private static String describeSkipped(FileSnapshot snapshot) {
+        if (snapshot.corruptedBlocks > 0) {
+            return "Warning: " + snapshot.corruptedBlocks + " corrupted blocks and "
+                    + snapshot.corruptedLines + " corrupted lines found in storage. These were skipped.";
+        }
+        if (snapshot.corruptedLines > 0) {
+            return "Warning: " + snapshot.corruptedLines + " corrupted lines found in storage. These were skipped.";
+        }
+        return null;
+    }
+
+    /**
+     * Reads the whole file, plain or compressed, delivering its tasks to the listener in chunks.
+     *
+     * @return The hashes, checksum and corrupted counts of what was read.
+     */
+    private FileSnapshot readFile(File file, int chunkSize, ChunkListener listener) throws MemoMaxException {
+        if (isCompressed(file)) {
+            return readCompressed(file, chunkSize, listener);
         }
 
-        int corruptedLines = 0;
-        try (Scanner s = new Scanner(file)) {
-            while (s.hasNextLine()) {
-                String line = s.nextLine().trim();
-                if (!line.isEmpty()) {
-                    Task task = parseTask(line);
-                    if (task != null) {
-                        tasks.add(task);
-                    } else {
-                        corruptedLines++;
-                    }
+        FileSnapshot snapshot = new FileSnapshot();
+        CRC32 checksum = new CRC32();
+        long fileLength = Math.max(1, file.length());
+        long charsRead = 0;
+        ArrayList<Task> chunk = new ArrayList<>();
+        StorageLoadChunkEvent chunkEvent = startChunkEvent();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new CheckedInputStream(new FileInputStream(file), checksum), StandardCharsets.UTF_8))) {
+            String rawLine;
+            while ((rawLine = reader.readLine()) != null) {
+                charsRead += rawLine.length() + 1;
+                String line = rawLine.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Task task = parseTask(line);
+                if (task == null) {
+                    snapshot.corruptedLines++;
+                    chunkEvent.corruptedLines++;
+                    continue;
+                }
+                chunk.add(task);
+                snapshot.addLine(hashLine(line));
+                if (chunk.size() >= chunkSize) {
+                    double progress = Math.min(1.0, (double) charsRead / fileLength);
+                    commitChunkEvent(chunkEvent, chunk.size(), charsRead, progress);
+                    listener.onChunk(chunk, progress);
+                    chunk = new ArrayList<>();
+                    chunkEvent = startChunkEvent();
                 }
             }
         } catch (IOException e) {
             throw new MemoMaxException("Cannot read tasks file. Starting fresh");
         }
-
-        if (corruptedLines > 0) {
-            throw new MemoMaxException("Warning: " + corruptedLines
-                + " corrupted lines found in storage. These were skipped.", tasks);
-        }
-
-        return tasks;
+        commitChunkEvent(chunkEvent, chunk.size(), charsRead, 1.0);
+        listener.onChunk(chunk, 1.0);
+        snapshot.checksum = checksum.getValue();
+        return snapshot;
     }
 
     /**
@@ -83,8 +222,21 @@ public class Storage {
      * @param tasks The list of tasks to be saved.
      * @throws MemoMaxException If file cannot be written.
      */
-    public void save(ArrayList<Task> tasks) throws MemoMaxException {
+    @Override
+    public void save(List<Task> tasks) throws MemoMaxException {
         assert tasks != null : "Task list to save should not be null";
+        try {
+            saveFile(tasks);
+        } catch (MemoMaxException e) {
+            rememberUnsaved(tasks);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the tasks in the configured format under the exclusive file lock.
+     */
+    private void saveFile(List<Task> tasks) throws MemoMaxException {
         try {
             ensureDirectoryAndFileExist();
             File file = new File(filePath);
@@ -97,27 +249,516 @@ public class Storage {
                 }
             }
 
-            try (FileWriter writer = new FileWriter(file)) {
-                tasks.stream()
-                        .peek(task -> {
-                            assert task != null : "Cannot save a null task to file";
-                        })
-                        .map(task -> task.toFileFormat() + "\n")
-                        .forEach(formattedLine -> {
-                            try {
-                                writer.write(formattedLine);
-                            } catch (IOException e) {
-                                throw new RuntimeException(e);
-                            }
-                        });
-            } catch (RuntimeException e) {
-                throw new MemoMaxException("Failed to save tasks.");
+            fileLock.acquire(false);
+            try {
+                StorageSaveEvent saveEvent = new StorageSaveEvent();
+                saveEvent.begin();
+                long startNanos = System.nanoTime();
+                FileSnapshot snapshot = compression == Compression.NONE
+                        ? savePlain(file, tasks)
+                        : saveCompressed(file, tasks);
+                long bytesWritten = file.length();
+                Metrics.getInstance().recordSave(System.nanoTime() - startNanos, bytesWritten);
+                saveEvent.end();
+                if (saveEvent.shouldCommit()) {
+                    saveEvent.taskCount = tasks.size();
+                    saveEvent.bytesWritten = bytesWritten;
+                    saveEvent.commit();
+                }
+                remember(snapshot);
+            } finally {
+                fileLock.release();
             }
         } catch (IOException e) {
             throw new MemoMaxException("Failed to save tasks.");
         }
     }
 
+    /**
+     * Writes the tasks one per line.
+     */
+    private static FileSnapshot savePlain(File file, List<Task> tasks) throws IOException {
+        FileSnapshot snapshot = new FileSnapshot();
+        CRC32 checksum = new CRC32();
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new CheckedOutputStream(new FileOutputStream(file), checksum), StandardCharsets.UTF_8))) {
+            for (Task task : tasks) {
+                assert task != null : "Cannot save a null task to file";
+                String line = task.toFileFormat();
+                writer.write(line);
+                writer.write('\n');
+                snapshot.addLine(hashLine(line));
+            }
+        }
+        snapshot.checksum = checksum.getValue();
+        return snapshot;
+    }
+
+    /**
+     * Writes the tasks as deflated blocks of whole lines after the magic header.
+     */
+    private FileSnapshot saveCompressed(File file, List<Task> tasks) throws IOException {
+        FileSnapshot snapshot = new FileSnapshot();
+        snapshot.isCompressed = true;
+        Deflater deflater = new Deflater(compression.getLevel(), true);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.write(COMPRESSED_MAGIC);
+            ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE + 256);
+            byte[] compressed = new byte[BLOCK_SIZE];
+            for (Task task : tasks) {
+                assert task != null : "Cannot save a null task to file";
+                String line = task.toFileFormat();
+                block.write(line.getBytes(StandardCharsets.UTF_8));
+                block.write('\n');
+                snapshot.addLine(hashLine(line));
+                if (block.size() >= BLOCK_SIZE) {
+                    compressed = writeBlock(out, deflater, block, compressed);
+                }
+            }
+            if (block.size() > 0) {
+                writeBlock(out, deflater, block, compressed);
+            }
+        } finally {
+            deflater.end();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Deflates one block, writes it with its lengths and empties it.
+     *
+     * @return The output buffer, grown if the block did not shrink.
+     */
+    private static byte[] writeBlock(DataOutputStream out, Deflater deflater, ByteArrayOutputStream block,
+            byte[] compressed) throws IOException {
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] buffer = compressed;
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        out.writeInt(raw.length);
+        out.writeInt(length);
+        out.write(buffer, 0, length);
+        block.reset();
+        return buffer;
+    }
+
+    /**
+     * Reads the compressed blocks in order and hands each to the common pool to inflate and parse,
+     * then delivers the parsed tasks in file order. A truncated or undecodable block is skipped and
+     * reported with the corrupted lines.
+     */
+    private FileSnapshot readCompressed(File file, int chunkSize, ChunkListener listener)
+            throws MemoMaxException {
+        FileSnapshot snapshot = new FileSnapshot();
+        snapshot.isCompressed = true;
+        ArrayList<Future<ParsedBlock>> blocks = new ArrayList<>();
+        ArrayList<Long> blockEnds = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            in.skipNBytes(COMPRESSED_MAGIC.length);
+            long offset = COMPRESSED_MAGIC.length;
+            while (true) {
+                int rawLength;
+                try {
+                    rawLength = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int compressedLength = in.readInt();
+                if (rawLength < 0 || rawLength > MAX_BLOCK_SIZE || compressedLength < 0
+                        || compressedLength > MAX_BLOCK_SIZE) {
+                    snapshot.corruptedBlocks++;
+                    break;
+                }
+                byte[] compressed = new byte[compressedLength];
+                in.readFully(compressed);
+                offset += 8 + compressedLength;
+                blocks.add(ForkJoinPool.commonPool().submit(() -> inflateAndParse(compressed, rawLength)));
+                blockEnds.add(offset);
+            }
+        } catch (EOFException e) {
+            snapshot.corruptedBlocks++;
+        } catch (IOException e) {
+            throw new MemoMaxException("Cannot read tasks file. Starting fresh");
+        }
+
+        long fileLength = Math.max(1, file.length());
+        long charsRead = 0;
+        ArrayList<Task> chunk = new ArrayList<>();
+        StorageLoadChunkEvent chunkEvent = startChunkEvent();
+        for (int i = 0; i < blocks.size(); i++) {
+            ParsedBlock block = awaitBlock(blocks.get(i));
+            if (block == null) {
+                snapshot.corruptedBlocks++;
+                continue;
+            }
+            charsRead += block.charsRead;
+            snapshot.corruptedLines += block.corruptedLines;
+            chunkEvent.corruptedLines += block.corruptedLines;
+            double progress = Math.min(1.0, (double) blockEnds.get(i) / fileLength);
+            for (int j = 0; j < block.tasks.size(); j++) {
+                chunk.add(block.tasks.get(j));
+                snapshot.addLine(block.lineHashes[j]);
+                if (chunk.size() >= chunkSize) {
+                    commitChunkEvent(chunkEvent, chunk.size(), charsRead, progress);
+                    listener.onChunk(chunk, progress);
+                    chunk = new ArrayList<>();
+                    chunkEvent = startChunkEvent();
+                }
+            }
+        }
+        commitChunkEvent(chunkEvent, chunk.size(), charsRead, 1.0);
+        listener.onChunk(chunk, 1.0);
+        return snapshot;
+    }
+
+    /**
+     * Inflates a block and parses its lines.
+     *
+     * @return The parsed block, or null if the block cannot be inflated.
+     */
+    private static ParsedBlock inflateAndParse(byte[] compressed, int rawLength) {
+        Inflater inflater = new Inflater(true);
+        byte[] raw = new byte[rawLength];
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return null;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                return null;
+            }
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+
+        ParsedBlock block = new ParsedBlock();
+        String text = new String(raw, StandardCharsets.UTF_8);
+        block.charsRead = text.length();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd).trim();
+            lineStart = lineEnd + 1;
+            if (line.isEmpty()) {
+                continue;
+            }
+            Task task = parseTask(line);
+            if (task == null) {
+                block.corruptedLines++;
+            } else {
+                if (block.tasks.size() == block.lineHashes.length) {
+                    block.lineHashes = Arrays.copyOf(block.lineHashes, block.lineHashes.length * 2);
+                }
+                block.lineHashes[block.tasks.size()] = hashLine(line);
+                block.tasks.add(task);
+            }
+        }
+        return block;
+    }
+
+    private static ParsedBlock awaitBlock(Future<ParsedBlock> block) throws MemoMaxException {
+        try {
+            return block.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MemoMaxException("Interrupted while loading tasks");
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Locks the file for the command and merges changes other programs made to it since it was
+     * last read or written. Commands that may change the list keep the exclusive lock until
+     * {@link #endCommand()}, so no other program writes between the merge and their save.
+     *
+     * @param isMutating Whether the command may change the list.
+     * @param listener Receives the external changes.
+     * @throws MemoMaxException If the file is locked by another program or cannot be read.
+     */
+    @Override
+    public void beginCommand(boolean isMutating, ExternalChangeListener listener) throws MemoMaxException {
+        assert listener != null : "External change listener should not be null";
+        assert !isCommandLocked : "Previous command did not end";
+        if (knownLength < 0) {
+            return;
+        }
+        boolean isNewlyWatched = startWatcher();
+        boolean isFlagged = isNewlyWatched || watcher == null || watcher.consumeChange();
+        // Watch events arrive asynchronously, so a command about to save always checks the file itself.
+        if (!isFlagged && !isMutating) {
+            return;
+        }
+        fileLock.acquire(!isMutating);
+        try {
+            if (hasChangedOnDisk()) {
+                mergeExternalChanges(listener);
+            }
+        } catch (MemoMaxException | RuntimeException e) {
+            fileLock.release();
+            throw e;
+        }
+        if (isMutating) {
+            isCommandLocked = true;
+        } else {
+            fileLock.release();
+        }
+    }
+
+    @Override
+    public void endCommand() {
+        if (isCommandLocked) {
+            isCommandLocked = false;
+            fileLock.release();
+        }
+    }
+
+    /**
+     * Returns the archive kept next to the data file, {@code MemoMax.txt} archiving to
+     * {@code MemoMax-archive.txt}.
+     */
+    @Override
+    public TaskArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Stops watching the file and closes the lock file.
+     */
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        isCommandLocked = false;
+        fileLock.close();
+    }
+
+    /**
+     * Starts the watcher on first use.
+     *
+     * @return Whether it was started now, so changes before it started are not yet known.
+     */
+    private boolean startWatcher() {
+        if (watcher != null || isWatcherUnavailable) {
+            return false;
+        }
+        try {
+            watcher = TaskFileWatcher.start(path);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            // Without a watcher, every command compares the file's size and modification time instead.
+            isWatcherUnavailable = true;
+            return false;
+        }
+    }
+
+    private boolean hasChangedOnDisk() {
+        try {
+            return Files.exists(path)
+                    && (Files.size(path) != knownLength || !Files.getLastModifiedTime(path).equals(knownModified));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reports the difference between the file and the lines last read or written.
+     */
+    private void mergeExternalChanges(ExternalChangeListener listener) throws MemoMaxException {
+        File file = new File(filePath);
+        try {
+            if (!isKnownCompressed && file.length() > knownLength && !isCompressed(file)
+                    && mergeAppended(file, listener)) {
+                return;
+            }
+        } catch (IOException e) {
+            throw new MemoMaxException("Cannot read changes to the tasks file.");
+        }
+
+        ArrayList<Task> current = new ArrayList<>();
+        FileSnapshot snapshot = readFile(file, Integer.MAX_VALUE, (chunk, progress) -> current.addAll(chunk));
+        long[] newHashes = snapshot.lineHashes;
+        int newCount = snapshot.taskCount;
+        int prefix = 0;
+        while (prefix < lineCount && prefix < newCount && lineHashes[prefix] == newHashes[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < lineCount - prefix && suffix < newCount - prefix
+                && lineHashes[lineCount - 1 - suffix] == newHashes[newCount - 1 - suffix]) {
+            suffix++;
+        }
+        int removedCount = lineCount - prefix - suffix;
+        int insertedCount = newCount - prefix - suffix;
+        if (removedCount > 0 || insertedCount > 0) {
+            List<Task> insertedTasks = List.copyOf(current.subList(prefix, prefix + insertedCount));
+            listener.onExternalChange(prefix, removedCount, insertedTasks);
+        }
+        remember(snapshot);
+        String warning = describeSkipped(snapshot);
+        if (warning != null) {
+            listener.onSkippedRecords(warning);
+        }
+    }
+
+    /**
+     * Merges lines appended to a plain file. Only the bytes after the known length are parsed; the
+     * known prefix is read once more to confirm its checksum is unchanged.
+     *
+     * @return Whether the file only had lines appended, false if it must be read in full.
+     */
+    private boolean mergeAppended(File file, ExternalChangeListener listener) throws IOException {
+        CRC32 checksum = new CRC32();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            byte[] buffer = new byte[BLOCK_SIZE];
+            long remaining = knownLength;
+            byte lastByte = '\n';
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    return false;
+                }
+                checksum.update(buffer, 0, read);
+                remaining -= read;
+                lastByte = buffer[read - 1];
+            }
+            if (checksum.getValue() != knownChecksum || lastByte != '\n') {
+                return false;
+            }
+
+            FileSnapshot snapshot = new FileSnapshot();
+            ArrayList<Task> appended = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new CheckedInputStream(in, checksum),
+                    StandardCharsets.UTF_8));
+            String rawLine;
+            while ((rawLine = reader.readLine()) != null) {
+                String line = rawLine.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Task task = parseTask(line);
+                if (task == null) {
+                    snapshot.corruptedLines++;
+                } else {
+                    appended.add(task);
+                    snapshot.addLine(hashLine(line));
+                }
+            }
+            snapshot.checksum = checksum.getValue();
+            listener.onExternalChange(lineCount, 0, appended);
+
+            long[] hashes = Arrays.copyOf(lineHashes, lineCount + snapshot.taskCount);
+            System.arraycopy(snapshot.lineHashes, 0, hashes, lineCount, snapshot.taskCount);
+            snapshot.lineHashes = hashes;
+            snapshot.taskCount = hashes.length;
+            remember(snapshot);
+            String warning = describeSkipped(snapshot);
+            if (warning != null) {
+                listener.onSkippedRecords(warning);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Records what was just read or written, so later changes by other programs can be told apart.
+     */
+    private void remember(FileSnapshot snapshot) {
+        lineHashes = snapshot.lineHashes;
+        lineCount = snapshot.taskCount;
+        knownChecksum = snapshot.checksum;
+        isKnownCompressed = snapshot.isCompressed;
+        try {
+            knownLength = Files.size(path);
+            knownModified = Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            knownLength = -1;
+        }
+    }
+
+    /**
+     * Records the list a failed save was given, so later changes by other programs are found by
+     * comparing the file with the list MemoMax holds rather than with the file it failed to replace.
+     * Whatever the failed save left in the file counts as known, so it is not taken for such a change.
+     */
+    private void rememberUnsaved(List<Task> tasks) {
+        FileSnapshot snapshot = new FileSnapshot();
+        for (Task task : tasks) {
+            snapshot.addLine(hashLine(task.toFileFormat()));
+        }
+        snapshot.checksum = knownChecksum;
+        snapshot.isCompressed = isKnownCompressed;
+        remember(snapshot);
+    }
+
+    /**
+     * Hashes a task line with 64-bit FNV-1a.
+     */
+    private static long hashLine(String line) {
+        long hash = HASH_OFFSET;
+        for (int i = 0; i < line.length(); i++) {
+            hash ^= line.charAt(i);
+            hash *= HASH_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Checks whether a file starts with the compressed file header.
+     */
+    private static boolean isCompressed(File file) throws MemoMaxException {
+        byte[] header = new byte[COMPRESSED_MAGIC.length];
+        try (InputStream in = new FileInputStream(file)) {
+            return in.readNBytes(header, 0, header.length) == header.length
+                    && Arrays.equals(header, COMPRESSED_MAGIC);
+        } catch (IOException e) {
+            throw new MemoMaxException("Cannot read tasks file. Starting fresh");
+        }
+    }
+
+    /**
+     * Starts a Flight Recorder event for the next chunk read from the file.
+     */
+    static StorageLoadChunkEvent startChunkEvent() {
+        StorageLoadChunkEvent event = new StorageLoadChunkEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends a chunk event and commits it with its fields if a recording wants it.
+     */
+    static void commitChunkEvent(StorageLoadChunkEvent event, int taskCount, long charsRead,
+            double progress) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.taskCount = taskCount;
+            event.charactersRead = charsRead;
+            event.progress = progress;
+            event.commit();
+        }
+    }
+
     /**
      * Ensures the directory and file exist.
      * Creates them if they do not exist.
@@ -156,7 +797,7 @@ public class Storage {
      * @param line A single line from the storage file.
      * @return The parsed Task object.
      */
-    private Task parseTask(String line) {
+    static Task parseTask(String line) {
         if (line == null || line.trim().isEmpty()) {
             return null;
         }
@@ -177,33 +818,38 @@ public class Storage {
         boolean isDone = doneStatus.equals(STATUS_DONE);
         Task task;
 
-        try {
-            switch (type) {
-            case TYPE_TODO:
-                if (parts.length != 3) {
-                    return null;
-                }
-                task = new Todo(description);
-                break;
-
-            case TYPE_DEADLINE:
-                if (parts.length != 4 || parts[3].trim().isEmpty()) {
-                    return null;
-                }
-                task = new Deadline(description, parts[3].trim());
-                break;
+        switch (type) {
+        case TYPE_TODO:
+            if (parts.length != 3) {
+                return null;
+            }
+            task = new Todo(description);
+            break;
 
-            case TYPE_EVENT:
-                if (parts.length != 5 || parts[3].trim().isEmpty() || parts[4].trim().isEmpty()) {
-                    return null;
-                }
-                task = new Event(description, parts[3].trim(), parts[4].trim());
-                break;
+        case TYPE_DEADLINE:
+            if (parts.length != 4) {
+                return null;
+            }
+            long by = DateParser.parseStorageFormat(parts[3].trim());
+            if (by == DateParser.INVALID) {
+                return null;
+            }
+            task = new Deadline(description, by);
+            break;
 
-            default:
+        case TYPE_EVENT:
+            if (parts.length != 5) {
                 return null;
             }
-        } catch (Exception e) {
+            long from = DateParser.parseStorageFormat(parts[3].trim());
+            long to = DateParser.parseStorageFormat(parts[4].trim());
+            if (from == DateParser.INVALID || to == DateParser.INVALID) {
+                return null;
+            }
+            task = new Event(description, from, to);
+            break;
+
+        default:
             return null;
         }
 
@@ -213,4 +859,33 @@ public class Storage {
 
         return task;
     }
+
+    /**
+     * The tasks parsed from one compressed block.
+     */
+    private static final class ParsedBlock {
+        private final ArrayList<Task> tasks = new ArrayList<>();
+        private long[] lineHashes = new long[64];
+        private int corruptedLines = 0;
+        private long charsRead = 0;
+    }
+
+    /**
+     * The task lines read from or written to the file, with what is needed to detect later changes.
+     */
+    private static final class FileSnapshot {
+        private long[] lineHashes = new long[64];
+        private int taskCount = 0;
+        private long checksum = 0;
+        private boolean isCompressed = false;
+        private int corruptedLines = 0;
+        private int corruptedBlocks = 0;
+
+        private void addLine(long hash) {
+            if (taskCount == lineHashes.length) {
+                lineHashes = Arrays.copyOf(lineHashes, lineHashes.length * 2);
+            }
+            lineHashes[taskCount++] = hash;
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package memomax.storage;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+
+import memomax.exception.MemoMaxException;
+
+/**
+ * Chooses the storage engine and data path from command-line arguments and a config file.
+ * Arguments take precedence over the config file, which takes precedence over the defaults.
+ *
+ * <p>Recognised arguments are {@code --storage=<engine>}, {@code --data=<path>} and
+ * {@code --config=<file>}. The config file is a properties file with the keys
+ * {@value #ENGINE_KEY} and {@value #DATA_PATH_KEY}; {@value #DEFAULT_CONFIG_FILE} in the working
+ * directory is read if present and no other file is given.
+ */
+public class StorageConfig {
+    /** Config file read when no {@code --config} argument is given. */
+    public static final String DEFAULT_CONFIG_FILE = "memomax.properties";
+
+    /** Config file key naming the storage engine. */
+    public static final String ENGINE_KEY = "storage.engine";
+
+    /** Config file key holding the data path. */
+    public static final String DATA_PATH_KEY = "storage.path";
+
+    private static final String ENGINE_ARG = "--storage=";
+    private static final String DATA_PATH_ARG = "--data=";
+    private static final String CONFIG_ARG = "--config=";
+
+    private final String engine;
+    private final String dataPath;
+
+    /**
+     * Creates a configuration.
+     *
+     * @param engine The storage engine name.
+     * @param dataPath The data path, or null for the engine's default.
+     */
+    public StorageConfig(String engine, String dataPath) {
+        assert engine != null : "Storage engine name should not be null";
+        this.engine = engine;
+        this.dataPath = dataPath;
+    }
+
+    /**
+     * Builds a configuration from command-line arguments and the config file.
+     *
+     * @param args The command-line arguments.
+     * @return The configuration.
+     * @throws MemoMaxException If an argument is not recognised or the config file cannot be read.
+     */
+    public static StorageConfig fromArgs(List<String> args) throws MemoMaxException {
+        String engineArg = null;
+        String dataPathArg = null;
+        String configFile = null;
+        for (String arg : args) {
+            if (arg.startsWith(ENGINE_ARG)) {
+                engineArg = arg.substring(ENGINE_ARG.length());
+            } else if (arg.startsWith(DATA_PATH_ARG)) {
+                dataPathArg = arg.substring(DATA_PATH_ARG.length());
+            } else if (arg.startsWith(CONFIG_ARG)) {
+                configFile = arg.substring(CONFIG_ARG.length());
+            } else {
+                throw new MemoMaxException("Unknown argument: " + arg
+                        + ". Use --storage=<engine>, --data=<path> or --config=<file>");
+            }
+        }
+
+        Properties properties = readConfigFile(configFile);
+        String engine = engineArg != null ? engineArg
+                : properties.getProperty(ENGINE_KEY, StorageEngines.DEFAULT_ENGINE).trim();
+        String dataPath = dataPathArg != null ? dataPathArg : properties.getProperty(DATA_PATH_KEY);
+        return new StorageConfig(engine, dataPath == null ? null : dataPath.trim());
+    }
+
+    /**
+     * Opens the configured storage engine.
+     *
+     * @return The engine.
+     * @throws MemoMaxException If the engine is unknown or cannot be opened.
+     */
+    public StorageEngine open() throws MemoMaxException {
+        return StorageEngines.open(engine, dataPath);
+    }
+
+    /**
+     * Returns the name of the configured storage engine.
+     */
+    public String getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the configured data path, or null to use the engine's default location.
+     */
+    public String getDataPath() {
+        return dataPath;
+    }
+
+    private static Properties readConfigFile(String configFile) throws MemoMaxException {
+        Properties properties = new Properties();
+        Path path = Paths.get(configFile != null ? configFile : DEFAULT_CONFIG_FILE);
+        if (configFile == null && !Files.exists(path)) {
+            return properties;
+        }
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new MemoMaxException("Cannot read config file: " + path);
+        }
+        return properties;
+    }
+}
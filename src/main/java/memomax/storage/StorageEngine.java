@@ -0,0 +1,195 @@
+package memomax.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import memomax.exception.MemoMaxException;
+import memomax.task.Task;
+
+/**
+ * Persists the task list.
+ * MemoMax reports every change through the mutation hooks, so an engine can write just the affected
+ * task; the defaults fall back to saving the whole list. Engines are created through
+ * {@link StorageEngines} and closed when MemoMax shuts down.
+ */
+public interface StorageEngine {
+    /**
+     * Receives tasks from {@link #loadInChunks(int, ChunkListener)} as they are read.
+     */
+    interface ChunkListener {
+        /**
+         * Called once for every chunk of tasks read, in list order.
+         *
+         * @param chunk The tasks read since the previous chunk.
+         * @param progress Fraction of the data read so far, between 0 and 1.
+         */
+        void onChunk(ArrayList<Task> chunk, double progress);
+    }
+
+    /**
+     * Receives changes another program made to the stored tasks, as a range of the list replaced by
+     * new tasks.
+     */
+    interface ExternalChangeListener {
+        /**
+         * Called with each external change, on the thread running the command.
+         *
+         * @param fromIndex The index of the first task replaced (0-based).
+         * @param removedCount The number of tasks replaced.
+         * @param insertedTasks The tasks taking their place.
+         */
+        void onExternalChange(int fromIndex, int removedCount, List<Task> insertedTasks);
+
+        /**
+         * Called after the changes if the changed data holds records that cannot be read, which are
+         * skipped as they are on load.
+         *
+         * @param warning The warning that load would have reported.
+         */
+        default void onSkippedRecords(String warning) {
+        }
+    }
+
+    /**
+     * Streams the stored tasks to the listener in chunks of at most {@code chunkSize} tasks.
+     * Unreadable records are skipped and reported once all valid tasks have been delivered.
+     *
+     * @param chunkSize The maximum number of tasks per chunk.
+     * @param listener The listener receiving each chunk.
+     * @return The number of tasks loaded.
+     * @throws MemoMaxException If the data cannot be read or has corrupted records.
+     */
+    int loadInChunks(int chunkSize, ChunkListener listener) throws MemoMaxException;
+
+    /**
+     * Loads all stored tasks.
+     *
+     * @return An ArrayList of tasks, empty if nothing is stored yet.
+     * @throws MemoMaxException If the data cannot be read or has corrupted records; the tasks
+     *     that could be read are available from {@link MemoMaxException#getPartialTasks()}.
+     */
+    default ArrayList<Task> load() throws MemoMaxException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        try {
+            loadInChunks(Integer.MAX_VALUE, (chunk, progress) -> tasks.addAll(chunk));
+        } catch (MemoMaxException e) {
+            throw new MemoMaxException(e.getMessage(), tasks);
+        }
+        return tasks;
+    }
+
+    /**
+     * Replaces everything stored with the given tasks.
+     *
+     * @param tasks The full task list.
+     * @throws MemoMaxException If the tasks cannot be written.
+     */
+    void save(List<Task> tasks) throws MemoMaxException;
+
+    /**
+     * Called after a task has been added to the list.
+     *
+     * @param index The index of the new task (0-based).
+     * @param task The new task.
+     * @param tasks The full task list, including the new task.
+     * @throws MemoMaxException If the change cannot be written.
+     */
+    default void taskAdded(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        save(tasks);
+    }
+
+    /**
+     * Called after a task has been marked, unmarked or replaced.
+     *
+     * @param index The index of the changed task (0-based).
+     * @param task The task now at that index.
+     * @param tasks The full task list.
+     * @throws MemoMaxException If the change cannot be written.
+     */
+    default void taskUpdated(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        save(tasks);
+    }
+
+    /**
+     * Called after a task has been removed from the list.
+     *
+     * @param index The index the task had (0-based).
+     * @param task The removed task.
+     * @param tasks The full task list, without the removed task.
+     * @throws MemoMaxException If the change cannot be written.
+     */
+    default void taskDeleted(int index, Task task, List<Task> tasks) throws MemoMaxException {
+        save(tasks);
+    }
+
+    /**
+     * Called before each command runs. Engines whose data other programs may change lock it here,
+     * exclusively if the command may change the list, and report any changes made since the list
+     * was last loaded or saved, so the command works on them and its save does not overwrite them.
+     *
+     * @param isMutating Whether the command may change the list.
+     * @param listener Receives the external changes.
+     * @throws MemoMaxException If the data cannot be locked or the changes cannot be read.
+     */
+    default void beginCommand(boolean isMutating, ExternalChangeListener listener) throws MemoMaxException {
+    }
+
+    /**
+     * Called after a command whose {@link #beginCommand(boolean, ExternalChangeListener)} succeeded,
+     * to release what it acquired.
+     */
+    default void endCommand() {
+    }
+
+    /**
+     * Finds the tasks whose description contains the keyword, ignoring case, using the engine's own
+     * index. Engines without one return null and MemoMax searches the list in memory.
+     *
+     * @param keyword The search keyword.
+     * @return The indices of the matching tasks (0-based, ascending), or null if not supported.
+     * @throws MemoMaxException If the stored tasks cannot be searched.
+     */
+    default int[] findMatchingIndices(String keyword) throws MemoMaxException {
+        return null;
+    }
+
+    /**
+     * Reads a page of tasks straight from storage. Engines that cannot do this cheaply return
+     * null and MemoMax pages the list in memory.
+     *
+     * @param fromIndex The index of the first task of the page (0-based).
+     * @param count The maximum number of tasks to read.
+     * @return The tasks of the page, or null if not supported.
+     * @throws MemoMaxException If the stored tasks cannot be read.
+     */
+    default List<Task> readPage(int fromIndex, int count) throws MemoMaxException {
+        return null;
+    }
+
+    /**
+     * Returns the archive that done tasks are moved to, kept next to the engine's data. Engines
+     * without one return null and MemoMax cannot archive tasks.
+     *
+     * @return The archive, or null if not supported.
+     */
+    default TaskArchive getArchive() {
+        return null;
+    }
+
+    /**
+     * Writes any buffered changes to durable storage.
+     *
+     * @throws MemoMaxException If the changes cannot be written.
+     */
+    default void flush() throws MemoMaxException {
+    }
+
+    /**
+     * Flushes buffered changes and releases any resources held by the engine.
+     *
+     * @throws MemoMaxException If the changes cannot be written.
+     */
+    default void close() throws MemoMaxException {
+        flush();
+    }
+}
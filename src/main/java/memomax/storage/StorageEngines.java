@@ -0,0 +1,115 @@
+package memomax.storage;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import memomax.exception.MemoMaxException;
+
+/**
+ * Registry of the available storage engines, looked up by name.
+ * The text engine ({@value #DEFAULT_ENGINE}), the embedded H2 engine ({@value JdbcStorage#ENGINE_NAME}),
+ * which imports the text file on first use, the segmented text engine ({@value ShardedStorage#ENGINE_NAME}) and
+ * the record file engine ({@value PagedStorage#ENGINE_NAME}) are always registered; other engines can be added with
+ * {@link #register(String, String, Factory)} before MemoMax starts.
+ */
+public final class StorageEngines {
+    /** Name of the engine used when none is configured. */
+    public static final String DEFAULT_ENGINE = "text";
+
+    private static final String TEXT_DATA_PATH = "./data/MemoMax.txt";
+    private static final Map<String, Registration> ENGINES = new LinkedHashMap<>();
+
+    static {
+        register(DEFAULT_ENGINE, TEXT_DATA_PATH, dataPath -> new Storage(dataPath, Compression.fromProperty()));
+        register(JdbcStorage.ENGINE_NAME, "./data/MemoMax", dataPath -> new JdbcStorage(dataPath, TEXT_DATA_PATH));
+        register(ShardedStorage.ENGINE_NAME, "./data/MemoMax-segments", ShardedStorage::new);
+        register(PagedStorage.ENGINE_NAME, "./data/MemoMax", PagedStorage::new);
+    }
+
+    private StorageEngines() {
+    }
+
+    /**
+     * Creates a storage engine for a data path.
+     */
+    public interface Factory {
+        /**
+         * Opens an engine.
+         *
+         * @param dataPath Where the engine keeps its data.
+         * @return The engine.
+         * @throws MemoMaxException If the engine cannot be opened.
+         */
+        StorageEngine open(String dataPath) throws MemoMaxException;
+    }
+
+    /**
+     * Registers an engine, replacing any engine with the same name.
+     *
+     * @param name The name used to select the engine.
+     * @param defaultDataPath The data path used when none is configured.
+     * @param factory Creates the engine.
+     */
+    public static synchronized void register(String name, String defaultDataPath, Factory factory) {
+        assert name != null && !name.isBlank() : "Engine name should not be blank";
+        ENGINES.put(name, new Registration(defaultDataPath, factory));
+    }
+
+    /**
+     * Returns the names of all registered engines.
+     *
+     * @return The engine names, in registration order.
+     */
+    public static synchronized Set<String> getNames() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(ENGINES.keySet()));
+    }
+
+    /**
+     * Returns the data path an engine uses when none is configured.
+     *
+     * @param name The engine name.
+     * @return The default data path.
+     * @throws MemoMaxException If no engine has that name.
+     */
+    public static synchronized String getDefaultDataPath(String name) throws MemoMaxException {
+        return lookUp(name).defaultDataPath;
+    }
+
+    /**
+     * Opens the named engine.
+     *
+     * @param name The engine name.
+     * @param dataPath Where the engine keeps its data, or null for the engine's default.
+     * @return The engine.
+     * @throws MemoMaxException If no engine has that name or it cannot be opened.
+     */
+    public static StorageEngine open(String name, String dataPath) throws MemoMaxException {
+        Registration registration;
+        synchronized (StorageEngines.class) {
+            registration = lookUp(name);
+        }
+        return registration.factory.open(dataPath == null ? registration.defaultDataPath : dataPath);
+    }
+
+    private static Registration lookUp(String name) throws MemoMaxException {
+        Registration registration = ENGINES.get(name);
+        if (registration == null) {
+            throw new MemoMaxException("Unknown storage engine: " + name
+                    + ". Available engines: " + String.join(", ", ENGINES.keySet()));
+        }
+        return registration;
+    }
+
+    private static final class Registration {
+        private final String defaultDataPath;
+        private final Factory factory;
+
+        private Registration(String defaultDataPath, Factory factory) {
+            this.defaultDataPath = defaultDataPath;
+            this.factory = factory;
+        }
+    }
+}
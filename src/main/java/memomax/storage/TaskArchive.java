@@ -0,0 +1,171 @@
+package memomax.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import memomax.exception.MemoMaxException;
+import memomax.task.Task;
+
+/**
+ * Done tasks moved out of the task list, kept in an append-only text file with one task per line in
+ * the format of the text engine. Archiving only appends, so archived tasks are never rewritten by
+ * later saves, and the file is not read at all until the archive is first searched.
+ *
+ * <p>Once read, the archived tasks stay in memory together with their lowercased descriptions, so
+ * later searches neither read the file nor lowercase every description again. Tasks archived by this
+ * program are added to them; if another program appends to the file, it is read again on the next
+ * search. A line left unfinished by a crash is skipped, and the next append starts on a new line.
+ */
+public class TaskArchive {
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String ARCHIVE_SUFFIX = "-archive.txt";
+
+    private final Path path;
+    private ArrayList<Task> tasks;
+    private ArrayList<String> lowerDescriptions;
+    /** Length of the file when last read or appended to, or -1 if it has not been read. */
+    private long knownLength = -1;
+
+    /**
+     * Creates an archive kept in a file, which is created on the first append.
+     *
+     * @param filePath The path of the archive file.
+     */
+    public TaskArchive(String filePath) {
+        assert filePath != null && !filePath.isBlank() : "Archive path should not be null or empty";
+        this.path = Paths.get(filePath);
+    }
+
+    /**
+     * Returns the archive path for an engine's data path: the data file name with {@code -archive}
+     * added before its {@code .txt} extension, or with {@code -archive.txt} added if it has none.
+     *
+     * @param dataPath The data file, file prefix or directory of the engine.
+     * @return The archive file path.
+     */
+    public static String pathNextTo(String dataPath) {
+        String base = dataPath.endsWith(TEXT_SUFFIX)
+                ? dataPath.substring(0, dataPath.length() - TEXT_SUFFIX.length())
+                : dataPath;
+        return base + ARCHIVE_SUFFIX;
+    }
+
+    /**
+     * Appends tasks to the archive, forcing them to disk before returning so the list can then be
+     * saved without them. If the list is not saved afterwards, the tasks are in both, never in
+     * neither.
+     *
+     * @param archivedTasks The tasks to archive.
+     * @throws MemoMaxException If the tasks cannot be written.
+     */
+    public void append(List<Task> archivedTasks) throws MemoMaxException {
+        StringBuilder lines = new StringBuilder();
+        for (Task task : archivedTasks) {
+            lines.append(task.toFileFormat()).append(System.lineSeparator());
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                long lengthBefore = channel.size();
+                if (lengthBefore > 0 && !endsWithNewline(channel, lengthBefore)) {
+                    lines.insert(0, System.lineSeparator());
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                long position = lengthBefore;
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+                channel.force(true);
+                if (tasks != null && lengthBefore == knownLength) {
+                    for (Task task : archivedTasks) {
+                        addLoaded(task);
+                    }
+                    knownLength = position;
+                }
+            }
+        } catch (IOException e) {
+            throw new MemoMaxException("Failed to archive tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the archived tasks whose description contains the keyword, ignoring case, reading the
+     * archive first if it has not been read yet or another program has appended to it.
+     *
+     * @param keyword The search keyword.
+     * @return The matching tasks, oldest archived first.
+     * @throws MemoMaxException If the archive cannot be read.
+     */
+    public ArrayList<Task> findTasks(String keyword) throws MemoMaxException {
+        ensureLoaded();
+        String lowerKeyword = keyword.toLowerCase();
+        ArrayList<Task> matchingTasks = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (lowerDescriptions.get(i).contains(lowerKeyword)) {
+                matchingTasks.add(tasks.get(i));
+            }
+        }
+        return matchingTasks;
+    }
+
+    /**
+     * Returns the number of archived tasks, reading the archive if needed.
+     *
+     * @return The number of tasks.
+     * @throws MemoMaxException If the archive cannot be read.
+     */
+    public int size() throws MemoMaxException {
+        ensureLoaded();
+        return tasks.size();
+    }
+
+    private void ensureLoaded() throws MemoMaxException {
+        try {
+            long length = Files.exists(path) ? Files.size(path) : 0;
+            if (tasks != null && length == knownLength) {
+                return;
+            }
+            tasks = new ArrayList<>();
+            lowerDescriptions = new ArrayList<>();
+            if (length > 0) {
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        Task task = Storage.parseTask(line);
+                        if (task != null) {
+                            addLoaded(task);
+                        }
+                    }
+                }
+            }
+            knownLength = length;
+        } catch (IOException e) {
+            tasks = null;
+            throw new MemoMaxException("Failed to read the archive: " + e.getMessage());
+        }
+    }
+
+    private void addLoaded(Task task) {
+        tasks.add(task);
+        lowerDescriptions.add(task.getDescription().toLowerCase());
+    }
+
+    private static boolean endsWithNewline(FileChannel channel, long length) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, length - 1);
+        return last.get(0) == '\n';
+    }
+}
@@ -0,0 +1,111 @@
+package memomax.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import memomax.exception.MemoMaxException;
+
+/**
+ * Coordinates access to a task file between programs with an advisory {@link FileLock} on a
+ * lock file next to it. The task file itself is never locked, so it can still be replaced while
+ * the lock is held. The lock is reentrant within one {@link Storage}: a save during a command
+ * reuses the lock the command already holds.
+ */
+final class TaskFileLock {
+    private static final long TIMEOUT_MILLIS = 5000;
+    private static final long RETRY_MILLIS = 10;
+
+    private final Path lockPath;
+    private FileChannel channel;
+    private FileLock lock;
+    private int holdCount = 0;
+
+    /**
+     * Creates the lock for a task file.
+     *
+     * @param taskFile The task file to guard.
+     */
+    TaskFileLock(Path taskFile) {
+        this.lockPath = taskFile.resolveSibling(taskFile.getFileName() + ".lock");
+    }
+
+    /**
+     * Acquires the lock, waiting a few seconds for other programs to release it.
+     *
+     * @param isShared Whether the lock only guards reading, so other readers may hold it too.
+     * @throws MemoMaxException If the lock is still held elsewhere after the timeout.
+     */
+    void acquire(boolean isShared) throws MemoMaxException {
+        if (holdCount > 0) {
+            assert isShared || !lock.isShared() : "A shared lock cannot be upgraded to exclusive";
+            holdCount++;
+            return;
+        }
+        try {
+            if (channel == null) {
+                Path parent = lockPath.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+            }
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            lock = channel.tryLock(0, Long.MAX_VALUE, isShared);
+            while (lock == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(RETRY_MILLIS);
+                lock = channel.tryLock(0, Long.MAX_VALUE, isShared);
+            }
+        } catch (OverlappingFileLockException e) {
+            throw new MemoMaxException("The tasks file is already open elsewhere in this program.");
+        } catch (IOException e) {
+            throw new MemoMaxException("Cannot lock tasks file: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MemoMaxException("Interrupted while waiting for the tasks file.");
+        }
+        if (lock == null) {
+            throw new MemoMaxException("The tasks file is in use by another program. Please try again.");
+        }
+        holdCount = 1;
+    }
+
+    /**
+     * Releases one hold on the lock, unlocking once every acquire has been released.
+     */
+    void release() {
+        assert holdCount > 0 : "Lock released more often than acquired";
+        holdCount--;
+        if (holdCount > 0) {
+            return;
+        }
+        try {
+            lock.release();
+        } catch (IOException e) {
+            // The lock goes away with the channel at the latest.
+        }
+        lock = null;
+    }
+
+    /**
+     * Releases the lock if held and closes the lock file.
+     */
+    void close() {
+        holdCount = 0;
+        lock = null;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Closing releases any lock; there is nothing else to clean up.
+        }
+        channel = null;
+    }
+}
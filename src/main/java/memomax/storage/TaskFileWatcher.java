@@ -0,0 +1,78 @@
+package memomax.storage;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches a task file with a {@link WatchService} on a daemon thread and remembers whether it was
+ * written since the last check. Events for the program's own saves are reported too; the storage
+ * tells them apart by the file's size and modification time.
+ */
+final class TaskFileWatcher {
+    private final Path fileName;
+    private final WatchService service;
+    private final AtomicBoolean isChanged = new AtomicBoolean(false);
+
+    private TaskFileWatcher(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        this.fileName = absolute.getFileName();
+        this.service = absolute.getFileSystem().newWatchService();
+        absolute.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Starts watching a file.
+     *
+     * @param file The file to watch; its directory must exist.
+     * @return The running watcher.
+     * @throws IOException If the file system cannot watch the directory.
+     */
+    static TaskFileWatcher start(Path file) throws IOException {
+        TaskFileWatcher watcher = new TaskFileWatcher(file);
+        Thread thread = new Thread(watcher::run, "memomax-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return watcher;
+    }
+
+    /**
+     * Returns whether the file was written since the previous call, and clears the flag.
+     */
+    boolean consumeChange() {
+        return isChanged.getAndSet(false);
+    }
+
+    /**
+     * Stops watching.
+     */
+    void close() {
+        try {
+            service.close();
+        } catch (IOException e) {
+            // The watcher thread stops either way.
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        isChanged.set(true);
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed with the storage.
+        }
+    }
+}
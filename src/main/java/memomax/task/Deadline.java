@@ -4,16 +4,17 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 import memomax.exception.MemoMaxException;
+import memomax.parser.DateParser;
+import memomax.parser.Parser;
 
 /**
  * Represents a deadline task with a due date.
  * Extends the Task with deadline-specific information.
  */
 public class Deadline extends Task {
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
     protected LocalDateTime by;
 
-
     /**
      * Creates a new deadline task.
      *
@@ -22,13 +23,24 @@ public class Deadline extends Task {
      * @throws MemoMaxException If the date format is invalid.
      */
     public Deadline(String description, String by) throws MemoMaxException {
+        this(description, parseDate(by));
+    }
+
+    /**
+     * Creates a new deadline task from an already parsed due date.
+     *
+     * @param description Task description.
+     * @param byEpochMinute Due date and time in minutes since the epoch.
+     */
+    public Deadline(String description, long byEpochMinute) {
         super(description);
+        assert byEpochMinute != DateParser.INVALID : "Deadline date should be valid";
+        this.by = DateParser.toLocalDateTime(byEpochMinute);
+    }
+
+    private static long parseDate(String by) throws MemoMaxException {
         assert by != null && !by.trim().isEmpty() : "Deadline 'by' string should not be null or empty";
-        try {
-            this.by = LocalDateTime.parse(by.trim(), INPUT_FORMAT);
-        } catch (Exception e) {
-            throw new MemoMaxException("Invalid date! Use: yyyy-MM-dd HHmm");
-        }
+        return Parser.parseDateTime(by);
     }
 
     /**
@@ -38,7 +50,16 @@ public class Deadline extends Task {
      */
     public String getBy() {
         assert by != null : "Deadline date should not be null when calling getBy";
-        return by.format(INPUT_FORMAT);
+        return DateParser.format(by);
+    }
+
+    /**
+     * Gets the due date of the deadline.
+     *
+     * @return The due date and time.
+     */
+    public LocalDateTime getByDateTime() {
+        return by;
     }
 
     /**
@@ -49,8 +70,7 @@ public class Deadline extends Task {
     @Override
     public String toString() {
         assert by != null : "Deadline date should not be null during toString conversion";
-        DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
-        return "[D]" + super.toString() + " (by: " + by.format(outputFormatter) + ")";
+        return "[D]" + super.toString() + " (by: " + by.format(OUTPUT_FORMAT) + ")";
     }
 
     /**
@@ -62,6 +82,6 @@ public class Deadline extends Task {
     public String toFileFormat() {
         assert by != null : "Deadline date should not be null during file format conversion";
         return "D | " + (isDone ? "1" : "0") + " | " + description
-                + " | " + by.format(INPUT_FORMAT);
+                + " | " + DateParser.format(by);
     }
 }
@@ -4,13 +4,15 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 import memomax.exception.MemoMaxException;
+import memomax.parser.DateParser;
+import memomax.parser.Parser;
 
 /**
  * Represents an event task with start and end times.
  * Extends the Task class with time interval information.
  */
 public class Event extends Task {
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
     protected LocalDateTime from;
     protected LocalDateTime to;
 
@@ -23,16 +25,27 @@ public class Event extends Task {
      * @throws MemoMaxException If the date format is invalid.
      */
     public Event(String description, String from, String to) throws MemoMaxException {
+        this(description, parseDate(from), parseDate(to));
+    }
+
+    /**
+     * Creates a new event task from already parsed times.
+     *
+     * @param description Event description.
+     * @param fromEpochMinute Start time in minutes since the epoch.
+     * @param toEpochMinute End time in minutes since the epoch.
+     */
+    public Event(String description, long fromEpochMinute, long toEpochMinute) {
         super(description);
-        assert from != null && !from.trim().isEmpty() : "Event 'from' string should not be null or empty";
-        assert to != null && !to.trim().isEmpty() : "Event 'to' string should not be null or empty";
+        assert fromEpochMinute != DateParser.INVALID && toEpochMinute != DateParser.INVALID
+                : "Event times should be valid";
+        this.from = DateParser.toLocalDateTime(fromEpochMinute);
+        this.to = DateParser.toLocalDateTime(toEpochMinute);
+    }
 
-        try {
-            this.from = LocalDateTime.parse(from.trim(), INPUT_FORMAT);
-            this.to = LocalDateTime.parse(to.trim(), INPUT_FORMAT);
-        } catch (Exception e) {
-            throw new MemoMaxException("Invalid date! Use: yyyy-MM-dd HHmm");
-        }
+    private static long parseDate(String dateTime) throws MemoMaxException {
+        assert dateTime != null && !dateTime.trim().isEmpty() : "Event time string should not be null or empty";
+        return Parser.parseDateTime(dateTime);
     }
 
     /**
@@ -42,7 +55,16 @@ public class Event extends Task {
      */
     public String getFrom() {
         assert from != null : "Event start time should not be null when calling getFrom";
-        return from.format(INPUT_FORMAT);
+        return DateParser.format(from);
+    }
+
+    /**
+     * Gets the start time of the event.
+     *
+     * @return The start date and time.
+     */
+    public LocalDateTime getFromDateTime() {
+        return from;
     }
 
     /**
@@ -52,7 +74,16 @@ public class Event extends Task {
      */
     public String getTo() {
         assert to != null : "Event end time should not be null when calling getTo";
-        return to.format(INPUT_FORMAT);
+        return DateParser.format(to);
+    }
+
+    /**
+     * Gets the end time of the event.
+     *
+     * @return The end date and time.
+     */
+    public LocalDateTime getToDateTime() {
+        return to;
     }
 
     /**
@@ -63,9 +94,8 @@ public class Event extends Task {
     @Override
     public String toString() {
         assert from != null && to != null : "Event times should not be null during toString conversion";
-        DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
-        return "[E]" + super.toString() + " (from: " + from.format(outputFormatter)
-                + " to: " + to.format(outputFormatter) + ")";
+        return "[E]" + super.toString() + " (from: " + from.format(OUTPUT_FORMAT)
+                + " to: " + to.format(OUTPUT_FORMAT) + ")";
     }
 
     /**
@@ -77,6 +107,6 @@ public class Event extends Task {
     public String toFileFormat() {
         assert from != null && to != null : "Event times should not be null during file format conversion";
         return "E | " + (isDone ? "1" : "0") + " | " + description + " | "
-                + from.format(INPUT_FORMAT) + " | " + to.format(INPUT_FORMAT);
+                + DateParser.format(from) + " | " + DateParser.format(to);
     }
 }
@@ -33,6 +33,15 @@ public class Task {
         this.isDone = false;
     }
 
+    /**
+     * Returns whether the task is completed.
+     *
+     * @return true if the task is done.
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
     /**
      * Returns the status icon for display.
      *
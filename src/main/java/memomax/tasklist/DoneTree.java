@@ -0,0 +1,103 @@
+package memomax.tasklist;
+
+import java.util.Arrays;
+import java.util.List;
+
+import memomax.task.Task;
+
+/**
+ * A Fenwick tree over the done state of each position in a list, counting the done tasks in any
+ * range of positions in logarithmic time.
+ *
+ * <p>Changing the done state at a position, appending and removing from the end are logarithmic
+ * too. Inserting or removing anywhere else shifts every later position, so the list then discards
+ * the tree and builds a new one, in linear time, the next time a range is counted.
+ */
+final class DoneTree {
+    private static final int MIN_CAPACITY = 16;
+
+    /** Node {@code i} (1-based) holds the done count of positions {@code (i - lowbit(i), i]}. */
+    private int[] tree;
+    private int size;
+
+    /**
+     * Builds the tree of a list in linear time.
+     *
+     * @param tasks The tasks, in list order.
+     */
+    DoneTree(List<Task> tasks) {
+        size = tasks.size();
+        tree = new int[Math.max(MIN_CAPACITY, size + 1)];
+        for (int i = 1; i <= size; i++) {
+            tree[i] += tasks.get(i - 1).isDone() ? 1 : 0;
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * Adds a position at the end.
+     *
+     * @param isDone Whether the task there is done.
+     */
+    void append(boolean isDone) {
+        if (size + 1 >= tree.length) {
+            tree = Arrays.copyOf(tree, tree.length * 2);
+        }
+        int node = ++size;
+        tree[node] = (isDone ? 1 : 0) + countBefore(node - 1) - countBefore(node - (node & -node));
+    }
+
+    /**
+     * Removes the positions from an index to the end. Nodes up to the new end cover no removed
+     * position, so they stay as they are; later nodes are rebuilt when appended again.
+     *
+     * @param newSize The number of positions kept.
+     */
+    void truncate(int newSize) {
+        assert newSize >= 0 && newSize <= size : "Truncated size should be within the tree";
+        size = newSize;
+    }
+
+    /**
+     * Changes the done count at a position.
+     *
+     * @param index The position (0-based).
+     * @param delta 1 if the task there became done, -1 if it stopped being done.
+     */
+    void add(int index, int delta) {
+        assert index >= 0 && index < size : "Position should be within the tree";
+        for (int node = index + 1; node <= size; node += node & -node) {
+            tree[node] += delta;
+        }
+    }
+
+    /**
+     * Counts the done tasks in a range of positions.
+     *
+     * @param fromIndex The first position, inclusive (0-based).
+     * @param toIndex The last position, exclusive.
+     * @return The number of done tasks.
+     */
+    int countDone(int fromIndex, int toIndex) {
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= size : "Range should lie within the tree";
+        return countBefore(toIndex) - countBefore(fromIndex);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Counts the done tasks in the first {@code count} positions.
+     */
+    private int countBefore(int count) {
+        int total = 0;
+        for (int node = count; node > 0; node -= node & -node) {
+            total += tree[node];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,374 @@
+package memomax.tasklist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import memomax.task.Task;
+
+/**
+ * A condition on tasks, built from predicates on the type, done state, date and description of a
+ * task, combined with and, or and not.
+ *
+ * <p>Besides checking a single task, a query can be planned against a {@link QueryIndex}: it
+ * estimates how many candidate tasks the indexes would give for it and then passes those candidates
+ * on. The candidates always include every matching task, but may include others, so each one is
+ * still checked with {@link #matches(Task)}.
+ */
+public abstract class Query {
+    /** The estimate of a query that no index can answer. */
+    static final long UNINDEXED = Long.MAX_VALUE;
+
+    /**
+     * Returns whether a task satisfies the query.
+     *
+     * @param task The task to check.
+     * @return true if it does.
+     */
+    public abstract boolean matches(Task task);
+
+    /**
+     * Estimates the number of candidates {@link #collect(QueryIndex, Consumer)} would pass on,
+     * choosing the most selective index where there is a choice. Counting may stop once it passes
+     * a limit.
+     *
+     * @param index The indexes to plan against.
+     * @param limit The number of candidates above which the exact estimate does not matter.
+     * @return The estimate, a number above {@code limit}, or {@link #UNINDEXED}.
+     */
+    abstract long estimate(QueryIndex index, long limit);
+
+    /**
+     * Passes on the candidates from the indexes chosen by the last call to
+     * {@link #estimate(QueryIndex, long)}, which must not have returned {@link #UNINDEXED}.
+     * A task may be passed on more than once.
+     *
+     * @param index The indexes to read.
+     * @param action Receives the candidates.
+     */
+    abstract void collect(QueryIndex index, Consumer<Task> action);
+
+    /**
+     * Returns a query for the tasks of a type.
+     *
+     * @param type {@code Todo.class}, {@code Deadline.class} or {@code Event.class}.
+     * @return The query.
+     */
+    public static Query ofType(Class<? extends Task> type) {
+        return new TypeQuery(type);
+    }
+
+    /**
+     * Returns a query for the tasks that are done, or for those that are not.
+     *
+     * @param isDone Whether matching tasks are done.
+     * @return The query.
+     */
+    public static Query isDone(boolean isDone) {
+        return new DoneQuery(isDone);
+    }
+
+    /**
+     * Returns a query for the deadlines due and the events starting within a range.
+     *
+     * @param fromMinute The start of the range, inclusive, in minutes since the epoch.
+     * @param toMinute The end of the range, exclusive.
+     * @return The query.
+     */
+    public static Query datedBetween(long fromMinute, long toMinute) {
+        return new DateQuery(fromMinute, toMinute);
+    }
+
+    /**
+     * Returns a query for the tasks whose description contains a keyword, ignoring case.
+     *
+     * @param keyword The keyword.
+     * @return The query.
+     */
+    public static Query containing(String keyword) {
+        return new KeywordQuery(keyword);
+    }
+
+    /**
+     * Returns a query for the tasks matching all of some queries.
+     *
+     * @param queries At least one query.
+     * @return The query.
+     */
+    public static Query allOf(List<Query> queries) {
+        assert !queries.isEmpty() : "Combined queries should not be empty";
+        return queries.size() == 1 ? queries.get(0) : new AndQuery(queries);
+    }
+
+    /**
+     * Returns a query for the tasks matching any of some queries.
+     *
+     * @param queries At least one query.
+     * @return The query.
+     */
+    public static Query anyOf(List<Query> queries) {
+        assert !queries.isEmpty() : "Combined queries should not be empty";
+        return queries.size() == 1 ? queries.get(0) : new OrQuery(queries);
+    }
+
+    /**
+     * Returns a query for the tasks not matching a query.
+     *
+     * @param query The query to negate.
+     * @return The query.
+     */
+    public static Query not(Query query) {
+        if (query instanceof DoneQuery) {
+            return new DoneQuery(!((DoneQuery) query).isDone);
+        }
+        if (query instanceof NotQuery) {
+            return ((NotQuery) query).negated;
+        }
+        return new NotQuery(query);
+    }
+
+    /**
+     * Matches tasks of one type, from the index of each type.
+     */
+    private static final class TypeQuery extends Query {
+        private final Class<? extends Task> type;
+
+        private TypeQuery(Class<? extends Task> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean matches(Task task) {
+            return task.getClass() == type;
+        }
+
+        @Override
+        long estimate(QueryIndex index, long limit) {
+            return index.getTasksOfType(type).size();
+        }
+
+        @Override
+        void collect(QueryIndex index, Consumer<Task> action) {
+            index.getTasksOfType(type).forEach(action);
+        }
+    }
+
+    /**
+     * Matches done or not-done tasks, from the index of each.
+     */
+    private static final class DoneQuery extends Query {
+        private final boolean isDone;
+
+        private DoneQuery(boolean isDone) {
+            this.isDone = isDone;
+        }
+
+        @Override
+        public boolean matches(Task task) {
+            return task.isDone() == isDone;
+        }
+
+        @Override
+        long estimate(QueryIndex index, long limit) {
+            return index.getTasksByDone(isDone).size();
+        }
+
+        @Override
+        void collect(QueryIndex index, Consumer<Task> action) {
+            index.getTasksByDone(isDone).forEach(action);
+        }
+    }
+
+    /**
+     * Matches tasks dated within a range, from the date index.
+     */
+    private static final class DateQuery extends Query {
+        private final long fromMinute;
+        private final long toMinute;
+
+        private DateQuery(long fromMinute, long toMinute) {
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+        }
+
+        @Override
+        public boolean matches(Task task) {
+            long date = QueryIndex.getDate(task);
+            return date >= fromMinute && date < toMinute;
+        }
+
+        @Override
+        long estimate(QueryIndex index, long limit) {
+            if (fromMinute >= toMinute) {
+                return 0;
+            }
+            return index.countDatedBetween(fromMinute, toMinute, limit);
+        }
+
+        @Override
+        void collect(QueryIndex index, Consumer<Task> action) {
+            if (fromMinute < toMinute) {
+                index.forEachDatedBetween(fromMinute, toMinute, action);
+            }
+        }
+    }
+
+    /**
+     * Matches tasks whose description contains a keyword. Any run of letters and digits in the
+     * keyword lies within a single word of a matching description, so the tasks holding a word that
+     * contains the keyword's longest such run are the candidates. Runs too short to look up leave
+     * the keyword to a scan.
+     */
+    private static final class KeywordQuery extends Query {
+        private final String keyword;
+        private final String fragment;
+
+        private KeywordQuery(String keyword) {
+            this.keyword = keyword.toLowerCase(Locale.ROOT);
+            this.fragment = getLongestWord(this.keyword);
+        }
+
+        @Override
+        public boolean matches(Task task) {
+            return task.getDescription().toLowerCase(Locale.ROOT).contains(keyword);
+        }
+
+        @Override
+        long estimate(QueryIndex index, long limit) {
+            if (!SearchIndex.canFindContaining(fragment)) {
+                return UNINDEXED;
+            }
+            return index.getWords().countContaining(fragment, limit);
+        }
+
+        @Override
+        void collect(QueryIndex index, Consumer<Task> action) {
+            index.getWords().forEachContaining(fragment, action);
+        }
+
+        private static String getLongestWord(String text) {
+            String longest = "";
+            for (String word : SearchIndex.tokenize(text)) {
+                if (word.length() > longest.length()) {
+                    longest = word;
+                }
+            }
+            return longest;
+        }
+    }
+
+    /**
+     * Matches tasks matching every query. Its candidates are those of the most selective query;
+     * the others are checked on each candidate instead of being read from their indexes.
+     */
+    private static final class AndQuery extends Query {
+        private final List<Query> queries;
+        private Query chosen;
+
+        private AndQuery(List<Query> queries) {
+            this.queries = new ArrayList<>(queries);
+        }
+
+        @Override
+        public boolean matches(Task task) {
+            for (Query query : queries) {
+                if (!query.matches(task)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        long estimate(QueryIndex index, long limit) {
+            long best = UNINDEXED;
+            chosen = null;
+            for (Query query : queries) {
+                long estimate = query.estimate(index, Math.min(limit, best));
+                if (estimate < best) {
+                    best = estimate;
+                    chosen = query;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        void collect(QueryIndex index, Consumer<Task> action) {
+            assert chosen != null : "Query should be planned before collecting";
+            chosen.collect(index, action);
+        }
+    }
+
+    /**
+     * Matches tasks matching any query. Its candidates are those of every query, so it can only be
+     * answered from the indexes if every query can.
+     */
+    private static final class OrQuery extends Query {
+        private final List<Query> queries;
+
+        private OrQuery(List<Query> queries) {
+            this.queries = new ArrayList<>(queries);
+        }
+
+        @Override
+        public boolean matches(Task task) {
+            for (Query query : queries) {
+                if (query.matches(task)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        long estimate(QueryIndex index, long limit) {
+            long total = 0;
+            for (Query query : queries) {
+                long estimate = query.estimate(index, limit - total);
+                if (estimate == UNINDEXED) {
+                    return UNINDEXED;
+                }
+                total += estimate;
+                if (total > limit) {
+                    break;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        void collect(QueryIndex index, Consumer<Task> action) {
+            for (Query query : queries) {
+                query.collect(index, action);
+            }
+        }
+    }
+
+    /**
+     * Matches tasks not matching a query. No index lists them, so it is always answered by a scan.
+     */
+    private static final class NotQuery extends Query {
+        private final Query negated;
+
+        private NotQuery(Query negated) {
+            this.negated = negated;
+        }
+
+        @Override
+        public boolean matches(Task task) {
+            return !negated.matches(task);
+        }
+
+        @Override
+        long estimate(QueryIndex index, long limit) {
+            return UNINDEXED;
+        }
+
+        @Override
+        void collect(QueryIndex index, Consumer<Task> action) {
+            throw new AssertionError("Negated queries are never planned as indexed");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package memomax.tasklist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import memomax.parser.DateParser;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * The indexes a {@link Query} can be planned against: the words of descriptions, the tasks of each
+ * type, the done and not-done tasks, and the tasks ordered by date. The date of a deadline is its due
+ * date and the date of an event is its start.
+ */
+final class QueryIndex {
+    private final Supplier<SearchIndex> words;
+    private final Map<Class<? extends Task>, Set<Task>> tasksByType = new IdentityHashMap<>();
+    private final Set<Task> doneTasks;
+    private final Set<Task> undoneTasks;
+    private final TreeMap<Long, ArrayList<Task>> tasksByDate = new TreeMap<>();
+
+    /**
+     * Creates the indexes of a list.
+     *
+     * @param tasks A live view of the list.
+     * @param words Gives the word index of the same list, kept up to date by its owner; it is only
+     *     asked for once a query needs it.
+     */
+    QueryIndex(List<Task> tasks, Supplier<SearchIndex> words) {
+        this.words = words;
+        int expectedSize = tasks.size() / 2;
+        this.doneTasks = newTaskSet(expectedSize);
+        this.undoneTasks = newTaskSet(expectedSize);
+        tasksByType.put(Todo.class, newTaskSet(expectedSize));
+        tasksByType.put(Deadline.class, newTaskSet(expectedSize));
+        tasksByType.put(Event.class, newTaskSet(expectedSize));
+        tasks.forEach(this::add);
+    }
+
+    /**
+     * Adds a task to the indexes.
+     *
+     * @param task The task.
+     */
+    void add(Task task) {
+        Set<Task> ofType = tasksByType.get(task.getClass());
+        assert ofType != null : "Task type should be indexed";
+        ofType.add(task);
+        (task.isDone() ? doneTasks : undoneTasks).add(task);
+        long date = getDate(task);
+        if (date != DateParser.INVALID) {
+            tasksByDate.computeIfAbsent(date, key -> new ArrayList<>(1)).add(task);
+        }
+    }
+
+    /**
+     * Removes a task from the indexes.
+     *
+     * @param task The task, which must be indexed.
+     */
+    void remove(Task task) {
+        tasksByType.get(task.getClass()).remove(task);
+        (task.isDone() ? doneTasks : undoneTasks).remove(task);
+        long date = getDate(task);
+        if (date != DateParser.INVALID) {
+            ArrayList<Task> sameDate = tasksByDate.get(date);
+            for (int i = 0; i < sameDate.size(); i++) {
+                if (sameDate.get(i) == task) {
+                    sameDate.remove(i);
+                    break;
+                }
+            }
+            if (sameDate.isEmpty()) {
+                tasksByDate.remove(date);
+            }
+        }
+    }
+
+    /**
+     * Moves a task between the done and not-done tasks after it was marked or unmarked.
+     *
+     * @param task The task.
+     */
+    void doneChanged(Task task) {
+        if (task.isDone()) {
+            undoneTasks.remove(task);
+            doneTasks.add(task);
+        } else {
+            doneTasks.remove(task);
+            undoneTasks.add(task);
+        }
+    }
+
+    SearchIndex getWords() {
+        return words.get();
+    }
+
+    /**
+     * Returns the tasks of a type.
+     *
+     * @param type {@code Todo}, {@code Deadline} or {@code Event}.
+     * @return The tasks, in no particular order.
+     */
+    Set<Task> getTasksOfType(Class<? extends Task> type) {
+        Set<Task> tasks = tasksByType.get(type);
+        assert tasks != null : "Task type should be indexed";
+        return Collections.unmodifiableSet(tasks);
+    }
+
+    /**
+     * Returns the tasks that are done, or those that are not.
+     *
+     * @param isDone Whether to return the done tasks.
+     * @return The tasks, in no particular order.
+     */
+    Set<Task> getTasksByDone(boolean isDone) {
+        return Collections.unmodifiableSet(isDone ? doneTasks : undoneTasks);
+    }
+
+    /**
+     * Counts the tasks dated within a range, stopping early once the count passes a limit.
+     *
+     * @param fromMinute The start of the range, inclusive, in minutes since the epoch.
+     * @param toMinute The end of the range, exclusive.
+     * @param limit The count above which counting may stop.
+     * @return The count, or a number above {@code limit} if it is more than that.
+     */
+    long countDatedBetween(long fromMinute, long toMinute, long limit) {
+        long count = 0;
+        for (ArrayList<Task> tasks : tasksByDate.subMap(fromMinute, toMinute).values()) {
+            count += tasks.size();
+            if (count > limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Passes on the tasks dated within a range.
+     *
+     * @param fromMinute The start of the range, inclusive, in minutes since the epoch.
+     * @param toMinute The end of the range, exclusive.
+     * @param action Receives the tasks, earliest first.
+     */
+    void forEachDatedBetween(long fromMinute, long toMinute, Consumer<Task> action) {
+        for (ArrayList<Task> tasks : tasksByDate.subMap(fromMinute, toMinute).values()) {
+            tasks.forEach(action);
+        }
+    }
+
+    /**
+     * Returns the date a task is indexed by.
+     *
+     * @param task The task.
+     * @return Minutes since the epoch, or {@link DateParser#INVALID} for tasks without a date.
+     */
+    static long getDate(Task task) {
+        if (task instanceof Deadline) {
+            return DateParser.toEpochMinute(((Deadline) task).getByDateTime());
+        }
+        if (task instanceof Event) {
+            return DateParser.toEpochMinute(((Event) task).getFromDateTime());
+        }
+        return DateParser.INVALID;
+    }
+
+    private static Set<Task> newTaskSet(int expectedSize) {
+        return Collections.newSetFromMap(new IdentityHashMap<>(expectedSize));
+    }
+}
@@ -0,0 +1,31 @@
+package memomax.tasklist;
+
+/**
+ * The tasks matching a {@code query}, as positions in the task list, and how many tasks were
+ * checked to find them.
+ */
+public final class QueryResult {
+    private final int[] indices;
+    private final int checkedCount;
+
+    /**
+     * Creates a query result.
+     *
+     * @param indices The 0-based positions of the matching tasks, in list order.
+     * @param checkedCount The number of tasks checked against the query.
+     */
+    public QueryResult(int[] indices, int checkedCount) {
+        assert indices != null : "Result indices should not be null";
+        assert checkedCount >= indices.length : "Every matching task should have been checked";
+        this.indices = indices;
+        this.checkedCount = checkedCount;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int getCheckedCount() {
+        return checkedCount;
+    }
+}
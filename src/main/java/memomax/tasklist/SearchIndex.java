@@ -0,0 +1,509 @@
+package memomax.tasklist;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import memomax.task.Task;
+
+/**
+ * An inverted index over the words of task descriptions that tolerates typos.
+ *
+ * <p>Each distinct word is a term with a posting list of the tasks containing it. Words that are
+ * not plain numbers are also kept in a BK-tree ordered by edit distance, so the terms within a
+ * small distance of a query word are found without comparing it to every term. Numbers only match
+ * exactly, which keeps the tree small when descriptions carry ids or dates. Swapped letters count
+ * as one edit; that bends the triangle inequality the tree relies on, so in rare cases a term just
+ * within the distance is not found.
+ *
+ * <p>Removed tasks are only flagged; their postings are dropped when a posting list is mostly
+ * stale, and the tree is rebuilt once most of its terms no longer occur in any task.
+ *
+ * <p>For words containing a fragment, terms are also listed under each run of three characters
+ * they contain, so only the terms sharing the fragment's rarest run are compared with it. These
+ * lists are built on the first such lookup, and rebuilt once most of their terms were dropped.
+ */
+final class SearchIndex {
+    private static final double PREFIX_WEIGHT = 0.75;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MIN_TREE_REBUILD_SIZE = 1024;
+    private static final int GRAM_LENGTH = 3;
+
+    private final IdentityHashMap<Task, Entry> entries = new IdentityHashMap<>();
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+    private Term root;
+    private int treeSize = 0;
+    private int deadTreeTerms = 0;
+    private long nextSequence = 0;
+    private int nextQuery = 0;
+    private HashMap<String, ArrayList<Term>> termsByGram;
+    private long gramCount = 0;
+    private long droppedGramCount = 0;
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param task The task, which must not be indexed yet.
+     */
+    void add(Task task) {
+        assert !entries.containsKey(task) : "Task is already indexed";
+        Entry entry = new Entry(task, nextSequence++);
+        entries.put(task, entry);
+        for (String word : tokenize(task.getDescription())) {
+            Term term = terms.get(word);
+            if (term == null) {
+                term = new Term(word);
+                terms.put(word, term);
+                if (!isNumber(word)) {
+                    insertIntoTree(term);
+                }
+                if (termsByGram != null) {
+                    addGrams(term);
+                }
+            } else if (term.getLiveCount() == 0 && term.isInTree) {
+                deadTreeTerms--;
+            }
+            term.postings.add(entry);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The task, which must be indexed.
+     */
+    void remove(Task task) {
+        Entry entry = entries.remove(task);
+        assert entry != null : "Task is not indexed";
+        entry.isRemoved = true;
+        for (String word : tokenize(task.getDescription())) {
+            Term term = terms.get(word);
+            term.deadCount++;
+            if (term.getLiveCount() == 0) {
+                if (term.isInTree) {
+                    deadTreeTerms++;
+                } else {
+                    drop(term);
+                }
+            }
+            if (term.deadCount > term.postings.size() / 2) {
+                term.postings.removeIf(posting -> posting.isRemoved);
+                term.deadCount = 0;
+            }
+        }
+        if (deadTreeTerms > treeSize / 2 && treeSize > MIN_TREE_REBUILD_SIZE) {
+            rebuildTree();
+        }
+        if (termsByGram != null && droppedGramCount > gramCount / 2) {
+            termsByGram = null;
+        }
+    }
+
+    /**
+     * Finds the tasks best matching the query. Each query word matches the terms equal to it, the
+     * terms it is a prefix of, and the terms within a small edit distance, with closer matches
+     * weighing more and rarer terms weighing more. Tasks matching more query words rank first, then
+     * tasks with higher total weight; ties keep the order tasks were indexed in.
+     *
+     * @param query The words to search for.
+     * @param limit The maximum number of tasks to return.
+     * @param matchCount Receives the total number of matching tasks in its first element.
+     * @return The best matching tasks, best first.
+     */
+    List<Task> search(String query, int limit, int[] matchCount) {
+        assert limit > 0 : "Search limit should be positive";
+        int queryId = ++nextQuery;
+        ArrayList<Entry> candidates = new ArrayList<>();
+        int wordIndex = 0;
+        for (String word : tokenize(query)) {
+            for (Map.Entry<Term, Double> match : findTerms(word).entrySet()) {
+                Term term = match.getKey();
+                double weight = match.getValue() * Math.log(1.0 + (double) entries.size() / term.getLiveCount());
+                for (Entry entry : term.postings) {
+                    if (!entry.isRemoved) {
+                        score(entry, queryId, wordIndex, weight, candidates);
+                    }
+                }
+            }
+            wordIndex++;
+        }
+
+        matchCount[0] = candidates.size();
+        PriorityQueue<Entry> best = new PriorityQueue<>(limit + 1, (a, b) -> -compareRank(a, b));
+        for (Entry candidate : candidates) {
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (compareRank(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+        ArrayList<Entry> ranked = new ArrayList<>(best);
+        ranked.sort(SearchIndex::compareRank);
+        ArrayList<Task> results = new ArrayList<>(ranked.size());
+        for (Entry entry : ranked) {
+            results.add(entry.task);
+        }
+        return results;
+    }
+
+    /**
+     * Returns whether the words containing a fragment can be looked up without comparing the
+     * fragment with every word. Fragments shorter than three characters cannot.
+     *
+     * @param fragment Lowercase letters and digits.
+     * @return true if {@link #countContaining(String, long)} may be used for the fragment.
+     */
+    static boolean canFindContaining(String fragment) {
+        return fragment.length() >= GRAM_LENGTH;
+    }
+
+    /**
+     * Counts the tasks holding a word that contains a fragment, stopping early once the count
+     * passes a limit. A task holding several such words is counted once for each.
+     *
+     * @param fragment Lowercase letters and digits, at least three of them.
+     * @param limit The count above which counting may stop.
+     * @return The count, or a number above {@code limit} if it is more than that.
+     */
+    long countContaining(String fragment, long limit) {
+        long count = 0;
+        for (Term term : getGramCandidates(fragment)) {
+            if (!term.isDropped && term.word.contains(fragment)) {
+                count += term.getLiveCount();
+                if (count > limit) {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Passes on the tasks holding a word that contains a fragment. A task holding several such
+     * words is passed on once for each.
+     *
+     * @param fragment Lowercase letters and digits, at least three of them.
+     * @param action Receives the tasks.
+     */
+    void forEachContaining(String fragment, Consumer<Task> action) {
+        for (Term term : getGramCandidates(fragment)) {
+            if (!term.isDropped && term.word.contains(fragment)) {
+                for (Entry entry : term.postings) {
+                    if (!entry.isRemoved) {
+                        action.accept(entry.task);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the terms listed under the rarest run of three characters in a fragment, which include
+     * every term containing the fragment.
+     */
+    private List<Term> getGramCandidates(String fragment) {
+        assert canFindContaining(fragment) : "Fragment should be long enough to look up";
+        if (termsByGram == null) {
+            termsByGram = new HashMap<>();
+            gramCount = 0;
+            droppedGramCount = 0;
+            terms.values().forEach(this::addGrams);
+        }
+        List<Term> rarest = null;
+        for (int i = 0; i + GRAM_LENGTH <= fragment.length(); i++) {
+            List<Term> listed = termsByGram.get(fragment.substring(i, i + GRAM_LENGTH));
+            if (listed == null) {
+                return List.of();
+            }
+            if (rarest == null || listed.size() < rarest.size()) {
+                rarest = listed;
+            }
+        }
+        return rarest;
+    }
+
+    private void addGrams(Term term) {
+        for (String gram : getGrams(term.word)) {
+            termsByGram.computeIfAbsent(gram, key -> new ArrayList<>()).add(term);
+            gramCount++;
+        }
+    }
+
+    /**
+     * Returns the distinct runs of three characters in a word.
+     */
+    private static LinkedHashSet<String> getGrams(String word) {
+        LinkedHashSet<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+            grams.add(word.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Removes a term no task holds any more. It stays in the lists of runs of three characters,
+     * flagged, until they are rebuilt.
+     */
+    private void drop(Term term) {
+        terms.remove(term.word);
+        term.isDropped = true;
+        if (termsByGram != null) {
+            droppedGramCount += getGrams(term.word).size();
+        }
+    }
+
+    /**
+     * Returns the number of indexed tasks.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Adds a term match to a task's score for the current query. Only the best match of each query
+     * word counts.
+     */
+    private static void score(Entry entry, int queryId, int wordIndex, double weight, ArrayList<Entry> candidates) {
+        if (entry.queryId != queryId) {
+            entry.queryId = queryId;
+            entry.wordIndex = -1;
+            entry.matchedWords = 0;
+            entry.score = 0;
+            candidates.add(entry);
+        }
+        if (entry.wordIndex != wordIndex) {
+            entry.wordIndex = wordIndex;
+            entry.matchedWords++;
+            entry.wordBest = weight;
+            entry.score += weight;
+        } else if (weight > entry.wordBest) {
+            entry.score += weight - entry.wordBest;
+            entry.wordBest = weight;
+        }
+    }
+
+    private static int compareRank(Entry a, Entry b) {
+        if (a.matchedWords != b.matchedWords) {
+            return Integer.compare(b.matchedWords, a.matchedWords);
+        }
+        if (a.score != b.score) {
+            return Double.compare(b.score, a.score);
+        }
+        return Long.compare(a.sequence, b.sequence);
+    }
+
+    /**
+     * Returns the live terms matching a query word, with the weight of the closest match of each.
+     */
+    private HashMap<Term, Double> findTerms(String word) {
+        HashMap<Term, Double> matches = new HashMap<>();
+        Term exact = terms.get(word);
+        if (exact != null && exact.getLiveCount() > 0) {
+            matches.put(exact, 1.0);
+        }
+        if (isNumber(word)) {
+            return matches;
+        }
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            NavigableMap<String, Term> prefixed = terms.subMap(word, false, word + Character.MAX_VALUE, false);
+            for (Term term : prefixed.values()) {
+                if (term.getLiveCount() > 0) {
+                    matches.putIfAbsent(term, PREFIX_WEIGHT);
+                }
+            }
+        }
+        int maxDistance = getMaxDistance(word);
+        if (maxDistance > 0 && root != null) {
+            collectWithinDistance(root, word, maxDistance, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Walks the BK-tree, visiting only the children whose distance to their parent can hold terms
+     * within {@code maxDistance} of the word, by the triangle inequality.
+     */
+    private static void collectWithinDistance(Term start, String word, int maxDistance, HashMap<Term, Double> matches) {
+        ArrayList<Term> pending = new ArrayList<>();
+        pending.add(start);
+        while (!pending.isEmpty()) {
+            Term node = pending.remove(pending.size() - 1);
+            int distance = editDistance(word, node.word);
+            if (distance > 0 && distance <= maxDistance && node.getLiveCount() > 0) {
+                double weight = 1.0 - (double) distance / (word.length() + 1);
+                matches.merge(node, weight, Math::max);
+            }
+            for (int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; d++) {
+                Term child = node.children.get(d);
+                if (child != null) {
+                    pending.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how many edits a query word may be away from a term: none for short words, more
+     * for longer ones.
+     */
+    private static int getMaxDistance(String word) {
+        if (word.length() <= 2) {
+            return 0;
+        }
+        return word.length() <= 5 ? 1 : 2;
+    }
+
+    private void insertIntoTree(Term term) {
+        term.isInTree = true;
+        treeSize++;
+        if (root == null) {
+            root = term;
+            return;
+        }
+        Term node = root;
+        while (true) {
+            int distance = editDistance(term.word, node.word);
+            Term child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, term);
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Rebuilds the BK-tree from the terms that still occur in some task, dropping the rest.
+     */
+    private void rebuildTree() {
+        root = null;
+        treeSize = 0;
+        deadTreeTerms = 0;
+        ArrayList<String> deadWords = new ArrayList<>();
+        for (Term term : terms.values()) {
+            term.children.clear();
+            term.isInTree = false;
+            if (term.getLiveCount() == 0) {
+                deadWords.add(term.word);
+            }
+        }
+        for (String word : deadWords) {
+            drop(terms.get(word));
+        }
+        for (Term term : terms.values()) {
+            if (!isNumber(term.word)) {
+                insertIntoTree(term);
+            }
+        }
+    }
+
+    /**
+     * Splits text into distinct lowercase words of letters and digits.
+     *
+     * @param text The text to split.
+     * @return The words, in order of first appearance.
+     */
+    static LinkedHashSet<String> tokenize(String text) {
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean isWordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the edit distance between two words, counting an insertion, deletion, substitution
+     * or swap of adjacent letters as one edit (optimal string alignment), with three rows of the
+     * usual table.
+     */
+    static int editDistance(String a, String b) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                int distance = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * A distinct word, the tasks containing it and, for words in the BK-tree, its children keyed by
+     * their distance to it.
+     */
+    private static final class Term {
+        private final String word;
+        private final ArrayList<Entry> postings = new ArrayList<>();
+        private final HashMap<Integer, Term> children = new HashMap<>();
+        private int deadCount = 0;
+        private boolean isInTree = false;
+        private boolean isDropped = false;
+
+        private Term(String word) {
+            this.word = word;
+        }
+
+        private int getLiveCount() {
+            return postings.size() - deadCount;
+        }
+    }
+
+    /**
+     * An indexed task, with scratch fields holding its score for the query being run.
+     */
+    private static final class Entry {
+        private final Task task;
+        private final long sequence;
+        private boolean isRemoved = false;
+        private int queryId = 0;
+        private int wordIndex;
+        private int matchedWords;
+        private double wordBest;
+        private double score;
+
+        private Entry(Task task, long sequence) {
+            this.task = task;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package memomax.tasklist;
+
+/**
+ * The best matches of a {@code search}, as positions in the task list, and how many tasks matched
+ * in total.
+ */
+public final class SearchResult {
+    private final int[] indices;
+    private final int matchCount;
+
+    /**
+     * Creates a search result.
+     *
+     * @param indices The 0-based positions of the best matching tasks, best first.
+     * @param matchCount The number of tasks that matched, including those not returned.
+     */
+    public SearchResult(int[] indices, int matchCount) {
+        assert indices != null : "Result indices should not be null";
+        assert matchCount >= indices.length : "Match count should include the returned tasks";
+        this.indices = indices;
+        this.matchCount = matchCount;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int getMatchCount() {
+        return matchCount;
+    }
+}
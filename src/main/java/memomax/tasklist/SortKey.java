@@ -0,0 +1,28 @@
+package memomax.tasklist;
+
+/**
+ * The orders the task list can be viewed in with the {@code sort} command.
+ */
+public enum SortKey {
+    /** By due date for deadlines and start for events, earliest first, with todos last. */
+    DATE("date"),
+    /** By description, alphabetically and ignoring case. */
+    DESCRIPTION("desc"),
+    /** Todos, then deadlines, then events, each by date and then description. */
+    TYPE("type");
+
+    private final String keyword;
+
+    SortKey(String keyword) {
+        this.keyword = keyword;
+    }
+
+    /**
+     * Returns the word that selects this order in a {@code sort} command.
+     *
+     * @return The lowercase word.
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+}
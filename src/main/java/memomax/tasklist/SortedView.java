@@ -0,0 +1,130 @@
+package memomax.tasklist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import memomax.parser.DateParser;
+import memomax.task.Task;
+
+/**
+ * The tasks of a list kept sorted in one {@link SortKey} order, so adding, replacing or removing a
+ * task moves only that task instead of sorting the whole list again. The view is an array found by
+ * binary search, like the list itself shifting the tasks after a change, so any page of it is read
+ * directly. Tasks equal in that order keep the order they entered the view in. No order depends on
+ * whether a task is done, so marking a task leaves the view as it is.
+ */
+final class SortedView {
+    private final Comparator<Entry> order;
+    private final ArrayList<Entry> entries;
+    private final IdentityHashMap<Task, Entry> entriesByTask;
+    private long nextSequence = 0;
+
+    /**
+     * Creates a view of a list, sorting it once.
+     *
+     * @param key The order of the view.
+     * @param tasks The tasks of the list, in list order.
+     */
+    SortedView(SortKey key, List<Task> tasks) {
+        this.order = getOrder(key);
+        this.entries = new ArrayList<>(tasks.size());
+        this.entriesByTask = new IdentityHashMap<>(tasks.size());
+        for (Task task : tasks) {
+            Entry entry = new Entry(task, nextSequence++);
+            entries.add(entry);
+            entriesByTask.put(task, entry);
+        }
+        entries.sort(order);
+    }
+
+    /**
+     * Adds a task to the view.
+     *
+     * @param task The task, which must not be in the view yet.
+     */
+    void add(Task task) {
+        Entry entry = new Entry(task, nextSequence++);
+        Entry previous = entriesByTask.put(task, entry);
+        assert previous == null : "Task is already in the view";
+        int rank = Collections.binarySearch(entries, entry, order);
+        assert rank < 0 : "New entries should be distinct from every other";
+        entries.add(-rank - 1, entry);
+    }
+
+    /**
+     * Removes a task from the view.
+     *
+     * @param task The task, which must be in the view.
+     */
+    void remove(Task task) {
+        Entry entry = entriesByTask.remove(task);
+        assert entry != null : "Task is not in the view";
+        int rank = Collections.binarySearch(entries, entry, order);
+        assert rank >= 0 && entries.get(rank) == entry : "Task should be found at its rank";
+        entries.remove(rank);
+    }
+
+    /**
+     * Returns a range of the tasks in view order.
+     *
+     * @param fromIndex The rank of the first task returned (0-based).
+     * @param count The maximum number of tasks returned.
+     * @return The tasks.
+     */
+    List<Task> getRange(int fromIndex, int count) {
+        assert fromIndex >= 0 && count >= 0 : "Range should not be negative";
+        int toIndex = (int) Math.min(entries.size(), (long) fromIndex + count);
+        ArrayList<Task> range = new ArrayList<>(Math.max(0, toIndex - fromIndex));
+        for (int i = fromIndex; i < toIndex; i++) {
+            range.add(entries.get(i).task);
+        }
+        return range;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static Comparator<Entry> getOrder(SortKey key) {
+        Comparator<Entry> byDate = Comparator.comparingLong(entry -> entry.date);
+        Comparator<Entry> byDescription = (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(
+                a.task.getDescription(), b.task.getDescription());
+        Comparator<Entry> order;
+        switch (key) {
+        case DATE:
+            order = byDate.thenComparing(byDescription);
+            break;
+        case DESCRIPTION:
+            order = byDescription;
+            break;
+        case TYPE:
+            order = Comparator.<Entry>comparingInt(entry -> entry.typeRank).thenComparing(byDate)
+                    .thenComparing(byDescription);
+            break;
+        default:
+            throw new AssertionError("Unknown sort key " + key);
+        }
+        return order.thenComparingLong(entry -> entry.sequence);
+    }
+
+    /**
+     * A task in the view, with the parts of its sort keys that take work to compute.
+     */
+    private static final class Entry {
+        private final Task task;
+        private final long sequence;
+        private final long date;
+        private final int typeRank;
+
+        private Entry(Task task, long sequence) {
+            this.task = task;
+            this.sequence = sequence;
+            long taskDate = QueryIndex.getDate(task);
+            this.date = taskDate == DateParser.INVALID ? Long.MAX_VALUE : taskDate;
+            this.typeRank = TaskCounts.getTypeRank(task);
+        }
+    }
+}
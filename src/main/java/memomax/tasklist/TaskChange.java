@@ -0,0 +1,171 @@
+package memomax.tasklist;
+
+import java.util.List;
+
+import memomax.exception.InvalidInputException;
+import memomax.exception.MemoMaxException;
+import memomax.task.Task;
+
+/**
+ * One change made to a task list, recorded with just enough to make it again or reverse it: the
+ * position it happened at and the tasks involved. The tasks are shared with the list rather than
+ * copied, so a mark costs a position and a reference, and an update keeps the task it replaced.
+ */
+public final class TaskChange {
+    /** The kinds of change, each the inverse of another. */
+    public enum Kind {
+        ADDED, DELETED, REPLACED, MARKED, UNMARKED
+    }
+
+    private static final long CHANGE_BYTES = 40;
+    private static final long TASK_BYTES = 64;
+
+    private final Kind kind;
+    private final int index;
+    private final Task task;
+    private final Task previousTask;
+
+    private TaskChange(Kind kind, int index, Task task, Task previousTask) {
+        assert index >= 0 : "Changed index should not be negative";
+        assert task != null : "Changed task should not be null";
+        this.kind = kind;
+        this.index = index;
+        this.task = task;
+        this.previousTask = previousTask;
+    }
+
+    /**
+     * Returns the change of a task added at a position.
+     *
+     * @param index The position of the new task (0-based).
+     * @param task The new task.
+     * @return The change.
+     */
+    public static TaskChange added(int index, Task task) {
+        return new TaskChange(Kind.ADDED, index, task, null);
+    }
+
+    /**
+     * Returns the change of a task deleted from a position.
+     *
+     * @param index The position the task had (0-based).
+     * @param task The deleted task.
+     * @return The change.
+     */
+    public static TaskChange deleted(int index, Task task) {
+        return new TaskChange(Kind.DELETED, index, task, null);
+    }
+
+    /**
+     * Returns the change of a task replaced by another, as by an update.
+     *
+     * @param index The position of the task (0-based).
+     * @param previousTask The task replaced.
+     * @param task The task now at that position.
+     * @return The change.
+     */
+    public static TaskChange replaced(int index, Task previousTask, Task task) {
+        assert previousTask != null : "Replaced task should not be null";
+        return new TaskChange(Kind.REPLACED, index, task, previousTask);
+    }
+
+    /**
+     * Returns the change of a task marked as done, or as not done.
+     *
+     * @param index The position of the task (0-based).
+     * @param task The task, already in its new state.
+     * @return The change.
+     */
+    public static TaskChange doneChanged(int index, Task task) {
+        return new TaskChange(task.isDone() ? Kind.MARKED : Kind.UNMARKED, index, task, null);
+    }
+
+    /**
+     * Returns the change that reverses this one.
+     *
+     * @return The inverse change.
+     */
+    public TaskChange inverse() {
+        switch (kind) {
+        case ADDED:
+            return new TaskChange(Kind.DELETED, index, task, null);
+        case DELETED:
+            return new TaskChange(Kind.ADDED, index, task, null);
+        case REPLACED:
+            return new TaskChange(Kind.REPLACED, index, previousTask, task);
+        case MARKED:
+            return new TaskChange(Kind.UNMARKED, index, task, null);
+        case UNMARKED:
+            return new TaskChange(Kind.MARKED, index, task, null);
+        default:
+            throw new AssertionError("Unknown change " + kind);
+        }
+    }
+
+    /**
+     * Makes this change to a list that is as it was just before the change was first made.
+     *
+     * @param tasks The list.
+     * @throws MemoMaxException If the list is no longer in that state.
+     */
+    public void applyTo(TaskList tasks) throws MemoMaxException {
+        if (kind == Kind.ADDED) {
+            if (index > tasks.size()) {
+                throw new InvalidInputException("The list has changed since, so this change cannot be made again.");
+            }
+            tasks.replaceRange(index, 0, List.of(task));
+            return;
+        }
+        Task expected = kind == Kind.REPLACED ? previousTask : task;
+        if (index >= tasks.size() || tasks.asList().get(index) != expected) {
+            throw new InvalidInputException("The list has changed since, so this change cannot be made again.");
+        }
+        switch (kind) {
+        case DELETED:
+            tasks.delete(index);
+            break;
+        case REPLACED:
+            tasks.replaceRange(index, 1, List.of(task));
+            break;
+        case MARKED:
+            tasks.mark(index);
+            break;
+        case UNMARKED:
+            tasks.unmark(index);
+            break;
+        default:
+            throw new AssertionError("Unknown change " + kind);
+        }
+    }
+
+    /**
+     * Estimates the memory kept alive by this change, counting each task it refers to as if the
+     * change alone kept it.
+     *
+     * @return The estimate in bytes.
+     */
+    public long getRetainedBytes() {
+        return CHANGE_BYTES + getTaskBytes(task) + (previousTask == null ? 0 : getTaskBytes(previousTask));
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the task added, deleted, marked or unmarked, or the task a replace puts in place.
+     *
+     * @return The task.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    private static long getTaskBytes(Task task) {
+        return TASK_BYTES + 2L * task.getDescription().length();
+    }
+}
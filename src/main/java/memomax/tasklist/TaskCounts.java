@@ -0,0 +1,200 @@
+package memomax.tasklist;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+
+/**
+ * Running totals of the tasks in a list, by type and by done state, kept up to date by every change
+ * so that reading them never scans the list.
+ *
+ * <p>Overdue deadlines depend on the time as well as the list, so the open deadlines are also kept
+ * by due date, together with the number due before the last time asked about. Asking again only
+ * counts the deadlines that fell due since then, which makes each deadline cost one step on its way
+ * to becoming overdue instead of one step per question. The dates are collected the first time
+ * overdue deadlines are asked for.
+ */
+public final class TaskCounts {
+    private static final int TODO = 0;
+    private static final int DEADLINE = 1;
+    private static final int EVENT = 2;
+
+    private final List<Task> tasks;
+    private final int[] taskCounts = new int[3];
+    private final int[] doneCounts = new int[3];
+    private TreeMap<Long, Integer> openDeadlineDates;
+    private long overdueBefore = Long.MIN_VALUE;
+    private int overdueCount = 0;
+
+    /**
+     * Counts the tasks of a list.
+     *
+     * @param tasks A live view of the list, read again when the open deadlines are first needed.
+     */
+    TaskCounts(List<Task> tasks) {
+        this.tasks = tasks;
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Counts a task that entered the list.
+     */
+    void add(Task task) {
+        int type = getTypeRank(task);
+        taskCounts[type]++;
+        if (task.isDone()) {
+            doneCounts[type]++;
+        } else if (type == DEADLINE && openDeadlineDates != null) {
+            addOpenDeadline((Deadline) task);
+        }
+    }
+
+    /**
+     * Stops counting a task that left the list.
+     */
+    void remove(Task task) {
+        int type = getTypeRank(task);
+        taskCounts[type]--;
+        if (task.isDone()) {
+            doneCounts[type]--;
+        } else if (type == DEADLINE && openDeadlineDates != null) {
+            removeOpenDeadline((Deadline) task);
+        }
+        assert taskCounts[type] >= doneCounts[type] && doneCounts[type] >= 0 : "Counts should stay consistent";
+    }
+
+    /**
+     * Moves a task that was just marked or unmarked to its new done state.
+     */
+    void doneChanged(Task task) {
+        int type = getTypeRank(task);
+        doneCounts[type] += task.isDone() ? 1 : -1;
+        if (type == DEADLINE && openDeadlineDates != null) {
+            if (task.isDone()) {
+                removeOpenDeadline((Deadline) task);
+            } else {
+                addOpenDeadline((Deadline) task);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tasks in the list.
+     *
+     * @return The number of tasks.
+     */
+    public int getTaskCount() {
+        return taskCounts[TODO] + taskCounts[DEADLINE] + taskCounts[EVENT];
+    }
+
+    /**
+     * Returns the number of tasks of a type.
+     *
+     * @param type {@code Todo.class}, {@code Deadline.class} or {@code Event.class}.
+     * @return The number of tasks.
+     */
+    public int getTaskCount(Class<? extends Task> type) {
+        return taskCounts[getTypeRank(type)];
+    }
+
+    /**
+     * Returns the number of tasks that are done.
+     *
+     * @return The number of tasks.
+     */
+    public int getDoneCount() {
+        return doneCounts[TODO] + doneCounts[DEADLINE] + doneCounts[EVENT];
+    }
+
+    /**
+     * Returns the number of tasks of a type that are done.
+     *
+     * @param type {@code Todo.class}, {@code Deadline.class} or {@code Event.class}.
+     * @return The number of tasks.
+     */
+    public int getDoneCount(Class<? extends Task> type) {
+        return doneCounts[getTypeRank(type)];
+    }
+
+    /**
+     * Returns the number of deadlines that are not done yet.
+     *
+     * @return The number of deadlines.
+     */
+    public int getOpenDeadlineCount() {
+        return taskCounts[DEADLINE] - doneCounts[DEADLINE];
+    }
+
+    /**
+     * Returns the number of deadlines that are not done and were due before a time.
+     *
+     * @param nowMinute The time, in minutes since the epoch.
+     * @return The number of deadlines.
+     */
+    public int getOverdueCount(long nowMinute) {
+        if (openDeadlineDates == null) {
+            openDeadlineDates = new TreeMap<>();
+            for (Task task : tasks) {
+                if (task instanceof Deadline && !task.isDone()) {
+                    addOpenDeadline((Deadline) task);
+                }
+            }
+        }
+        if (nowMinute > overdueBefore) {
+            overdueCount += sum(openDeadlineDates.subMap(overdueBefore, nowMinute));
+        } else if (nowMinute < overdueBefore) {
+            overdueCount -= sum(openDeadlineDates.subMap(nowMinute, overdueBefore));
+        }
+        overdueBefore = nowMinute;
+        assert overdueCount >= 0 && overdueCount <= getOpenDeadlineCount() : "Overdue count should be in range";
+        return overdueCount;
+    }
+
+    /**
+     * Returns the position of a task's type in todos, deadlines and events, the order types are
+     * listed in. Plain tasks count as todos.
+     */
+    static int getTypeRank(Task task) {
+        return task instanceof Deadline ? DEADLINE : task instanceof Event ? EVENT : TODO;
+    }
+
+    private static int getTypeRank(Class<? extends Task> type) {
+        return Deadline.class.isAssignableFrom(type) ? DEADLINE : Event.class.isAssignableFrom(type) ? EVENT : TODO;
+    }
+
+    private void addOpenDeadline(Deadline deadline) {
+        long date = QueryIndex.getDate(deadline);
+        openDeadlineDates.merge(date, 1, Integer::sum);
+        if (date < overdueBefore) {
+            overdueCount++;
+        }
+    }
+
+    private void removeOpenDeadline(Deadline deadline) {
+        long date = QueryIndex.getDate(deadline);
+        Integer count = openDeadlineDates.get(date);
+        assert count != null : "Open deadline should have been counted";
+        if (count == 1) {
+            openDeadlineDates.remove(date);
+        } else {
+            openDeadlineDates.put(date, count - 1);
+        }
+        if (date < overdueBefore) {
+            overdueCount--;
+        }
+    }
+
+    private static int sum(Map<Long, Integer> countsByDate) {
+        int total = 0;
+        for (int count : countsByDate.values()) {
+            total += count;
+        }
+        return total;
+    }
+}
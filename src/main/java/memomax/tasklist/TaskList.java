@@ -1,8 +1,13 @@
 package memomax.tasklist;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.stream.IntStream;
 
+import memomax.exception.InvalidInputException;
 import memomax.exception.MemoMaxException;
 import memomax.task.Task;
 
@@ -11,16 +16,26 @@ import memomax.task.Task;
  * Provides operations to add, delete, mark, unmark, and search tasks.
  */
 public class TaskList {
-    private static final String ICON_MARKED = "[X]";
-    private static final String ICON_UNMARKED = "[ ]";
+    private static final int FULL_SCAN_RATIO = 16;
 
     private final ArrayList<Task> tasks;
+    private final List<Task> view;
+    private long version = 0;
+    private final TaskPositions positions;
+    private final TaskCounts counts;
+    private final EnumMap<SortKey, SortedView> sortedViews = new EnumMap<>(SortKey.class);
+    private SearchIndex searchIndex;
+    private QueryIndex queryIndex;
+    private DoneTree doneTree;
 
     /**
      * Creates an empty TaskList.
      */
     public TaskList() {
         this.tasks = new ArrayList<>();
+        this.view = Collections.unmodifiableList(tasks);
+        this.positions = new TaskPositions(view);
+        this.counts = new TaskCounts(view);
     }
 
     /**
@@ -31,6 +46,9 @@ public class TaskList {
     public TaskList(ArrayList<Task> tasks) {
         assert tasks != null : "Source task list should not be null";
         this.tasks = new ArrayList<>(tasks);
+        this.view = Collections.unmodifiableList(this.tasks);
+        this.positions = new TaskPositions(view);
+        this.counts = new TaskCounts(view);
     }
 
     /**
@@ -44,9 +62,53 @@ public class TaskList {
         checkDuplicate(task);
         int oldSize = tasks.size();
         tasks.add(task);
+        version++;
+        indexAdded(task);
+        positions.placed(task, oldSize);
+        shiftDoneTree(oldSize, List.of(), List.of(task));
         assert tasks.size() == oldSize + 1 : "Task list size should increment by 1";
     }
 
+    /**
+     * Appends tasks read from storage to the end of the list.
+     * Duplicate checks are skipped, as with the loading constructor.
+     *
+     * @param loadedTasks The tasks to append, in storage order.
+     */
+    public void addLoadedTasks(List<Task> loadedTasks) {
+        assert loadedTasks != null : "Loaded tasks should not be null";
+        int oldSize = tasks.size();
+        shiftDoneTree(oldSize, List.of(), loadedTasks);
+        tasks.addAll(loadedTasks);
+        version++;
+        for (int i = 0; i < loadedTasks.size(); i++) {
+            indexAdded(loadedTasks.get(i));
+            positions.placed(loadedTasks.get(i), oldSize + i);
+        }
+    }
+
+    /**
+     * Replaces a range of the list with tasks changed in storage by another program.
+     * Duplicate checks are skipped, as with {@link #addLoadedTasks(List)}.
+     *
+     * @param fromIndex The index of the first task replaced (0-based).
+     * @param removedCount The number of tasks replaced.
+     * @param insertedTasks The tasks taking their place, in storage order.
+     */
+    public void replaceRange(int fromIndex, int removedCount, List<Task> insertedTasks) {
+        assert fromIndex >= 0 && removedCount >= 0 && fromIndex + removedCount <= tasks.size()
+                : "Replaced range should lie within the list";
+        assert insertedTasks != null : "Inserted tasks should not be null";
+        List<Task> removedTasks = tasks.subList(fromIndex, fromIndex + removedCount);
+        removedTasks.forEach(this::indexRemoved);
+        insertedTasks.forEach(this::indexAdded);
+        positions.shifted(fromIndex, removedTasks, insertedTasks);
+        shiftDoneTree(fromIndex, removedTasks, insertedTasks);
+        removedTasks.clear();
+        tasks.addAll(fromIndex, insertedTasks);
+        version++;
+    }
+
     /**
      * Removes a task from the list.
      *
@@ -60,6 +122,10 @@ public class TaskList {
 
         int oldSize = tasks.size();
         Task removedTask = tasks.remove(index);
+        version++;
+        indexRemoved(removedTask);
+        positions.shifted(index, List.of(removedTask), List.of());
+        shiftDoneTree(index, List.of(removedTask), List.of());
         assert tasks.size() == oldSize - 1 : "Task list size should decrement by 1";
 
         return removedTask;
@@ -95,13 +161,15 @@ public class TaskList {
         Task task = tasks.get(index);
         assert task != null : "Task to mark should not be null";
 
-        if (task.getStatusIcon().equals(ICON_MARKED)) {
-            throw new MemoMaxException("Task " + (index + 1)
+        if (task.isDone()) {
+            throw new InvalidInputException("Task " + (index + 1)
                     + " is already marked as done!");
         }
 
         task.mark();
-        assert task.getStatusIcon().equals("[X]") : "Task should be marked as done";
+        version++;
+        doneChanged(index, task);
+        assert task.isDone() : "Task should be marked as done";
     }
 
     /**
@@ -117,13 +185,15 @@ public class TaskList {
         Task task = tasks.get(index);
         assert task != null : "Task to unmark should not be null";
 
-        if (task.getStatusIcon().equals(ICON_UNMARKED)) {
-            throw new MemoMaxException("Task " + (index + 1)
+        if (!task.isDone()) {
+            throw new InvalidInputException("Task " + (index + 1)
                     + " is already not done!");
         }
 
         task.unmark();
-        assert task.getStatusIcon().equals("[ ]") : "Task should be unmarked";
+        version++;
+        doneChanged(index, task);
+        assert !task.isDone() : "Task should be unmarked";
     }
 
     /**
@@ -140,11 +210,17 @@ public class TaskList {
 
         for (int i = 0; i < tasks.size(); i++) {
             if (i != index && tasks.get(i).toString().equals(updatedTask.toString())) {
-                throw new MemoMaxException("Updating this task would create a duplicate!");
+                throw new InvalidInputException("Updating this task would create a duplicate!");
             }
         }
 
-        tasks.set(index, updatedTask);
+        Task oldTask = tasks.set(index, updatedTask);
+        version++;
+        indexRemoved(oldTask);
+        indexAdded(updatedTask);
+        positions.replaced(oldTask);
+        positions.placed(updatedTask, index);
+        shiftDoneTree(index, List.of(oldTask), List.of(updatedTask));
         assert tasks.get(index).equals(updatedTask) : "Task at index should be the updated task";
     }
 
@@ -159,6 +235,15 @@ public class TaskList {
         return copy;
     }
 
+    /**
+     * Returns a read-only view of the tasks that reflects later changes without copying.
+     *
+     * @return An unmodifiable view of the task list.
+     */
+    public List<Task> asList() {
+        return view;
+    }
+
     /**
      * Finds tasks whose description contains the specified keyword.
      *
@@ -192,6 +277,127 @@ public class TaskList {
                 .toArray();
     }
 
+    /**
+     * Finds the tasks best matching the query words, tolerating typos and partial words, ranked by
+     * relevance. The search index is built on the first search and kept up to date by every later
+     * change, so searches do not compare the query with every description.
+     *
+     * @param query The words to search for.
+     * @param limit The maximum number of tasks to return.
+     * @return The positions of the best matching tasks and the number of matching tasks.
+     */
+    public SearchResult search(String query, int limit) {
+        assert query != null : "Search query should not be null";
+        ensureSearchIndex();
+
+        int[] matchCount = new int[1];
+        List<Task> matches = searchIndex.search(query, limit, matchCount);
+        int[] indices = new int[matches.size()];
+        for (int rank = 0; rank < indices.length; rank++) {
+            indices[rank] = positions.indexOf(matches.get(rank));
+        }
+        return new SearchResult(indices, matchCount[0]);
+    }
+
+    /**
+     * Finds the tasks matching a query. The most selective index the query can use gives the
+     * candidates, which are then checked against the whole query; when no index narrows the
+     * candidates down to a fraction of the list, every task is checked instead. The indexes are
+     * built on the first query and kept up to date by every later change.
+     *
+     * @param query The query.
+     * @return The positions of the matching tasks, in list order.
+     */
+    public QueryResult query(Query query) {
+        assert query != null : "Query should not be null";
+        if (queryIndex == null) {
+            queryIndex = new QueryIndex(view, this::ensureSearchIndex);
+        }
+
+        long limit = tasks.size() / FULL_SCAN_RATIO;
+        if (query.estimate(queryIndex, limit) > limit) {
+            int[] indices = IntStream.range(0, tasks.size())
+                    .filter(i -> query.matches(tasks.get(i)))
+                    .toArray();
+            return new QueryResult(indices, tasks.size());
+        }
+
+        ArrayList<Task> candidates = new ArrayList<>();
+        query.collect(queryIndex, candidates::add);
+        int[] indices = new int[candidates.size()];
+        int found = 0;
+        for (Task candidate : candidates) {
+            if (query.matches(candidate)) {
+                indices[found++] = positions.indexOf(candidate);
+            }
+        }
+        Arrays.sort(indices, 0, found);
+        int distinct = 0;
+        for (int i = 0; i < found; i++) {
+            if (distinct == 0 || indices[i] != indices[distinct - 1]) {
+                indices[distinct++] = indices[i];
+            }
+        }
+        return new QueryResult(Arrays.copyOf(indices, distinct), candidates.size());
+    }
+
+    /**
+     * Returns the positions of a range of the tasks sorted in an order. Each order is sorted once,
+     * when it is first asked for, and then kept sorted by every later change.
+     *
+     * @param key The order.
+     * @param fromIndex The rank of the first task in that order (0-based).
+     * @param count The maximum number of tasks.
+     * @return The 0-based positions of the tasks in the list, in the sorted order.
+     */
+    public int[] getSortedIndices(SortKey key, int fromIndex, int count) {
+        SortedView sorted = sortedViews.computeIfAbsent(key, order -> new SortedView(order, tasks));
+        assert sorted.size() == tasks.size() : "Sorted view should hold every task";
+        List<Task> range = sorted.getRange(fromIndex, count);
+        int[] indices = new int[range.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = positions.indexOf(range.get(i));
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the running totals of the tasks in the list by type and done state.
+     *
+     * @return The totals, kept up to date by every later change.
+     */
+    public TaskCounts getCounts() {
+        return counts;
+    }
+
+    /**
+     * Counts the done tasks in a range of the list in logarithmic time, from a tree over the done
+     * state of each position. The tree is built the first time a range is counted, and again after
+     * a change that moves the tasks following it.
+     *
+     * @param fromIndex The first index, inclusive (0-based).
+     * @param toIndex The last index, exclusive.
+     * @return The number of done tasks.
+     */
+    public int countDone(int fromIndex, int toIndex) {
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= tasks.size() : "Range should lie within the list";
+        if (doneTree == null) {
+            doneTree = new DoneTree(tasks);
+        }
+        assert doneTree.size() == tasks.size() : "Done tree should cover every task";
+        return doneTree.countDone(fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the modification version of the list, which increases with every change to it or to
+     * one of its tasks made through this class.
+     *
+     * @return The current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Returns the number of tasks in the list.
      *
@@ -210,6 +416,86 @@ public class TaskList {
         return tasks.isEmpty();
     }
 
+    /**
+     * Adds a task that entered the list to the indexes built so far.
+     */
+    private void indexAdded(Task task) {
+        counts.add(task);
+        if (searchIndex != null) {
+            searchIndex.add(task);
+        }
+        if (queryIndex != null) {
+            queryIndex.add(task);
+        }
+        for (SortedView sorted : sortedViews.values()) {
+            sorted.add(task);
+        }
+    }
+
+    /**
+     * Removes a task that left the list from the indexes built so far.
+     */
+    private void indexRemoved(Task task) {
+        counts.remove(task);
+        if (searchIndex != null) {
+            searchIndex.remove(task);
+        }
+        if (queryIndex != null) {
+            queryIndex.remove(task);
+        }
+        for (SortedView sorted : sortedViews.values()) {
+            sorted.remove(task);
+        }
+    }
+
+    /**
+     * Updates the totals and indexes after the task at an index was marked or unmarked.
+     */
+    private void doneChanged(int index, Task task) {
+        counts.doneChanged(task);
+        if (queryIndex != null) {
+            queryIndex.doneChanged(task);
+        }
+        if (doneTree != null) {
+            doneTree.add(index, task.isDone() ? 1 : -1);
+        }
+    }
+
+    /**
+     * Updates the done tree for tasks replacing a range of the list, before the list changes.
+     * Replacing tasks one for one or changing the end of the list keeps every other position, so
+     * the tree is updated in place; otherwise it is dropped and built again when next needed.
+     */
+    private void shiftDoneTree(int fromIndex, List<Task> removedTasks, List<Task> insertedTasks) {
+        if (doneTree == null) {
+            return;
+        }
+        if (removedTasks.size() == insertedTasks.size()) {
+            for (int i = 0; i < insertedTasks.size(); i++) {
+                int delta = (insertedTasks.get(i).isDone() ? 1 : 0) - (removedTasks.get(i).isDone() ? 1 : 0);
+                if (delta != 0) {
+                    doneTree.add(fromIndex + i, delta);
+                }
+            }
+        } else if (fromIndex + removedTasks.size() == doneTree.size()) {
+            doneTree.truncate(fromIndex);
+            for (Task task : insertedTasks) {
+                doneTree.append(task.isDone());
+            }
+        } else {
+            doneTree = null;
+        }
+    }
+
+    private SearchIndex ensureSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex();
+            tasks.forEach(searchIndex::add);
+        }
+        assert searchIndex.size() == tasks.size() : "Search index should hold every task";
+        return searchIndex;
+    }
+
     /**
      * Validates that an index is within bounds.
      *
@@ -219,7 +505,7 @@ public class TaskList {
     private void validateIndex(int index) throws MemoMaxException {
         boolean isOutOfBounds = index < 0 || index >= tasks.size();
         if (isOutOfBounds) {
-            throw new MemoMaxException("Task " + (index + 1) + " does not exist!");
+            throw new InvalidInputException("Task " + (index + 1) + " does not exist!");
         }
     }
 
@@ -232,7 +518,7 @@ public class TaskList {
     private void checkDuplicate(Task task) throws MemoMaxException {
         for (Task existingTask : tasks) {
             if (existingTask.toString().equals(task.toString())) {
-                throw new MemoMaxException("This task already exists in your list!");
+                throw new InvalidInputException("This task already exists in your list!");
             }
         }
     }
@@ -0,0 +1,140 @@
+package memomax.tasklist;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import memomax.task.Task;
+
+/**
+ * Finds the position of a task in the list without scanning it.
+ *
+ * <p>Each task's position is recorded when it enters the list. Removing or inserting tasks in the
+ * middle of the list would move every later task, so instead of updating them all, each such change
+ * is logged as a shift, and a recorded position is corrected by the shifts logged after it. Once the
+ * log grows long, the positions are recorded afresh from the list on the next lookup.
+ */
+final class TaskPositions {
+    private static final int MAX_SHIFTS = 64;
+
+    private final List<Task> tasks;
+    private final IdentityHashMap<Task, Position> positions = new IdentityHashMap<>();
+    private final ArrayList<Shift> shifts = new ArrayList<>();
+    private boolean isStale = true;
+
+    /**
+     * Creates positions for a list.
+     *
+     * @param tasks A live view of the list, read again whenever the positions are recorded afresh.
+     */
+    TaskPositions(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Records a task put at a position without moving any other task, as by appending or replacing.
+     *
+     * @param task The task.
+     * @param index Its position.
+     */
+    void placed(Task task, int index) {
+        if (!isStale) {
+            positions.put(task, new Position(index, shifts.size()));
+        }
+    }
+
+    /**
+     * Forgets a task replaced by another one at the same position.
+     *
+     * @param task The replaced task.
+     */
+    void replaced(Task task) {
+        if (!isStale) {
+            positions.remove(task);
+        }
+    }
+
+    /**
+     * Records that a range of the list was replaced, moving the tasks after it.
+     *
+     * @param fromIndex The position of the first task replaced.
+     * @param removedTasks The tasks removed.
+     * @param insertedTasks The tasks inserted in their place.
+     */
+    void shifted(int fromIndex, List<Task> removedTasks, List<Task> insertedTasks) {
+        if (isStale) {
+            return;
+        }
+        if (shifts.size() >= MAX_SHIFTS) {
+            isStale = true;
+            positions.clear();
+            shifts.clear();
+            return;
+        }
+        removedTasks.forEach(positions::remove);
+        shifts.add(new Shift(fromIndex, removedTasks.size(), insertedTasks.size()));
+        for (int i = 0; i < insertedTasks.size(); i++) {
+            positions.put(insertedTasks.get(i), new Position(fromIndex + i, shifts.size()));
+        }
+    }
+
+    /**
+     * Returns the current position of a task in the list.
+     *
+     * @param task A task in the list.
+     * @return Its 0-based position.
+     */
+    int indexOf(Task task) {
+        if (isStale) {
+            record();
+        }
+        Position position = positions.get(task);
+        assert position != null : "Task should be in the list";
+        int index = position.index;
+        for (int i = position.shiftCount; i < shifts.size(); i++) {
+            Shift shift = shifts.get(i);
+            if (index >= shift.fromIndex + shift.removedCount) {
+                index += shift.insertedCount - shift.removedCount;
+            }
+        }
+        assert tasks.get(index) == task : "Corrected position should hold the task";
+        return index;
+    }
+
+    private void record() {
+        positions.clear();
+        shifts.clear();
+        for (int i = 0; i < tasks.size(); i++) {
+            positions.put(tasks.get(i), new Position(i, 0));
+        }
+        isStale = false;
+    }
+
+    /**
+     * A recorded position and the number of shifts already logged when it was recorded.
+     */
+    private static final class Position {
+        private final int index;
+        private final int shiftCount;
+
+        private Position(int index, int shiftCount) {
+            this.index = index;
+            this.shiftCount = shiftCount;
+        }
+    }
+
+    /**
+     * A replaced range of the list.
+     */
+    private static final class Shift {
+        private final int fromIndex;
+        private final int removedCount;
+        private final int insertedCount;
+
+        private Shift(int fromIndex, int removedCount, int insertedCount) {
+            this.fromIndex = fromIndex;
+            this.removedCount = removedCount;
+            this.insertedCount = insertedCount;
+        }
+    }
+}
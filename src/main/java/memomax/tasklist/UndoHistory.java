@@ -0,0 +1,100 @@
+package memomax.tasklist;
+
+import java.util.ArrayDeque;
+
+/**
+ * The changes that can be undone and redone, as a log of {@link TaskChange}s rather than copies of
+ * the list, so undoing or redoing a change costs as much as the change itself.
+ *
+ * <p>The log is bounded by the memory its changes keep alive. Recording a change past the limit
+ * evicts the oldest changes first, like a ring buffer, so only the most recent changes stay
+ * undoable. Recording a new change discards the changes that were undone.
+ */
+public final class UndoHistory {
+    /** System property holding the memory limit of the history in bytes. */
+    public static final String MAX_BYTES_PROPERTY = "memomax.undo.maxBytes";
+
+    private static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    private final ArrayDeque<TaskChange> undoable = new ArrayDeque<>();
+    private final ArrayDeque<TaskChange> redoable = new ArrayDeque<>();
+    private final long maxBytes;
+    /** Memory kept by the changes to undo; the changes to redo were taken from them, so stay within the limit. */
+    private long retainedBytes = 0;
+
+    /**
+     * Creates a history limited by {@value #MAX_BYTES_PROPERTY}, or to 1 MiB if it is not set.
+     */
+    public UndoHistory() {
+        this(Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Creates a history with a memory limit.
+     *
+     * @param maxBytes The most memory the recorded changes may keep alive, in bytes.
+     */
+    public UndoHistory(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Records a change just made, discarding the changes that were undone, and evicts the oldest
+     * changes if the history is over its limit.
+     *
+     * @param change The change.
+     */
+    public void record(TaskChange change) {
+        redoable.clear();
+        undoable.addLast(change);
+        retainedBytes += change.getRetainedBytes();
+        while (retainedBytes > maxBytes && !undoable.isEmpty()) {
+            retainedBytes -= undoable.pollFirst().getRetainedBytes();
+        }
+    }
+
+    /**
+     * Takes the most recent change that can be undone, making it the next change to redo.
+     *
+     * @return The change to reverse, or null if there is none.
+     */
+    public TaskChange undo() {
+        TaskChange change = undoable.pollLast();
+        if (change != null) {
+            retainedBytes -= change.getRetainedBytes();
+            redoable.addLast(change);
+        }
+        return change;
+    }
+
+    /**
+     * Takes the most recently undone change, making it the next change to undo.
+     *
+     * @return The change to make again, or null if there is none.
+     */
+    public TaskChange redo() {
+        TaskChange change = redoable.pollLast();
+        if (change != null) {
+            retainedBytes += change.getRetainedBytes();
+            undoable.addLast(change);
+        }
+        return change;
+    }
+
+    /**
+     * Forgets every change, for when the list changed in a way that cannot be undone.
+     */
+    public void clear() {
+        undoable.clear();
+        redoable.clear();
+        retainedBytes = 0;
+    }
+
+    public int getUndoableCount() {
+        return undoable.size();
+    }
+
+    public int getRedoableCount() {
+        return redoable.size();
+    }
+}
@@ -1,9 +1,22 @@
 package memomax.ui;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
 
+import memomax.task.Deadline;
+import memomax.task.Event;
 import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.TaskChange;
+import memomax.tasklist.TaskCounts;
 
 /**
  * Handles user interface display for MemoMax.
@@ -14,22 +27,85 @@ public class Ui {
     private static final String MESSAGE_COUNT_SUFFIX = " task(s) in the list.";
     private static final String HELP_PROMPT = "Enter 'help' for more information";
 
-    private final Scanner scanner;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_BAR_WIDTH = 20;
+
+    private final InputStream input;
+    private final OutputStream output;
+    private BufferedReader reader;
+    private Writer writer;
 
     /**
-     * Creates a new Ui instance with a Scanner for user input.
+     * Creates a Ui reading commands from standard input and printing to standard output.
      */
     public Ui() {
-        this.scanner = new Scanner(System.in);
+        this(System.in, System.out);
+    }
+
+    /**
+     * Creates a Ui reading commands from and printing to the given streams.
+     *
+     * @param input The stream commands are read from.
+     * @param output The stream responses are printed to.
+     */
+    public Ui(InputStream input, OutputStream output) {
+        assert input != null && output != null : "Ui streams should not be null";
+        this.input = input;
+        this.output = output;
     }
 
     /**
      * Reads a command from the user.
+     * Printed responses are buffered while more input is already waiting, as when a script is piped
+     * in, and flushed before waiting for the next line, so a user at a terminal sees each response
+     * straight away. The reader is created on first use, so output-only uses of Ui never build it.
      *
-     * @return The user's input as a string
+     * @return The user's input as a string, or null at the end of the input.
      */
     public String readCommand() {
-        return scanner.nextLine();
+        try {
+            if (reader == null) {
+                reader = new BufferedReader(new InputStreamReader(input), IO_BUFFER_SIZE);
+            }
+            if (!reader.ready()) {
+                flush();
+            }
+            return reader.readLine();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Prints a message followed by a line separator. The output is buffered until {@link #flush()}
+     * or the next {@link #readCommand()} that has to wait for input.
+     *
+     * @param message The message to print.
+     */
+    public void print(String message) {
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new OutputStreamWriter(output), IO_BUFFER_SIZE);
+            }
+            writer.write(message);
+            writer.write(System.lineSeparator());
+        } catch (IOException e) {
+            // Like System.out, printing to a closed console is not an error worth stopping for.
+        }
+    }
+
+    /**
+     * Writes out everything printed so far.
+     */
+    public void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            // See print.
+        }
     }
 
     /**
@@ -90,6 +166,29 @@ public class Ui {
         return buildMessage("Bye. Hope to see you again soon!");
     }
 
+    /**
+     * Displays why MemoMax will not say goodbye while a transaction is open.
+     *
+     * @param changeCount The number of changes not yet saved
+     * @return The formatted message
+     */
+    public String showUnsavedChanges(int changeCount) {
+        return buildMessage(
+                "You have " + changeCount + " unsaved change(s) since begin.",
+                "Save them with: commit, or drop them with: rollback, then say bye again."
+        );
+    }
+
+    /**
+     * Shows that the changes of a transaction left open were dropped when MemoMax closed.
+     *
+     * @param changeCount The number of changes dropped
+     * @return The formatted warning
+     */
+    public String showUnsavedChangesDropped(int changeCount) {
+        return buildMessage("Dropped " + changeCount + " unsaved change(s) made since begin.");
+    }
+
     /**
      * Displays a formatted list of tasks.
      *
@@ -112,6 +211,63 @@ public class Ui {
         return buildMessage(lines.toArray(new String[0]));
     }
 
+    /**
+     * Displays one page of the task list.
+     *
+     * @param pageTasks The tasks on the page
+     * @param fromIndex The index of the first task on the page (0-based)
+     * @param page The page number (1-based)
+     * @param pageCount The total number of pages
+     * @param taskCount The total number of tasks
+     * @return The formatted page
+     */
+    public String showTaskPage(List<Task> pageTasks, int fromIndex, int page, int pageCount, int taskCount) {
+        if (pageTasks.isEmpty()) {
+            return buildMessage("There are currently no tasks in your list");
+        }
+
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add("Here is page " + page + " of " + pageCount + " of your list:");
+        for (int i = 0; i < pageTasks.size(); i++) {
+            lines.add((fromIndex + i + 1) + "." + pageTasks.get(i).toString());
+        }
+        lines.add(MESSAGE_COUNT_PREFIX + taskCount + MESSAGE_COUNT_SUFFIX);
+
+        return buildMessage(lines.toArray(new String[0]));
+    }
+
+    /**
+     * Displays the task list, or one page of it, sorted in an order. Each task is shown with its
+     * number in the list, so it can be marked or deleted from the sorted view.
+     *
+     * @param sortedTasks The tasks to display, in sorted order
+     * @param indices Original 0-based indices from the master list
+     * @param order The name of the order
+     * @param page The page number (1-based), or 0 for the whole list
+     * @param pageCount The total number of pages
+     * @param taskCount The total number of tasks
+     * @return The formatted sorted tasks
+     */
+    public String showSortedTasks(List<Task> sortedTasks, int[] indices, String order, int page, int pageCount,
+            int taskCount) {
+        if (sortedTasks.isEmpty()) {
+            return buildMessage("There are currently no tasks in your list");
+        }
+
+        ArrayList<String> lines = new ArrayList<>();
+        if (page == 0) {
+            lines.add("Here are the tasks in your list by " + order + ":");
+        } else {
+            lines.add("Here is page " + page + " of " + pageCount + " of your list by " + order + ":");
+        }
+        for (int i = 0; i < sortedTasks.size(); i++) {
+            lines.add((indices[i] + 1) + "." + sortedTasks.get(i).toString());
+        }
+        lines.add(MESSAGE_COUNT_PREFIX + taskCount + MESSAGE_COUNT_SUFFIX);
+
+        return buildMessage(lines.toArray(new String[0]));
+    }
+
     /**
      * Displays a task added confirmation.
      *
@@ -203,6 +359,266 @@ public class Ui {
         return buildMessage(lines.toArray(new String[0]));
     }
 
+    /**
+     * Displays search results for a find command that also searched the archive. Archived tasks
+     * have no number, as they are no longer in the list.
+     *
+     * @param matchingTasks List of tasks in the list matching the keyword.
+     * @param indices Original 0-based indices from the master list.
+     * @param archivedTasks List of archived tasks matching the keyword.
+     * @param keyword The search keyword.
+     * @return The formatted find results
+     */
+    public String showFindResults(ArrayList<Task> matchingTasks, int[] indices, List<Task> archivedTasks,
+            String keyword) {
+        if (matchingTasks.isEmpty() && archivedTasks.isEmpty()) {
+            return buildMessage("No tasks found containing: '" + keyword + "', even in the archive");
+        }
+
+        ArrayList<String> lines = new ArrayList<>();
+        if (!matchingTasks.isEmpty()) {
+            lines.add("Here are the matching tasks in your list:");
+            for (int i = 0; i < matchingTasks.size(); i++) {
+                lines.add((indices[i] + 1) + "." + matchingTasks.get(i));
+            }
+        }
+        if (!archivedTasks.isEmpty()) {
+            lines.add("Here are the matching tasks in your archive:");
+            for (Task task : archivedTasks) {
+                lines.add(" " + task);
+            }
+        }
+
+        return buildMessage(lines.toArray(new String[0]));
+    }
+
+    /**
+     * Displays an archive confirmation.
+     *
+     * @param archivedCount The number of tasks moved to the archive
+     * @param taskCount The number of tasks left in the list
+     * @return The formatted confirmation message
+     */
+    public String showTasksArchived(int archivedCount, int taskCount) {
+        if (archivedCount == 0) {
+            return buildMessage(
+                    "There are no done tasks to archive.",
+                    MESSAGE_COUNT_PREFIX + taskCount + MESSAGE_COUNT_SUFFIX
+            );
+        }
+        return buildMessage(
+                "Done! I've moved " + archivedCount + " done task(s) to the archive.",
+                "Find them again with: find --all <keyword>",
+                MESSAGE_COUNT_PREFIX + taskCount + MESSAGE_COUNT_SUFFIX
+        );
+    }
+
+    /**
+     * Displays the change made by an undo or redo.
+     *
+     * @param change The change made to the list
+     * @param isUndo Whether the change reversed an earlier one
+     * @param taskCount The number of tasks now in the list
+     * @return The formatted confirmation message
+     */
+    public String showChangeUndone(TaskChange change, boolean isUndo, int taskCount) {
+        String header = isUndo ? "Undone! " : "Redone! ";
+        switch (change.getKind()) {
+        case ADDED:
+            header += "This task is back in the list:";
+            break;
+        case DELETED:
+            header += "This task is removed from the list:";
+            break;
+        case REPLACED:
+            header += "This task is now:";
+            break;
+        case MARKED:
+            header += "This task is marked as done:";
+            break;
+        default:
+            header += "This task is marked as not done:";
+            break;
+        }
+        return buildMessage(
+                header,
+                " " + change.getTask().toString(),
+                MESSAGE_COUNT_PREFIX + taskCount + MESSAGE_COUNT_SUFFIX
+        );
+    }
+
+    /**
+     * Displays that there is no change left to undo or redo.
+     *
+     * @param isUndo Whether an undo was asked for
+     * @return The formatted message
+     */
+    public String showNothingToUndo(boolean isUndo) {
+        return buildMessage("There is nothing to " + (isUndo ? "undo" : "redo") + ".");
+    }
+
+    /**
+     * Displays that a transaction has started.
+     *
+     * @return The formatted confirmation message
+     */
+    public String showTransactionBegun() {
+        return buildMessage(
+                "OK, I'll hold on to your changes until you commit them.",
+                "Save them together with: commit, or drop them with: rollback"
+        );
+    }
+
+    /**
+     * Displays that the changes of a transaction were saved.
+     *
+     * @param changeCount The number of changes saved
+     * @param taskCount The number of tasks in the list
+     * @return The formatted confirmation message
+     */
+    public String showTransactionCommitted(int changeCount, int taskCount) {
+        return buildMessage(
+                changeCount == 0
+                        ? "There were no changes to commit."
+                        : "Committed! I've saved " + changeCount + " change(s) together.",
+                MESSAGE_COUNT_PREFIX + taskCount + MESSAGE_COUNT_SUFFIX
+        );
+    }
+
+    /**
+     * Displays that the changes of a transaction were dropped.
+     *
+     * @param changeCount The number of changes dropped
+     * @param taskCount The number of tasks in the list
+     * @return The formatted confirmation message
+     */
+    public String showTransactionRolledBack(int changeCount, int taskCount) {
+        return buildMessage(
+                "Rolled back! I've dropped " + changeCount + " change(s).",
+                MESSAGE_COUNT_PREFIX + taskCount + MESSAGE_COUNT_SUFFIX
+        );
+    }
+
+    /**
+     * Displays the responses of every command on a multi-command line, followed by a summary.
+     *
+     * @param responses The responses, in command order
+     * @param changeCount The number of changes saved together
+     * @return The formatted message
+     */
+    public String showBatchDone(List<String> responses, int changeCount) {
+        StringBuilder sb = new StringBuilder();
+        for (String response : responses) {
+            sb.append(response);
+        }
+        sb.append("All ").append(responses.size()).append(" commands done, with ").append(changeCount)
+                .append(" change(s) saved together.\n");
+        return sb.toString();
+    }
+
+    /**
+     * Displays the failure of a multi-command line, none of whose changes were kept.
+     *
+     * @param commandNumber The position of the failed command on the line (1-based)
+     * @param commandInput The failed command
+     * @param response The failed command's error message
+     * @return The formatted error message
+     */
+    public String showBatchFailed(int commandNumber, String commandInput, String response) {
+        return buildMessage("Nothing was changed, as command " + commandNumber + " failed: " + commandInput.trim())
+                + response;
+    }
+
+    /**
+     * Displays the ranked results of the search command.
+     *
+     * @param matchingTasks The best matching tasks, best first.
+     * @param indices Original 0-based indices from the master list.
+     * @param matchCount The number of tasks that matched, including those not shown.
+     * @param query The search query.
+     * @return The formatted search results
+     */
+    public String showSearchResults(List<Task> matchingTasks, int[] indices, int matchCount, String query) {
+        if (matchingTasks.isEmpty()) {
+            return buildMessage("No tasks found close to: '" + query + "'");
+        }
+
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add("Here are the closest matches in your list:");
+        for (int i = 0; i < matchingTasks.size(); i++) {
+            lines.add((indices[i] + 1) + "." + matchingTasks.get(i));
+        }
+        if (matchCount > matchingTasks.size()) {
+            lines.add("...and " + (matchCount - matchingTasks.size())
+                    + " more. Add more words to narrow it down.");
+        }
+
+        return buildMessage(lines.toArray(new String[0]));
+    }
+
+    /**
+     * Displays the tasks matching a query.
+     *
+     * @param matchingTasks The matching tasks, in list order.
+     * @param indices Original 0-based indices from the master list.
+     * @param query The conditions of the query.
+     * @return The formatted query results
+     */
+    public String showQueryResults(List<Task> matchingTasks, int[] indices, String query) {
+        if (matchingTasks.isEmpty()) {
+            return buildMessage("No tasks match: '" + query + "'");
+        }
+
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add("Here are the tasks matching your query:");
+        for (int i = 0; i < matchingTasks.size(); i++) {
+            lines.add((indices[i] + 1) + "." + matchingTasks.get(i));
+        }
+
+        return buildMessage(lines.toArray(new String[0]));
+    }
+
+    /**
+     * Displays how many tasks in a range of the list are done.
+     *
+     * @param first The first task number of the range (1-based)
+     * @param last The last task number of the range, inclusive
+     * @param doneCount The number of done tasks in the range
+     * @return The formatted progress
+     */
+    public String showProgress(int first, int last, int doneCount) {
+        int taskCount = last - first + 1;
+        if (taskCount <= 0) {
+            return buildMessage("There are currently no tasks in your list");
+        }
+        int filled = (int) ((long) doneCount * PROGRESS_BAR_WIDTH / taskCount);
+        return buildMessage(
+                "Progress of tasks " + first + "-" + last + ":",
+                "[" + "#".repeat(filled) + "-".repeat(PROGRESS_BAR_WIDTH - filled) + "] "
+                        + doneCount + " of " + taskCount + " done (" + (doneCount * 100L / taskCount) + "%)"
+        );
+    }
+
+    /**
+     * Displays the task totals and performance statistics.
+     *
+     * @param counts The totals of the task list
+     * @param overdueCount The number of deadlines not done and past their due date
+     * @param statsLines The performance statistics to display, one per line.
+     * @return The formatted statistics
+     */
+    public String showStats(TaskCounts counts, int overdueCount, ArrayList<String> statsLines) {
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add("Here are your task totals:");
+        lines.add("Tasks: " + counts.getTaskCount() + " (" + counts.getTaskCount(Todo.class) + " todos, "
+                + counts.getTaskCount(Deadline.class) + " deadlines, " + counts.getTaskCount(Event.class) + " events)");
+        lines.add("Done: " + counts.getDoneCount() + " of " + counts.getTaskCount());
+        lines.add("Open deadlines: " + counts.getOpenDeadlineCount() + " (" + overdueCount + " overdue)");
+        lines.add("Here are my performance stats:");
+        lines.addAll(statsLines);
+        return buildMessage(lines.toArray(new String[0]));
+    }
+
     /**
      * Displays the help information.
      *
@@ -214,13 +630,34 @@ public class Ui {
                 "1. Add a task: todo <description>",
                 "2. Add a deadline: deadline <task> /by yyyy-MM-dd HHmm",
                 "3. Add an event: event <task> /from yyyy-MM-dd HHmm /to yyyy-MM-dd HHmm",
-                "4. See all tasks: list",
+                "4. See all tasks: list (or one page of 20: list <page>)",
                 "5. Mark as done: mark <number>",
                 "6. Mark as not done: unmark <number>",
                 "7. Delete a task: delete <number>",
-                "8. Find tasks: find <keyword>",
-                "9. Update a task: update <number> <new description>",
-                "10. Say goodbye: bye"
+                "8. Find tasks: find <keyword> (including archived ones: find --all <keyword>)",
+                "9. Search, allowing typos: search <words>",
+                "10. Filter tasks: query type:deadline done:no report before:2026-02-20",
+                "11. Sort tasks: sort by date|desc|type (or one page of 20: sort by date <page>)",
+                "12. See how much is done: progress (or for some tasks: progress 1-20)",
+                "13. Update a task: update <number> <new description>",
+                "14. Archive done tasks: archive (or only some: archive before:2026-01-01)",
+                "15. Undo or redo the last change: undo, redo",
+                "16. Save changes together: begin, then commit (or rollback), or on one line: todo a; mark 1",
+                "17. See task totals and performance stats: stats",
+                "18. Say goodbye: bye"
+        );
+    }
+
+    /**
+     * Displays a notice that a command will run once loading finishes.
+     *
+     * @param loadedCount The number of tasks loaded so far
+     * @return The formatted queued command message
+     */
+    public String showCommandQueued(int loadedCount) {
+        return buildMessage(
+                "Still loading your tasks (" + loadedCount + " loaded so far).",
+                "I'll run this command as soon as loading finishes."
         );
     }
 
@@ -0,0 +1,237 @@
+package memomax;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import memomax.exception.MemoMaxException;
+import memomax.parser.CommandType;
+import memomax.storage.Storage;
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.TaskList;
+
+/**
+ * Guards the number of bytes allocated per operation at a fixed list size.
+ * Each command type is run through {@link MemoMax#getResponse(String)}, and {@link TaskList#add(Task)},
+ * {@link TaskList#findTasks(String)} and {@link Storage#save(java.util.List)} are measured directly.
+ * A test fails when the average allocation exceeds its budget, so changes that multiply garbage are
+ * caught early. Budgets sit about 50% above the allocation measured when they were last reviewed,
+ * and can be scaled with {@code -Dmemomax.allocationBudgetScale=<factor>}, e.g.
+ * {@code gradlew test -PallocationBudgetScale=2}.
+ */
+public class AllocationBudgetTest {
+    private static final int LIST_SIZE = 1000;
+    private static final int WARMUP_ITERATIONS = 300;
+    private static final int MEASURED_ITERATIONS = 200;
+    private static final double BUDGET_SCALE =
+            Double.parseDouble(System.getProperty("memomax.allocationBudgetScale", "1.0"));
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Path dataDir;
+    private Path dataFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("memomax-alloc");
+        dataFile = dataDir.resolve("tasks.txt");
+        StringBuilder contents = new StringBuilder();
+        for (int i = 1; i <= LIST_SIZE; i++) {
+            contents.append(i % 3 == 0 ? "D | 0 | return book " + i + " | 2026-02-14 1800"
+                    : i % 3 == 1 ? "T | 1 | read book " + i
+                    : "E | 0 | meeting " + i + " | 2026-02-14 1400 | 2026-02-14 1600").append('\n');
+        }
+        Files.writeString(dataFile, contents);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dataFile);
+        Files.deleteIfExists(dataDir.resolve("tasks.txt.lock"));
+        Files.deleteIfExists(dataDir);
+    }
+
+    @Test
+    public void getResponse_everyCommandType_withinBudget() {
+        MemoMax memoMax = new MemoMax(dataFile.toString(), false);
+        EnumMap<CommandType, long[]> allocations = new EnumMap<>(CommandType.class);
+        for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+            boolean isMeasured = i >= WARMUP_ITERATIONS;
+            int added = LIST_SIZE + 1;
+            respond(memoMax, allocations, isMeasured, CommandType.LIST, "list");
+            respond(memoMax, allocations, isMeasured, CommandType.MARK, "mark 2");
+            respond(memoMax, allocations, isMeasured, CommandType.UNMARK, "unmark 2");
+            respond(memoMax, allocations, isMeasured, CommandType.TODO, "todo water plants " + i);
+            respond(memoMax, allocations, isMeasured, CommandType.UPDATE, "update " + added + " water flowers " + i);
+            respond(memoMax, allocations, isMeasured, CommandType.DELETE, "delete " + added);
+            respond(memoMax, allocations, isMeasured, CommandType.DEADLINE,
+                    "deadline submit quiz " + i + " /by 2026-02-20 2359");
+            respond(memoMax, allocations, isMeasured, CommandType.DELETE, "delete " + added);
+            respond(memoMax, allocations, isMeasured, CommandType.EVENT,
+                    "event workshop " + i + " /from 2026-02-18 1400 /to 2026-02-18 1600");
+            respond(memoMax, allocations, isMeasured, CommandType.DELETE, "delete " + added);
+            respond(memoMax, allocations, isMeasured, CommandType.UNDO, "undo");
+            respond(memoMax, allocations, isMeasured, CommandType.REDO, "redo");
+            respond(memoMax, allocations, isMeasured, CommandType.BEGIN, "begin");
+            respond(memoMax, allocations, isMeasured, CommandType.MARK, "mark 2");
+            respond(memoMax, allocations, isMeasured, CommandType.COMMIT, "commit");
+            respond(memoMax, allocations, isMeasured, CommandType.BEGIN, "begin");
+            respond(memoMax, allocations, isMeasured, CommandType.UNMARK, "unmark 2");
+            respond(memoMax, allocations, isMeasured, CommandType.ROLLBACK, "rollback");
+            respond(memoMax, allocations, isMeasured, CommandType.BATCH, "unmark 2; todo pack bag " + i);
+            respond(memoMax, allocations, isMeasured, CommandType.DELETE, "delete " + added);
+            respond(memoMax, allocations, isMeasured, CommandType.FIND, "find book 99");
+            respond(memoMax, allocations, isMeasured, CommandType.SEARCH, "search reed bok 99");
+            respond(memoMax, allocations, isMeasured, CommandType.QUERY, "query type:todo done:no book 99");
+            respond(memoMax, allocations, isMeasured, CommandType.SORT, "sort by date 1");
+            respond(memoMax, allocations, isMeasured, CommandType.PROGRESS, "progress 1-" + (50 + i));
+            respond(memoMax, allocations, isMeasured, CommandType.ARCHIVE, "archive before:2026-01-01");
+            respond(memoMax, allocations, isMeasured, CommandType.HELP, "help");
+            respond(memoMax, allocations, isMeasured, CommandType.STATS, "stats");
+            respond(memoMax, allocations, isMeasured, CommandType.BYE, "bye");
+            respond(memoMax, allocations, isMeasured, CommandType.UNKNOWN, "blah");
+        }
+
+        for (CommandType type : CommandType.values()) {
+            long[] total = allocations.get(type);
+            assertTrue(total != null, "No allocations measured for " + type);
+            assertWithinBudget(type.name().toLowerCase(Locale.ROOT), total[0] / total[1], budgetFor(type));
+        }
+    }
+
+    @Test
+    public void taskListAdd_withinBudget() throws MemoMaxException {
+        TaskList tasks = new TaskList(new Storage(dataFile.toString()).load());
+        Task[] newTasks = new Task[WARMUP_ITERATIONS + MEASURED_ITERATIONS];
+        for (int i = 0; i < newTasks.length; i++) {
+            newTasks[i] = new Todo("water plants " + i);
+        }
+
+        long measured = 0;
+        for (int i = 0; i < newTasks.length; i++) {
+            long before = allocatedBytes();
+            tasks.add(newTasks[i]);
+            long bytes = allocatedBytes() - before;
+            tasks.delete(tasks.size() - 1);
+            if (i >= WARMUP_ITERATIONS) {
+                measured += bytes;
+            }
+        }
+        assertWithinBudget("TaskList.add", measured / MEASURED_ITERATIONS, 800_000);
+    }
+
+    @Test
+    public void taskListFind_withinBudget() throws MemoMaxException {
+        TaskList tasks = new TaskList(new Storage(dataFile.toString()).load());
+        long measured = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+            long before = allocatedBytes();
+            tasks.findTasks("book 99");
+            long bytes = allocatedBytes() - before;
+            if (i >= WARMUP_ITERATIONS) {
+                measured += bytes;
+            }
+        }
+        assertWithinBudget("TaskList.findTasks", measured / MEASURED_ITERATIONS, 2_000);
+    }
+
+    @Test
+    public void storageSave_withinBudget() throws MemoMaxException {
+        Storage storage = new Storage(dataFile.toString());
+        ArrayList<Task> tasks = storage.load();
+        long measured = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+            long before = allocatedBytes();
+            storage.save(tasks);
+            long bytes = allocatedBytes() - before;
+            if (i >= WARMUP_ITERATIONS) {
+                measured += bytes;
+            }
+        }
+        assertWithinBudget("Storage.save", measured / MEASURED_ITERATIONS, 300_000);
+    }
+
+    /**
+     * Returns the allocation budget in bytes for one command on a list of {@value #LIST_SIZE} tasks.
+     */
+    private static long budgetFor(CommandType type) {
+        switch (type) {
+        case LIST:
+            return 1_200_000;
+        case MARK:
+        case UNMARK:
+        case DELETE:
+        case UNDO:
+        case REDO:
+        case COMMIT:
+        case STATS:
+            return 300_000;
+        case TODO:
+        case UPDATE:
+        case BATCH:
+            return 1_100_000;
+        case DEADLINE:
+            return 1_600_000;
+        case EVENT:
+            return 2_100_000;
+        case FIND:
+            return 12_000;
+        case SEARCH:
+            return 30_000;
+        case QUERY:
+            return 8_000;
+        case SORT:
+            return 40_000;
+        case PROGRESS:
+            return 4_000;
+        case ARCHIVE:
+            return 8_000;
+        case BEGIN:
+        case ROLLBACK:
+            return 3_000;
+        case HELP:
+            return 6_000;
+        case BYE:
+        case UNKNOWN:
+            return 2_000;
+        default:
+            throw new AssertionError("No budget for " + type);
+        }
+    }
+
+    private static void respond(MemoMax memoMax, EnumMap<CommandType, long[]> allocations, boolean isMeasured,
+            CommandType type, String input) {
+        long before = allocatedBytes();
+        memoMax.getResponse(input);
+        long bytes = allocatedBytes() - before;
+        assertTrue(!memoMax.isErrorResponse() || type == CommandType.UNKNOWN, "Command failed: " + input);
+        if (isMeasured) {
+            long[] total = allocations.computeIfAbsent(type, t -> new long[2]);
+            total[0] += bytes;
+            total[1]++;
+        }
+    }
+
+    private static void assertWithinBudget(String operation, long bytesPerOperation, long budget) {
+        long scaledBudget = (long) (budget * BUDGET_SCALE);
+        assertTrue(bytesPerOperation <= scaledBudget, String.format(Locale.ROOT,
+                "%s allocated %d bytes per operation, over its budget of %d bytes",
+                operation, bytesPerOperation, scaledBudget));
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
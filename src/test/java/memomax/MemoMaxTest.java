@@ -0,0 +1,205 @@
+package memomax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import memomax.exception.MemoMaxException;
+import memomax.storage.Storage;
+import memomax.storage.StorageEngine;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Tests the MemoMax class.
+ * Ensures only leading arguments are taken for options, so a command may hold words starting with --,
+ * and that transactions keep all of their changes with one save or none of them.
+ */
+public class MemoMaxTest {
+    private Path dataDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("memomax-main");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void isHeadless_optionsThenCommand_detectsCommand() {
+        assertFalse(MemoMax.isHeadless(new String[0]));
+        assertFalse(MemoMax.isHeadless(new String[] {"--storage=h2", "--data=tasks"}));
+        assertTrue(MemoMax.isHeadless(new String[] {"--data=tasks", "--cli"}));
+        assertTrue(MemoMax.isHeadless(new String[] {"--data=tasks", "find", "--all", "book"}));
+        assertTrue(MemoMax.isHeadless(new String[] {"todo", "document", "--verbose"}));
+    }
+
+    @Test
+    public void getResponse_byeInOpenTransaction_isRefusedUntilCommit() {
+        MemoMax memoMax = new MemoMax(new Storage(dataDir.resolve("tasks.txt").toString()), false);
+        memoMax.getResponse("begin");
+        memoMax.getResponse("todo read book");
+
+        assertTrue(memoMax.getResponse("bye").contains("1 unsaved change(s)"));
+        assertTrue(memoMax.isErrorResponse());
+        assertTrue(memoMax.hasOpenTransaction());
+        memoMax.getResponse("commit");
+        memoMax.getResponse("bye");
+        assertFalse(memoMax.isErrorResponse());
+        assertFalse(memoMax.hasOpenTransaction());
+        memoMax.close();
+    }
+
+    @Test
+    public void rollback_afterChanges_restoresList() {
+        RecordingStorage storage = new RecordingStorage();
+        MemoMax memoMax = new MemoMax(storage, false);
+        memoMax.getResponse("todo water plants");
+        memoMax.getResponse("todo pay rent");
+        String before = memoMax.getResponse("list");
+
+        memoMax.getResponse("begin");
+        memoMax.getResponse("todo buy milk");
+        memoMax.getResponse("delete 1");
+        memoMax.getResponse("mark 1");
+        memoMax.getResponse("update 2 buy oat milk");
+        memoMax.getResponse("rollback");
+
+        assertFalse(memoMax.isErrorResponse());
+        assertEquals(before, memoMax.getResponse("list"));
+        assertEquals(2, storage.saveCount);
+        memoMax.close();
+    }
+
+    @Test
+    public void batch_failingStep_keepsNothing() {
+        RecordingStorage storage = new RecordingStorage();
+        MemoMax memoMax = new MemoMax(storage, false);
+        memoMax.getResponse("todo water plants");
+        String before = memoMax.getResponse("list");
+
+        String response = memoMax.getResponse("todo pay rent; mark 1; mark 9");
+
+        assertTrue(memoMax.isErrorResponse());
+        assertTrue(response.contains("command 3 failed: mark 9"));
+        assertEquals(before, memoMax.getResponse("list"));
+        assertEquals(List.of("T | 0 | water plants"), storage.savedLines);
+        assertFalse(memoMax.hasOpenTransaction());
+        memoMax.close();
+    }
+
+    @Test
+    public void commit_severalChanges_savesOnce() {
+        RecordingStorage storage = new RecordingStorage();
+        MemoMax memoMax = new MemoMax(storage, false);
+        memoMax.getResponse("begin");
+        memoMax.getResponse("todo water plants");
+        memoMax.getResponse("todo pay rent");
+        memoMax.getResponse("mark 1");
+        assertEquals(0, storage.saveCount);
+
+        memoMax.getResponse("commit");
+
+        assertFalse(memoMax.isErrorResponse());
+        assertEquals(1, storage.saveCount);
+        assertEquals(List.of("T | 1 | water plants", "T | 0 | pay rent"), storage.savedLines);
+        memoMax.close();
+    }
+
+    @Test
+    public void commit_failedSave_rollsBack() {
+        RecordingStorage storage = new RecordingStorage();
+        MemoMax memoMax = new MemoMax(storage, false);
+        memoMax.getResponse("todo water plants");
+        String before = memoMax.getResponse("list");
+        memoMax.getResponse("begin");
+        memoMax.getResponse("todo pay rent");
+        memoMax.getResponse("delete 1");
+        storage.isFailing = true;
+
+        String response = memoMax.getResponse("commit");
+
+        assertTrue(memoMax.isErrorResponse());
+        assertTrue(response.contains("none of the changes were kept"));
+        assertFalse(memoMax.hasOpenTransaction());
+        assertEquals(before, memoMax.getResponse("list"));
+        memoMax.close();
+    }
+
+    @Test
+    public void getResponse_externalChangeInTransaction_breaksTransaction() {
+        RecordingStorage storage = new RecordingStorage();
+        MemoMax memoMax = new MemoMax(storage, false);
+        memoMax.getResponse("begin");
+        memoMax.getResponse("todo water plants");
+        storage.externalTask = new Todo("added elsewhere");
+
+        assertTrue(memoMax.getResponse("todo pay rent").contains("Another program changed your tasks"));
+        assertTrue(memoMax.isErrorResponse());
+        assertTrue(memoMax.getResponse("list").contains("1.[T][ ] added elsewhere"));
+        memoMax.getResponse("commit");
+        assertTrue(memoMax.isErrorResponse());
+        assertTrue(memoMax.hasOpenTransaction());
+        assertEquals(0, storage.saveCount);
+        memoMax.getResponse("rollback");
+        assertFalse(memoMax.isErrorResponse());
+        assertFalse(memoMax.hasOpenTransaction());
+        memoMax.close();
+    }
+
+    /**
+     * Keeps the saved tasks in memory and counts saves, which can be made to fail. A task set as
+     * external is reported at the next command as added by another program.
+     */
+    private static class RecordingStorage implements StorageEngine {
+        private List<String> savedLines = new ArrayList<>();
+        private int saveCount = 0;
+        private boolean isFailing = false;
+        private Task externalTask = null;
+
+        @Override
+        public int loadInChunks(int chunkSize, ChunkListener listener) {
+            listener.onChunk(new ArrayList<>(), 1.0);
+            return 0;
+        }
+
+        @Override
+        public void save(List<Task> tasks) throws MemoMaxException {
+            if (isFailing) {
+                throw new MemoMaxException("Disk full");
+            }
+            saveCount++;
+            savedLines = new ArrayList<>();
+            for (Task task : tasks) {
+                savedLines.add(task.toFileFormat());
+            }
+        }
+
+        @Override
+        public void beginCommand(boolean isMutating, ExternalChangeListener listener) {
+            if (externalTask != null) {
+                listener.onExternalChange(0, 0, List.of(externalTask));
+                externalTask = null;
+            }
+        }
+    }
+}
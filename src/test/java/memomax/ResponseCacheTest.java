@@ -0,0 +1,93 @@
+package memomax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import memomax.parser.CommandLexer;
+import memomax.storage.TaskArchive;
+
+/**
+ * Tests the ResponseCache class.
+ * Ensures responses are only served for the list version they were rendered from, that the
+ * least recently used responses are evicted first, and that searches of the archive are not cached.
+ */
+public class ResponseCacheTest {
+
+    @Test
+    public void get_sameCommandAndVersion_returnsCachedResponse() {
+        ResponseCache cache = new ResponseCache();
+        cache.put(CommandLexer.lex("find book"), 3, "found");
+
+        assertEquals("found", cache.get(CommandLexer.lex("FIND   book "), 3));
+        assertNull(cache.get(CommandLexer.lex("find Book"), 3));
+        assertNull(cache.get(CommandLexer.lex("find book"), 4));
+        assertEquals(0, cache.size(), "A newer version should drop every older response");
+    }
+
+    @Test
+    public void put_moreThanMaxEntries_evictsLeastRecentlyUsed() {
+        ResponseCache cache = new ResponseCache();
+        for (int i = 0; i < ResponseCache.MAX_ENTRIES; i++) {
+            cache.put(CommandLexer.lex("find " + i), 1, "response " + i);
+        }
+        cache.get(CommandLexer.lex("find 0"), 1);
+        cache.put(CommandLexer.lex("find new"), 1, "response new");
+
+        assertEquals(ResponseCache.MAX_ENTRIES, cache.size());
+        assertEquals("response 0", cache.get(CommandLexer.lex("find 0"), 1));
+        assertNull(cache.get(CommandLexer.lex("find 1"), 1));
+    }
+
+    @Test
+    public void getResponse_listAfterChange_rendersChangedList() throws IOException {
+        Path dataDir = Files.createTempDirectory("memomax-cache");
+        Path dataFile = dataDir.resolve("tasks.txt");
+        try {
+            MemoMax memoMax = new MemoMax(dataFile.toString(), false);
+            memoMax.getResponse("todo read book");
+            String firstList = memoMax.getResponse("list");
+            assertEquals(firstList, memoMax.getResponse("list"));
+
+            memoMax.getResponse("mark 1");
+            String markedList = memoMax.getResponse("list");
+            assertNotEquals(firstList, markedList);
+            assertEquals(markedList, memoMax.getResponse("list"));
+            memoMax.close();
+        } finally {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(dataDir.resolve("tasks.txt.lock"));
+            Files.deleteIfExists(dataDir);
+        }
+    }
+
+    @Test
+    public void getResponse_findAllAfterArchiveAppend_findsAppendedTask() throws IOException {
+        Path dataDir = Files.createTempDirectory("memomax-cache");
+        Path dataFile = dataDir.resolve("tasks.txt");
+        Path archiveFile = Path.of(TaskArchive.pathNextTo(dataFile.toString()));
+        try {
+            MemoMax memoMax = new MemoMax(dataFile.toString(), false);
+            memoMax.getResponse("todo read book");
+            assertFalse(memoMax.getResponse("find --all book").contains("old book"));
+
+            Files.writeString(archiveFile, "T | 1 | old book\n");
+            assertTrue(memoMax.getResponse("find --all book").contains("old book"));
+            assertTrue(ResponseCache.isCacheable(CommandLexer.lex("find book")));
+            memoMax.close();
+        } finally {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(archiveFile);
+            Files.deleteIfExists(dataDir.resolve("tasks.txt.lock"));
+            Files.deleteIfExists(dataDir);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package memomax.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import memomax.storage.Storage;
+import memomax.storage.TaskArchive;
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.TaskList;
+
+/**
+ * Measures the text engine with and without archiving on a list where most tasks are done: the time
+ * to save, load and find in the list before and after its done tasks are moved to the archive, the
+ * time to archive them, and the time of {@code find --all} reading the archive first and then from
+ * memory.
+ * Usage: {@code gradlew benchmark -Pbench=ArchiveBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class ArchiveBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 1_000_000;
+    private static final double DONE_FRACTION = 0.9;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks in the list.
+     * @throws Exception If the files cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        Random random = new Random(42);
+        ArrayList<Task> generated = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Todo("task " + i + " " + random.nextInt());
+            if (random.nextDouble() < DONE_FRACTION) {
+                task.mark();
+            }
+            generated.add(task);
+        }
+
+        Path dataDir = Files.createTempDirectory("memomax-archive-bench");
+        try {
+            Storage storage = new Storage(dataDir.resolve("tasks.txt").toString());
+            TaskList tasks = new TaskList(generated);
+            System.out.printf("tasks=%d before archiving: %s%n", taskCount, measureHotList(storage, tasks));
+
+            long start = System.nanoTime();
+            ArrayList<Task> archived = new ArrayList<>();
+            ArrayList<Task> kept = new ArrayList<>();
+            for (Task task : tasks.asList()) {
+                (task.isDone() ? archived : kept).add(task);
+            }
+            TaskArchive archive = storage.getArchive();
+            archive.append(archived);
+            tasks.replaceRange(0, tasks.size(), kept);
+            storage.save(tasks.asList());
+            System.out.printf("archived %d tasks in %.1f ms%n", archived.size(), (System.nanoTime() - start) / 1e6);
+            System.out.printf("tasks=%d after archiving: %s%n", tasks.size(), measureHotList(storage, tasks));
+
+            TaskArchive reopened = new TaskArchive(TaskArchive.pathNextTo(dataDir.resolve("tasks.txt").toString()));
+            start = System.nanoTime();
+            int found = reopened.findTasks("task 4242").size();
+            double firstMillis = (System.nanoTime() - start) / 1e6;
+            start = System.nanoTime();
+            reopened.findTasks("task 4243");
+            System.out.printf("find --all archive part: first=%.1f ms (reads %d tasks, %d found), next=%.1f ms%n",
+                    firstMillis, reopened.size(), found, (System.nanoTime() - start) / 1e6);
+            storage.close();
+        } finally {
+            try (Stream<Path> paths = Files.walk(dataDir)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Times one save, load and find of the working list.
+     */
+    private static String measureHotList(Storage storage, TaskList tasks) throws Exception {
+        long start = System.nanoTime();
+        storage.save(tasks.asList());
+        double saveMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        List<Task> loaded = storage.load();
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        tasks.findMatchingIndices("task 4242");
+        double findMillis = (System.nanoTime() - start) / 1e6;
+        return String.format("save=%.1f ms, load=%.1f ms (%d tasks), find=%.1f ms", saveMillis, loadMillis,
+                loaded.size(), findMillis);
+    }
+}
@@ -0,0 +1,111 @@
+package memomax.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Measures the cold start of the headless command-line entry: a fresh JVM runs one command through
+ * {@code memomax.Launcher} and exits. Each command is timed as the median of several runs, and one
+ * more run with {@code -verbose:class} counts the classes loaded and checks that none is from JavaFX.
+ * Usage: {@code gradlew benchmark -Pbench=CliStartupBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class CliStartupBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 10_000;
+    private static final int RUNS = 7;
+    private static final String[][] COMMANDS = {
+        {"help"},
+        {"list", "1"},
+        {"todo", "buy", "milk"},
+    };
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional task count for the generated data file.
+     * @throws Exception If the data file cannot be written or a run fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        Path dataDir = Files.createTempDirectory("memomax-cli");
+        Path dataFile = dataDir.resolve("tasks.txt");
+        try {
+            System.out.printf("%-16s %10s %10s %10s%n", "command", "median ms", "classes", "javafx");
+            for (String[] command : COMMANDS) {
+                long[] nanos = new long[RUNS];
+                for (int run = 0; run < RUNS; run++) {
+                    writeDataFile(dataFile, taskCount);
+                    long start = System.nanoTime();
+                    runCommand(dataFile, command, false);
+                    nanos[run] = System.nanoTime() - start;
+                }
+                writeDataFile(dataFile, taskCount);
+                List<String> loadedClasses = runCommand(dataFile, command, true);
+                long javaFxClasses = loadedClasses.stream().filter(name -> name.startsWith("javafx.")).count();
+                Arrays.sort(nanos);
+                System.out.printf("%-16s %10.1f %10d %10d%n", String.join(" ", command), nanos[RUNS / 2] / 1e6,
+                        loadedClasses.size(), javaFxClasses);
+            }
+        } finally {
+            try (Stream<Path> paths = Files.list(dataDir)) {
+                for (Path path : paths.toList()) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(dataDir);
+        }
+    }
+
+    private static void writeDataFile(Path dataFile, int taskCount) throws IOException {
+        ArrayList<String> lines = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            lines.add("T | " + (i % 2) + " | read book " + i);
+        }
+        Files.write(dataFile, lines);
+    }
+
+    /**
+     * Runs one command in a new JVM and waits for it to exit.
+     *
+     * @return The names of the loaded classes if {@code isListingClasses}, otherwise an empty list.
+     */
+    private static List<String> runCommand(Path dataFile, String[] command, boolean isListingClasses)
+            throws IOException, InterruptedException {
+        ArrayList<String> processArgs = new ArrayList<>();
+        processArgs.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (isListingClasses) {
+            processArgs.add("-verbose:class");
+        }
+        processArgs.add("-cp");
+        processArgs.add(System.getProperty("java.class.path"));
+        processArgs.add("memomax.Launcher");
+        processArgs.add("--data=" + dataFile);
+        processArgs.addAll(List.of(command));
+
+        Process process = new ProcessBuilder(processArgs).redirectErrorStream(true).start();
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Command failed: " + String.join(" ", command) + "\n" + output);
+        }
+
+        ArrayList<String> loadedClasses = new ArrayList<>();
+        if (isListingClasses) {
+            for (String line : output.split("\n")) {
+                if (line.startsWith("[") && line.contains("[class,load] ")) {
+                    String rest = line.substring(line.indexOf("[class,load] ") + "[class,load] ".length());
+                    loadedClasses.add(rest.split(" ")[0]);
+                }
+            }
+        }
+        return loadedClasses;
+    }
+}
@@ -0,0 +1,109 @@
+package memomax.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+import memomax.exception.MemoMaxException;
+import memomax.parser.Command;
+import memomax.parser.CommandLexer;
+import memomax.parser.CommandType;
+import memomax.parser.Parser;
+
+/**
+ * Measures bytes allocated and time taken per command by the command lexer and parser,
+ * compared with the previous regex split path.
+ * Usage: {@code gradlew benchmark -Pbench=CommandLexerBenchmark}.
+ */
+public class CommandLexerBenchmark {
+    private static final String[] INPUTS = {
+        "todo read book",
+        "deadline return book /by 2026-02-14 1800",
+        "event team meeting /from 2026-02-14 1400 /to 2026-02-14 1600",
+        "mark 3",
+        "find book",
+        "update 2 read another book",
+        "list",
+    };
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private static long sink;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Unused.
+     * @throws MemoMaxException Never thrown for the fixed valid inputs.
+     */
+    public static void main(String[] args) throws MemoMaxException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int round = 0; round < 2; round++) {
+            runLexer(WARMUP_ITERATIONS);
+            runRegexSplit(WARMUP_ITERATIONS);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        runLexer(MEASURED_ITERATIONS);
+        long lexerNanos = System.nanoTime() - start;
+        long lexerBytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        start = System.nanoTime();
+        runRegexSplit(MEASURED_ITERATIONS);
+        long splitNanos = System.nanoTime() - start;
+        long splitBytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        System.out.printf("lexer + parser: %.1f bytes/command, %.1f ns/command%n",
+                (double) lexerBytes / MEASURED_ITERATIONS, (double) lexerNanos / MEASURED_ITERATIONS);
+        System.out.printf("regex split:    %.1f bytes/command, %.1f ns/command%n",
+                (double) splitBytes / MEASURED_ITERATIONS, (double) splitNanos / MEASURED_ITERATIONS);
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void runLexer(int iterations) throws MemoMaxException {
+        for (int i = 0; i < iterations; i++) {
+            Command command = CommandLexer.lex(INPUTS[i % INPUTS.length]);
+            switch (command.getType()) {
+            case TODO:
+                sink += Parser.parseTodo(command).length();
+                break;
+            case DEADLINE:
+                sink += Parser.parseDeadline(command).length;
+                break;
+            case EVENT:
+                sink += Parser.parseEvent(command).length;
+                break;
+            case MARK:
+                sink += Parser.parseTaskNumber(command);
+                break;
+            case FIND:
+                sink += Parser.parseFind(command).length();
+                break;
+            case UPDATE:
+                sink += Parser.parseUpdate(command).length;
+                break;
+            default:
+                sink++;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Replays the tokenisation done before the lexer existed: trim, regex split and lowercase lookup.
+     */
+    private static void runRegexSplit(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            String sanitizedInput = INPUTS[i % INPUTS.length].trim();
+            String[] inputParts = sanitizedInput.split("\\s+");
+            CommandType type = CommandType.valueOf(inputParts[0].toUpperCase());
+            if (type == CommandType.DEADLINE) {
+                sink += sanitizedInput.split("/by", -1).length;
+            }
+            sink += inputParts.length;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package memomax.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import memomax.exception.MemoMaxException;
+import memomax.storage.Compression;
+import memomax.storage.Storage;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Compares file size, save time and load time of the task file for every {@link Compression}.
+ * Times are the median of several runs after a warm-up.
+ * Usage: {@code gradlew benchmark -Pbench=CompressionBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class CompressionBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 200_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int RUNS = 7;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks to save and load.
+     * @throws IOException If the temporary file cannot be created or removed.
+     * @throws MemoMaxException If the tasks cannot be saved or loaded.
+     */
+    public static void main(String[] args) throws IOException, MemoMaxException {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        ArrayList<Task> tasks = createTasks(taskCount);
+        Path dataFile = Files.createTempFile("memomax-compression", ".txt");
+        try {
+            System.out.printf("%-13s %12s %8s %10s %10s%n", "compression", "bytes", "ratio", "save ms", "load ms");
+            long plainBytes = 0;
+            for (Compression compression : Compression.values()) {
+                Storage storage = new Storage(dataFile.toString(), compression);
+                long[] saveNanos = new long[RUNS];
+                long[] loadNanos = new long[RUNS];
+                for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+                    long start = System.nanoTime();
+                    storage.save(tasks);
+                    long saved = System.nanoTime();
+                    int loaded = storage.load().size();
+                    long end = System.nanoTime();
+                    if (loaded != taskCount) {
+                        throw new IllegalStateException("Loaded " + loaded + " of " + taskCount + " tasks");
+                    }
+                    if (run >= 0) {
+                        saveNanos[run] = saved - start;
+                        loadNanos[run] = end - saved;
+                    }
+                }
+                long bytes = Files.size(dataFile);
+                if (compression == Compression.NONE) {
+                    plainBytes = bytes;
+                }
+                System.out.printf("%-13s %12d %7.1fx %10.1f %10.1f%n", compression, bytes, (double) plainBytes / bytes,
+                        median(saveNanos) / 1e6, median(loadNanos) / 1e6);
+            }
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    private static ArrayList<Task> createTasks(int taskCount) {
+        ArrayList<Task> tasks = new ArrayList<>(taskCount);
+        long minute = 29_500_000L;
+        for (int i = 0; i < taskCount; i++) {
+            Task task;
+            switch (i % 3) {
+            case 0:
+                task = new Todo("read book " + i);
+                break;
+            case 1:
+                task = new Deadline("return book " + i, minute + i);
+                break;
+            default:
+                task = new Event("meeting " + i, minute + i, minute + i + 120);
+                break;
+            }
+            if (i % 2 == 0) {
+                task.mark();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
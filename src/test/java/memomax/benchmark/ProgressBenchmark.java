@@ -0,0 +1,92 @@
+package memomax.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import memomax.parser.DateParser;
+import memomax.task.Deadline;
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.TaskList;
+
+/**
+ * Measures the task totals and {@code progress} counts on a large list: the median time of marking a
+ * task and then reading the totals, the overdue deadlines and the done tasks in a random range, next
+ * to the median time of scanning the list for the same answers.
+ * Usage: {@code gradlew benchmark -Pbench=ProgressBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class ProgressBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 1_000_000;
+    private static final int RUNS = 201;
+    private static final long FIRST_DATE = 29_400_000L;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks in the list.
+     * @throws Exception If the list cannot be changed.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        Random random = new Random(42);
+        ArrayList<Task> generated = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            generated.add(random.nextBoolean()
+                    ? new Todo("task " + i)
+                    : new Deadline("task " + i, FIRST_DATE + random.nextInt(525_600)));
+        }
+        TaskList tasks = new TaskList(generated);
+        List<Task> view = tasks.asList();
+        long start = System.nanoTime();
+        tasks.countDone(0, tasks.size());
+        tasks.getCounts().getOverdueCount(FIRST_DATE);
+        System.out.printf("tasks=%d first count=%.1f ms%n", taskCount, (System.nanoTime() - start) / 1e6);
+
+        long[] maintained = new long[RUNS];
+        long[] scanned = new long[RUNS];
+        long checksum = 0;
+        for (int run = 0; run < RUNS; run++) {
+            int index = random.nextInt(taskCount);
+            int from = random.nextInt(taskCount);
+            int to = from + random.nextInt(taskCount - from + 1);
+            long now = FIRST_DATE + run * 2_000L;
+
+            start = System.nanoTime();
+            if (view.get(index).isDone()) {
+                tasks.unmark(index);
+            } else {
+                tasks.mark(index);
+            }
+            checksum += tasks.getCounts().getDoneCount() + tasks.getCounts().getOverdueCount(now)
+                    + tasks.countDone(from, to);
+            maintained[run] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            checksum -= scan(view, now, from, to);
+            scanned[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(maintained);
+        Arrays.sort(scanned);
+        System.out.printf("mark + totals + overdue + range: maintained=%.4f ms, scan=%.2f ms (checksum %d)%n",
+                maintained[RUNS / 2] / 1e6, scanned[RUNS / 2] / 1e6, checksum);
+    }
+
+    /**
+     * Counts the done tasks, the overdue deadlines and the done tasks in a range by reading every task.
+     */
+    private static long scan(List<Task> tasks, long now, int from, int to) {
+        long total = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task.isDone()) {
+                total += i >= from && i < to ? 2 : 1;
+            } else if (task instanceof Deadline
+                    && DateParser.toEpochMinute(((Deadline) task).getByDateTime()) < now) {
+                total++;
+            }
+        }
+        return total;
+    }
+}
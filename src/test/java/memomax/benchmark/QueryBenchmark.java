@@ -0,0 +1,111 @@
+package memomax.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import memomax.parser.QueryParser;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.Query;
+import memomax.tasklist.QueryResult;
+import memomax.tasklist.TaskList;
+
+/**
+ * Measures the {@code query} command on a large list: the time to build the indexes on the first
+ * query, and for each query the median latency and the number of tasks checked, next to the median
+ * latency of checking every task.
+ * Usage: {@code gradlew benchmark -Pbench=QueryBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class QueryBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 1_000_000;
+    private static final int RUNS = 21;
+    private static final String[] WORDS = {
+        "read", "book", "return", "library", "meeting", "team", "project", "report", "submit", "quiz",
+        "lecture", "tutorial", "groceries", "dentist", "birthday", "present", "laundry", "email",
+    };
+    private static final String[] QUERIES = {
+        "type:deadline done:no report before:2026-02-20",
+        "on:2026-03-14",
+        "dentist 4242",
+        "type:event (quiz or lecture) after:2026-12-01",
+        "done:no",
+        "not report",
+    };
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks in the list.
+     * @throws Exception If a query cannot be parsed.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        Random random = new Random(42);
+        ArrayList<Task> generated = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i;
+            long minute = 29_400_000L + random.nextInt(365 * 24 * 60);
+            Task task;
+            switch (random.nextInt(3)) {
+            case 0:
+                task = new Todo(description);
+                break;
+            case 1:
+                task = new Deadline(description, minute);
+                break;
+            default:
+                task = new Event(description, minute, minute + 60);
+                break;
+            }
+            if (random.nextBoolean()) {
+                task.mark();
+            }
+            generated.add(task);
+        }
+        TaskList tasks = new TaskList(generated);
+
+        long start = System.nanoTime();
+        tasks.query(QueryParser.parse("type:todo"));
+        System.out.printf("tasks=%d index build=%.1f ms%n", taskCount, (System.nanoTime() - start) / 1e6);
+
+        for (String text : QUERIES) {
+            Query query = QueryParser.parse(text);
+            long[] planned = new long[RUNS];
+            long[] scanned = new long[RUNS];
+            QueryResult result = null;
+            int scanCount = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long queryStart = System.nanoTime();
+                result = tasks.query(query);
+                planned[run] = System.nanoTime() - queryStart;
+
+                long scanStart = System.nanoTime();
+                scanCount = scan(tasks.asList(), query);
+                scanned[run] = System.nanoTime() - scanStart;
+            }
+            if (scanCount != result.getIndices().length) {
+                throw new IllegalStateException("Planned and scanned results differ for " + text);
+            }
+            Arrays.sort(planned);
+            Arrays.sort(scanned);
+            System.out.printf("%-48s matches=%7d checked=%8d planned=%8.2f ms scan=%8.2f ms%n", text,
+                    result.getIndices().length, result.getCheckedCount(), planned[RUNS / 2] / 1e6,
+                    scanned[RUNS / 2] / 1e6);
+        }
+    }
+
+    private static int scan(List<Task> tasks, Query query) {
+        int count = 0;
+        for (Task task : tasks) {
+            if (query.matches(task)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,80 @@
+package memomax.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.SearchResult;
+import memomax.tasklist.TaskList;
+
+/**
+ * Measures the fuzzy {@code search} on a large list: the time to build the index on the first
+ * search, the median latency of queries with typos, and the cost of keeping the index up to date.
+ * Usage: {@code gradlew benchmark -Pbench=SearchBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class SearchBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 1_000_000;
+    private static final int QUERY_RUNS = 200;
+    private static final String[] WORDS = {
+        "read", "book", "return", "library", "meeting", "team", "project", "report", "submit", "quiz",
+        "lecture", "tutorial", "groceries", "dentist", "birthday", "present", "laundry", "email",
+        "professor", "assignment", "review", "slides", "budget", "invoice", "gym", "flight", "hotel",
+    };
+    private static final String[] QUERIES = {"reed bok", "meting", "libary book", "profesor emial", "quz 42"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks in the list.
+     * @throws Exception If the list cannot be changed.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        Random random = new Random(42);
+        ArrayList<Task> generated = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            generated.add(new Todo(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + random.nextInt(1000)));
+        }
+        TaskList tasks = new TaskList(generated);
+        System.out.printf("add + delete without index median=%.3f ms%n", measureChanges(tasks, random) / 1e6);
+
+        long start = System.nanoTime();
+        tasks.search("warm up", 20);
+        System.out.printf("tasks=%d index build=%.1f ms%n", taskCount, (System.nanoTime() - start) / 1e6);
+
+        for (String query : QUERIES) {
+            long[] nanos = new long[QUERY_RUNS];
+            SearchResult result = null;
+            for (int run = 0; run < QUERY_RUNS; run++) {
+                long queryStart = System.nanoTime();
+                result = tasks.search(query, 20);
+                nanos[run] = System.nanoTime() - queryStart;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("search %-16s matches=%8d median=%.2f ms%n", "'" + query + "'",
+                    result.getMatchCount(), nanos[QUERY_RUNS / 2] / 1e6);
+        }
+
+        System.out.printf("add + delete with index median=%.3f ms%n", measureChanges(tasks, random) / 1e6);
+    }
+
+    /**
+     * Adds a task and deletes a random one repeatedly.
+     *
+     * @return The median time of one add and delete in nanoseconds.
+     */
+    private static long measureChanges(TaskList tasks, Random random) throws Exception {
+        long[] nanos = new long[QUERY_RUNS];
+        for (int run = 0; run < QUERY_RUNS; run++) {
+            long start = System.nanoTime();
+            tasks.add(new Todo("water plants " + random.nextLong()));
+            tasks.delete(random.nextInt(tasks.size()));
+            nanos[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[QUERY_RUNS / 2];
+    }
+}
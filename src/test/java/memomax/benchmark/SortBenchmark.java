@@ -0,0 +1,76 @@
+package memomax.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import memomax.task.Deadline;
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.SortKey;
+import memomax.tasklist.TaskList;
+
+/**
+ * Measures {@code sort} views on a large list: the time to sort the list the first time, and the
+ * median time of a change followed by reading the first page in date order, next to the median time of sorting a
+ * copy of the list for that page instead.
+ * Usage: {@code gradlew benchmark -Pbench=SortBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class SortBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 1_000_000;
+    private static final int RUNS = 21;
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks in the list.
+     * @throws Exception If the list cannot be changed.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        Random random = new Random(42);
+        ArrayList<Task> generated = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            if (random.nextBoolean()) {
+                generated.add(new Todo("task " + random.nextInt()));
+            } else {
+                generated.add(new Deadline("task " + random.nextInt(), 29_400_000L + random.nextInt(525_600)));
+            }
+        }
+        TaskList tasks = new TaskList(generated);
+
+        for (SortKey key : SortKey.values()) {
+            long start = System.nanoTime();
+            tasks.getSortedIndices(key, 0, PAGE_SIZE);
+            System.out.printf("sort by %-5s first sort=%.1f ms%n", key.getKeyword(), (System.nanoTime() - start) / 1e6);
+        }
+
+        long[] incremental = new long[RUNS];
+        long[] resorted = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            Task moved = new Deadline("moved " + run, 29_000_000L + run);
+            tasks.replaceRange(random.nextInt(tasks.size()), 1, List.of(moved));
+            tasks.getSortedIndices(SortKey.DATE, 0, PAGE_SIZE);
+            incremental[run] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ArrayList<Task> copy = tasks.getAllTasks();
+            copy.sort(Comparator.comparing(SortBenchmark::getDate)
+                    .thenComparing(Task::getDescription, String.CASE_INSENSITIVE_ORDER));
+            resorted[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(incremental);
+        Arrays.sort(resorted);
+        System.out.printf("tasks=%d update + first page: maintained=%.2f ms, re-sorted copy=%.2f ms%n", taskCount,
+                incremental[RUNS / 2] / 1e6, resorted[RUNS / 2] / 1e6);
+    }
+
+    private static LocalDateTime getDate(Task task) {
+        return task instanceof Deadline ? ((Deadline) task).getByDateTime() : LocalDateTime.MAX;
+    }
+}
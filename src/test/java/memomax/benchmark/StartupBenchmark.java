@@ -0,0 +1,101 @@
+package memomax.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import memomax.LoadListener;
+import memomax.MemoMax;
+
+/**
+ * Measures time-to-first-interaction with synchronous and background loading.
+ * The single-threaded executor stands in for the JavaFX application thread.
+ * Usage: {@code gradlew benchmark -Pbench=StartupBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class StartupBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 200_000;
+    private static final int RUNS = 5;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional task count for the generated data file.
+     * @throws Exception If the data file cannot be written or the benchmark is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        Path dataFile = writeDataFile(taskCount);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        try {
+            for (int run = 1; run <= RUNS; run++) {
+                long syncNanos = measureSynchronous(dataFile);
+                long[] asyncNanos = measureBackground(dataFile);
+                out.printf("run %d: tasks=%d sync first-interaction=%.1f ms | "
+                        + "background first-interaction=%.1f ms, fully loaded=%.1f ms%n",
+                        run, taskCount, syncNanos / 1e6, asyncNanos[0] / 1e6, asyncNanos[1] / 1e6);
+            }
+        } finally {
+            System.setOut(out);
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    private static Path writeDataFile(int taskCount) throws IOException {
+        Path dataFile = Files.createTempFile("memomax-startup", ".txt");
+        ArrayList<String> lines = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            switch (i % 3) {
+            case 0:
+                lines.add("T | " + (i % 2) + " | read book " + i);
+                break;
+            case 1:
+                lines.add("D | " + (i % 2) + " | return book " + i + " | 2026-02-14 1800");
+                break;
+            default:
+                lines.add("E | " + (i % 2) + " | meeting " + i + " | 2026-02-14 1400 | 2026-02-14 1600");
+                break;
+            }
+        }
+        Files.write(dataFile, lines);
+        return dataFile;
+    }
+
+    private static long measureSynchronous(Path dataFile) {
+        long start = System.nanoTime();
+        MemoMax bot = new MemoMax(dataFile.toString(), false);
+        bot.getResponse("help");
+        return System.nanoTime() - start;
+    }
+
+    private static long[] measureBackground(Path dataFile) throws Exception {
+        ExecutorService uiThread = Executors.newSingleThreadExecutor();
+        CountDownLatch loaded = new CountDownLatch(1);
+        try {
+            long start = System.nanoTime();
+            MemoMax bot = new MemoMax(dataFile.toString(), true);
+            uiThread.execute(() -> bot.loadTasksInBackground(uiThread, new LoadListener() {
+                @Override
+                public void onProgress(int loadedCount, double progress) {
+                }
+
+                @Override
+                public void onLoadComplete() {
+                    loaded.countDown();
+                }
+            }));
+            uiThread.submit(() -> bot.getResponse("help")).get();
+            long firstInteraction = System.nanoTime() - start;
+            loaded.await(1, TimeUnit.MINUTES);
+            return new long[] {firstInteraction, System.nanoTime() - start};
+        } finally {
+            uiThread.shutdown();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package memomax.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import memomax.MemoMax;
+import memomax.storage.Storage;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Measures a scripted sequence of changes on the text engine run as separate commands, each saving
+ * the list, against the same changes on one {@code ;}-separated line saved once.
+ * Usage: {@code gradlew benchmark -Pbench=TransactionBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class TransactionBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks in the list.
+     * @throws Exception If the files cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        ArrayList<Task> generated = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            generated.add(new Todo("task " + i));
+        }
+
+        Path dataDir = Files.createTempDirectory("memomax-transaction-bench");
+        try {
+            Storage storage = new Storage(dataDir.resolve("tasks.txt").toString());
+            storage.save(generated);
+            MemoMax memoMax = new MemoMax(storage, false);
+
+            long separateNanos = 0;
+            long lineNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                memoMax.getResponse("todo pack bag " + round);
+                memoMax.getResponse("todo book hotel " + round);
+                memoMax.getResponse("mark 1");
+                memoMax.getResponse("unmark 1");
+                separateNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                memoMax.getResponse("todo pack case " + round + "; todo book flight " + round + "; mark 1; unmark 1");
+                lineNanos += System.nanoTime() - start;
+                if (memoMax.isErrorResponse()) {
+                    throw new IllegalStateException("The multi-command line failed");
+                }
+            }
+            System.out.printf("tasks=%d four changes: separate commands=%.1f ms, one line=%.1f ms%n",
+                    taskCount, separateNanos / 1e6 / ROUNDS, lineNanos / 1e6 / ROUNDS);
+            memoMax.close();
+        } finally {
+            try (Stream<Path> paths = Files.walk(dataDir)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package memomax.benchmark;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.TaskChange;
+import memomax.tasklist.TaskList;
+import memomax.tasklist.UndoHistory;
+
+/**
+ * Measures undoing a delete near the start of a large list by applying its inverse change, against
+ * restoring a copy of the list taken before the delete, along with the memory each keeps.
+ * Usage: {@code gradlew benchmark -Pbench=UndoBenchmark -PbenchArgs=<taskCount>}.
+ */
+public class UndoBenchmark {
+    private static final int DEFAULT_TASK_COUNT = 1_000_000;
+    private static final int ROUNDS = 20;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks in the list.
+     * @throws Exception If a change cannot be made.
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        Random random = new Random(42);
+        ArrayList<Task> generated = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            generated.add(new Todo("task " + i + " " + random.nextInt()));
+        }
+        TaskList tasks = new TaskList(generated);
+        UndoHistory history = new UndoHistory();
+
+        long undoNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            int index = random.nextInt(100);
+            Task deleted = tasks.delete(index);
+            history.record(TaskChange.deleted(index, deleted));
+            long start = System.nanoTime();
+            history.undo().inverse().applyTo(tasks);
+            undoNanos += System.nanoTime() - start;
+        }
+        long changeBytes = TaskChange.deleted(0, generated.get(0)).getRetainedBytes();
+
+        long snapshotNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            int index = random.nextInt(100);
+            ArrayList<Task> snapshot = new ArrayList<>(tasks.asList());
+            tasks.delete(index);
+            long start = System.nanoTime();
+            tasks = new TaskList(snapshot);
+            snapshotNanos += System.nanoTime() - start;
+        }
+        long snapshotBytes = 8L * taskCount;
+
+        System.out.printf("tasks=%d undo of a delete: inverse change=%.3f ms (%d bytes kept), "
+                + "snapshot restore=%.1f ms (%d bytes kept, not counting the copied tasks)%n",
+                taskCount, undoNanos / 1e6 / ROUNDS, changeBytes, snapshotNanos / 1e6 / ROUNDS, snapshotBytes);
+    }
+}
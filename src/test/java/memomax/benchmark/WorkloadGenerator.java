@@ -0,0 +1,222 @@
+package memomax.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates a seeded stream of user commands, one per line, for {@link WorkloadReplay}.
+ * The generator tracks the task list the commands will build, so valid commands always refer to
+ * existing tasks and never repeat a description, while a configurable fraction of commands is
+ * deliberately invalid. The same arguments always produce the same stream.
+ *
+ * <p>Arguments are {@code key=value} pairs, all optional:
+ * <ul>
+ *     <li>{@code seed} - random seed (default 42)</li>
+ *     <li>{@code commands} - number of commands after the initial tasks (default 20000)</li>
+ *     <li>{@code initialTasks} - todo commands written first, to start from a larger list (default 0)</li>
+ *     <li>{@code mix} - relative weights, e.g. {@code todo:30,deadline:10,event:10,mark:10,find:10,list:5,
+ *     delete:15,update:10}; a larger share of adds than deletes makes the list grow</li>
+ *     <li>{@code invalid} - fraction of commands that are invalid (default 0.05)</li>
+ *     <li>{@code out} - output file (default {@code workload.txt})</li>
+ * </ul>
+ * Usage: {@code gradlew benchmark -Pbench=WorkloadGenerator -PbenchArgs="seed=7 commands=50000"}.
+ */
+public class WorkloadGenerator {
+    private static final String DEFAULT_MIX = "todo:30,deadline:10,event:10,mark:10,find:10,list:5,delete:15,update:10";
+    private static final String[] WORDS = {
+        "read", "book", "return", "submit", "quiz", "meeting", "project", "report", "call", "mum",
+        "buy", "groceries", "gym", "lecture", "tutorial", "lab", "review", "notes", "email", "team",
+    };
+    private static final String[] INVALID_DATES = {"2026-13-01 1000", "tomorrow", "2026-02-14", "14/14/2026 1800"};
+
+    private final Random random;
+    private final ArrayList<Boolean> doneFlags = new ArrayList<>();
+    private final String[] types;
+    private final int[] cumulativeWeights;
+    private final double invalidFraction;
+    private long nextId = 1;
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed The random seed.
+     * @param mix The relative weight of each command type.
+     * @param invalidFraction The fraction of commands that should be invalid.
+     */
+    public WorkloadGenerator(long seed, Map<String, Integer> mix, double invalidFraction) {
+        this.random = new Random(seed);
+        this.invalidFraction = invalidFraction;
+        this.types = mix.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[types.length];
+        int total = 0;
+        for (int i = 0; i < types.length; i++) {
+            total += mix.get(types[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The command mix needs at least one positive weight");
+        }
+    }
+
+    /**
+     * Generates a workload file.
+     *
+     * @param args {@code key=value} arguments, see the class description.
+     * @throws IOException If the output file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        WorkloadGenerator generator = new WorkloadGenerator(
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                Double.parseDouble(options.getOrDefault("invalid", "0.05")));
+        int initialTasks = Integer.parseInt(options.getOrDefault("initialTasks", "0"));
+        int commands = Integer.parseInt(options.getOrDefault("commands", "20000"));
+        Path out = Paths.get(options.getOrDefault("out", "workload.txt"));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(out)) {
+            for (int i = 0; i < initialTasks; i++) {
+                writer.write(generator.validTodo());
+                writer.write('\n');
+            }
+            for (int i = 0; i < commands; i++) {
+                writer.write(generator.next());
+                writer.write('\n');
+            }
+        }
+        System.out.printf("Wrote %d commands to %s, ending with %d tasks%n",
+                initialTasks + commands, out, generator.doneFlags.size());
+    }
+
+    /**
+     * Parses {@code key=value} arguments.
+     *
+     * @param args The arguments.
+     * @return The options, in argument order.
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        LinkedHashMap<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Parses a mix such as {@code todo:3,list:1}.
+     *
+     * @param mix The mix specification.
+     * @return The weight of each command type, in the order given.
+     */
+    static Map<String, Integer> parseMix(String mix) {
+        LinkedHashMap<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] typeAndWeight = part.trim().split(":");
+            weights.put(typeAndWeight[0].trim(), Integer.parseInt(typeAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the next command of the stream.
+     *
+     * @return A command line, without a line separator.
+     */
+    public String next() {
+        String type = pickType();
+        boolean isInvalid = random.nextDouble() < invalidFraction;
+        switch (type) {
+        case "todo":
+            return isInvalid ? "todo" : validTodo();
+        case "deadline":
+            return isInvalid
+                    ? "deadline " + description() + " /by " + pick(INVALID_DATES)
+                    : addTask("deadline " + description() + " /by " + date());
+        case "event":
+            return isInvalid
+                    ? "event " + description() + " /from " + date()
+                    : addTask("event " + description() + " /from " + date() + " /to 2027-12-31 2359");
+        case "mark":
+        case "unmark":
+            return markOrUnmark(isInvalid);
+        case "find":
+            return isInvalid ? "find" : "find " + pick(WORDS);
+        case "list":
+            return isInvalid ? "lst" : "list";
+        case "delete":
+            if (isInvalid || doneFlags.isEmpty()) {
+                return "delete " + invalidIndex();
+            }
+            int deleted = random.nextInt(doneFlags.size());
+            doneFlags.remove(deleted);
+            return "delete " + (deleted + 1);
+        case "update":
+            if (isInvalid || doneFlags.isEmpty()) {
+                return "update " + invalidIndex() + " " + description();
+            }
+            return "update " + (random.nextInt(doneFlags.size()) + 1) + " " + description();
+        default:
+            return type + " " + description();
+        }
+    }
+
+    private String validTodo() {
+        return addTask("todo " + description());
+    }
+
+    private String addTask(String command) {
+        doneFlags.add(false);
+        return command;
+    }
+
+    private String markOrUnmark(boolean isInvalid) {
+        if (isInvalid || doneFlags.isEmpty()) {
+            return "mark " + invalidIndex();
+        }
+        int index = random.nextInt(doneFlags.size());
+        boolean isDone = doneFlags.get(index);
+        doneFlags.set(index, !isDone);
+        return (isDone ? "unmark " : "mark ") + (index + 1);
+    }
+
+    private String pickType() {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < types.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return types[i];
+            }
+        }
+        return types[types.length - 1];
+    }
+
+    /**
+     * Returns a description that has never been used before, so adds and updates never clash.
+     */
+    private String description() {
+        return pick(WORDS) + " " + pick(WORDS) + " " + nextId++;
+    }
+
+    private String date() {
+        return String.format("2026-%02d-%02d %02d%02d",
+                random.nextInt(12) + 1, random.nextInt(28) + 1, random.nextInt(24), random.nextInt(60));
+    }
+
+    private String invalidIndex() {
+        return random.nextBoolean() ? String.valueOf(doneFlags.size() + 1 + random.nextInt(10)) : "abc";
+    }
+
+    private String pick(String[] options) {
+        return options[random.nextInt(options.length)];
+    }
+}
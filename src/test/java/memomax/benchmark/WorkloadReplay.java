@@ -0,0 +1,146 @@
+package memomax.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import memomax.MemoMax;
+import memomax.exception.MemoMaxException;
+import memomax.metrics.LatencyHistogram;
+import memomax.parser.CommandLexer;
+import memomax.storage.StorageEngines;
+
+/**
+ * Replays a workload file through {@link MemoMax#getResponse(String)} in-process and reports
+ * throughput and latency percentiles, overall and per command type.
+ * Results are also written as sorted {@code key=value} lines, so runs from two builds can be diffed.
+ *
+ * <p>Arguments are {@code key=value} pairs: {@code workload} (default {@code workload.txt}),
+ * {@code warmup} - number of leading commands run but not measured (default 0),
+ * {@code storage} - storage engine to replay against (default {@value StorageEngines#DEFAULT_ENGINE}), and
+ * {@code out} - result file (default {@code workload-result.properties}).
+ * Usage: {@code gradlew benchmark -Pbench=WorkloadReplay -PbenchArgs="workload=workload.txt warmup=1000"}.
+ */
+public class WorkloadReplay {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_KEYS = {"p50", "p90", "p99", "p999"};
+
+    /**
+     * Runs the replay.
+     *
+     * @param args {@code key=value} arguments, see the class description.
+     * @throws IOException If the workload cannot be read or the results cannot be written.
+     * @throws MemoMaxException If the storage engine cannot be opened.
+     */
+    public static void main(String[] args) throws IOException, MemoMaxException {
+        Map<String, String> options = WorkloadGenerator.parseOptions(args);
+        Path workload = Paths.get(options.getOrDefault("workload", "workload.txt"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "0"));
+        String engine = options.getOrDefault("storage", StorageEngines.DEFAULT_ENGINE);
+        Path out = Paths.get(options.getOrDefault("out", "workload-result.properties"));
+
+        List<String> commands = Files.readAllLines(workload);
+        if (warmup < 0 || warmup >= commands.size()) {
+            throw new IllegalArgumentException("warmup must leave at least one command to measure");
+        }
+        Path dataDir = Files.createTempDirectory("memomax-replay");
+        TreeMap<String, String> results;
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        try {
+            MemoMax memoMax = new MemoMax(StorageEngines.open(engine, dataDir.resolve("tasks").toString()), false);
+            results = replay(commands, warmup, memoMax);
+            memoMax.close();
+        } finally {
+            System.setOut(console);
+            deleteRecursively(dataDir);
+        }
+        results.put("storage", engine);
+        results.put("workload", workload.getFileName().toString());
+
+        StringBuilder lines = new StringBuilder();
+        results.forEach((key, value) -> lines.append(key).append('=').append(value).append('\n'));
+        Files.writeString(out, lines);
+        System.out.print(lines);
+        System.out.println("Results written to " + out);
+    }
+
+    /**
+     * Runs every command and collects the results.
+     *
+     * @param commands The command lines to run.
+     * @param warmup The number of leading commands to leave out of the measurements.
+     * @param memoMax The MemoMax to run the commands on.
+     * @return The results, keyed by name.
+     */
+    static TreeMap<String, String> replay(List<String> commands, int warmup, MemoMax memoMax) {
+        LatencyHistogram all = new LatencyHistogram();
+        TreeMap<String, LatencyHistogram> byType = new TreeMap<>();
+        TreeMap<String, Long> errorsByType = new TreeMap<>();
+        long errors = 0;
+
+        long start = 0;
+        for (int i = 0; i < commands.size(); i++) {
+            if (i == warmup) {
+                start = System.nanoTime();
+            }
+            String input = commands.get(i);
+            long commandStart = System.nanoTime();
+            memoMax.getResponse(input);
+            long nanos = System.nanoTime() - commandStart;
+            if (i < warmup) {
+                continue;
+            }
+
+            String type = CommandLexer.lex(input).getType().name().toLowerCase(Locale.ROOT);
+            all.record(nanos);
+            byType.computeIfAbsent(type, t -> new LatencyHistogram()).record(nanos);
+            if (memoMax.isErrorResponse()) {
+                errors++;
+                errorsByType.merge(type, 1L, Long::sum);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        TreeMap<String, String> results = new TreeMap<>();
+        results.put("commands", String.valueOf(all.getCount()));
+        results.put("errors", String.valueOf(errors));
+        results.put("elapsedMillis", format(elapsedNanos / 1e6));
+        results.put("throughputPerSecond", format(all.getCount() / (elapsedNanos / 1e9)));
+        putLatencies(results, "latency.all", all);
+        byType.forEach((type, histogram) -> {
+            putLatencies(results, "latency." + type, histogram);
+            results.put("errors." + type, String.valueOf(errorsByType.getOrDefault(type, 0L)));
+        });
+        return results;
+    }
+
+    private static void putLatencies(TreeMap<String, String> results, String prefix, LatencyHistogram histogram) {
+        results.put(prefix + ".count", String.valueOf(histogram.getCount()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            results.put(prefix + "." + PERCENTILE_KEYS[i] + "Micros",
+                    format(histogram.getPercentileNanos(PERCENTILES[i]) / 1e3));
+        }
+        results.put(prefix + ".maxMicros", format(histogram.getMaxNanos() / 1e3));
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
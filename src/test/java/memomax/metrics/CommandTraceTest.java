@@ -0,0 +1,61 @@
+package memomax.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import memomax.parser.CommandLexer;
+
+/**
+ * Tests the CommandTrace class.
+ * Ensures each phase and the command itself are recorded as Flight Recorder events.
+ */
+public class CommandTraceTest {
+    @Test
+    public void finish_duringRecording_commitsPhaseAndCommandEvents() throws IOException {
+        Path file = Files.createTempFile("memomax-trace", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("memomax.Command").withThreshold(Duration.ZERO);
+            recording.enable("memomax.CommandPhase").withThreshold(Duration.ZERO);
+            recording.start();
+
+            CommandTrace trace = new CommandTrace(() -> 3);
+            trace.enter(CommandPhase.LEX);
+            trace.setCommand(CommandLexer.lex("todo read book"));
+            trace.enter(CommandPhase.PARSE);
+            trace.enter(CommandPhase.SAVE);
+            trace.finish(true);
+
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            List<RecordedEvent> phases = events.stream()
+                    .filter(event -> event.getEventType().getName().equals("memomax.CommandPhase"))
+                    .toList();
+            assertEquals(List.of("LEX", "PARSE", "SAVE"),
+                    phases.stream().map(event -> event.getString("phase")).toList());
+            assertEquals("todo", phases.get(0).getString("command"));
+            assertEquals(3, phases.get(0).getInt("taskCount"));
+
+            RecordedEvent command = events.stream()
+                    .filter(event -> event.getEventType().getName().equals("memomax.Command"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("todo", command.getString("command"));
+            assertTrue(command.getBoolean("isError"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
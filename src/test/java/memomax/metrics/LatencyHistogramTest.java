@@ -0,0 +1,57 @@
+package memomax.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the LatencyHistogram class.
+ * Ensures percentiles stay within the bucket error bound and that values land in the right buckets.
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void getPercentileNanos_empty_returnsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(99));
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void getPercentileNanos_uniformValues_withinErrorBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        long p50 = histogram.getPercentileNanos(50);
+        long p99 = histogram.getPercentileNanos(99);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125, "p50 was " + p50);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 was " + p99);
+        assertEquals(1_000_000, histogram.getPercentileNanos(100));
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500_000, histogram.getTotalNanos());
+    }
+
+    @Test
+    public void bucketUpperBound_everyBucket_containsItsValues() {
+        long[] values = {0, 7, 8, 9, 15, 16, 1023, 1024, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value, "value " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value, "value " + value);
+            }
+        }
+    }
+
+    @Test
+    public void reset_afterRecording_clearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getTotalNanos());
+        assertEquals(0, histogram.getPercentileNanos(50));
+    }
+}
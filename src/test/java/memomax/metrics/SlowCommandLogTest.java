@@ -0,0 +1,77 @@
+package memomax.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the SlowCommandLog class.
+ * Ensures slow commands are written as structured lines and that the log file rotates.
+ */
+public class SlowCommandLogTest {
+    private static final long[] PHASE_NANOS = {1_000, 2_000_000, 3_000_000, 0, 250_000_000};
+
+    @Test
+    public void isSlow_negativeThreshold_neverSlow() {
+        SlowCommandLog log = new SlowCommandLog(-1, Path.of("unused.log"), 1024);
+        assertFalse(log.isSlow(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void flush_loggedCommand_writesStructuredLine() throws IOException {
+        Path dir = Files.createTempDirectory("memomax-slowlog");
+        try {
+            Path file = dir.resolve("slow.log");
+            SlowCommandLog log = new SlowCommandLog(100, file, 1024 * 1024);
+            assertTrue(log.isSlow(100_000_000));
+            assertFalse(log.isSlow(99_999_999));
+
+            log.log("todo", 9, 42, 300_000_000, PHASE_NANOS, true, false, 17);
+            log.flush();
+
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).endsWith(" command=todo argChars=9 tasks=42 totalMs=300.000 lexMs=0.001"
+                    + " parseMs=2.000 taskListMs=3.000 renderMs=0.000 saveMs=250.000 saved=true error=false gcMs=17"),
+                    lines.get(0));
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void flush_fileExceedsMaxBytes_rotatesFile() throws IOException {
+        Path dir = Files.createTempDirectory("memomax-slowlog");
+        try {
+            Path file = dir.resolve("slow.log");
+            SlowCommandLog log = new SlowCommandLog(0, file, 10);
+            for (int i = 0; i < 3; i++) {
+                log.log("list", 0, i, 1, PHASE_NANOS, false, false, 0);
+                log.flush();
+            }
+
+            assertTrue(Files.readString(file).contains("tasks=2"));
+            assertTrue(Files.readString(dir.resolve("slow.log.1")).contains("tasks=1"));
+            assertTrue(Files.readString(dir.resolve("slow.log.2")).contains("tasks=0"));
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
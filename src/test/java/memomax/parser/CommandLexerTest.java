@@ -0,0 +1,68 @@
+package memomax.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the CommandLexer class.
+ * Ensures command words and argument slices are located correctly in a single pass.
+ */
+public class CommandLexerTest {
+
+    @Test
+    public void lex_mixedCaseWithPadding_returnsCorrectTypeAndArguments() {
+        Command command = CommandLexer.lex("   ToDo   read book  ");
+        assertEquals(CommandType.TODO, command.getType());
+        assertEquals("read book", command.getArguments());
+    }
+
+    @Test
+    public void lex_commandWordOnly_hasNoArguments() {
+        Command command = CommandLexer.lex("list");
+        assertEquals(CommandType.LIST, command.getType());
+        assertFalse(command.hasArguments());
+        assertEquals("", command.getFirstArgument());
+    }
+
+    @Test
+    public void lex_emptyOrUnknownInput_returnsUnknown() {
+        assertEquals(CommandType.UNKNOWN, CommandLexer.lex("").getType());
+        assertEquals(CommandType.UNKNOWN, CommandLexer.lex("todos read").getType());
+    }
+
+    @Test
+    public void lex_updateCommand_splitsFirstArgumentFromRest() {
+        Command command = CommandLexer.lex("update  2\t new   description ");
+        assertEquals("2", command.getFirstArgument());
+        assertEquals("new   description", command.getArgumentsAfterFirst());
+    }
+
+    @Test
+    public void lex_eventCommand_locatesDelimiters() {
+        Command command = CommandLexer.lex("event meeting /from 2025-01-30 1400 /to 2025-01-30 1600");
+        assertTrue(command.getFromIndex() > 0);
+        assertTrue(command.getToIndex() > command.getFromIndex());
+        assertEquals(Command.ABSENT, command.getByIndex());
+    }
+
+    @Test
+    public void lex_lineWithSeparator_returnsBatchOfWholeLine() {
+        Command command = CommandLexer.lex("  todo read book; mark 1 ");
+        assertEquals(CommandType.BATCH, command.getType());
+        assertEquals("todo read book; mark 1", command.getArguments());
+        assertFalse(CommandType.BATCH.isTransactional());
+        assertTrue(CommandType.MARK.isTransactional());
+    }
+
+    @Test
+    public void lex_separatorInsideDescription_keepsOneCommand() {
+        Command command = CommandLexer.lex("todo buy milk; eggs");
+        assertEquals(CommandType.TODO, command.getType());
+        assertEquals("buy milk; eggs", command.getArguments());
+        assertEquals(CommandType.DEADLINE, CommandLexer.lex("deadline a; b /by 2026-03-01 1200").getType());
+        assertEquals(CommandType.BATCH, CommandLexer.lex("todo a;; MARK 1;").getType());
+    }
+}
@@ -0,0 +1,60 @@
+package memomax.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the DateParser class.
+ * Ensures the hand-written storage format parser agrees with LocalDateTime parsing
+ * and that additional formats are tried in order.
+ */
+public class DateParserTest {
+    private final List<String> originalFormats = DateParser.getAdditionalFormats();
+
+    @AfterEach
+    public void restoreFormats() {
+        DateParser.setAdditionalFormats(originalFormats);
+    }
+
+    @Test
+    public void parseStorageFormat_validDate_returnsEpochMinute() {
+        long epochMinute = DateParser.parseStorageFormat("2026-02-14 1800");
+        assertEquals(LocalDateTime.of(2026, 2, 14, 18, 0), DateParser.toLocalDateTime(epochMinute));
+    }
+
+    @Test
+    public void parseStorageFormat_dayPastEndOfMonth_clampsToLastDay() {
+        long epochMinute = DateParser.parseStorageFormat("2023-02-29 2359");
+        assertEquals(LocalDateTime.of(2023, 2, 28, 23, 59), DateParser.toLocalDateTime(epochMinute));
+    }
+
+    @Test
+    public void parseStorageFormat_invalidFields_returnsInvalid() {
+        assertEquals(DateParser.INVALID, DateParser.parseStorageFormat("2025-13-01 1000"));
+        assertEquals(DateParser.INVALID, DateParser.parseStorageFormat("2025-01-32 1000"));
+        assertEquals(DateParser.INVALID, DateParser.parseStorageFormat("2025-01-01 0960"));
+        assertEquals(DateParser.INVALID, DateParser.parseStorageFormat("2025-1-01 1000"));
+        assertEquals(DateParser.INVALID, DateParser.parseStorageFormat("1600"));
+    }
+
+    @Test
+    public void format_parsedDate_roundTrips() {
+        long epochMinute = DateParser.parseStorageFormat("0999-07-04 0905");
+        assertEquals("0999-07-04 0905", DateParser.format(DateParser.toLocalDateTime(epochMinute)));
+    }
+
+    @Test
+    public void parse_additionalFormat_triedAfterStorageFormat() {
+        DateParser.setAdditionalFormats(List.of("d/M/uuuu HHmm", "MMM d uuuu h:mm a"));
+        assertEquals(LocalDateTime.of(2026, 2, 14, 18, 5),
+                DateParser.toLocalDateTime(DateParser.parse(" 14/2/2026 1805 ")));
+        assertEquals(LocalDateTime.of(2026, 2, 14, 0, 5),
+                DateParser.toLocalDateTime(DateParser.parse("Feb 14 2026 12:05 AM")));
+        assertEquals(DateParser.INVALID, DateParser.parse("tomorrow"));
+    }
+}
@@ -1,12 +1,21 @@
 package memomax.parser;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import memomax.exception.InvalidInputException;
 import memomax.exception.MemoMaxException;
+import memomax.task.Todo;
+import memomax.tasklist.Query;
+import memomax.tasklist.SortKey;
 
 /**
  * Tests the functionality of the Parser class.
@@ -97,6 +106,28 @@ public class ParserTest {
         }
     }
 
+    @Test
+    public void parseTaskNumber_overflow_throwsException() {
+        String[] inputParts = {"mark", "99999999999"};
+        try {
+            Parser.parseTaskNumber(inputParts, "mark");
+            fail("Expected MemoMaxException for a number outside the int range");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("is not a number"));
+        }
+    }
+
+    @Test
+    public void parseTodo_emptyInput_throwsStacklessException() {
+        try {
+            Parser.parseTodo("todo");
+            fail("Expected MemoMaxException for empty todo");
+        } catch (MemoMaxException e) {
+            assertTrue(e instanceof InvalidInputException);
+            assertEquals(0, e.getStackTrace().length);
+        }
+    }
+
     @Test
     public void parseDeadline_validInput_returnsDescriptionAndDate() throws MemoMaxException {
         String[] result = Parser.parseDeadline("deadline return book /by 2025-01-30 1800");
@@ -178,4 +209,94 @@ public class ParserTest {
         assertEquals("1", result[0]);
         assertEquals("new description", result[1]);
     }
+
+    @Test
+    public void parseSort_withAndWithoutBy_returnsKeyAndPage() throws MemoMaxException {
+        Command command = CommandLexer.lex("sort by DESC 3");
+        assertEquals(SortKey.DESCRIPTION, Parser.parseSortKey(command));
+        assertEquals(3, Parser.parseSortPage(command));
+        command = CommandLexer.lex("sort date");
+        assertEquals(SortKey.DATE, Parser.parseSortKey(command));
+        assertEquals(0, Parser.parseSortPage(command));
+        command = CommandLexer.lex("sort  BY\ttype   2 ");
+        assertEquals(SortKey.TYPE, Parser.parseSortKey(command));
+        assertEquals(2, Parser.parseSortPage(command));
+        assertThrows(MemoMaxException.class, () -> Parser.parseSortKey(CommandLexer.lex("sort by")));
+        assertThrows(MemoMaxException.class, () -> Parser.parseSortPage(CommandLexer.lex("sort by date 2 3")));
+    }
+
+    @Test
+    public void parseSort_unknownOrder_throwsException() {
+        try {
+            Parser.parseSortKey(CommandLexer.lex("sort by size"));
+            fail("Expected MemoMaxException for unknown order");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("Unknown sort order 'size'"));
+        }
+    }
+
+    @Test
+    public void parseProgressRange_rangeOrNone_returnsTaskNumbers() throws MemoMaxException {
+        assertArrayEquals(new int[] {3, 12}, Parser.parseProgressRange(CommandLexer.lex("progress 3-12")));
+        assertArrayEquals(new int[] {4, 4}, Parser.parseProgressRange(CommandLexer.lex("progress 4 - 4")));
+        assertArrayEquals(new int[0], Parser.parseProgressRange(CommandLexer.lex("progress")));
+    }
+
+    @Test
+    public void parseProgressRange_invalidRange_throwsException() {
+        for (String input : new String[] {"progress 5", "progress 0-3", "progress 7-2", "progress a-b"}) {
+            try {
+                Parser.parseProgressRange(CommandLexer.lex(input));
+                fail("Expected MemoMaxException for " + input);
+            } catch (MemoMaxException e) {
+                assertTrue(e.getMessage().contains("Example: progress 1-20"));
+            }
+        }
+    }
+
+    @Test
+    public void parseFind_allFlag_returnsKeywordWithoutFlag() throws MemoMaxException {
+        Command command = CommandLexer.lex("find --all read book");
+        assertTrue(Parser.isFindingAll(command));
+        assertEquals("read book", Parser.parseFind(command));
+        assertEquals("all", Parser.parseFind(CommandLexer.lex("find all")));
+        try {
+            Parser.parseFind(CommandLexer.lex("find --all"));
+            fail("Expected MemoMaxException for missing keyword");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("find --all book"));
+        }
+    }
+
+    @Test
+    public void parseArchive_conditions_selectOnlyDoneTasksMeetingThem() throws MemoMaxException {
+        Todo doneBook = new Todo("read book");
+        doneBook.mark();
+        Query all = Parser.parseArchive(CommandLexer.lex("archive"));
+        Query books = Parser.parseArchive(CommandLexer.lex("archive book"));
+
+        assertTrue(all.matches(doneBook));
+        assertTrue(books.matches(doneBook));
+        assertFalse(books.matches(new Todo("read book")));
+        assertFalse(all.matches(new Todo("buy milk")));
+    }
+
+    @Test
+    public void parseBatch_separatedCommands_lexesEachSkippingEmptyOnes() throws MemoMaxException {
+        List<Command> commands = Parser.parseBatch(CommandLexer.lex(" todo read book ;; mark 1;list ;"));
+
+        assertEquals(3, commands.size());
+        assertEquals(CommandType.TODO, commands.get(0).getType());
+        assertEquals("read book", commands.get(0).getArguments());
+        assertEquals(CommandType.MARK, commands.get(1).getType());
+        assertEquals(CommandType.LIST, commands.get(2).getType());
+    }
+
+    @Test
+    public void parseBatch_uncombinableOrNoCommands_throwsException() {
+        assertThrows(InvalidInputException.class, () -> Parser.parseBatch(CommandLexer.lex("todo a; undo")));
+        assertThrows(InvalidInputException.class, () -> Parser.parseBatch(CommandLexer.lex("begin; todo a")));
+        assertThrows(InvalidInputException.class, () -> Parser.parseBatch(CommandLexer.lex("todo a; bye")));
+        assertThrows(InvalidInputException.class, () -> Parser.parseBatch(CommandLexer.lex(" ; ;")));
+    }
 }
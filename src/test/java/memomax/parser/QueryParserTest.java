@@ -0,0 +1,57 @@
+package memomax.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import memomax.exception.MemoMaxException;
+import memomax.task.Deadline;
+import memomax.task.Todo;
+import memomax.tasklist.Query;
+
+/**
+ * Tests the QueryParser class.
+ * Ensures conditions combine with the expected precedence and malformed queries are rejected.
+ */
+public class QueryParserTest {
+
+    @Test
+    public void tokenize_quotedPhrasesAndParentheses_keptTogether() throws MemoMaxException {
+        assertEquals(List.of("(", "a", "or", "\"b c\"", ")", "before:\"2026-02-20 1800\""),
+                QueryParser.tokenize("(a or \"b c\")  before:\"2026-02-20 1800\""));
+    }
+
+    @Test
+    public void parse_orBindsLooserThanAnd() throws MemoMaxException {
+        Query query = QueryParser.parse("book type:deadline OR milk");
+        assertTrue(query.matches(new Todo("buy milk")));
+        assertFalse(query.matches(new Todo("read book")));
+        assertTrue(query.matches(new Deadline("return book", "2026-02-20 1800")));
+    }
+
+    @Test
+    public void parse_quotedWordsAndTimes_treatedAsValues() throws MemoMaxException {
+        assertTrue(QueryParser.parse("\"or\"").matches(new Todo("this or that")));
+        Query query = QueryParser.parse("before:\"2026-02-20 1800\"");
+        assertTrue(query.matches(new Deadline("a", "2026-02-20 1759")));
+        assertFalse(query.matches(new Deadline("a", "2026-02-20 1800")));
+        assertFalse(query.matches(new Todo("a")));
+    }
+
+    @Test
+    public void parse_malformedQueries_throwException() {
+        assertThrows(MemoMaxException.class, () -> QueryParser.parse("  "));
+        assertThrows(MemoMaxException.class, () -> QueryParser.parse("type:note"));
+        assertThrows(MemoMaxException.class, () -> QueryParser.parse("done:maybe"));
+        assertThrows(MemoMaxException.class, () -> QueryParser.parse("before:friday"));
+        assertThrows(MemoMaxException.class, () -> QueryParser.parse("(book or milk"));
+        assertThrows(MemoMaxException.class, () -> QueryParser.parse("book)"));
+        assertThrows(MemoMaxException.class, () -> QueryParser.parse("book or"));
+        assertThrows(MemoMaxException.class, () -> QueryParser.parse("\"book"));
+    }
+}
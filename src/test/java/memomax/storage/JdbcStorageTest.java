@@ -0,0 +1,149 @@
+package memomax.storage;
+
+import static memomax.storage.StorageTestHelper.add;
+import static memomax.storage.StorageTestHelper.fileFormat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import memomax.MemoMax;
+import memomax.exception.MemoMaxException;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+import memomax.tasklist.TaskList;
+
+/**
+ * Tests the JdbcStorage class against an embedded H2 database in a temporary directory.
+ * Ensures single-task changes survive a reopen and indexed queries agree with the task list.
+ */
+public class JdbcStorageTest {
+    private Path dataDir;
+    private String dbPath;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("memomax-h2");
+        dbPath = dataDir.resolve("tasks").toString();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void trigramsOf_shortAndRepeatedText_returnsDistinctTrigrams() {
+        assertTrue(JdbcStorage.trigramsOf("ab").isEmpty());
+        assertEquals(List.of("aaa"), new ArrayList<>(JdbcStorage.trigramsOf("aaaa")));
+        assertEquals(List.of("boo", "ook"), new ArrayList<>(JdbcStorage.trigramsOf("book")));
+    }
+
+    @Test
+    public void mutationHooks_reopen_loadsSameTasks() throws MemoMaxException {
+        JdbcStorage storage = new JdbcStorage(dbPath, null);
+        ArrayList<Task> tasks = storage.load();
+        add(storage, tasks, 0, new Todo("read book"));
+        add(storage, tasks, 1, new Deadline("return book", 29_000_000L));
+        add(storage, tasks, 1, new Event("book fair", 29_000_100L, 29_000_200L));
+        tasks.get(0).mark();
+        storage.taskUpdated(0, tasks.get(0), tasks);
+        Task removed = tasks.remove(2);
+        storage.taskDeleted(2, removed, tasks);
+        storage.close();
+
+        JdbcStorage reopened = new JdbcStorage(dbPath, null);
+        assertEquals(fileFormat(tasks), fileFormat(reopened.load()));
+        reopened.close();
+    }
+
+    @Test
+    public void findMatchingIndices_matchesInMemorySearch() throws MemoMaxException {
+        JdbcStorage storage = new JdbcStorage(dbPath, null);
+        ArrayList<Task> tasks = storage.load();
+        String[] descriptions = {"Read Book", "buy milk", "bookshelf", "BOOK club", "walk"};
+        for (String description : descriptions) {
+            add(storage, tasks, tasks.size(), new Todo(description));
+        }
+
+        for (String keyword : new String[] {"book", "bo", "k", "milk", "xyz", "ook c", "%"}) {
+            assertArrayEquals(new TaskList(tasks).findMatchingIndices(keyword), storage.findMatchingIndices(keyword),
+                    "Results differ for keyword: " + keyword);
+        }
+        storage.close();
+    }
+
+    @Test
+    public void readPage_secondPage_returnsTasksInListOrder() throws MemoMaxException {
+        JdbcStorage storage = new JdbcStorage(dbPath, null);
+        ArrayList<Task> tasks = storage.load();
+        for (int i = 0; i < 5; i++) {
+            add(storage, tasks, 0, new Todo("task " + i));
+        }
+
+        assertEquals(fileFormat(tasks.subList(2, 4)), fileFormat(storage.readPage(2, 2)));
+        assertEquals(fileFormat(tasks.subList(4, 5)), fileFormat(storage.readPage(4, 2)));
+        storage.close();
+    }
+
+    @Test
+    public void load_newDatabase_importsTextFile() throws Exception {
+        Path textFile = dataDir.resolve("MemoMax.txt");
+        Files.writeString(textFile, "T | 1 | read book\nD | 0 | return book | 2026-02-14 1800\n");
+
+        JdbcStorage storage = new JdbcStorage(dbPath, textFile.toString());
+        ArrayList<Task> loaded = storage.load();
+        storage.close();
+
+        assertEquals(fileFormat(new Storage(textFile.toString()).load()), fileFormat(loaded));
+        JdbcStorage reopened = new JdbcStorage(dbPath, textFile.toString());
+        assertEquals(2, reopened.load().size(), "The text file should only be imported once");
+        reopened.close();
+    }
+
+    @Test
+    public void transaction_listAndFind_showUnsavedChanges() throws MemoMaxException {
+        MemoMax memoMax = new MemoMax(new JdbcStorage(dbPath, null), false);
+        memoMax.getResponse("todo read book; todo buy milk; todo return book");
+        memoMax.getResponse("begin");
+        memoMax.getResponse("mark 3");
+        assertTrue(memoMax.getResponse("list 1").contains("3.[T][X] return book"));
+
+        memoMax.getResponse("delete 1");
+        String found = memoMax.getResponse("find book");
+        assertTrue(found.contains("2.[T][X] return book"));
+        assertFalse(found.contains("read book"));
+        memoMax.getResponse("commit");
+        assertTrue(memoMax.getResponse("list 1").contains("1.[T][ ] buy milk\n2.[T][X] return book"));
+        memoMax.close();
+    }
+
+    @Test
+    public void batch_findAfterAdd_findsUnsavedTask() throws MemoMaxException {
+        MemoMax memoMax = new MemoMax(new JdbcStorage(dbPath, null), false);
+        memoMax.getResponse("todo read book");
+
+        String response = memoMax.getResponse("todo write report; find report");
+        assertFalse(memoMax.isErrorResponse());
+        assertTrue(response.contains("2.[T][ ] write report"));
+        memoMax.close();
+    }
+}
@@ -0,0 +1,164 @@
+package memomax.storage;
+
+import static memomax.storage.StorageTestHelper.add;
+import static memomax.storage.StorageTestHelper.fileFormat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import memomax.exception.MemoMaxException;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Tests the PagedStorage class.
+ * Ensures records round-trip, marking touches a single byte, freed slots are reused and corrupted
+ * records are skipped.
+ */
+public class PagedStorageTest {
+    private Path dataDir;
+    private String dataPath;
+    private Path slotsFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("memomax-paged");
+        dataPath = dataDir.resolve("tasks").toString();
+        slotsFile = dataDir.resolve("tasks.slots");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void save_mixedTasks_loadsSameTasks() throws MemoMaxException {
+        PagedStorage storage = new PagedStorage(dataPath);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", 29_000_000L));
+        tasks.add(new Event("a very long event description that does not fit in one record, so it goes to the heap "
+                + "file next to the slots", 29_000_100L, 29_000_200L));
+        tasks.get(1).mark();
+        storage.save(tasks);
+        storage.close();
+
+        PagedStorage reopened = new PagedStorage(dataPath);
+        assertEquals(fileFormat(tasks), fileFormat(reopened.load()));
+        reopened.close();
+    }
+
+    @Test
+    public void taskUpdated_markedTask_rewritesOneByte() throws Exception {
+        PagedStorage storage = new PagedStorage(dataPath);
+        ArrayList<Task> tasks = storage.load();
+        for (int i = 0; i < 50; i++) {
+            add(storage, tasks, i, new Todo("task " + i));
+        }
+        byte[] before = Files.readAllBytes(slotsFile);
+
+        tasks.get(30).mark();
+        storage.taskUpdated(30, tasks.get(30), tasks);
+
+        byte[] after = Files.readAllBytes(slotsFile);
+        assertEquals(before.length, after.length);
+        int changedBytes = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != after[i]) {
+                changedBytes++;
+            }
+        }
+        assertEquals(1, changedBytes);
+        storage.close();
+    }
+
+    @Test
+    public void deleteThenAdd_reusesFreedSlotAndKeepsOrder() throws MemoMaxException {
+        PagedStorage storage = new PagedStorage(dataPath);
+        ArrayList<Task> tasks = storage.load();
+        for (int i = 0; i < 5; i++) {
+            add(storage, tasks, i, new Todo("task " + i));
+        }
+        Task removed = tasks.remove(2);
+        storage.taskDeleted(2, removed, tasks);
+        add(storage, tasks, 0, new Todo("first"));
+        assertEquals(5, storage.getSlotCount());
+        Task replacement = new Todo("renamed");
+        tasks.set(3, replacement);
+        storage.taskUpdated(3, replacement, tasks);
+        storage.close();
+
+        PagedStorage reopened = new PagedStorage(dataPath);
+        assertEquals(fileFormat(tasks), fileFormat(reopened.load()));
+        reopened.close();
+    }
+
+    @Test
+    public void load_corruptedRecord_skipsRecord() throws Exception {
+        PagedStorage storage = new PagedStorage(dataPath);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("valid"));
+        tasks.add(new Todo("broken"));
+        storage.save(tasks);
+        storage.close();
+        byte[] bytes = Files.readAllBytes(slotsFile);
+        bytes[PagedStorage.HEADER_SIZE + PagedStorage.RECORD_SIZE + 1] = 'X';
+        Files.write(slotsFile, bytes);
+
+        PagedStorage reopened = new PagedStorage(dataPath);
+        try {
+            reopened.load();
+            fail("Should have reported the corrupted record");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("1 corrupted records"));
+            assertEquals(List.of("T | 0 | valid"), fileFormat(e.getPartialTasks()));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void load_heapOffsetNearLongMax_skipsRecord() throws Exception {
+        PagedStorage storage = new PagedStorage(dataPath);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("valid"));
+        tasks.add(new Todo("long ".repeat(40)));
+        storage.save(tasks);
+        storage.close();
+        byte[] bytes = Files.readAllBytes(slotsFile);
+        ByteBuffer.wrap(bytes).putLong(PagedStorage.HEADER_SIZE + PagedStorage.RECORD_SIZE + PagedStorage.OFFSET_HEAP,
+                Long.MAX_VALUE - 8);
+        Files.write(slotsFile, bytes);
+
+        PagedStorage reopened = new PagedStorage(dataPath);
+        try {
+            reopened.load();
+            fail("Should have reported the corrupted record");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("1 corrupted records"));
+            assertEquals(List.of("T | 0 | valid"), fileFormat(e.getPartialTasks()));
+        } finally {
+            reopened.close();
+        }
+    }
+}
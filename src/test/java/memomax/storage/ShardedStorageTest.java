@@ -0,0 +1,188 @@
+package memomax.storage;
+
+import static memomax.storage.StorageTestHelper.add;
+import static memomax.storage.StorageTestHelper.fileFormat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import memomax.exception.MemoMaxException;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Tests the ShardedStorage class.
+ * Ensures list order survives segmenting, only the segments touched by a change are rewritten, and a
+ * split writes new segment files rather than rewriting listed ones.
+ */
+public class ShardedStorageTest {
+    private static final int SEGMENT_SIZE = 3;
+    private static final FileTime OLD_TIME = FileTime.fromMillis(0);
+
+    private Path dataDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("memomax-segments");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void save_tenTasks_writesFourSegmentsAndLoadsInOrder() throws Exception {
+        ShardedStorage storage = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        ArrayList<Task> tasks = todos(10);
+        storage.save(tasks);
+        storage.close();
+
+        assertEquals(5, Files.readAllLines(dataDir.resolve(ShardedStorage.MANIFEST_FILE)).size());
+        ShardedStorage reopened = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        assertEquals(fileFormat(tasks), fileFormat(reopened.load()));
+        assertEquals(4, reopened.getSegmentCount());
+        reopened.close();
+    }
+
+    @Test
+    public void taskUpdated_rewritesOnlyItsSegment() throws Exception {
+        ShardedStorage storage = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        ArrayList<Task> tasks = todos(9);
+        storage.save(tasks);
+        List<Path> files = segmentFiles();
+        for (Path file : files) {
+            Files.setLastModifiedTime(file, OLD_TIME);
+        }
+
+        tasks.get(4).mark();
+        storage.taskUpdated(4, tasks.get(4), tasks);
+        storage.close();
+
+        for (int i = 0; i < files.size(); i++) {
+            boolean isRewritten = !Files.getLastModifiedTime(files.get(i)).equals(OLD_TIME);
+            assertEquals(i == 1, isRewritten, "Unexpected rewrite state for " + files.get(i).getFileName());
+        }
+    }
+
+    @Test
+    public void addAndDelete_splitAndDropSegments_reloadsSameTasks() throws Exception {
+        ShardedStorage storage = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        ArrayList<Task> tasks = todos(3);
+        storage.save(tasks);
+        for (int i = 0; i < 4; i++) {
+            Task task = new Todo("inserted " + i);
+            tasks.add(1, task);
+            storage.taskAdded(1, task, tasks);
+        }
+        assertEquals(2, storage.getSegmentCount());
+        for (int i = 0; i < 4; i++) {
+            Task removed = tasks.remove(0);
+            storage.taskDeleted(0, removed, tasks);
+        }
+        assertEquals(1, storage.getSegmentCount());
+        storage.close();
+
+        ShardedStorage reopened = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        assertEquals(fileFormat(tasks), fileFormat(reopened.load()));
+        assertEquals(1, segmentFiles().size(), "Dropped segment files should be deleted");
+        reopened.close();
+    }
+
+    @Test
+    public void load_missingSegment_reportsAndKeepsOtherTasks() throws Exception {
+        ShardedStorage storage = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        storage.save(todos(6));
+        storage.close();
+        Files.delete(segmentFiles().get(0));
+
+        ShardedStorage reopened = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        try {
+            reopened.load();
+            fail("Should have reported the missing segment");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("1 missing segments"));
+            assertEquals(fileFormat(todos(6).subList(3, 6)), fileFormat(e.getPartialTasks()));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void taskAdded_split_writesNewSegmentsBeforeSwitchingManifest() throws Exception {
+        ShardedStorage storage = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        ArrayList<Task> tasks = todos(5);
+        storage.save(tasks);
+        Path splitSegment = segmentFiles().get(1);
+        for (int i = 0; i < 4; i++) {
+            add(storage, tasks, 4, new Todo("inserted " + i));
+        }
+
+        assertEquals(3, storage.getSegmentCount());
+        assertFalse(Files.exists(splitSegment), "A split segment should be replaced by new files");
+        assertFalse(Files.readAllLines(dataDir.resolve(ShardedStorage.MANIFEST_FILE))
+                .contains(splitSegment.getFileName().toString()));
+        storage.close();
+
+        ShardedStorage reopened = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        assertEquals(fileFormat(tasks), fileFormat(reopened.load()));
+        reopened.close();
+    }
+
+    @Test
+    public void load_segmentOfCorruptedLines_keepsItsFile() throws Exception {
+        ShardedStorage storage = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        storage.save(todos(6));
+        storage.close();
+        Path corrupted = segmentFiles().get(0);
+        Files.write(corrupted, List.of("not a task", "X | 0 | unknown type"));
+
+        ShardedStorage reopened = new ShardedStorage(dataDir.toString(), SEGMENT_SIZE);
+        ArrayList<Task> tasks = new ArrayList<>();
+        try {
+            reopened.load();
+            fail("Should have reported the corrupted lines");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("2 corrupted lines"));
+            tasks.addAll(e.getPartialTasks());
+        }
+        add(reopened, tasks, tasks.size(), new Todo("added"));
+        reopened.close();
+
+        assertEquals(List.of("not a task", "X | 0 | unknown type"), Files.readAllLines(corrupted));
+        assertTrue(Files.readAllLines(dataDir.resolve(ShardedStorage.MANIFEST_FILE))
+                .contains(corrupted.getFileName().toString()));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> paths = Files.list(dataDir)) {
+            return paths.filter(path -> path.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    private static ArrayList<Task> todos(int count) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,73 @@
+package memomax.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import memomax.exception.MemoMaxException;
+
+/**
+ * Tests the StorageConfig and StorageEngines classes.
+ * Ensures arguments override the config file and unknown engines are reported.
+ */
+public class StorageConfigTest {
+    @Test
+    public void fromArgs_argumentsAndConfigFile_argumentsTakePrecedence() throws Exception {
+        Path configFile = Files.createTempFile("memomax-config", ".properties");
+        try {
+            Files.writeString(configFile, "storage.engine=custom\nstorage.path=from-file.txt\n");
+
+            StorageConfig fileOnly = StorageConfig.fromArgs(List.of("--config=" + configFile));
+            assertEquals("custom", fileOnly.getEngine());
+            assertEquals("from-file.txt", fileOnly.getDataPath());
+
+            StorageConfig overridden = StorageConfig.fromArgs(
+                    List.of("--config=" + configFile, "--storage=text", "--data=from-args.txt"));
+            assertEquals("text", overridden.getEngine());
+            assertEquals("from-args.txt", overridden.getDataPath());
+        } finally {
+            Files.deleteIfExists(configFile);
+        }
+    }
+
+    @Test
+    public void fromArgs_unknownArgument_throwsException() {
+        try {
+            StorageConfig.fromArgs(List.of("--verbose"));
+            fail("Should have rejected an unknown argument");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("Unknown argument: --verbose"));
+        }
+    }
+
+    @Test
+    public void open_unknownEngine_listsAvailableEngines() {
+        try {
+            new StorageConfig("missing", null).open();
+            fail("Should have rejected an unknown engine");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("Unknown storage engine: missing"));
+            assertTrue(e.getMessage().contains(StorageEngines.DEFAULT_ENGINE));
+        }
+    }
+
+    @Test
+    public void open_registeredEngine_usesDefaultDataPath() throws MemoMaxException {
+        String[] openedPath = new String[1];
+        StorageEngines.register("recording", "./data/recording.txt", dataPath -> {
+            openedPath[0] = dataPath;
+            return new Storage(dataPath);
+        });
+
+        new StorageConfig("recording", null).open();
+        assertEquals("./data/recording.txt", openedPath[0]);
+        new StorageConfig("recording", "other.txt").open();
+        assertEquals("other.txt", openedPath[0]);
+    }
+}
@@ -1,11 +1,14 @@
 package memomax.storage;
 
+import static memomax.storage.StorageTestHelper.fileFormat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -57,6 +60,20 @@ public class StorageTest {
         assertTrue(file.delete(), "Failed to delete test file after save test");
     }
 
+    @Test
+    public void save_nonAsciiDescription_writesUtf8() throws Exception {
+        Storage storage = new Storage(TEST_FILE_PATH);
+        storage.save(List.of(new Todo("caf\u00e9 \u65e5\u672c")));
+        storage.close();
+
+        byte[] expected = "T | 0 | caf\u00e9 \u65e5\u672c\n".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        assertArrayEquals(expected, java.nio.file.Files.readAllBytes(java.nio.file.Path.of(TEST_FILE_PATH)));
+        Storage reopened = new Storage(TEST_FILE_PATH);
+        assertEquals("T | 0 | caf\u00e9 \u65e5\u672c", reopened.load().get(0).toFileFormat());
+        reopened.close();
+        assertTrue(new File(TEST_FILE_PATH).delete(), "Failed to delete test file after UTF-8 test");
+    }
+
     @Test
     public void load_validFile_returnsCorrectTasks() throws Exception {
         Storage storage = new Storage(TEST_FILE_PATH);
@@ -87,4 +104,178 @@ public class StorageTest {
             assertTrue(file.delete(), "Failed to delete non-existent marker file");
         }
     }
+
+    @Test
+    public void loadInChunks_multipleChunks_deliversTasksInOrder() throws Exception {
+        Storage storage = new Storage(TEST_FILE_PATH);
+        ArrayList<Task> tasksToSave = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tasksToSave.add(new Todo("Chunked " + i));
+        }
+        storage.save(tasksToSave);
+
+        ArrayList<Task> loadedTasks = new ArrayList<>();
+        ArrayList<Double> progressUpdates = new ArrayList<>();
+        int loadedCount = storage.loadInChunks(2, (chunk, progress) -> {
+            assertTrue(chunk.size() <= 2);
+            loadedTasks.addAll(chunk);
+            progressUpdates.add(progress);
+        });
+
+        assertEquals(5, loadedCount);
+        assertEquals(5, loadedTasks.size());
+        assertTrue(loadedTasks.get(4).toString().contains("Chunked 4"));
+        assertEquals(1.0, progressUpdates.get(progressUpdates.size() - 1));
+
+        File file = new File(TEST_FILE_PATH);
+        if (file.exists()) {
+            assertTrue(file.delete(), "Failed to delete test file after chunked load test");
+        }
+    }
+
+    @Test
+    public void save_compressed_shrinksFileAndLoadsInOrder() throws Exception {
+        ArrayList<Task> tasksToSave = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            tasksToSave.add(new Todo("Compressed " + i));
+        }
+        new Storage(TEST_FILE_PATH).save(tasksToSave);
+        long plainLength = new File(TEST_FILE_PATH).length();
+
+        Storage storage = new Storage(TEST_FILE_PATH, Compression.DEFLATE);
+        storage.save(tasksToSave);
+        File file = new File(TEST_FILE_PATH);
+        assertTrue(file.length() * 3 < plainLength, "Compressed file should be much smaller");
+
+        ArrayList<Task> loadedTasks = new Storage(TEST_FILE_PATH).load();
+        assertEquals(tasksToSave.size(), loadedTasks.size());
+        for (int i = 0; i < loadedTasks.size(); i += 997) {
+            assertEquals(tasksToSave.get(i).toFileFormat(), loadedTasks.get(i).toFileFormat());
+        }
+        assertTrue(file.delete(), "Failed to delete test file after compressed save test");
+    }
+
+    @Test
+    public void load_truncatedCompressedFile_keepsCompleteBlocks() throws Exception {
+        Storage storage = new Storage(TEST_FILE_PATH, Compression.DEFLATE_FAST);
+        ArrayList<Task> tasksToSave = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            tasksToSave.add(new Todo("Truncated " + i));
+        }
+        storage.save(tasksToSave);
+        java.nio.file.Path path = java.nio.file.Path.of(TEST_FILE_PATH);
+        byte[] bytes = java.nio.file.Files.readAllBytes(path);
+        java.nio.file.Files.write(path, java.util.Arrays.copyOf(bytes, bytes.length - 10));
+
+        try {
+            storage.load();
+            fail("Should have reported the truncated block");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("1 corrupted blocks"));
+            ArrayList<Task> partialTasks = e.getPartialTasks();
+            assertTrue(partialTasks.size() > 0 && partialTasks.size() < tasksToSave.size());
+            assertEquals(tasksToSave.get(0).toFileFormat(), partialTasks.get(0).toFileFormat());
+        } finally {
+            assertTrue(new File(TEST_FILE_PATH).delete(), "Failed to delete test file after truncation test");
+        }
+    }
+
+    @Test
+    public void compressionFromName_unknownName_throwsException() {
+        try {
+            Compression.fromName("zip");
+            fail("Should have rejected an unknown compression");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("Unknown compression: zip"));
+        }
+    }
+
+    @Test
+    public void beginCommand_linesAppendedElsewhere_reportsOnlyNewLines() throws Exception {
+        Storage storage = new Storage(TEST_FILE_PATH);
+        storage.save(List.of(new Todo("first"), new Todo("second")));
+        java.nio.file.Files.writeString(java.nio.file.Path.of(TEST_FILE_PATH), "T | 1 | third\n",
+                java.nio.file.StandardOpenOption.APPEND);
+
+        ArrayList<String> changes = new ArrayList<>();
+        try {
+            storage.beginCommand(false, (from, removed, inserted) -> changes.add(describe(from, removed, inserted)));
+            storage.endCommand();
+            assertEquals(List.of("2,0,[T | 1 | third]"), changes);
+            assertTrue(new File(TEST_FILE_PATH + ".lock").exists(), "Lock file should sit next to the tasks file");
+        } finally {
+            storage.close();
+            assertTrue(new File(TEST_FILE_PATH).delete(), "Failed to delete test file after append test");
+        }
+    }
+
+    @Test
+    public void beginCommand_lineChangedByOtherStorage_reportsChangedRangeOnce() throws Exception {
+        Storage storage = new Storage(TEST_FILE_PATH);
+        storage.save(List.of(new Todo("a"), new Todo("b"), new Todo("c"), new Todo("d")));
+        Storage other = new Storage(TEST_FILE_PATH);
+        ArrayList<Task> otherTasks = other.load();
+        otherTasks.set(1, new Todo("b changed"));
+        other.save(otherTasks);
+        other.close();
+
+        ArrayList<String> changes = new ArrayList<>();
+        try {
+            storage.beginCommand(true, (from, removed, inserted) -> changes.add(describe(from, removed, inserted)));
+            storage.endCommand();
+            storage.beginCommand(true, (from, removed, inserted) -> changes.add(describe(from, removed, inserted)));
+            storage.endCommand();
+            assertEquals(List.of("1,1,[T | 0 | b changed]"), changes);
+        } finally {
+            storage.close();
+            assertTrue(new File(TEST_FILE_PATH).delete(), "Failed to delete test file after change test");
+        }
+    }
+
+    @Test
+    public void beginCommand_appendAfterFailedSave_reportsAgainstHeldList() throws Exception {
+        Storage storage = new Storage(TEST_FILE_PATH);
+        storage.save(List.of(new Todo("a"), new Todo("b"), new Todo("c")));
+        Storage other = new Storage(TEST_FILE_PATH);
+        other.load();
+        other.beginCommand(true, (from, removed, inserted) -> { });
+        try {
+            storage.save(List.of(new Todo("a"), new Todo("c")));
+            fail("Should not save while another storage holds the lock");
+        } catch (MemoMaxException e) {
+            assertTrue(e.getMessage().contains("already open elsewhere"));
+        } finally {
+            other.endCommand();
+            other.close();
+        }
+        java.nio.file.Files.writeString(java.nio.file.Path.of(TEST_FILE_PATH), "T | 0 | d\nnot a task\n",
+                java.nio.file.StandardOpenOption.APPEND);
+
+        ArrayList<String> changes = new ArrayList<>();
+        ArrayList<String> warnings = new ArrayList<>();
+        try {
+            storage.beginCommand(true, new StorageEngine.ExternalChangeListener() {
+                @Override
+                public void onExternalChange(int fromIndex, int removedCount, List<Task> insertedTasks) {
+                    changes.add(describe(fromIndex, removedCount, insertedTasks));
+                }
+
+                @Override
+                public void onSkippedRecords(String warning) {
+                    warnings.add(warning);
+                }
+            });
+            storage.endCommand();
+            assertEquals(List.of("2,0,[T | 0 | d]"), changes);
+            assertEquals(1, warnings.size());
+            assertTrue(warnings.get(0).contains("1 corrupted lines"));
+        } finally {
+            storage.close();
+            assertTrue(new File(TEST_FILE_PATH).delete(), "Failed to delete test file after failed save test");
+        }
+    }
+
+    private static String describe(int fromIndex, int removedCount, List<Task> insertedTasks) {
+        return fromIndex + "," + removedCount + "," + fileFormat(insertedTasks);
+    }
 }
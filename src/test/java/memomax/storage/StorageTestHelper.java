@@ -0,0 +1,43 @@
+package memomax.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import memomax.exception.MemoMaxException;
+import memomax.task.Task;
+
+/**
+ * Helpers shared by the storage engine tests.
+ */
+final class StorageTestHelper {
+    private StorageTestHelper() {
+    }
+
+    /**
+     * Inserts a task into the list and tells the engine about it, as MemoMax does.
+     *
+     * @param storage The engine.
+     * @param tasks The list, changed in place.
+     * @param index The position of the new task (0-based).
+     * @param task The new task.
+     * @throws MemoMaxException If the engine cannot save the task.
+     */
+    static void add(StorageEngine storage, ArrayList<Task> tasks, int index, Task task) throws MemoMaxException {
+        tasks.add(index, task);
+        storage.taskAdded(index, task, tasks);
+    }
+
+    /**
+     * Returns the tasks in file format, for comparing lists of tasks by value.
+     *
+     * @param tasks The tasks.
+     * @return One line per task.
+     */
+    static List<String> fileFormat(List<Task> tasks) {
+        ArrayList<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toFileFormat());
+        }
+        return lines;
+    }
+}
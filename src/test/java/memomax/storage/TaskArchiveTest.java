@@ -0,0 +1,94 @@
+package memomax.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import memomax.task.Deadline;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Tests the TaskArchive class.
+ * Ensures archived tasks are appended, found again after reopening, and that appends by other
+ * programs and unfinished lines are handled.
+ */
+public class TaskArchiveTest {
+    private Path dataDir;
+    private Path archiveFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("memomax-archive");
+        archiveFile = dataDir.resolve("tasks-archive.txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void pathNextTo_dataPaths_addsArchiveSuffix() {
+        assertEquals("./data/MemoMax-archive.txt", TaskArchive.pathNextTo("./data/MemoMax.txt"));
+        assertEquals("./data/MemoMax-archive.txt", TaskArchive.pathNextTo("./data/MemoMax"));
+        assertEquals("./data/MemoMax-segments-archive.txt", TaskArchive.pathNextTo("./data/MemoMax-segments"));
+    }
+
+    @Test
+    public void findTasks_afterAppends_findsArchivedTasksInOrder() throws Exception {
+        TaskArchive archive = new TaskArchive(archiveFile.toString());
+        assertEquals(0, archive.size());
+        archive.append(List.of(done(new Todo("read book")), done(new Deadline("return book", 29_500_000L))));
+        archive.append(List.of(done(new Todo("buy milk"))));
+
+        assertEquals(List.of("read book", "return book"), descriptions(archive.findTasks("BOOK")));
+        TaskArchive reopened = new TaskArchive(archiveFile.toString());
+        assertEquals(3, reopened.size());
+        assertEquals(List.of("buy milk"), descriptions(reopened.findTasks("milk")));
+        assertTrue(reopened.findTasks("milk").get(0).isDone());
+    }
+
+    @Test
+    public void findTasks_otherWriterAndUnfinishedLine_readsArchiveAgain() throws Exception {
+        TaskArchive archive = new TaskArchive(archiveFile.toString());
+        archive.append(List.of(done(new Todo("read book"))));
+        assertEquals(1, archive.findTasks("book").size());
+
+        Files.writeString(archiveFile, "T | 1 | borrow book\nT | 1 | lend bo", StandardOpenOption.APPEND);
+        assertEquals(List.of("read book", "borrow book"), descriptions(archive.findTasks("book")));
+
+        archive.append(List.of(done(new Todo("sell book"))));
+        assertEquals(List.of("read book", "borrow book", "lend bo", "sell book"),
+                descriptions(new TaskArchive(archiveFile.toString()).findTasks("b")));
+    }
+
+    private static Task done(Task task) {
+        task.mark();
+        return task;
+    }
+
+    private static List<String> descriptions(List<Task> tasks) {
+        ArrayList<String> descriptions = new ArrayList<>();
+        for (Task task : tasks) {
+            descriptions.add(task.getDescription());
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,122 @@
+package memomax.tasklist;
+
+import static memomax.tasklist.TaskListTestHelper.newTask;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import memomax.parser.QueryParser;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Tests the Query class and its planning through TaskList.query.
+ * Ensures indexed and scanned queries find the same tasks at their current positions.
+ */
+public class QueryTest {
+
+    @Test
+    public void query_combinedConditions_returnsMatchingTasksInListOrder() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.add(new Deadline("submit report", "2026-02-18 2359"));
+        taskList.add(new Deadline("review report", "2026-02-25 1200"));
+        taskList.add(new Todo("print report"));
+        taskList.add(new Event("report meeting", "2026-02-17 1400", "2026-02-17 1500"));
+        taskList.mark(1);
+
+        assertArrayEquals(new int[] {0},
+                taskList.query(QueryParser.parse("type:deadline done:no report before:2026-02-20")).getIndices());
+        assertArrayEquals(new int[] {0, 3},
+                taskList.query(QueryParser.parse("before:2026-02-20")).getIndices());
+        assertArrayEquals(new int[] {2, 3},
+                taskList.query(QueryParser.parse("report -type:deadline")).getIndices());
+        assertArrayEquals(new int[] {1, 2},
+                taskList.query(QueryParser.parse("done:yes or (type:todo print)")).getIndices());
+        assertArrayEquals(new int[] {3},
+                taskList.query(QueryParser.parse("on:2026-02-17")).getIndices());
+        assertArrayEquals(new int[] {1},
+                taskList.query(QueryParser.parse("after:2026-02-18")).getIndices());
+    }
+
+    @Test
+    public void query_selectiveCondition_checksOnlyIndexedCandidates() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new Todo("read book " + i));
+        }
+        tasks.add(new Deadline("file taxes", "2026-04-30 2359"));
+        TaskList taskList = new TaskList(tasks);
+
+        QueryResult byType = taskList.query(QueryParser.parse("type:deadline"));
+        assertArrayEquals(new int[] {1000}, byType.getIndices());
+        assertEquals(1, byType.getCheckedCount());
+
+        QueryResult byWord = taskList.query(QueryParser.parse("book 421 done:no"));
+        assertArrayEquals(new int[] {421}, byWord.getIndices());
+        assertEquals(1, byWord.getCheckedCount());
+
+        QueryResult negated = taskList.query(QueryParser.parse("not taxes"));
+        assertEquals(1000, negated.getIndices().length);
+        assertEquals(1001, negated.getCheckedCount());
+    }
+
+    @Test
+    public void query_afterRandomChanges_matchesFullScan() throws Exception {
+        Random random = new Random(7);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 300; i++) {
+            taskList.add(newTask(random, i));
+        }
+        Query query = QueryParser.parse("(type:deadline or type:event) before:2026-03-10 done:no");
+        Query keyword = QueryParser.parse("\"k 12\"");
+        taskList.query(query);
+
+        for (int i = 300; i < 1000; i++) {
+            int index = random.nextInt(taskList.size());
+            switch (random.nextInt(5)) {
+            case 0:
+                taskList.delete(index);
+                break;
+            case 1:
+                taskList.update(index, newTask(random, i));
+                break;
+            case 2:
+                taskList.replaceRange(index, Math.min(2, taskList.size() - index),
+                        List.of(newTask(random, i), newTask(random, i + 1000)));
+                break;
+            case 3:
+                if (taskList.get(index).isDone()) {
+                    taskList.unmark(index);
+                } else {
+                    taskList.mark(index);
+                }
+                break;
+            default:
+                taskList.add(newTask(random, i));
+                break;
+            }
+            if (i % 7 == 0) {
+                assertArrayEquals(scan(taskList, query), taskList.query(query).getIndices());
+                assertArrayEquals(scan(taskList, keyword), taskList.query(keyword).getIndices());
+            }
+        }
+    }
+
+    private static int[] scan(TaskList taskList, Query query) {
+        List<Task> tasks = taskList.asList();
+        ArrayList<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (query.matches(tasks.get(i))) {
+                indices.add(i);
+            }
+        }
+        return indices.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
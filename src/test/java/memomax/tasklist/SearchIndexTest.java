@@ -0,0 +1,69 @@
+package memomax.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import memomax.task.Todo;
+
+/**
+ * Tests the SearchIndex class through TaskList.search.
+ * Ensures typos and partial words match, results are ranked, and changes to the list are indexed.
+ */
+public class SearchIndexTest {
+
+    @Test
+    public void search_typosAndPrefixes_ranksTasksMatchingMoreWordsFirst() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.add(new Todo("return library book"));
+        taskList.add(new Todo("read book"));
+        taskList.add(new Todo("team meeting"));
+        taskList.add(new Todo("buy milk"));
+
+        SearchResult result = taskList.search("reed bok", 20);
+        assertArrayEquals(new int[] {1, 0}, result.getIndices());
+        assertEquals(2, result.getMatchCount());
+        assertArrayEquals(new int[] {2}, taskList.search("meet", 20).getIndices());
+        assertArrayEquals(new int[] {3}, taskList.search("mlik", 20).getIndices());
+        assertArrayEquals(new int[0], taskList.search("xyz", 20).getIndices());
+    }
+
+    @Test
+    public void search_afterDeleteAndUpdate_reflectsChanges() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.add(new Todo("read book"));
+        taskList.add(new Todo("return book"));
+        assertEquals(2, taskList.search("book", 20).getMatchCount());
+
+        taskList.delete(0);
+        assertArrayEquals(new int[] {0}, taskList.search("book", 20).getIndices());
+        taskList.update(0, new Todo("borrow novel"));
+        assertEquals(0, taskList.search("book", 20).getMatchCount());
+        assertArrayEquals(new int[] {0}, taskList.search("novle", 20).getIndices());
+        taskList.add(new Todo("write novel"));
+        assertArrayEquals(new int[] {0, 1}, taskList.search("novel", 20).getIndices());
+    }
+
+    @Test
+    public void search_moreMatchesThanLimit_returnsBestAndCountsAll() throws Exception {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 50; i++) {
+            taskList.add(new Todo("task " + i));
+        }
+        taskList.add(new Todo("urgent task 7"));
+
+        SearchResult result = taskList.search("urgent task", 5);
+        assertEquals(5, result.getIndices().length);
+        assertEquals(50, result.getIndices()[0]);
+        assertEquals(51, result.getMatchCount());
+    }
+
+    @Test
+    public void editDistance_swappedLetters_countsOneEdit() {
+        assertEquals(1, SearchIndex.editDistance("novle", "novel"));
+        assertEquals(1, SearchIndex.editDistance("bok", "book"));
+        assertEquals(3, SearchIndex.editDistance("kitten", "sitting"));
+        assertEquals(0, SearchIndex.editDistance("read", "read"));
+    }
+}
@@ -0,0 +1,115 @@
+package memomax.tasklist;
+
+import static memomax.tasklist.TaskListTestHelper.newTask;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import memomax.parser.DateParser;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Tests the SortedView class through TaskList.getSortedIndices.
+ * Ensures each order is correct, pages are ranges of it, and changes to the list keep it sorted.
+ */
+public class SortedViewTest {
+
+    @Test
+    public void getSortedIndices_eachOrder_returnsListPositionsInOrder() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.add(new Todo("water plants"));
+        taskList.add(new Event("Career fair", "2026-03-02 1000", "2026-03-02 1600"));
+        taskList.add(new Deadline("submit report", "2026-02-18 2359"));
+        taskList.add(new Todo("buy milk"));
+        taskList.add(new Deadline("pay rent", "2026-03-01 0900"));
+
+        assertArrayEquals(new int[] {2, 4, 1, 3, 0}, taskList.getSortedIndices(SortKey.DATE, 0, 10));
+        assertArrayEquals(new int[] {3, 1, 4, 2, 0}, taskList.getSortedIndices(SortKey.DESCRIPTION, 0, 10));
+        assertArrayEquals(new int[] {3, 0, 2, 4, 1}, taskList.getSortedIndices(SortKey.TYPE, 0, 10));
+        assertArrayEquals(new int[] {1, 3}, taskList.getSortedIndices(SortKey.DATE, 2, 2));
+        assertArrayEquals(new int[0], taskList.getSortedIndices(SortKey.DATE, 5, 2));
+
+        taskList.delete(2);
+        taskList.mark(0);
+        assertArrayEquals(new int[] {3, 1, 2, 0}, taskList.getSortedIndices(SortKey.DATE, 0, 10));
+    }
+
+    @Test
+    public void getSortedIndices_afterRandomChanges_matchesFullSort() throws Exception {
+        Random random = new Random(11);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 200; i++) {
+            taskList.add(newTask(random, i));
+        }
+        for (SortKey key : SortKey.values()) {
+            taskList.getSortedIndices(key, 0, 1);
+        }
+
+        for (int i = 200; i < 800; i++) {
+            int index = random.nextInt(taskList.size());
+            switch (random.nextInt(4)) {
+            case 0:
+                taskList.delete(index);
+                break;
+            case 1:
+                taskList.update(index, newTask(random, i));
+                break;
+            case 2:
+                taskList.replaceRange(index, Math.min(2, taskList.size() - index),
+                        List.of(newTask(random, i), newTask(random, i + 1000)));
+                break;
+            default:
+                taskList.add(newTask(random, i));
+                break;
+            }
+            if (i % 9 == 0) {
+                for (SortKey key : SortKey.values()) {
+                    assertArrayEquals(sortFully(taskList, key),
+                            taskList.getSortedIndices(key, 0, taskList.size()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Every generated description is unique, so each order is fully decided by its keys and
+     * description, whatever order the tasks entered the view in.
+     */
+    private static int[] sortFully(TaskList taskList, SortKey key) {
+        List<Task> tasks = taskList.asList();
+        ArrayList<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            indices.add(i);
+        }
+        Comparator<Integer> byDate = Comparator.comparingLong(i -> dateOf(tasks.get(i)));
+        Comparator<Integer> byDescription = Comparator.comparing(i -> tasks.get(i).getDescription(),
+                String.CASE_INSENSITIVE_ORDER);
+        Comparator<Integer> byType = Comparator.comparingInt(i -> tasks.get(i) instanceof Deadline ? 1
+                : tasks.get(i) instanceof Event ? 2 : 0);
+        switch (key) {
+        case DATE:
+            indices.sort(byDate.thenComparing(byDescription));
+            break;
+        case DESCRIPTION:
+            indices.sort(byDescription);
+            break;
+        default:
+            indices.sort(byType.thenComparing(byDate).thenComparing(byDescription));
+            break;
+        }
+        return indices.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static long dateOf(Task task) {
+        long date = QueryIndex.getDate(task);
+        return date == DateParser.INVALID ? Long.MAX_VALUE : date;
+    }
+}
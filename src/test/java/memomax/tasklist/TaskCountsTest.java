@@ -0,0 +1,103 @@
+package memomax.tasklist;
+
+import static memomax.tasklist.TaskListTestHelper.newTask;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import memomax.parser.DateParser;
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Tests the TaskCounts and DoneTree classes through TaskList.
+ * Ensures totals follow every change to the list, and done counts over ranges match a scan.
+ */
+public class TaskCountsTest {
+
+    @Test
+    public void getCounts_afterChanges_matchesList() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.add(new Todo("water plants"));
+        taskList.add(new Deadline("submit report", "2026-02-18 2359"));
+        taskList.add(new Deadline("pay rent", "2026-03-01 0900"));
+        taskList.add(new Event("Career fair", "2026-03-02 1000", "2026-03-02 1600"));
+        TaskCounts counts = taskList.getCounts();
+        long march = DateParser.parse("2026-03-01 0000");
+
+        assertEquals(4, counts.getTaskCount());
+        assertEquals(2, counts.getTaskCount(Deadline.class));
+        assertEquals(2, counts.getOpenDeadlineCount());
+        assertEquals(1, counts.getOverdueCount(march));
+
+        taskList.mark(1);
+        taskList.mark(3);
+        assertEquals(2, counts.getDoneCount());
+        assertEquals(1, counts.getDoneCount(Event.class));
+        assertEquals(0, counts.getOverdueCount(march));
+        assertEquals(1, counts.getOverdueCount(march + 24 * 60));
+
+        taskList.add(new Deadline("renew passport", "2026-01-10 1200"));
+        taskList.unmark(1);
+        assertEquals(3, counts.getOverdueCount(march + 24 * 60));
+        assertEquals(2, counts.getOverdueCount(march));
+
+        taskList.delete(1);
+        taskList.update(0, new Todo("water all plants"));
+        assertEquals(4, counts.getTaskCount());
+        assertEquals(1, counts.getTaskCount(Todo.class));
+        assertEquals(1, counts.getDoneCount());
+        assertEquals(1, counts.getOverdueCount(march));
+    }
+
+    @Test
+    public void countDone_afterRandomChanges_matchesScan() throws Exception {
+        Random random = new Random(5);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 100; i++) {
+            taskList.add(newTask(random, i));
+        }
+
+        for (int i = 100; i < 1000; i++) {
+            int index = random.nextInt(taskList.size());
+            switch (taskList.size() < 2 ? 5 : random.nextInt(6)) {
+            case 0:
+                taskList.delete(random.nextBoolean() ? index : taskList.size() - 1);
+                break;
+            case 1:
+                taskList.update(index, newTask(random, i));
+                break;
+            case 2:
+                taskList.replaceRange(index, taskList.size() - index, List.of(newTask(random, i)));
+                break;
+            case 3:
+                if (taskList.get(index).isDone()) {
+                    taskList.unmark(index);
+                } else {
+                    taskList.mark(index);
+                }
+                break;
+            default:
+                taskList.add(newTask(random, i));
+                break;
+            }
+            int from = random.nextInt(taskList.size() + 1);
+            int to = from + random.nextInt(taskList.size() - from + 1);
+            assertEquals(countDoneByScan(taskList, from, to), taskList.countDone(from, to));
+            assertEquals(countDoneByScan(taskList, 0, taskList.size()), taskList.getCounts().getDoneCount());
+        }
+    }
+
+    private static int countDoneByScan(TaskList taskList, int from, int to) {
+        int count = 0;
+        for (Task task : taskList.asList().subList(from, to)) {
+            count += task.isDone() ? 1 : 0;
+        }
+        return count;
+    }
+}
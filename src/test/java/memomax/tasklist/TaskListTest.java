@@ -107,4 +107,24 @@ public class TaskListTest {
         taskList.add(new Todo("Work"));
         assertFalse(taskList.isEmpty());
     }
+
+    @Test
+    public void getVersion_everyChange_increasesVersion() throws Exception {
+        TaskList taskList = new TaskList();
+        long version = taskList.getVersion();
+        taskList.add(new Todo("Task A"));
+        assertTrue(taskList.getVersion() > version);
+
+        version = taskList.getVersion();
+        taskList.mark(0);
+        assertTrue(taskList.getVersion() > version);
+
+        version = taskList.getVersion();
+        taskList.get(0);
+        taskList.findMatchingIndices("task");
+        assertEquals(version, taskList.getVersion());
+
+        taskList.delete(0);
+        assertTrue(taskList.getVersion() > version);
+    }
 }
@@ -0,0 +1,48 @@
+package memomax.tasklist;
+
+import java.util.Random;
+
+import memomax.task.Deadline;
+import memomax.task.Event;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Helpers shared by the task list tests.
+ */
+final class TaskListTestHelper {
+    private TaskListTestHelper() {
+    }
+
+    /**
+     * Returns a todo, deadline or event chosen at random, for tests that check an index against a scan
+     * after random changes.
+     * The description starts with a random letter and ends with the id, so descriptions are unique but
+     * not in id order, and dates fall on the days of March 2026, so many tasks share one.
+     *
+     * @param random The source of the choices.
+     * @param id A number unique to the task.
+     * @return The task, done at random.
+     * @throws Exception If the task cannot be made.
+     */
+    static Task newTask(Random random, int id) throws Exception {
+        String description = (char) ('a' + random.nextInt(26)) + " task " + id;
+        String date = String.format("2026-03-%02d 1200", 1 + random.nextInt(28));
+        Task task;
+        switch (random.nextInt(3)) {
+        case 0:
+            task = new Todo(description);
+            break;
+        case 1:
+            task = new Deadline(description, date);
+            break;
+        default:
+            task = new Event(description, date, date);
+            break;
+        }
+        if (random.nextBoolean()) {
+            task.mark();
+        }
+        return task;
+    }
+}
@@ -0,0 +1,106 @@
+package memomax.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import memomax.exception.MemoMaxException;
+import memomax.task.Deadline;
+import memomax.task.Task;
+import memomax.task.Todo;
+
+/**
+ * Tests the UndoHistory and TaskChange classes.
+ * Ensures undoing every change restores the list and redoing them makes it again, that the oldest
+ * changes are evicted past the memory limit, and that a stale change is refused.
+ */
+public class UndoHistoryTest {
+
+    @Test
+    public void undoRedo_everyKindOfChange_restoresList() throws Exception {
+        TaskList taskList = new TaskList();
+        UndoHistory history = new UndoHistory();
+        Todo plants = new Todo("water plants");
+        Deadline report = new Deadline("submit report", "2026-02-18 2359");
+        taskList.add(plants);
+        history.record(TaskChange.added(0, plants));
+        taskList.add(report);
+        history.record(TaskChange.added(1, report));
+        taskList.mark(0);
+        history.record(TaskChange.doneChanged(0, plants));
+        Deadline renamed = new Deadline("submit final report", report.getBy());
+        taskList.update(1, renamed);
+        history.record(TaskChange.replaced(1, report, renamed));
+        taskList.delete(0);
+        history.record(TaskChange.deleted(0, plants));
+        List<String> finalState = lines(taskList);
+
+        assertEquals(List.of("[D][ ] submit final report (by: Feb 18 2026, 11:59 PM)"), finalState);
+        assertEquals(1, taskList.getCounts().getTaskCount());
+        history.undo().inverse().applyTo(taskList);
+        history.undo().inverse().applyTo(taskList);
+        assertEquals(List.of("[T][X] water plants", "[D][ ] submit report (by: Feb 18 2026, 11:59 PM)"),
+                lines(taskList));
+        history.undo().inverse().applyTo(taskList);
+        assertEquals(0, taskList.getCounts().getDoneCount());
+
+        while (history.getRedoableCount() > 0) {
+            history.redo().applyTo(taskList);
+        }
+        assertEquals(finalState, lines(taskList));
+        assertEquals(0, taskList.getCounts().getDoneCount());
+        assertNull(history.redo());
+
+        while (history.getUndoableCount() > 0) {
+            history.undo().inverse().applyTo(taskList);
+        }
+        assertEquals(0, taskList.size());
+        assertNull(history.undo());
+    }
+
+    @Test
+    public void record_pastMemoryLimit_evictsOldestAndClearsRedo() throws Exception {
+        Todo first = new Todo("task 0");
+        long changeBytes = TaskChange.added(0, first).getRetainedBytes();
+        UndoHistory history = new UndoHistory(changeBytes * 3);
+        for (int i = 0; i < 5; i++) {
+            history.record(TaskChange.added(i, new Todo("task " + i)));
+        }
+        assertEquals(3, history.getUndoableCount());
+        assertEquals(4, history.undo().getIndex());
+
+        history.record(TaskChange.added(4, new Todo("task 9")));
+        assertEquals(0, history.getRedoableCount());
+        assertEquals(3, history.getUndoableCount());
+        assertEquals(4, history.undo().getIndex());
+        assertEquals(3, history.undo().getIndex());
+        assertEquals(2, history.undo().getIndex());
+        assertNull(history.undo());
+    }
+
+    @Test
+    public void applyTo_listChangedSince_throwsException() throws Exception {
+        TaskList taskList = new TaskList();
+        Todo plants = new Todo("water plants");
+        taskList.add(plants);
+        TaskChange added = TaskChange.added(0, plants);
+        taskList.replaceRange(0, 1, List.of(new Todo("feed cat")));
+
+        assertThrows(MemoMaxException.class, () -> added.inverse().applyTo(taskList));
+        assertThrows(MemoMaxException.class, () -> TaskChange.deleted(3, plants).inverse().applyTo(taskList));
+        assertEquals(List.of("[T][ ] feed cat"), lines(taskList));
+    }
+
+    private static List<String> lines(TaskList taskList) {
+        ArrayList<String> lines = new ArrayList<>();
+        for (Task task : taskList.asList()) {
+            lines.add(task.toString());
+        }
+        return lines;
+    }
+}
@@ -1,7 +1,10 @@
 package memomax.ui;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
@@ -55,4 +58,20 @@ public class UiTest {
         assertTrue(result.contains("matching tasks in your list"));
         assertTrue(result.contains("read book"));
     }
+
+    @Test
+    public void readCommand_pipedInput_flushesOnceInputIsDrained() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Ui pipedUi = new Ui(new ByteArrayInputStream("list\nhelp\n".getBytes()), output);
+
+        assertEquals("list", pipedUi.readCommand());
+        pipedUi.print("first");
+        assertEquals("help", pipedUi.readCommand());
+        pipedUi.print("second");
+        assertEquals(0, output.size(), "Responses should stay buffered while input is waiting");
+
+        assertNull(pipedUi.readCommand());
+        String separator = System.lineSeparator();
+        assertEquals("first" + separator + "second" + separator, output.toString());
+    }
 }
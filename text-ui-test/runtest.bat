@@ -8,12 +8,15 @@ if exist ACTUAL.TXT del ACTUAL.TXT
 
 REM compile the code into the bin folder
 REM REMOVED: -cp ..\src\main\java
-javac -Xlint:none -d ..\bin ..\src\main\java\memomax\*.java ..\src\main\java\memomax\task\*.java ..\src\main\java\memomax\ui\*.java ..\src\main\java\memomax\parser\*.java ..\src\main\java\memomax\storage\*.java ..\src\main\java\memomax\exception\*.java ..\src\main\java\memomax\tasklist\*.java
+javac -Xlint:none -d ..\bin ..\src\main\java\memomax\MemoMax.java ..\src\main\java\memomax\LoadListener.java ..\src\main\java\memomax\ResponseCache.java ..\src\main\java\memomax\task\*.java ..\src\main\java\memomax\ui\*.java ..\src\main\java\memomax\parser\*.java ..\src\main\java\memomax\storage\*.java ..\src\main\java\memomax\exception\*.java ..\src\main\java\memomax\metrics\*.java ..\src\main\java\memomax\tasklist\*.java
 IF ERRORLEVEL 1 (
     echo ********** BUILD FAILURE **********
     exit /b 1
 )
 
+REM start from an empty task list
+if exist data rmdir /s /q data
+
 REM run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
 java -classpath ..\bin memomax.MemoMax < input.txt > ACTUAL.TXT
 
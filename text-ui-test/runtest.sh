@@ -14,18 +14,24 @@ fi
 
 # compile the code into the bin folder, terminates if error occurred
 if ! javac -Xlint:none -d ../bin \
-    ../src/main/java/memomax/*.java \
+    ../src/main/java/memomax/MemoMax.java \
+    ../src/main/java/memomax/LoadListener.java \
+    ../src/main/java/memomax/ResponseCache.java \
     ../src/main/java/memomax/task/*.java \
     ../src/main/java/memomax/ui/*.java \
     ../src/main/java/memomax/parser/*.java \
     ../src/main/java/memomax/storage/*.java \
     ../src/main/java/memomax/exception/*.java \
+    ../src/main/java/memomax/metrics/*.java \
     ../src/main/java/memomax/tasklist/*.java
 then
     echo "********** BUILD FAILURE **********"
     exit 1
 fi
 
+# start from an empty task list
+rm -rf ./data
+
 # run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
 java -classpath ../bin memomax.MemoMax < input.txt > ACTUAL.TXT
 